@@ -0,0 +1,518 @@
+// BenchmarkFixtures - synthetic Bitbucket response pages for benchmarks
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.IssuesResponse;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.RepositoriesResponse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Create synthetic Bitbucket API response pages for benchmarks and the stand-in server.
+ * The pages have the same structure as Bitbucket Cloud responses, including fields that the plugin ignores,
+ * so that parsing includes the cost of skipping unused content.
+ * A seed is used so that the same pages are created for each benchmark run.
+ */
+public class BenchmarkFixtures {
+
+	/**
+	 * Default root URL used in links.
+	 */
+	private static final String API_URL = "https://api.bitbucket.org/2.0";
+
+	/**
+	 * Web URL used in links.
+	 */
+	private static final String WEB_URL = "https://bitbucket.org";
+
+	/**
+	 * Default workspace used in links.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * Issue kinds.
+	 */
+	private static final String [] KINDS = { "bug", "enhancement", "proposal", "task" };
+
+	/**
+	 * Issue priorities.
+	 */
+	private static final String [] PRIORITIES = { "trivial", "minor", "major", "critical", "blocker" };
+
+	/**
+	 * Issue states.
+	 */
+	private static final String [] STATES = { "new", "open", "resolved", "on hold", "invalid", "duplicate", "wontfix", "closed" };
+
+	/**
+	 * User display names.
+	 */
+	private static final String [] USERS = { "Steve Malers", "Jane Doe", "John Smith", "Ana Garcia", "Wei Chen", "Priya Patel" };
+
+	/**
+	 * Words used for titles, descriptions, and repository names.
+	 */
+	private static final String [] WORDS = {
+		"datastore", "time", "series", "command", "table", "output", "file", "read", "write", "web",
+		"service", "plugin", "error", "warning", "update", "version", "install", "window", "list", "query" };
+
+	/**
+	 * Format for date/time strings, same as Bitbucket.
+	 */
+	private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSxxx");
+
+	/**
+	 * Mapper used to write the JSON.
+	 */
+	private final ObjectMapper mapper = JacksonToolkit.getInstance().getObjectMapper();
+
+	/**
+	 * Random number generator, seeded so that fixtures are repeatable.
+	 */
+	private final Random random;
+
+	/**
+	 * Root URL used in links.
+	 */
+	private final String apiUrl;
+
+	/**
+	 * Workspace used in links.
+	 */
+	private final String workspace;
+
+	/**
+	 * Date/time that creation and update times are relative to,
+	 * so that fixtures created with the same seed and date/time are the same.
+	 */
+	private final OffsetDateTime now;
+
+	/**
+	 * Constructor.
+	 * @param seed the seed for the random number generator
+	 */
+	public BenchmarkFixtures ( long seed ) {
+		this ( seed, API_URL, WORKSPACE, OffsetDateTime.now(ZoneOffset.UTC) );
+	}
+
+	/**
+	 * Constructor.
+	 * @param seed the seed for the random number generator
+	 * @param apiUrl the root URL used in links (e.g., "https://api.bitbucket.org/2.0")
+	 * @param workspace the workspace used in links
+	 * @param now the date/time that creation and update times are relative to
+	 */
+	public BenchmarkFixtures ( long seed, String apiUrl, String workspace, OffsetDateTime now ) {
+		this.random = new Random(seed);
+		this.apiUrl = apiUrl;
+		this.workspace = workspace;
+		this.now = now;
+	}
+
+	/**
+	 * Add a link object.
+	 * @param parent the parent object
+	 * @param name the link name
+	 * @param href the link URL
+	 */
+	private void addLink ( ObjectNode parent, String name, String href ) {
+		parent.putObject(name).put("href", href);
+	}
+
+	/**
+	 * Create the issue content with a realistic raw (markdown) body.
+	 * @param contentLines the approximate number of lines of text in the content, 0 for only the property line
+	 * @return the markdown text
+	 */
+	private String createContentRaw ( int contentLines ) {
+		StringBuilder b = new StringBuilder();
+		b.append("// Assignee=").append(pick(USERS).replace(" ", ""))
+			.append(" Milestone=").append(2020 + this.random.nextInt(6)).append('.').append(1 + this.random.nextInt(12))
+			.append(" Estimate=").append(1 + this.random.nextInt(40)).append("\r\n");
+		for ( int i = 0; i < contentLines; i++ ) {
+			int type = this.random.nextInt(10);
+			if ( type == 0 ) {
+				b.append("\r\n## ").append(createWords(3)).append(" ##\r\n\r\n");
+			}
+			else if ( type == 1 ) {
+				b.append("```\r\n").append(pick(WORDS)).append("(Parameter=\"").append(pick(WORDS)).append("\",Value=")
+					.append(this.random.nextInt(1000)).append(")\r\n```\r\n");
+			}
+			else if ( type == 2 ) {
+				b.append("*   ").append(createWords(8)).append("\r\n");
+			}
+			else {
+				b.append(createWords(12 + this.random.nextInt(8))).append(".\r\n");
+			}
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Create a date/time string, going back up to the given number of days.
+	 * @param maxDaysAgo the maximum number of days before now
+	 * @return the date/time string in Bitbucket format
+	 */
+	private String createDateTime ( int maxDaysAgo ) {
+		OffsetDateTime dt = this.now.minusSeconds((long)(this.random.nextDouble()*maxDaysAgo*86400L));
+		return dt.format(DATE_TIME_FORMAT);
+	}
+
+	/**
+	 * Create an issue object.
+	 * @param repositorySlug the repository slug
+	 * @param id the issue identifier
+	 * @param contentLines the number of lines of text in the content
+	 * @param full if true, include links and HTML content,
+	 * if false, only include the fields that are used by the plugin, to reduce memory use for large lists
+	 * @return the issue object
+	 */
+	ObjectNode createIssue ( String repositorySlug, int id, int contentLines, boolean full ) {
+		ObjectNode issue = this.mapper.createObjectNode();
+		issue.put("type", "issue");
+		issue.put("id", id);
+		String issueUrl = this.apiUrl + "/repositories/" + this.workspace + "/" + repositorySlug + "/issues/" + id;
+		ObjectNode links = issue.putObject("links");
+		if ( full ) {
+			addLink(links, "self", issueUrl);
+		}
+		addLink(links, "html", WEB_URL + "/" + this.workspace + "/" + repositorySlug + "/issues/" + id);
+		if ( full ) {
+			addLink(links, "comments", issueUrl + "/comments");
+			addLink(links, "attachments", issueUrl + "/attachments");
+			addLink(links, "watch", issueUrl + "/watch");
+			addLink(links, "vote", issueUrl + "/vote");
+		}
+		ObjectNode repository = issue.putObject("repository");
+		repository.put("type", "repository");
+		repository.put("full_name", this.workspace + "/" + repositorySlug);
+		repository.put("name", repositorySlug);
+		repository.put("uuid", createUuid());
+		issue.put("title", createWords(4 + this.random.nextInt(6)));
+		String raw = createContentRaw(contentLines);
+		ObjectNode content = issue.putObject("content");
+		content.put("type", "rendered");
+		content.put("raw", raw);
+		content.put("markup", "markdown");
+		if ( full ) {
+			content.put("html", "<p>" + raw.replace("\r\n", "</p>\n<p>") + "</p>");
+		}
+		if ( this.random.nextInt(5) != 0 ) {
+			issue.set("assignee", createUser(full));
+		}
+		else {
+			issue.putNull("assignee");
+		}
+		issue.set("reporter", createUser(full));
+		issue.put("state", pick(STATES));
+		issue.put("kind", pick(KINDS));
+		issue.put("priority", pick(PRIORITIES));
+		issue.putNull("milestone");
+		issue.putNull("version");
+		issue.putNull("component");
+		issue.put("votes", this.random.nextInt(5));
+		issue.put("watches", this.random.nextInt(5));
+		String createdOn = createDateTime(2000);
+		issue.put("created_on", createdOn);
+		issue.put("updated_on", createdOn);
+		issue.put("edited_on", createdOn);
+		return issue;
+	}
+
+	/**
+	 * Create a list of issues for repositories, as read by the plugin.
+	 * The issues are parsed from pages of 100 issues and include the fields used by the plugin,
+	 * without links and HTML content, to reduce memory use for large lists.
+	 * @param count the number of issues
+	 * @param repositoryCount the number of repositories (1 to 100)
+	 * @param contentLines the number of lines of text in the content of each issue, in addition to the property line
+	 * @return the list of issues, with the repository set
+	 */
+	public List<Issue> createIssues ( int count, int repositoryCount, int contentLines ) {
+		List<Repository> repositories = parse(createRepositoriesPage(repositoryCount), RepositoriesResponse.class).getValues();
+		List<Issue> issues = new ArrayList<>(count);
+		while ( issues.size() < count ) {
+			Repository repository = repositories.get(this.random.nextInt(repositories.size()));
+			int pageLength = Math.min(100, count - issues.size());
+			ObjectNode page = createPage(pageLength, null);
+			ArrayNode values = page.putArray("values");
+			for ( int i = 0; i < pageLength; i++ ) {
+				values.add(createIssue(repository.getSlug(), issues.size() + i + 1, contentLines, false));
+			}
+			for ( Issue issue : parse(toJson(page), IssuesResponse.class).getValues() ) {
+				issue.setRepositoryObject(repository);
+				issues.add(issue);
+			}
+		}
+		return issues;
+	}
+
+	/**
+	 * Create a page of issues.
+	 * @param repositorySlug the repository slug
+	 * @param count the number of issues in the page
+	 * @param contentLines the number of lines of text in the content of each issue
+	 * @return the JSON text for the page
+	 */
+	public String createIssuesPage ( String repositorySlug, int count, int contentLines ) {
+		ObjectNode page = createPage(count,
+			this.apiUrl + "/repositories/" + this.workspace + "/" + repositorySlug + "/issues?page=2&pagelen=" + count);
+		ArrayNode values = page.putArray("values");
+		for ( int i = 0; i < count; i++ ) {
+			values.add(createIssue(repositorySlug, i + 1, contentLines, true));
+		}
+		return toJson(page);
+	}
+
+	/**
+	 * Create the top-level page object.
+	 * @param count the number of values in the page
+	 * @param next the URL for the next page
+	 * @return the page object, without values
+	 */
+	private ObjectNode createPage ( int count, String next ) {
+		ObjectNode page = this.mapper.createObjectNode();
+		page.put("size", count*3);
+		page.put("page", 1);
+		page.put("pagelen", count);
+		page.put("next", next);
+		return page;
+	}
+
+	/**
+	 * Create a project object.
+	 * @param key the project key
+	 * @param name the project name
+	 * @return the project object
+	 */
+	ObjectNode createProject ( String key, String name ) {
+		ObjectNode project = this.mapper.createObjectNode();
+		project.put("type", "project");
+		project.put("key", key);
+		project.put("uuid", createUuid());
+		project.put("is_private", this.random.nextBoolean());
+		project.put("name", name);
+		project.put("description", createWords(15));
+		ObjectNode links = project.putObject("links");
+		addLink(links, "self", this.apiUrl + "/workspaces/" + this.workspace + "/projects/" + key);
+		addLink(links, "html", WEB_URL + "/" + this.workspace + "/workspace/projects/" + key);
+		addLink(links, "avatar", WEB_URL + "/account/user/" + this.workspace + "/projects/" + key + "/avatar/32");
+		project.put("created_on", createDateTime(3000));
+		project.put("updated_on", createDateTime(300));
+		project.put("has_publicly_visible_repos", this.random.nextBoolean());
+		return project;
+	}
+
+	/**
+	 * Create a page of projects.
+	 * @param count the number of projects in the page
+	 * @return the JSON text for the page
+	 */
+	public String createProjectsPage ( int count ) {
+		ObjectNode page = createPage(count, this.apiUrl + "/workspaces/" + this.workspace + "/projects?page=2&pagelen=" + count);
+		ArrayNode values = page.putArray("values");
+		for ( int i = 0; i < count; i++ ) {
+			values.add(createProject("P" + i, createWords(2) + " " + i));
+		}
+		return toJson(page);
+	}
+
+	/**
+	 * Create a repository object, with full links.
+	 * @param slug the repository slug
+	 * @param projectKey the key for the project that the repository is in
+	 * @return the repository object
+	 */
+	ObjectNode createRepository ( String slug, String projectKey ) {
+		ObjectNode repository = this.mapper.createObjectNode();
+		String repositoryUrl = this.apiUrl + "/repositories/" + this.workspace + "/" + slug;
+		repository.put("type", "repository");
+		ObjectNode links = repository.putObject("links");
+		addLink(links, "self", repositoryUrl);
+		addLink(links, "html", WEB_URL + "/" + this.workspace + "/" + slug);
+		addLink(links, "avatar", "https://bytebucket.org/ravatar/%7B" + createUuid() + "%7D?ts=default");
+		addLink(links, "pullrequests", repositoryUrl + "/pullrequests");
+		addLink(links, "commits", repositoryUrl + "/commits");
+		addLink(links, "forks", repositoryUrl + "/forks");
+		addLink(links, "watchers", repositoryUrl + "/watchers");
+		addLink(links, "branches", repositoryUrl + "/refs/branches");
+		addLink(links, "tags", repositoryUrl + "/refs/tags");
+		addLink(links, "downloads", repositoryUrl + "/downloads");
+		addLink(links, "source", repositoryUrl + "/src");
+		ArrayNode clone = links.putArray("clone");
+		clone.addObject().put("name", "https").put("href", "https://someuser@bitbucket.org/" + this.workspace + "/" + slug + ".git");
+		clone.addObject().put("name", "ssh").put("href", "git@bitbucket.org:" + this.workspace + "/" + slug + ".git");
+		addLink(links, "hooks", this.apiUrl + "/repositories/" + this.workspace + "/" + slug + "/hooks");
+		repository.put("full_name", this.workspace + "/" + slug);
+		repository.put("name", slug);
+		repository.put("slug", slug);
+		repository.put("description", createWords(20));
+		repository.put("scm", "git");
+		repository.putNull("website");
+		repository.set("owner", createUser(true));
+		repository.put("is_private", this.random.nextBoolean());
+		ObjectNode project = repository.putObject("project");
+		project.put("type", "project");
+		project.put("key", projectKey);
+		project.put("uuid", createUuid());
+		project.put("name", createWords(2));
+		ObjectNode mainBranch = repository.putObject("mainbranch");
+		mainBranch.put("name", "main");
+		mainBranch.put("type", "branch");
+		repository.put("fork_policy", "no_public_forks");
+		repository.put("created_on", createDateTime(3000));
+		repository.put("updated_on", createDateTime(300));
+		repository.put("size", 10000 + this.random.nextInt(100000000));
+		repository.put("language", "java");
+		repository.put("uuid", createUuid());
+		repository.put("has_issues", this.random.nextBoolean());
+		repository.put("has_wiki", this.random.nextBoolean());
+		return repository;
+	}
+
+	/**
+	 * Create a repository slug.
+	 * @param index the repository index, which is appended so that the slug is unique
+	 * @return the repository slug
+	 */
+	String createRepositorySlug ( int index ) {
+		return pick(WORDS) + "-" + pick(WORDS) + "-" + index;
+	}
+
+	/**
+	 * Create a page of repositories, with full links.
+	 * @param count the number of repositories in the page
+	 * @return the JSON text for the page
+	 */
+	public String createRepositoriesPage ( int count ) {
+		ObjectNode page = createPage(count, this.apiUrl + "/repositories/" + this.workspace + "?page=2&pagelen=" + count);
+		ArrayNode values = page.putArray("values");
+		for ( int i = 0; i < count; i++ ) {
+			values.add(createRepository(createRepositorySlug(i), "P" + this.random.nextInt(20)));
+		}
+		return toJson(page);
+	}
+
+	/**
+	 * Create a user object.
+	 * @param full if true, include links and identifiers, if false only include the names
+	 * @return the user object
+	 */
+	private ObjectNode createUser ( boolean full ) {
+		ObjectNode user = this.mapper.createObjectNode();
+		String displayName = pick(USERS);
+		user.put("display_name", displayName);
+		if ( full ) {
+			ObjectNode links = user.putObject("links");
+			String uuid = createUuid();
+			addLink(links, "self", this.apiUrl + "/users/%7B" + uuid + "%7D");
+			addLink(links, "avatar", "https://secure.gravatar.com/avatar/" + Long.toHexString(this.random.nextLong()) + "?d=retro");
+			addLink(links, "html", WEB_URL + "/%7B" + uuid + "%7D/");
+			user.put("type", "user");
+			user.put("uuid", "{" + uuid + "}");
+			user.put("account_id", "5" + Long.toHexString(this.random.nextLong()));
+		}
+		user.put("nickname", displayName.replace(" ", "").toLowerCase());
+		return user;
+	}
+
+	/**
+	 * Create a UUID string, using the random number generator so that it is repeatable.
+	 * @return the UUID string
+	 */
+	private String createUuid () {
+		return new UUID(this.random.nextLong(), this.random.nextLong()).toString();
+	}
+
+	/**
+	 * Create text from random words.
+	 * @param count the number of words
+	 * @return the text
+	 */
+	private String createWords ( int count ) {
+		StringBuilder b = new StringBuilder();
+		for ( int i = 0; i < count; i++ ) {
+			if ( i > 0 ) {
+				b.append(' ');
+			}
+			b.append(pick(WORDS));
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Parse JSON text into an object.
+	 * @param json the JSON text
+	 * @param objClass the class to parse
+	 * @return the parsed object
+	 */
+	private <T> T parse ( String json, Class<T> objClass ) {
+		ObjectReader reader = JacksonToolkit.getInstance().getObjectReader(objClass);
+		try {
+			return reader.readValue(json);
+		}
+		catch ( IOException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Pick a random value from an array.
+	 * @param values the values to pick from
+	 * @return a random value
+	 */
+	private String pick ( String [] values ) {
+		return values[this.random.nextInt(values.length)];
+	}
+
+	/**
+	 * Convert an object to JSON text.
+	 * @param node the object
+	 * @return the JSON text
+	 */
+	private String toJson ( ObjectNode node ) {
+		try {
+			return this.mapper.writeValueAsString(node);
+		}
+		catch ( JsonProcessingException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+}
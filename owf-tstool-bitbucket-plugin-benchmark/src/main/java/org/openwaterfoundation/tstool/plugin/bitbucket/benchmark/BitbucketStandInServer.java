@@ -0,0 +1,713 @@
+// BitbucketStandInServer - local HTTP server that serves synthetic Bitbucket Cloud responses
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server that serves synthetic Bitbucket Cloud responses,
+ * used to load test the plugin without Bitbucket credentials or network access.
+ * The following endpoints are served under the '/2.0' path, similar to 'https://api.bitbucket.org/2.0':
+ * <ul>
+ * <li>/workspaces/{workspace}/projects</li>
+ * <li>/repositories/{workspace}</li>
+ * <li>/repositories/{workspace}/{repo_slug}/issues</li>
+ * </ul>
+ * Responses are paged using the 'page' and 'pagelen' query parameters
+ * and include 'size', 'page', 'pagelen', and 'next' (if more pages are available).
+ * The 'q' and 'fields' query parameters are ignored and full objects are returned
+ * (the plugin filters issues after reading).
+ * Values are created from a seed when requested so that large workspaces do not use memory,
+ * and the same request always returns the same response, with an ETag for conditional requests.
+ * Latency, errors (500), and rate limiting (429 with Retry-After) can be injected to test the datastore behavior under load.
+ */
+public class BitbucketStandInServer {
+
+	/**
+	 * Path for the API, which is included in the service root URL.
+	 */
+	public static final String API_PATH = "/2.0";
+
+	/**
+	 * Default number of threads used to handle requests.
+	 */
+	public static final int DEFAULT_THREAD_COUNT = 16;
+
+	/**
+	 * Default page length if 'pagelen' is not specified, same as Bitbucket.
+	 */
+	private static final int DEFAULT_PAGELEN = 10;
+
+	/**
+	 * Maximum page length, same as Bitbucket.
+	 */
+	private static final int MAX_PAGELEN = 100;
+
+	/**
+	 * The HTTP server.
+	 */
+	private final HttpServer server;
+
+	/**
+	 * Executor used to handle requests.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Seed used to create the values.
+	 */
+	private final long seed;
+
+	/**
+	 * Date/time that creation and update times are relative to, so that responses do not change while the server runs.
+	 */
+	private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+	/**
+	 * Mapper used to write responses.
+	 */
+	private final ObjectMapper mapper = JacksonToolkit.getInstance().getObjectMapper();
+
+	/**
+	 * Workspaces, by workspace name.
+	 */
+	private final Map<String,Workspace> workspaceMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Minimum latency added to each response, milliseconds.
+	 */
+	private volatile int latencyMs = 0;
+
+	/**
+	 * Maximum random latency added to the minimum latency, milliseconds.
+	 */
+	private volatile int latencyJitterMs = 0;
+
+	/**
+	 * Fraction of requests (0 to 1) that return 500 (Internal Server Error).
+	 */
+	private volatile double errorRate = 0.0;
+
+	/**
+	 * Fraction of requests (0 to 1) that return 429 (Too Many Requests).
+	 */
+	private volatile double rateLimitRate = 0.0;
+
+	/**
+	 * Whether requests with a 'q' query parameter return 400 (Bad Request),
+	 * to test reading without a server filter.
+	 */
+	private volatile boolean rejectQueries = false;
+
+	/**
+	 * Retry-After value for 429 responses, seconds.
+	 */
+	private volatile int retryAfterSeconds = 1;
+
+	/**
+	 * Number of requests.
+	 */
+	private final AtomicLong requestCount = new AtomicLong(0);
+
+	/**
+	 * Number of injected 500 responses.
+	 */
+	private final AtomicLong errorCount = new AtomicLong(0);
+
+	/**
+	 * Number of injected 429 responses.
+	 */
+	private final AtomicLong rateLimitedCount = new AtomicLong(0);
+
+	/**
+	 * Number of 304 (Not Modified) responses.
+	 */
+	private final AtomicLong notModifiedCount = new AtomicLong(0);
+
+	/**
+	 * Number of requests with a 'q' query parameter.
+	 */
+	private final AtomicLong queryCount = new AtomicLong(0);
+
+	/**
+	 * Constructor.  The server is not started until start() is called.
+	 * @param port the port to listen on, or 0 to use an available port (see getPort())
+	 * @param threadCount the number of threads used to handle requests, which limits the concurrent requests
+	 * @param seed the seed used to create the values
+	 * @throws IOException if the server cannot be created
+	 */
+	public BitbucketStandInServer ( int port, int threadCount, long seed ) throws IOException {
+		this.seed = seed;
+		this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threadCount));
+		this.server.setExecutor(this.executor);
+		this.server.createContext(API_PATH, this::handle);
+	}
+
+	/**
+	 * Add a workspace.
+	 * @param workspace the workspace name (e.g., "openwaterfoundation")
+	 * @param projectCount the number of projects in the workspace
+	 * @param repositoryCount the number of repositories in the workspace,
+	 * which are assigned to projects in order
+	 * @param issuesPerRepository the number of issues in each repository
+	 * @param issueContentLines the number of lines of text in each issue's content, in addition to the property line
+	 */
+	public void addWorkspace ( String workspace, int projectCount, int repositoryCount, int issuesPerRepository,
+		int issueContentLines ) {
+		this.workspaceMap.put(workspace,
+			new Workspace(workspace, projectCount, repositoryCount, issuesPerRepository, issueContentLines));
+	}
+
+	/**
+	 * Create the fixtures for a value, seeded using the value identifiers,
+	 * so that the value is the same regardless of the page that it is in.
+	 * @param rootUrl the root URL for links
+	 * @param workspace the workspace
+	 * @param parts the identifiers for the value (e.g., repository slug and issue identifier)
+	 * @return the fixtures for the value
+	 */
+	private BenchmarkFixtures createFixtures ( String rootUrl, String workspace, Object ... parts ) {
+		long valueSeed = 31L*this.seed + Objects.hash(workspace, Arrays.hashCode(parts));
+		return new BenchmarkFixtures(valueSeed, rootUrl, workspace, this.now);
+	}
+
+	/**
+	 * Create the JSON for a page of values.
+	 * @param workspace the workspace
+	 * @param pathParts the parts of the path after the API path
+	 * @param rootUrl the root URL for links
+	 * @param pageUrl the URL for the request, without the query
+	 * @param queryMap the query parameters
+	 * @return the page JSON, or null if the path is not found
+	 */
+	private ObjectNode createPage ( Workspace workspace, String [] pathParts, String rootUrl, String pageUrl,
+		Map<String,String> queryMap ) {
+		int pagelen = Math.min(MAX_PAGELEN, Math.max(1, parseInt(queryMap.get("pagelen"), DEFAULT_PAGELEN)));
+		int page = Math.max(1, parseInt(queryMap.get("page"), 1));
+		int size;
+		String slug = null;
+		if ( pathParts[0].equals("workspaces") ) {
+			size = workspace.projectCount;
+		}
+		else if ( pathParts.length == 2 ) {
+			size = workspace.repositorySlugs.size();
+		}
+		else {
+			slug = pathParts[2];
+			if ( !workspace.repositoryIndexMap.containsKey(slug) ) {
+				return null;
+			}
+			size = workspace.issuesPerRepository;
+		}
+		int first = (page - 1)*pagelen;
+		if ( (first >= size) && (page > 1) ) {
+			// Bitbucket returns 404 for a page past the end.
+			return null;
+		}
+		int last = Math.min(size, first + pagelen);
+
+		ObjectNode pageNode = this.mapper.createObjectNode();
+		pageNode.put("size", size);
+		pageNode.put("page", page);
+		pageNode.put("pagelen", pagelen);
+		if ( last < size ) {
+			queryMap.put("page", String.valueOf(page + 1));
+			pageNode.put("next", pageUrl + "?" + formatQuery(queryMap));
+		}
+		ArrayNode values = pageNode.putArray("values");
+		for ( int i = first; i < last; i++ ) {
+			if ( pathParts[0].equals("workspaces") ) {
+				values.add(createFixtures(rootUrl, workspace.name, "project", i)
+					.createProject(workspace.getProjectKey(i), "Project " + i));
+			}
+			else if ( slug == null ) {
+				String repositorySlug = workspace.repositorySlugs.get(i);
+				values.add(createFixtures(rootUrl, workspace.name, repositorySlug)
+					.createRepository(repositorySlug, workspace.getProjectKey(i)));
+			}
+			else {
+				values.add(createFixtures(rootUrl, workspace.name, slug, i + 1)
+					.createIssue(slug, i + 1, workspace.issueContentLines, true));
+			}
+		}
+		return pageNode;
+	}
+
+	/**
+	 * Format query parameters.
+	 * @param queryMap the query parameters
+	 * @return the query string, without the leading '?'
+	 */
+	private String formatQuery ( Map<String,String> queryMap ) {
+		StringBuilder b = new StringBuilder();
+		try {
+			for ( Map.Entry<String,String> entry : queryMap.entrySet() ) {
+				if ( b.length() > 0 ) {
+					b.append('&');
+				}
+				b.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8.toString())).append('=')
+					.append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8.toString()));
+			}
+		}
+		catch ( UnsupportedEncodingException e ) {
+			// Should not happen for UTF-8.
+			throw new RuntimeException(e);
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Return the number of injected 500 (Internal Server Error) responses.
+	 * @return the number of injected 500 responses
+	 */
+	public long getErrorCount () {
+		return this.errorCount.get();
+	}
+
+	/**
+	 * Return the number of 304 (Not Modified) responses.
+	 * @return the number of 304 responses
+	 */
+	public long getNotModifiedCount () {
+		return this.notModifiedCount.get();
+	}
+
+	/**
+	 * Return the number of requests with a 'q' query parameter.
+	 * @return the number of requests with a 'q' query parameter
+	 */
+	public long getQueryCount () {
+		return this.queryCount.get();
+	}
+
+	/**
+	 * Return the port that the server is listening on.
+	 * @return the port that the server is listening on
+	 */
+	public int getPort () {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Return the number of injected 429 (Too Many Requests) responses.
+	 * @return the number of injected 429 responses
+	 */
+	public long getRateLimitedCount () {
+		return this.rateLimitedCount.get();
+	}
+
+	/**
+	 * Return the number of requests.
+	 * @return the number of requests
+	 */
+	public long getRequestCount () {
+		return this.requestCount.get();
+	}
+
+	/**
+	 * Return the service root URL, to use for the datastore 'ServiceRootURL' configuration property.
+	 * @return the service root URL (e.g., "http://localhost:8080/2.0")
+	 */
+	public String getServiceRootURL () {
+		return "http://localhost:" + getPort() + API_PATH;
+	}
+
+	/**
+	 * Handle a request.
+	 * @param exchange the HTTP exchange for the request
+	 * @throws IOException if an error writing the response
+	 */
+	private void handle ( HttpExchange exchange ) throws IOException {
+		try {
+			this.requestCount.incrementAndGet();
+			exchange.getRequestBody().close();
+
+			// Add the latency before deciding the response so that errors also have latency.
+			int latency = this.latencyMs;
+			if ( this.latencyJitterMs > 0 ) {
+				latency += ThreadLocalRandom.current().nextInt(this.latencyJitterMs + 1);
+			}
+			if ( latency > 0 ) {
+				try {
+					Thread.sleep(latency);
+				}
+				catch ( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			if ( !exchange.getRequestMethod().equals("GET") ) {
+				sendError(exchange, 405, "Method " + exchange.getRequestMethod() + " is not allowed.");
+				return;
+			}
+			if ( (this.rateLimitRate > 0.0) && (ThreadLocalRandom.current().nextDouble() < this.rateLimitRate) ) {
+				this.rateLimitedCount.incrementAndGet();
+				exchange.getResponseHeaders().set("Retry-After", String.valueOf(this.retryAfterSeconds));
+				sendError(exchange, 429, "Rate limit for this resource has been exceeded");
+				return;
+			}
+			if ( (this.errorRate > 0.0) && (ThreadLocalRandom.current().nextDouble() < this.errorRate) ) {
+				this.errorCount.incrementAndGet();
+				sendError(exchange, 500, "Something went wrong");
+				return;
+			}
+
+			// Determine the endpoint from the path:
+			// - the plugin may include '//' in the path so ignore empty parts
+			String path = exchange.getRequestURI().getPath().substring(API_PATH.length());
+			String [] pathParts = Arrays.stream(path.split("/")).filter(part -> !part.isEmpty()).toArray(String[]::new);
+			boolean isProjects = (pathParts.length == 3) && pathParts[0].equals("workspaces") && pathParts[2].equals("projects");
+			boolean isRepositories = (pathParts.length == 2) && pathParts[0].equals("repositories");
+			boolean isIssues = (pathParts.length == 4) && pathParts[0].equals("repositories") && pathParts[3].equals("issues");
+			Workspace workspace = (pathParts.length > 1) ? this.workspaceMap.get(pathParts[1]) : null;
+			if ( (!isProjects && !isRepositories && !isIssues) || (workspace == null) ) {
+				sendError(exchange, 404, "Resource not found");
+				return;
+			}
+
+			String host = exchange.getRequestHeaders().getFirst("Host");
+			if ( host == null ) {
+				host = "localhost:" + getPort();
+			}
+			String rootUrl = "http://" + host + API_PATH;
+			String pageUrl = rootUrl + "/" + String.join("/", pathParts);
+			Map<String,String> queryMap = parseQuery(exchange.getRequestURI().getRawQuery());
+			if ( queryMap.containsKey("q") ) {
+				this.queryCount.incrementAndGet();
+				if ( this.rejectQueries ) {
+					sendError(exchange, 400, "Invalid query: " + queryMap.get("q"));
+					return;
+				}
+			}
+			ObjectNode page = createPage(workspace, pathParts, rootUrl, pageUrl, queryMap);
+			if ( page == null ) {
+				sendError(exchange, 404, "Resource not found");
+				return;
+			}
+			byte [] bytes = this.mapper.writeValueAsBytes(page);
+
+			// The response is the same for the same request so use the content hash for the ETag.
+			String etag = "\"" + Integer.toHexString(Arrays.hashCode(bytes)) + "\"";
+			exchange.getResponseHeaders().set("ETag", etag);
+			if ( etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")) ) {
+				this.notModifiedCount.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			sendJson(exchange, 200, bytes);
+		}
+		catch ( RuntimeException e ) {
+			sendError(exchange, 500, e.toString());
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Run the server from the command line, for example to use with TSTool command files.
+	 * Arguments are specified as Name=Value:
+	 * <ul>
+	 * <li>Port - port to listen on (default 8080)</li>
+	 * <li>Threads - number of threads to handle requests (default 16)</li>
+	 * <li>Seed - seed used to create the values (default 1)</li>
+	 * <li>Workspace - workspace name (default "openwaterfoundation")</li>
+	 * <li>Projects - number of projects (default 10)</li>
+	 * <li>Repositories - number of repositories (default 100)</li>
+	 * <li>IssuesPerRepository - number of issues in each repository (default 100)</li>
+	 * <li>IssueContentLines - number of lines of text in each issue's content (default 10)</li>
+	 * <li>Latency - minimum latency added to each response, milliseconds (default 0)</li>
+	 * <li>LatencyJitter - maximum random latency added to the minimum latency, milliseconds (default 0)</li>
+	 * <li>ErrorRate - fraction of requests (0 to 1) that return 500 (default 0)</li>
+	 * <li>RateLimitRate - fraction of requests (0 to 1) that return 429 (default 0)</li>
+	 * <li>RetryAfter - Retry-After for 429 responses, seconds (default 1)</li>
+	 * <li>RejectQueries - whether requests with a 'q' query parameter return 400 (default false)</li>
+	 * </ul>
+	 * @param args the command line arguments
+	 * @throws IOException if the server cannot be started
+	 */
+	public static void main ( String [] args ) throws IOException {
+		Map<String,String> argMap = new LinkedHashMap<>();
+		for ( String arg : args ) {
+			int pos = arg.indexOf('=');
+			if ( pos <= 0 ) {
+				System.err.println("Argument \"" + arg + "\" is not Name=Value.");
+				System.exit(1);
+			}
+			argMap.put(arg.substring(0, pos).toLowerCase(), arg.substring(pos + 1));
+		}
+		BitbucketStandInServer server = new BitbucketStandInServer (
+			parseInt(argMap.get("port"), 8080),
+			parseInt(argMap.get("threads"), DEFAULT_THREAD_COUNT),
+			parseInt(argMap.get("seed"), 1) );
+		String workspace = argMap.getOrDefault("workspace", "openwaterfoundation");
+		server.addWorkspace ( workspace,
+			parseInt(argMap.get("projects"), 10),
+			parseInt(argMap.get("repositories"), 100),
+			parseInt(argMap.get("issuesperrepository"), 100),
+			parseInt(argMap.get("issuecontentlines"), 10) );
+		server.setLatency ( parseInt(argMap.get("latency"), 0), parseInt(argMap.get("latencyjitter"), 0) );
+		server.setErrorRate ( Double.parseDouble(argMap.getOrDefault("errorrate", "0")) );
+		server.setRateLimitRate ( Double.parseDouble(argMap.getOrDefault("ratelimitrate", "0")),
+			parseInt(argMap.get("retryafter"), 1) );
+		server.setRejectQueries ( Boolean.parseBoolean(argMap.getOrDefault("rejectqueries", "false")) );
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			System.out.println("Requests=" + server.getRequestCount() + " Errors=" + server.getErrorCount()
+				+ " RateLimited=" + server.getRateLimitedCount() + " NotModified=" + server.getNotModifiedCount());
+		}));
+		server.start();
+		System.out.println("Serving workspace \"" + workspace + "\" using ServiceRootURL = \""
+			+ server.getServiceRootURL() + "\".  Press Ctrl-C to stop.");
+	}
+
+	/**
+	 * Parse an integer.
+	 * @param value the string to parse, can be null
+	 * @param defaultValue the value to return if the string is null or invalid
+	 * @return the integer value
+	 */
+	private static int parseInt ( String value, int defaultValue ) {
+		if ( value == null ) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch ( NumberFormatException e ) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Parse query parameters.
+	 * @param rawQuery the raw (encoded) query, can be null
+	 * @return the query parameters, in the original order
+	 */
+	private Map<String,String> parseQuery ( String rawQuery ) {
+		Map<String,String> queryMap = new LinkedHashMap<>();
+		if ( (rawQuery == null) || rawQuery.isEmpty() ) {
+			return queryMap;
+		}
+		try {
+			for ( String parameter : rawQuery.split("&") ) {
+				int pos = parameter.indexOf('=');
+				if ( pos > 0 ) {
+					queryMap.put(URLDecoder.decode(parameter.substring(0, pos), StandardCharsets.UTF_8.toString()),
+						URLDecoder.decode(parameter.substring(pos + 1), StandardCharsets.UTF_8.toString()));
+				}
+			}
+		}
+		catch ( UnsupportedEncodingException e ) {
+			// Should not happen for UTF-8.
+			throw new RuntimeException(e);
+		}
+		return queryMap;
+	}
+
+	/**
+	 * Send an error response, using the Bitbucket error format.
+	 * @param exchange the HTTP exchange for the request
+	 * @param code the HTTP response code
+	 * @param message the error message
+	 * @throws IOException if an error writing the response
+	 */
+	private void sendError ( HttpExchange exchange, int code, String message ) throws IOException {
+		ObjectNode error = this.mapper.createObjectNode();
+		error.put("type", "error");
+		error.putObject("error").put("message", message);
+		sendJson(exchange, code, this.mapper.writeValueAsBytes(error));
+	}
+
+	/**
+	 * Send a JSON response, compressed if the request accepts gzip.
+	 * @param exchange the HTTP exchange for the request
+	 * @param code the HTTP response code
+	 * @param bytes the JSON bytes
+	 * @throws IOException if an error writing the response
+	 */
+	private void sendJson ( HttpExchange exchange, int code, byte [] bytes ) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		if ( (acceptEncoding != null) && acceptEncoding.contains("gzip") ) {
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			exchange.sendResponseHeaders(code, 0);
+			try ( OutputStream out = new GZIPOutputStream(exchange.getResponseBody()) ) {
+				out.write(bytes);
+			}
+		}
+		else {
+			exchange.sendResponseHeaders(code, bytes.length);
+			try ( OutputStream out = exchange.getResponseBody() ) {
+				out.write(bytes);
+			}
+		}
+	}
+
+	/**
+	 * Set the fraction of requests that return 500 (Internal Server Error).
+	 * @param errorRate the fraction of requests (0 to 1)
+	 */
+	public void setErrorRate ( double errorRate ) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * Set the latency added to each response.
+	 * @param latencyMs the minimum latency, milliseconds
+	 * @param latencyJitterMs the maximum random latency added to the minimum latency, milliseconds
+	 */
+	public void setLatency ( int latencyMs, int latencyJitterMs ) {
+		this.latencyMs = Math.max(0, latencyMs);
+		this.latencyJitterMs = Math.max(0, latencyJitterMs);
+	}
+
+	/**
+	 * Set the fraction of requests that return 429 (Too Many Requests).
+	 * @param rateLimitRate the fraction of requests (0 to 1)
+	 * @param retryAfterSeconds the Retry-After value for 429 responses, seconds
+	 */
+	public void setRateLimitRate ( double rateLimitRate, int retryAfterSeconds ) {
+		this.rateLimitRate = rateLimitRate;
+		this.retryAfterSeconds = Math.max(0, retryAfterSeconds);
+	}
+
+	/**
+	 * Set whether requests with a 'q' query parameter return 400 (Bad Request),
+	 * to test reading without a server filter.
+	 * @param rejectQueries whether to reject requests with a 'q' query parameter
+	 */
+	public void setRejectQueries ( boolean rejectQueries ) {
+		this.rejectQueries = rejectQueries;
+	}
+
+	/**
+	 * Start the server.
+	 */
+	public void start () {
+		this.server.start();
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	public void stop () {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Synthetic workspace.
+	 */
+	private class Workspace {
+
+		/**
+		 * Workspace name.
+		 */
+		private final String name;
+
+		/**
+		 * Number of projects.
+		 */
+		private final int projectCount;
+
+		/**
+		 * Repository slugs, in order.
+		 */
+		private final List<String> repositorySlugs;
+
+		/**
+		 * Repository index, by slug.
+		 */
+		private final Map<String,Integer> repositoryIndexMap = new ConcurrentHashMap<>();
+
+		/**
+		 * Number of issues in each repository.
+		 */
+		private final int issuesPerRepository;
+
+		/**
+		 * Number of lines of text in each issue's content.
+		 */
+		private final int issueContentLines;
+
+		/**
+		 * Constructor.
+		 * @param name the workspace name
+		 * @param projectCount the number of projects
+		 * @param repositoryCount the number of repositories
+		 * @param issuesPerRepository the number of issues in each repository
+		 * @param issueContentLines the number of lines of text in each issue's content
+		 */
+		private Workspace ( String name, int projectCount, int repositoryCount, int issuesPerRepository, int issueContentLines ) {
+			this.name = name;
+			this.projectCount = Math.max(0, projectCount);
+			this.issuesPerRepository = Math.max(0, issuesPerRepository);
+			this.issueContentLines = Math.max(0, issueContentLines);
+			BenchmarkFixtures fixtures = createFixtures(API_PATH, name, "repositories");
+			this.repositorySlugs = new ArrayList<>(repositoryCount);
+			for ( int i = 0; i < repositoryCount; i++ ) {
+				String slug = fixtures.createRepositorySlug(i);
+				this.repositorySlugs.add(slug);
+				this.repositoryIndexMap.put(slug, i);
+			}
+		}
+
+		/**
+		 * Return the key for the project that a repository is in, or the key for a project.
+		 * @param index the repository or project index
+		 * @return the project key
+		 */
+		private String getProjectKey ( int index ) {
+			return "P" + ((this.projectCount > 0) ? (index % this.projectCount) : 0);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+// DataStoreEndToEndBenchmark - benchmarks for datastore reads from the stand-in server
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+
+import RTi.Util.IO.PropList;
+
+/**
+ * Benchmarks for reading from a BitbucketDataStore, using the stand-in server so that
+ * the HTTP client, concurrent page requests, decompression, and parsing are measured end to end without Bitbucket.
+ * Each benchmark reads all values, similar to the Bitbucket command:
+ * - readRepositories - read the repositories in the workspace
+ * - readRepositoryIssues - read the issues for all repositories, running requests concurrently
+ *
+ * Conditional requests and rate limiting are disabled so that every request is read from the server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataStoreEndToEndBenchmark {
+
+	/**
+	 * Workspace for the stand-in server.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * Timeout for requests, seconds.
+	 */
+	private static final int TIMEOUT_SECONDS = 60;
+
+	/**
+	 * Number of repositories in the workspace.
+	 */
+	@Param({"50"})
+	public int repositoryCount;
+
+	/**
+	 * Number of issues in each repository.
+	 */
+	@Param({"200"})
+	public int issuesPerRepository;
+
+	/**
+	 * Latency added to each server response, milliseconds.
+	 */
+	@Param({"0", "50"})
+	public int latencyMs;
+
+	/**
+	 * Maximum number of concurrent requests for the datastore.
+	 */
+	@Param({"1", "8"})
+	public int maxConcurrency;
+
+	/**
+	 * Whether to request compressed responses.
+	 */
+	@Param({"true"})
+	public boolean httpCompression;
+
+	/**
+	 * The stand-in server.
+	 */
+	private BitbucketStandInServer server;
+
+	/**
+	 * The datastore being benchmarked.
+	 */
+	private BitbucketDataStore dataStore;
+
+	/**
+	 * Session for the workspace.
+	 */
+	private BitbucketSession session;
+
+	/**
+	 * Repositories, read once for the issue benchmark.
+	 */
+	private List<Repository> repositories;
+
+	/**
+	 * Start the server and create the datastore.
+	 * @throws IOException if the server cannot be started or the repositories cannot be read
+	 * @throws URISyntaxException if the service root URL is invalid
+	 */
+	@Setup
+	public void setup () throws IOException, URISyntaxException {
+		this.server = new BitbucketStandInServer(0, BitbucketStandInServer.DEFAULT_THREAD_COUNT, 1L);
+		this.server.addWorkspace(WORKSPACE, 10, this.repositoryCount, this.issuesPerRepository, 10);
+		this.server.setLatency(this.latencyMs, 0);
+		this.server.start();
+
+		PropList props = new PropList("Bitbucket");
+		props.set("Name", "Bitbucket");
+		props.set("ServiceRootURL", this.server.getServiceRootURL());
+		props.set("WorkspaceID", WORKSPACE);
+		props.set("UserName", "benchmark");
+		props.set("AppPassword", "benchmark");
+		props.set("GlobalDataStartup", "Lazy");
+		props.set("ConditionalRequests", "false");
+		props.set("RequestRateLimit", "0");
+		props.set("MaxConcurrency", String.valueOf(this.maxConcurrency));
+		props.set("HttpCompression", String.valueOf(this.httpCompression));
+		this.dataStore = new BitbucketDataStore("Bitbucket", "Stand-in Bitbucket", new URI(this.server.getServiceRootURL()), props);
+		this.session = new BitbucketSession(WORKSPACE, "benchmark", "benchmark");
+		this.repositories = this.dataStore.readRepositories(this.session, TIMEOUT_SECONDS);
+	}
+
+	/**
+	 * Stop the server and the datastore request executor.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.dataStore.getRequestExecutor().shutdown();
+		this.server.stop();
+	}
+
+	/**
+	 * Read the repositories.
+	 * @return the repositories
+	 * @throws IOException if an error reading
+	 */
+	@Benchmark
+	public List<Repository> readRepositories () throws IOException {
+		return this.dataStore.readRepositories(this.session, TIMEOUT_SECONDS);
+	}
+
+	/**
+	 * Read the issues for all repositories, using concurrent requests as the Bitbucket command does.
+	 * @return the issues for each repository
+	 * @throws Exception if an error reading
+	 */
+	@Benchmark
+	public List<List<Issue>> readRepositoryIssues () throws Exception {
+		List<Callable<List<Issue>>> tasks = new ArrayList<>();
+		for ( Repository repository : this.repositories ) {
+			tasks.add ( () -> this.dataStore.readRepositoryIssues(this.session, repository, TIMEOUT_SECONDS) );
+		}
+		return this.dataStore.getRequestExecutor().invokeAll(tasks, this.maxConcurrency);
+	}
+}
@@ -0,0 +1,198 @@
+// DtoParseBenchmark - benchmarks for parsing Bitbucket responses into data objects
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.IssuesResponse;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.ProjectsResponse;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.RepositoriesResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Benchmarks for parsing Bitbucket response pages into the plugin's response objects.
+ * Each benchmark parses one page and compares:
+ * - readValueString - ObjectMapper.readValue(String,Class), the original approach, which requires the full response as a String
+ * - readerString - a cached ObjectReader for the class, parsing the String
+ * - readerStream - a cached ObjectReader for the class, parsing a UTF-8 byte stream as the datastore does with HTTP responses
+ * - readerParser - a cached ObjectReader using a JsonParser created from the shared JsonFactory
+ * - readTreeThenConvert - read a JsonNode tree and then convert to the object, similar to JacksonToolkit.getJsonNodeFromWebServiceUrl
+ *
+ * Run with '-prof gc' to report the allocation rate (see README.md).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DtoParseBenchmark {
+
+	/**
+	 * Page type to parse.
+	 */
+	@Param({"Issues", "Repositories", "Projects"})
+	public String pageType;
+
+	/**
+	 * Number of values in the page (Bitbucket allows up to 100).
+	 */
+	@Param({"100"})
+	public int pageLength;
+
+	/**
+	 * Number of lines of text in each issue's content.
+	 */
+	@Param({"20"})
+	public int issueContentLines;
+
+	/**
+	 * The page JSON as a String.
+	 */
+	private String json;
+
+	/**
+	 * The page JSON as UTF-8 bytes.
+	 */
+	private byte [] jsonBytes;
+
+	/**
+	 * The response class for the page type.
+	 */
+	private Class<?> responseClass;
+
+	/**
+	 * The shared mapper.
+	 */
+	private ObjectMapper mapper;
+
+	/**
+	 * Cached reader for the response class.
+	 */
+	private ObjectReader reader;
+
+	/**
+	 * Factory used to create parsers.
+	 */
+	private JsonFactory factory;
+
+	/**
+	 * Create the page for the benchmark.
+	 */
+	@Setup
+	public void setup () {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(1L);
+		if ( this.pageType.equals("Issues") ) {
+			this.json = fixtures.createIssuesPage("owf-tstool-bitbucket-plugin", this.pageLength, this.issueContentLines);
+			this.responseClass = IssuesResponse.class;
+		}
+		else if ( this.pageType.equals("Repositories") ) {
+			this.json = fixtures.createRepositoriesPage(this.pageLength);
+			this.responseClass = RepositoriesResponse.class;
+		}
+		else if ( this.pageType.equals("Projects") ) {
+			this.json = fixtures.createProjectsPage(this.pageLength);
+			this.responseClass = ProjectsResponse.class;
+		}
+		else {
+			throw new IllegalArgumentException("Unknown page type: " + this.pageType);
+		}
+		this.jsonBytes = this.json.getBytes(StandardCharsets.UTF_8);
+		this.mapper = JacksonToolkit.getInstance().getObjectMapper();
+		this.reader = JacksonToolkit.getInstance().getObjectReader(this.responseClass);
+		this.factory = this.mapper.getFactory();
+	}
+
+	/**
+	 * Parse a String using ObjectMapper.readValue(String,Class).
+	 * @return the parsed page
+	 * @throws IOException if a parse error
+	 */
+	@Benchmark
+	public Object readValueString () throws IOException {
+		return this.mapper.readValue(this.json, this.responseClass);
+	}
+
+	/**
+	 * Parse a String using the cached ObjectReader.
+	 * @return the parsed page
+	 * @throws IOException if a parse error
+	 */
+	@Benchmark
+	public Object readerString () throws IOException {
+		return this.reader.readValue(this.json);
+	}
+
+	/**
+	 * Parse a UTF-8 byte stream using the cached ObjectReader.
+	 * @return the parsed page
+	 * @throws IOException if a parse error
+	 */
+	@Benchmark
+	public Object readerStream () throws IOException {
+		return this.reader.readValue(new ByteArrayInputStream(this.jsonBytes));
+	}
+
+	/**
+	 * Parse a UTF-8 byte stream using a parser created from the shared factory and the cached ObjectReader.
+	 * @return the parsed page
+	 * @throws IOException if a parse error
+	 */
+	@Benchmark
+	public Object readerParser () throws IOException {
+		try ( JsonParser parser = this.factory.createParser(new ByteArrayInputStream(this.jsonBytes)) ) {
+			return this.reader.readValue(parser);
+		}
+	}
+
+	/**
+	 * Read a tree and then convert the tree to the response object.
+	 * @return the parsed page
+	 * @throws IOException if a parse error
+	 */
+	@Benchmark
+	public Object readTreeThenConvert () throws IOException {
+		JsonNode tree = this.mapper.readTree(this.json);
+		return this.mapper.treeToValue(tree, this.responseClass);
+	}
+}
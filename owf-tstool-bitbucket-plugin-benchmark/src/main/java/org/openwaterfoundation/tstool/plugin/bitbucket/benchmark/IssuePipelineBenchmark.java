@@ -0,0 +1,184 @@
+// IssuePipelineBenchmark - benchmarks for sorting issues, parsing issue properties, and issue dates
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.IssueComparator;
+
+/**
+ * Benchmarks for the per-issue processing done when listing repository issues.
+ * Each benchmark processes the full list of synthetic issues and compares:
+ * - sortIssues - sort the issues with IssueComparator, starting from the same shuffled order,
+ *   with the cached issue age cleared so that the first getAgeDays call for each issue is included
+ * - parseProperties - parse the '// Property=Value' lines in the issue content
+ * - getAgeDays - compute the age of each issue, with the cached age cleared before each invocation
+ * - getCreatedOnAsDateTime - parse the creation date/time of each issue
+ *
+ * Large issue counts require a larger heap, which is set in the @Fork annotation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms3g", "-Xmx3g" })
+@State(Scope.Benchmark)
+public class IssuePipelineBenchmark {
+
+	/**
+	 * Number of issues to process.
+	 */
+	@Param({"10000", "100000", "1000000"})
+	public int issueCount;
+
+	/**
+	 * Number of repositories for the issues.
+	 */
+	@Param({"50"})
+	public int repositoryCount;
+
+	/**
+	 * Number of lines of text in each issue's content, in addition to the property line.
+	 */
+	@Param({"2"})
+	public int issueContentLines;
+
+	/**
+	 * Issues in shuffled order, which is the initial order for each sort.
+	 */
+	private List<Issue> shuffledIssues;
+
+	/**
+	 * Issues to sort, copied from the shuffled issues before each invocation.
+	 */
+	private List<Issue> sortIssues;
+
+	/**
+	 * Comparator used to sort issues.
+	 */
+	private IssueComparator comparator;
+
+	/**
+	 * Issue 'ageDays' field, used to clear the cached age.
+	 */
+	private Field ageDaysField;
+
+	/**
+	 * Issue 'createdOnDateTime' field, used to clear the cached creation date/time.
+	 */
+	private Field createdOnDateTimeField;
+
+	/**
+	 * Create the issues for the benchmark.
+	 * @throws NoSuchFieldException if the Issue class does not have the cached fields
+	 */
+	@Setup(Level.Trial)
+	public void setup () throws NoSuchFieldException {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(1L);
+		this.shuffledIssues = fixtures.createIssues(this.issueCount, this.repositoryCount, this.issueContentLines);
+		Collections.shuffle(this.shuffledIssues, new Random(1L));
+		this.sortIssues = new ArrayList<>(this.shuffledIssues.size());
+		this.comparator = new IssueComparator();
+		this.ageDaysField = Issue.class.getDeclaredField("ageDays");
+		this.ageDaysField.setAccessible(true);
+		this.createdOnDateTimeField = Issue.class.getDeclaredField("createdOnDateTime");
+		this.createdOnDateTimeField.setAccessible(true);
+	}
+
+	/**
+	 * Clear the cached issue age and creation date/time so that each invocation computes the values.
+	 * @throws IllegalAccessException if the fields cannot be set
+	 */
+	@Setup(Level.Invocation)
+	public void clearCachedValues () throws IllegalAccessException {
+		for ( Issue issue : this.shuffledIssues ) {
+			this.ageDaysField.set(issue, null);
+			this.createdOnDateTimeField.set(issue, null);
+		}
+		this.sortIssues.clear();
+		this.sortIssues.addAll(this.shuffledIssues);
+	}
+
+	/**
+	 * Sort the issues using IssueComparator.
+	 * @return the sorted issues
+	 */
+	@Benchmark
+	public List<Issue> sortIssues () {
+		Collections.sort(this.sortIssues, this.comparator);
+		return this.sortIssues;
+	}
+
+	/**
+	 * Parse the properties from the issue content.
+	 * @param blackhole used to consume the results
+	 */
+	@Benchmark
+	public void parseProperties ( Blackhole blackhole ) {
+		for ( Issue issue : this.shuffledIssues ) {
+			issue.parseProperties();
+			blackhole.consume(issue.getProperty("Assignee"));
+		}
+	}
+
+	/**
+	 * Compute the age of each issue, with the cached age cleared.
+	 * @param blackhole used to consume the results
+	 */
+	@Benchmark
+	public void getAgeDays ( Blackhole blackhole ) {
+		for ( Issue issue : this.shuffledIssues ) {
+			blackhole.consume(issue.getAgeDays());
+		}
+	}
+
+	/**
+	 * Parse the creation date/time of each issue.
+	 * @param blackhole used to consume the results
+	 */
+	@Benchmark
+	public void getCreatedOnAsDateTime ( Blackhole blackhole ) {
+		for ( Issue issue : this.shuffledIssues ) {
+			blackhole.consume(issue.getCreatedOnAsDateTime());
+		}
+	}
+}
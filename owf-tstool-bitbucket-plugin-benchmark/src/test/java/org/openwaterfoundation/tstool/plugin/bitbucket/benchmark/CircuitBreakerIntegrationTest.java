@@ -0,0 +1,130 @@
+// CircuitBreakerIntegrationTest - tests for the circuit breaker used with the rate limiter
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketCircuitBreaker;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+
+import RTi.Util.IO.PropList;
+
+/**
+ * Tests for the circuit breaker (CircuitBreakerFailureThreshold) used with the rate limiter, using the stand-in server.
+ */
+public class CircuitBreakerIntegrationTest {
+
+	/**
+	 * Workspace used for tests.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * The stand-in server.
+	 */
+	private BitbucketStandInServer server = null;
+
+	/**
+	 * The datastore.
+	 */
+	private BitbucketDataStore dataStore = null;
+
+	/**
+	 * Session used for requests.
+	 */
+	private final BitbucketSession session = new BitbucketSession(WORKSPACE, "user", "password");
+
+	/**
+	 * Start the server and create the datastore:
+	 * - the rate limiter allows one request and then one request every 10 seconds
+	 * - the circuit opens after one failure and allows a trial request immediately
+	 */
+	@BeforeEach
+	public void setUp () throws Exception {
+		this.server = new BitbucketStandInServer(0, 4, 1L);
+		this.server.addWorkspace(WORKSPACE, 1, 2, 10, 2);
+		this.server.start();
+		PropList props = new PropList("Bitbucket");
+		props.set("ServiceRootURL", this.server.getServiceRootURL());
+		props.set("GlobalDataStartup", "Lazy");
+		props.set("RequestRateLimit", "360");
+		props.set("RequestRateBurst", "1");
+		props.set("RetryMaxAttempts", "1");
+		props.set("CircuitBreakerFailureThreshold", "1");
+		props.set("CircuitBreakerOpenTime", "0");
+		this.dataStore = new BitbucketDataStore("Bitbucket", "", new URI(this.server.getServiceRootURL()), props);
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	@AfterEach
+	public void tearDown () {
+		this.dataStore.getRequestExecutor().shutdown();
+		this.server.stop();
+	}
+
+	/**
+	 * Read repositories, ignoring errors.
+	 */
+	private void readRepositories () {
+		try {
+			this.dataStore.readRepositories(this.session, 30);
+		}
+		catch ( Exception e ) {
+			// Expected for the tests.
+		}
+	}
+
+	/**
+	 * A request that is interrupted while waiting for the rate limiter does not leave a trial request in progress,
+	 * which would stop all later requests.
+	 */
+	@Test
+	public void testInterruptedWaitAfterOpen () throws Exception {
+		this.server.setErrorRate(1.0);
+		readRepositories();
+		assertEquals(1, this.dataStore.getCircuitBreakers().size());
+		BitbucketCircuitBreaker circuitBreaker = this.dataStore.getCircuitBreakers().values().iterator().next();
+		assertEquals(1, circuitBreaker.getOpenCount());
+		// The next request waits for the rate limiter and is interrupted, for example when a command is canceled.
+		Thread thread = new Thread(this::readRepositories);
+		thread.start();
+		Thread.sleep(500);
+		thread.interrupt();
+		thread.join(5000);
+		assertFalse(thread.isAlive());
+		// A trial request is allowed.
+		circuitBreaker.checkAllowed();
+		assertEquals(BitbucketCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+		circuitBreaker.recordSuccess();
+		assertEquals(BitbucketCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+}
@@ -0,0 +1,125 @@
+// CoalesceRequestsIntegrationTest - tests for coalescing concurrent identical requests
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+
+import RTi.Util.IO.PropList;
+
+/**
+ * Tests for coalescing concurrent identical requests (CoalesceRequests), using the stand-in server.
+ */
+public class CoalesceRequestsIntegrationTest {
+
+	/**
+	 * Workspace used for tests.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * The stand-in server.
+	 */
+	private BitbucketStandInServer server = null;
+
+	/**
+	 * The datastore.
+	 */
+	private BitbucketDataStore dataStore = null;
+
+	/**
+	 * Session used for requests.
+	 */
+	private final BitbucketSession session = new BitbucketSession(WORKSPACE, "user", "password");
+
+	/**
+	 * Start the server and create the datastore.
+	 */
+	@BeforeEach
+	public void setUp () throws Exception {
+		this.server = new BitbucketStandInServer(0, 4, 1L);
+		this.server.addWorkspace(WORKSPACE, 1, 1, 250, 2);
+		this.server.start();
+		PropList props = new PropList("Bitbucket");
+		props.set("ServiceRootURL", this.server.getServiceRootURL());
+		props.set("GlobalDataStartup", "Lazy");
+		props.set("ConditionalRequests", "False");
+		this.dataStore = new BitbucketDataStore("Bitbucket", "", new URI(this.server.getServiceRootURL()), props);
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	@AfterEach
+	public void tearDown () {
+		this.dataStore.getRequestExecutor().shutdown();
+		this.server.stop();
+	}
+
+	/**
+	 * Concurrent reads of the same issues share requests but not objects, because issues are modified by each command.
+	 */
+	@Test
+	public void testSharedPagesAreNotSharedObjects () throws Exception {
+		Repository repository = this.dataStore.readRepositories(this.session, 30).get(0);
+		long requestCount = this.server.getRequestCount();
+		this.dataStore.readRepositoryIssues(this.session, repository, 30);
+		long readRequestCount = this.server.getRequestCount() - requestCount;
+		// Read concurrently, with latency so that the requests overlap.
+		this.server.setLatency(300, 0);
+		requestCount = this.server.getRequestCount();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<List<Issue>> future1 = executor.submit(() -> this.dataStore.readRepositoryIssues(this.session, repository, 30));
+			Future<List<Issue>> future2 = executor.submit(() -> this.dataStore.readRepositoryIssues(this.session, repository, 30));
+			List<Issue> issues1 = future1.get(30, TimeUnit.SECONDS);
+			List<Issue> issues2 = future2.get(30, TimeUnit.SECONDS);
+			assertEquals(250, issues1.size());
+			assertEquals(250, issues2.size());
+			for ( int i = 0; i < issues1.size(); i++ ) {
+				assertEquals(issues1.get(i).getId(), issues2.get(i).getId());
+				assertNotSame(issues1.get(i), issues2.get(i));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertTrue((this.server.getRequestCount() - requestCount) < 2*readRequestCount);
+	}
+}
@@ -0,0 +1,127 @@
+// GlobalDataIntegrationTest - tests for reading global data (projects and repositories)
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+
+import RTi.Util.IO.PropList;
+
+/**
+ * Tests for reading global data (projects and repositories), using the stand-in server.
+ */
+public class GlobalDataIntegrationTest {
+
+	/**
+	 * Workspace used for tests.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * The stand-in server.
+	 */
+	private BitbucketStandInServer server = null;
+
+	/**
+	 * The datastore.
+	 */
+	private BitbucketDataStore dataStore = null;
+
+	/**
+	 * Session used for requests, which is the same as the datastore session.
+	 */
+	private final BitbucketSession session = new BitbucketSession(WORKSPACE, "user", "password");
+
+	/**
+	 * Start the server.
+	 */
+	@BeforeEach
+	public void setUp () throws Exception {
+		this.server = new BitbucketStandInServer(0, 4, 1L);
+		this.server.addWorkspace(WORKSPACE, 2, 3, 10, 2);
+		this.server.start();
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	@AfterEach
+	public void tearDown () {
+		if ( this.dataStore != null ) {
+			this.dataStore.getRequestExecutor().shutdown();
+		}
+		this.server.stop();
+	}
+
+	/**
+	 * Create the datastore, reading global data before returning.
+	 */
+	private void createDataStore () throws Exception {
+		PropList props = new PropList("Bitbucket");
+		props.set("ServiceRootURL", this.server.getServiceRootURL());
+		props.set("WorkspaceId", WORKSPACE);
+		props.set("UserName", "user");
+		props.set("AppPassword", "password");
+		props.set("GlobalDataStartup", "Wait");
+		props.set("RetryMaxAttempts", "1");
+		props.set("CircuitBreakerFailureThreshold", "0");
+		this.dataStore = new BitbucketDataStore("Bitbucket", "", new URI(this.server.getServiceRootURL()), props);
+	}
+
+	/**
+	 * Global data that are read are used by commands.
+	 */
+	@Test
+	public void testRead () throws Exception {
+		createDataStore();
+		assertEquals(2, this.dataStore.getCachedProjects(this.session).size());
+		assertEquals(3, this.dataStore.getCachedRepositories(this.session).size());
+	}
+
+	/**
+	 * If the first read fails, the empty lists are not used, so that commands read the data,
+	 * and the data are read again soon rather than after the expiration offset.
+	 */
+	@Test
+	public void testFirstReadFails () throws Exception {
+		this.server.setErrorRate(1.0);
+		createDataStore();
+		assertTrue(this.dataStore.getGlobalDataProblems().size() > 0);
+		assertNull(this.dataStore.getCachedProjects(this.session));
+		assertNull(this.dataStore.getCachedRepositories(this.session));
+		OffsetDateTime expirationTime = this.dataStore.getGlobalDataExpirationTime();
+		assertNotNull(expirationTime);
+		assertTrue(expirationTime.isBefore(OffsetDateTime.now().plusSeconds(120)));
+	}
+}
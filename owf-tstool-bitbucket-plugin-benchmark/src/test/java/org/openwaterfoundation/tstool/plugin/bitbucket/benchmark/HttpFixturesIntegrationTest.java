@@ -0,0 +1,146 @@
+// HttpFixturesIntegrationTest - tests for HttpMode and HttpFixtureDir
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+
+import RTi.Util.IO.PropList;
+
+/**
+ * Tests for recording and replaying responses (HttpMode and HttpFixtureDir), using the stand-in server.
+ */
+public class HttpFixturesIntegrationTest {
+
+	/**
+	 * Workspace used for tests.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * Folder for fixtures.
+	 */
+	@TempDir
+	File tempFolder;
+
+	/**
+	 * The stand-in server.
+	 */
+	private BitbucketStandInServer server = null;
+
+	/**
+	 * The datastore.
+	 */
+	private BitbucketDataStore dataStore = null;
+
+	/**
+	 * Session used for requests.
+	 */
+	private final BitbucketSession session = new BitbucketSession(WORKSPACE, "user", "password");
+
+	/**
+	 * Start the server.
+	 */
+	@BeforeEach
+	public void setUp () throws Exception {
+		this.server = new BitbucketStandInServer(0, 4, 1L);
+		this.server.addWorkspace(WORKSPACE, 1, 2, 10, 2);
+		this.server.start();
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	@AfterEach
+	public void tearDown () {
+		if ( this.dataStore != null ) {
+			this.dataStore.getRequestExecutor().shutdown();
+		}
+		this.server.stop();
+	}
+
+	/**
+	 * Create the datastore.
+	 * @param httpMode the HttpMode property value
+	 * @param httpFixtureDir the HttpFixtureDir property value, or null to not set
+	 */
+	private void createDataStore ( String httpMode, String httpFixtureDir ) throws Exception {
+		PropList props = new PropList("Bitbucket");
+		props.set("ServiceRootURL", this.server.getServiceRootURL());
+		props.set("GlobalDataStartup", "Lazy");
+		props.set("HttpMode", httpMode);
+		if ( httpFixtureDir != null ) {
+			props.set("HttpFixtureDir", httpFixtureDir);
+		}
+		this.dataStore = new BitbucketDataStore("Bitbucket", "", new URI(this.server.getServiceRootURL()), props);
+	}
+
+	/**
+	 * Responses are recorded and then replayed without requests to the server.
+	 */
+	@Test
+	public void testRecordReplay () throws Exception {
+		String fixtureDir = new File(this.tempFolder, "fixtures").getPath();
+		createDataStore("Record", fixtureDir);
+		int repositoryCount = this.dataStore.readRepositories(this.session, 30).size();
+		this.dataStore.getRequestExecutor().shutdown();
+		long requestCount = this.server.getRequestCount();
+		createDataStore("Replay", fixtureDir);
+		assertEquals(repositoryCount, this.dataStore.readRepositories(this.session, 30).size());
+		assertEquals(requestCount, this.server.getRequestCount());
+	}
+
+	/**
+	 * A fixture folder that does not exist puts the datastore in an error state and requests fail without using the server.
+	 */
+	@Test
+	public void testReplayMissingFixtureDir () throws Exception {
+		createDataStore("Replay", new File(this.tempFolder, "missing").getPath());
+		assertEquals(1, this.dataStore.getStatus());
+		assertTrue(this.dataStore.getStatusMessage().contains("missing"));
+		assertThrows(RuntimeException.class, () -> this.dataStore.readRepositories(this.session, 30));
+		assertEquals(0, this.server.getRequestCount());
+	}
+
+	/**
+	 * Replay without a fixture folder does not make requests to the server.
+	 */
+	@Test
+	public void testReplayNoFixtureDir () throws Exception {
+		createDataStore("Replay", null);
+		assertEquals(1, this.dataStore.getStatus());
+		assertThrows(RuntimeException.class, () -> this.dataStore.readRepositories(this.session, 30));
+		assertEquals(0, this.server.getRequestCount());
+	}
+}
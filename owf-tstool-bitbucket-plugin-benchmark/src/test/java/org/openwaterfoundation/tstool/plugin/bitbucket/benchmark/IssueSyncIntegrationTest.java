@@ -0,0 +1,120 @@
+// IssueSyncIntegrationTest - tests incremental issue reads using the stand-in server
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+
+import RTi.Util.IO.PropList;
+
+/**
+ * Tests for incremental issue reads (IncrementalIssueSync), using the stand-in server.
+ */
+public class IssueSyncIntegrationTest {
+
+	/**
+	 * Workspace used for tests.
+	 */
+	private static final String WORKSPACE = "openwaterfoundation";
+
+	/**
+	 * The stand-in server.
+	 */
+	private BitbucketStandInServer server = null;
+
+	/**
+	 * The datastore.
+	 */
+	private BitbucketDataStore dataStore = null;
+
+	/**
+	 * Session used for requests.
+	 */
+	private final BitbucketSession session = new BitbucketSession(WORKSPACE, "user", "password");
+
+	/**
+	 * Start the server and create the datastore.
+	 */
+	@BeforeEach
+	public void setUp () throws Exception {
+		this.server = new BitbucketStandInServer(0, 4, 1L);
+		this.server.addWorkspace(WORKSPACE, 1, 2, 250, 2);
+		this.server.start();
+		PropList props = new PropList("Bitbucket");
+		props.set("ServiceRootURL", this.server.getServiceRootURL());
+		props.set("IncrementalIssueSync", "True");
+		this.dataStore = new BitbucketDataStore("Bitbucket", "", new URI(this.server.getServiceRootURL()), props);
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	@AfterEach
+	public void tearDown () {
+		this.dataStore.getRequestExecutor().shutdown();
+		this.server.stop();
+	}
+
+	/**
+	 * The first read reads all issues and later reads use an 'updated_on' query and merge the changes.
+	 */
+	@Test
+	public void testIncrementalRead () throws Exception {
+		Repository repository = this.dataStore.readRepositories(this.session, 30).get(0);
+		List<Issue> issues = this.dataStore.readRepositoryIssues(this.session, repository, 30);
+		assertEquals(250, issues.size());
+		assertEquals(0, this.server.getQueryCount());
+		List<Issue> issues2 = this.dataStore.readRepositoryIssues(this.session, repository, 30);
+		// The stand-in server ignores the query and returns all issues, which are merged without duplicates.
+		assertEquals(250, issues2.size());
+		assertEquals(3, this.server.getQueryCount());
+		assertNotNull(this.dataStore.getIssueSync().getIssueSet(this.dataStore.getIssueSync().getKeys().get(0)).getWatermarkString());
+	}
+
+	/**
+	 * If the 'updated_on' query is not accepted, all issues are read.
+	 */
+	@Test
+	public void testFullReadFallback () throws Exception {
+		Repository repository = this.dataStore.readRepositories(this.session, 30).get(0);
+		this.dataStore.readRepositoryIssues(this.session, repository, 30);
+		this.server.setRejectQueries(true);
+		long requestCount = this.server.getRequestCount();
+		List<Issue> issues = this.dataStore.readRepositoryIssues(this.session, repository, 30);
+		assertEquals(250, issues.size());
+		assertEquals(1, this.server.getQueryCount());
+		// One rejected request and three pages.
+		assertEquals(requestCount + 4, this.server.getRequestCount());
+	}
+}
@@ -42,7 +42,12 @@ public enum BitbucketCommandType {
 	/**
 	List repository issues.
 	*/
-	LIST_REPOSITORY_ISSUES ( "ListRepositoryIssues", "List repository issues" );
+	LIST_REPOSITORY_ISSUES ( "ListRepositoryIssues", "List repository issues" ),
+
+	/**
+	Get datastore metrics.
+	*/
+	GET_DATASTORE_METRICS ( "GetDatastoreMetrics", "Get datastore metrics" );
 
 	/**
 	The name that is used for choices and other technical code (terse).
@@ -73,6 +78,7 @@ public enum BitbucketCommandType {
     	choices.add ( BitbucketCommandType.LIST_PROJECTS );
     	choices.add ( BitbucketCommandType.LIST_REPOSITORIES );
     	choices.add ( BitbucketCommandType.LIST_REPOSITORY_ISSUES );
+    	choices.add ( BitbucketCommandType.GET_DATASTORE_METRICS );
     	return choices;
 	}
 
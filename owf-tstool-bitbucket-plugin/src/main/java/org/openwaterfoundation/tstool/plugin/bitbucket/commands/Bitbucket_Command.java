@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.swing.JFrame;
 
@@ -39,6 +40,10 @@ import org.openwaterfoundation.tstool.plugin.bitbucket.dao.User;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Project;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
 import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStore;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.BitbucketDataStoreMetrics;
+import org.openwaterfoundation.tstool.plugin.bitbucket.datastore.IssueQuery;
+import org.openwaterfoundation.tstool.plugin.bitbucket.jfr.BitbucketCommandPhaseEvent;
+import org.openwaterfoundation.tstool.plugin.bitbucket.jfr.BitbucketJfr;
 
 import rti.tscommandprocessor.core.TSCommandProcessor;
 import rti.tscommandprocessor.core.TSCommandProcessorUtil;
@@ -86,6 +91,18 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 	protected final String _Warn = "Warn";
 	protected final String _Fail = "Fail";
 
+	/**
+	Output column names for each Bitbucket command, in the default order.
+	Issue property columns are also output for ListRepositoryIssues.
+	*/
+	protected final String [] _ProjectColumns = { "Name", "Type", "Key" };
+	protected final String [] _RepositoryColumns = {
+		"Name", "Slug", "CreatedOn", "UpdatedOn", "HasIssues", "IsPrivate", "Size", "Description" };
+	protected final String [] _IssueColumns = {
+		"RepositoryName", "Id", "Link", "Title", "Priority", "Kind", "State", "Assignee", "Reporter",
+		"AgeDays", "CreatedOn", "UpdatedOn", "EditedOn" };
+	protected final String [] _MetricsColumns = { "Endpoint", "Metric", "Value", "Units" };
+
 	/**
 	Output file that is created by this command.
 	*/
@@ -123,8 +140,10 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	String OutputTableID = parameters.getValue ( "OutputTableID" );
     	String OutputFile = parameters.getValue ( "OutputFile" );
     	String AppendOutput = parameters.getValue ( "AppendOutput" );
+    	String OutputColumns = parameters.getValue ( "OutputColumns" );
 		String IfInputNotFound = parameters.getValue ( "IfInputNotFound" );
 		// General (bottom).
+		String MaxConcurrency = parameters.getValue ( "MaxConcurrency" );
 		String Timeout = parameters.getValue ( "Timeout" );
 		String warning = "";
 		String message;
@@ -192,6 +211,27 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 			}
 		}
 
+		if ( (OutputColumns != null) && !OutputColumns.isEmpty() && !OutputColumns.contains("${") && (bitbucketCommand != null) ) {
+			// Check that the column names are valid for the Bitbucket command.
+			List<String> validColumns = getOutputColumnChoices ( bitbucketCommand );
+			for ( String outputColumn : parseOutputColumns(OutputColumns) ) {
+				boolean found = false;
+				for ( String validColumn : validColumns ) {
+					if ( validColumn.equalsIgnoreCase(outputColumn) ) {
+						found = true;
+						break;
+					}
+				}
+				if ( !found ) {
+					message = "The OutputColumns column \"" + outputColumn + "\" is invalid for " + bitbucketCommand + ".";
+					warning += "\n" + message;
+					status.addToLog(CommandPhaseType.INITIALIZATION,
+						new CommandLogRecord(CommandStatusType.FAILURE,
+							message, "Specify output columns separated by commas, from: " + String.join(", ", validColumns) ));
+				}
+			}
+		}
+
 		if ( (IfInputNotFound != null) && !IfInputNotFound.equals("") ) {
 			if ( !IfInputNotFound.equalsIgnoreCase(_Ignore) && !IfInputNotFound.equalsIgnoreCase(_Warn)
 		    	&& !IfInputNotFound.equalsIgnoreCase(_Fail) ) {
@@ -208,7 +248,8 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		// - some internal logic such as counts uses the table
 		if ( (bitbucketCommand == BitbucketCommandType.LIST_PROJECTS) ||
 			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORIES) ||
-			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ) {
+			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ||
+			(bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS) ) {
 			// Must specify table and/or file.
 			if ( ((OutputTableID == null) || OutputTableID.isEmpty()) && ((OutputFile == null) || OutputFile.isEmpty()) ) {
 				message = "The output table and/or file must be specified.";
@@ -227,8 +268,18 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
                 	message, "Specify the timeout as a number of seconds." ) );
 		}
 
+		if ( (MaxConcurrency != null) && !MaxConcurrency.isEmpty() ) {
+			if ( !StringUtil.isInteger(MaxConcurrency) || (Integer.parseInt(MaxConcurrency) < 1) ) {
+	        	message = "The MaxConcurrency (" + MaxConcurrency + ") is not an integer >= 1.";
+				warning += "\n" + message;
+	        	status.addToLog ( CommandPhaseType.INITIALIZATION,
+	            	new CommandLogRecord(CommandStatusType.FAILURE,
+	                	message, "Specify the maximum number of concurrent requests as an integer >= 1." ) );
+			}
+		}
+
 		// Check for invalid parameters.
-		List<String> validList = new ArrayList<>(16);
+		List<String> validList = new ArrayList<>(18);
 		// General (top).
 		validList.add ( "DataStore" );
 		validList.add ( "BitbucketCommand" );
@@ -249,7 +300,10 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		validList.add ( "OutputTableID" );
 		validList.add ( "OutputFile" );
 		validList.add ( "AppendOutput" );
+		validList.add ( "OutputColumns" );
+		validList.add ( "DataAgeProperty" );
 		// General (bottom).
+		validList.add ( "MaxConcurrency" );
 		validList.add ( "Timeout" );
 		//
 		validList.add ( "IfInputNotFound" );
@@ -263,6 +317,84 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		status.refreshPhaseSeverity(CommandPhaseType.INITIALIZATION,CommandStatusType.SUCCESS);
 	}
 
+	/**
+	 * Check for problems reading the datastore global data and add warnings to the command status.
+	 * @param dataStore the datastore
+	 * @param status the command status
+	 * @param logLevel the warning level
+	 * @param warningCount the warning count
+	 * @param commandTag the command tag for messages
+	 * @return the updated warning count
+	 */
+	private int checkGlobalDataProblems ( BitbucketDataStore dataStore, CommandStatus status, int logLevel,
+		int warningCount, String commandTag ) {
+		String routine = getClass().getSimpleName() + ".checkGlobalDataProblems";
+		for ( String problem : dataStore.getGlobalDataProblems() ) {
+			String message = "Datastore \"" + dataStore.getName() + "\" cached data may be incomplete: " + problem;
+			Message.printWarning ( logLevel,
+				MessageUtil.formatMessageTag( commandTag, ++warningCount), routine, message );
+			status.addToLog ( CommandPhaseType.RUN,
+				new CommandLogRecord(CommandStatusType.WARNING,
+					message, "Check the log file.  The data will be read again when the cached data expire." ) );
+		}
+		return warningCount;
+	}
+
+	/**
+	 * Get the datastore metrics.
+	 * A metric that is already in the table (matching endpoint and metric name) is updated,
+	 * and other metrics are added.
+	 */
+	private int doGetDatastoreMetrics (
+		BitbucketDataStore dataStore,
+		DataTable table,
+		int metricsEndpointCol,
+		int metricsMetricCol,
+		int metricsValueCol,
+		int metricsUnitsCol,
+		CommandStatus status, int logLevel, int warningCount, String commandTag ) throws Exception {
+		String routine = getClass().getSimpleName() + ".doGetDatastoreMetrics";
+
+		List<BitbucketDataStoreMetrics.Metric> metricList = dataStore.getMetricList();
+		Message.printStatus(2, routine, "Datastore \"" + dataStore.getName() + "\" has " + metricList.size() + " metrics.");
+
+		// Output to table.
+		for ( BitbucketDataStoreMetrics.Metric metric : metricList ) {
+			TableRecord rec = null;
+			if ( (metricsEndpointCol >= 0) && (metricsMetricCol >= 0) ) {
+				// Try to match the endpoint and metric name, which are the unique identifier.
+				for ( int irec = 0; irec < table.getNumberOfRecords(); irec++ ) {
+					TableRecord rec2 = table.getRecord(irec);
+					if ( metric.getEndpoint().equals(rec2.getFieldValue(metricsEndpointCol))
+						&& metric.getName().equals(rec2.getFieldValue(metricsMetricCol)) ) {
+						rec = rec2;
+						break;
+					}
+				}
+			}
+			if ( rec == null ) {
+				// Create a new record.
+				rec = table.addRecord(table.emptyRecord());
+			}
+			// Set the data in the record.
+			if ( metricsEndpointCol >= 0 ) {
+				rec.setFieldValue(metricsEndpointCol,metric.getEndpoint());
+			}
+			if ( metricsMetricCol >= 0 ) {
+				rec.setFieldValue(metricsMetricCol,metric.getName());
+			}
+			if ( metricsValueCol >= 0 ) {
+				rec.setFieldValue(metricsValueCol,Double.valueOf(metric.getValue()));
+			}
+			if ( metricsUnitsCol >= 0 ) {
+				rec.setFieldValue(metricsUnitsCol,metric.getUnits());
+			}
+		}
+
+        // Return the updated warning count.
+        return warningCount;
+	}
+
 	/**
 	 * List Bitbucket projects.
 	 */
@@ -276,13 +408,37 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		int projectKeyCol,
 		String regEx,
 		String listProjectsCountProperty,
+		String dataAgeProperty,
 		int timeoutSeconds,
 		CommandStatus status, int logLevel, int warningCount, String commandTag ) throws Exception {
 		String routine = getClass().getSimpleName() + ".doListProjects";
 		String message;
 
-		// Read the projects.
-		List<Project> projects = dataStore.readProjects ( session, timeoutSeconds );
+		// Read the projects:
+		// - only request the fields that are needed for output
+		List<String> fields = new ArrayList<>();
+		if ( projectTypeCol >= 0 ) {
+			fields.add("type");
+		}
+		if ( projectKeyCol >= 0 ) {
+			fields.add("key");
+		}
+		// - use the datastore's global data if available, which contains all fields
+		String bitbucketCommand = getCommandParameters().getValue ( "BitbucketCommand" );
+		BitbucketCommandPhaseEvent phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_READ );
+		List<Project> projects = dataStore.getCachedProjects ( session );
+		long dataAgeSeconds = 0;
+		if ( projects == null ) {
+			projects = dataStore.readProjects ( session, fields, timeoutSeconds );
+		}
+		else {
+			dataAgeSeconds = dataStore.getGlobalDataAgeSeconds();
+			Message.printStatus(2, routine, "Using " + projects.size() + " cached projects, age " + dataAgeSeconds + " seconds.");
+			warningCount = checkGlobalDataProblems ( dataStore, status, logLevel, warningCount, commandTag );
+		}
+		BitbucketJfr.endCommandPhase ( phaseEvent, projects.size() );
+		warningCount = setDataAgeProperty ( processor, dataAgeProperty, dataAgeSeconds,
+			status, logLevel, warningCount, commandTag );
 
     	TableRecord rec = null;
     	boolean allowDuplicates = false;
@@ -293,7 +449,9 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     		doRegEx = true;
     	}
 
-		// Output to table.
+		// Output to table:
+		// - the table fill phase includes filtering
+		phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_TABLE_FILL );
 		for ( Project project : projects ) {
 			String projectName = project.getName();
 			if ( doRegEx ) {
@@ -302,7 +460,8 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 				}
 			}
 			if ( table != null ) {
-    			if ( !allowDuplicates ) {
+    			rec = null;
+    			if ( !allowDuplicates && (projectNameCol >= 0) ) {
     				// Try to match the repository name, which is the unique identifier.
     				rec = table.getRecord ( projectNameCol, projectName );
     			}
@@ -311,11 +470,18 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     				rec = table.addRecord(table.emptyRecord());
     			}
     			// Set the data in the record.
-    			rec.setFieldValue(projectNameCol,projectName);
-    			rec.setFieldValue(projectTypeCol,project.getType());
-    			rec.setFieldValue(projectKeyCol,project.getKey());
+    			if ( projectNameCol >= 0 ) {
+    				rec.setFieldValue(projectNameCol,projectName);
+    			}
+    			if ( projectTypeCol >= 0 ) {
+    				rec.setFieldValue(projectTypeCol,project.getType());
+    			}
+    			if ( projectKeyCol >= 0 ) {
+    				rec.setFieldValue(projectKeyCol,project.getKey());
+    			}
     		}
     	}
+		BitbucketJfr.endCommandPhase ( phaseEvent, (table == null) ? -1 : table.getNumberOfRecords() );
     	// Set the property indicating the number of projects.
         if ( (listProjectsCountProperty != null) && !listProjectsCountProperty.equals("") ) {
           	int projectCount = 0;
@@ -361,13 +527,46 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		int repositorySizeCol,
 		int repositoryDescriptionCol,
 		String regEx, String listRepositoriesCountProperty,
+		String dataAgeProperty,
 		int timeoutSeconds,
 		CommandStatus status, int logLevel, int warningCount, String commandTag ) throws Exception {
 		String routine = getClass().getSimpleName() + ".doListRepositories";
 		String message;
 
-		// Read the repositories.
-		List<Repository> repositories = dataStore.readRepositories ( session, timeoutSeconds );
+		// Read the repositories:
+		// - only request the fields that are needed for output
+		List<String> fields = new ArrayList<>();
+		if ( repositoryCreatedOnCol >= 0 ) {
+			fields.add("created_on");
+		}
+		if ( repositoryUpdatedOnCol >= 0 ) {
+			fields.add("updated_on");
+		}
+		if ( repositoryIsPrivateCol >= 0 ) {
+			fields.add("is_private");
+		}
+		if ( repositorySizeCol >= 0 ) {
+			fields.add("size");
+		}
+		if ( repositoryDescriptionCol >= 0 ) {
+			fields.add("description");
+		}
+		// - use the datastore's global data if available, which contains all fields
+		String bitbucketCommand = getCommandParameters().getValue ( "BitbucketCommand" );
+		BitbucketCommandPhaseEvent phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_READ );
+		List<Repository> repositories = dataStore.getCachedRepositories ( session );
+		long dataAgeSeconds = 0;
+		if ( repositories == null ) {
+			repositories = dataStore.readRepositories ( session, fields, timeoutSeconds );
+		}
+		else {
+			dataAgeSeconds = dataStore.getGlobalDataAgeSeconds();
+			Message.printStatus(2, routine, "Using " + repositories.size() + " cached repositories, age " + dataAgeSeconds + " seconds.");
+			warningCount = checkGlobalDataProblems ( dataStore, status, logLevel, warningCount, commandTag );
+		}
+		BitbucketJfr.endCommandPhase ( phaseEvent, repositories.size() );
+		warningCount = setDataAgeProperty ( processor, dataAgeProperty, dataAgeSeconds,
+			status, logLevel, warningCount, commandTag );
 
     	TableRecord rec = null;
     	boolean allowDuplicates = false;
@@ -378,6 +577,8 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     		doRegEx = true;
     	}
 
+		// The table fill phase includes filtering.
+		phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_TABLE_FILL );
 		for ( Repository repository : repositories ) {
 			String repositoryName = repository.getName();
 			if ( doRegEx ) {
@@ -391,7 +592,8 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 	 		}
 			// Output to table.
 			if ( table != null ) {
-    			if ( !allowDuplicates ) {
+    			rec = null;
+    			if ( !allowDuplicates && (repositoryNameCol >= 0) ) {
     				// Try to match the repository name, which is the unique identifier.
     				rec = table.getRecord ( repositoryNameCol, repositoryName );
     			}
@@ -400,16 +602,33 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     				rec = table.addRecord(table.emptyRecord());
     			}
     			// Set the data in the record.
-    			rec.setFieldValue(repositoryNameCol,repositoryName);
-    			rec.setFieldValue(repositorySlugCol,repository.getSlug());
-    			rec.setFieldValue(repositoryCreatedOnCol,repository.getCreatedOnAsDateTime());
-    			rec.setFieldValue(repositoryUpdatedOnCol,repository.getUpdatedOnAsDateTime());
-    			rec.setFieldValue(repositoryHasIssuesCol,repository.getHasIssues());
-    			rec.setFieldValue(repositoryIsPrivateCol,repository.getIsPrivate());
-    			rec.setFieldValue(repositorySizeCol,repository.getSize());
-    			rec.setFieldValue(repositoryDescriptionCol,repository.getDescription());
+    			if ( repositoryNameCol >= 0 ) {
+    				rec.setFieldValue(repositoryNameCol,repositoryName);
+    			}
+    			if ( repositorySlugCol >= 0 ) {
+    				rec.setFieldValue(repositorySlugCol,repository.getSlug());
+    			}
+    			if ( repositoryCreatedOnCol >= 0 ) {
+    				rec.setFieldValue(repositoryCreatedOnCol,repository.getCreatedOnAsDateTime());
+    			}
+    			if ( repositoryUpdatedOnCol >= 0 ) {
+    				rec.setFieldValue(repositoryUpdatedOnCol,repository.getUpdatedOnAsDateTime());
+    			}
+    			if ( repositoryHasIssuesCol >= 0 ) {
+    				rec.setFieldValue(repositoryHasIssuesCol,repository.getHasIssues());
+    			}
+    			if ( repositoryIsPrivateCol >= 0 ) {
+    				rec.setFieldValue(repositoryIsPrivateCol,repository.getIsPrivate());
+    			}
+    			if ( repositorySizeCol >= 0 ) {
+    				rec.setFieldValue(repositorySizeCol,repository.getSize());
+    			}
+    			if ( repositoryDescriptionCol >= 0 ) {
+    				rec.setFieldValue(repositoryDescriptionCol,repository.getDescription());
+    			}
     		}
     	}
+		BitbucketJfr.endCommandPhase ( phaseEvent, (table == null) ? -1 : table.getNumberOfRecords() );
     	// Set the property indicating the number of repositories.
         if ( (listRepositoriesCountProperty != null) && !listRepositoriesCountProperty.equals("") ) {
           	int repositoryCount = 0;
@@ -464,7 +683,8 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	int issueEditedOnCol,
     	String assigneeToMatch,
     	boolean includeOpenIssues, boolean includeClosedIssues,
-		String regEx, String listRepositoryIssuesCountProperty,
+		String titlePattern, String regEx, String listRepositoryIssuesCountProperty,
+		int maxConcurrency,
 		int timeoutSeconds,
 		CommandStatus status, int logLevel, int warningCount, String commandTag ) throws Exception {
 		String routine = getClass().getSimpleName() + ".doListRepositoryIssues";
@@ -484,18 +704,58 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     		doAssignee = true;
     	}
 
-    	// Loop through the repositories and read the issues for each.
+    	// Create the query to filter issues on the server:
+    	// - only some criteria can be handled by the server so the issues are also filtered below
+    	IssueQuery issueQuery = new IssueQuery();
+    	issueQuery.setAssignee(assigneeToMatch);
+    	issueQuery.setIssueStates(includeOpenIssues, includeClosedIssues);
+    	issueQuery.setTitlePattern(titlePattern);
+    	Message.printStatus(2, routine, "Issue query for server: " + issueQuery.toQueryString());
+
+    	// Only request the fields that are needed for output:
+    	// - the datastore also requests fields that are needed to filter and sort
+    	List<String> fields = new ArrayList<>();
+    	if ( issueProperties.length > 0 ) {
+    		fields.add("content.raw");
+    	}
+    	if ( issueLinkCol >= 0 ) {
+    		fields.add("links.html.href");
+    	}
+    	if ( issueReporterCol >= 0 ) {
+    		fields.add("reporter.display_name");
+    	}
+    	if ( issueUpdatedOnCol >= 0 ) {
+    		fields.add("updated_on");
+    	}
+    	if ( issueEditedOnCol >= 0 ) {
+    		fields.add("edited_on");
+    	}
 
-   		Message.printStatus(2, routine, "Reading issues for " + repositoryList.size() + " repositories.");
+    	// Read the issues for the repositories:
+    	// - requests are run concurrently because most of the time is spent waiting on the network
+    	// - the results are processed in repository order so that output is deterministic
+
+   		Message.printStatus(2, routine, "Reading issues for " + repositoryList.size() + " repositories using "
+   			+ maxConcurrency + " concurrent requests.");
+   		String bitbucketCommand = getCommandParameters().getValue ( "BitbucketCommand" );
+   		BitbucketCommandPhaseEvent phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_READ );
+   		List<Callable<List<Issue>>> tasks = new ArrayList<>();
+   		for ( Repository repository : repositoryList ) {
+   			// Read the repository issues.
+   			tasks.add ( () -> {
+   				Message.printStatus(2, routine, "Reading issues for repository \"" + repository.getName() + "\"");
+   				return dataStore.readRepositoryIssues ( session, repository, issueQuery, fields, timeoutSeconds );
+   			});
+   		}
+   		List<List<Issue>> repositoryIssuesList = dataStore.getRequestExecutor().invokeAll ( tasks, maxConcurrency );
+   		BitbucketJfr.endCommandPhase ( phaseEvent, repositoryIssuesList.size() );
+
+   		phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_FILTER );
    		List<Issue> issues = new ArrayList<>();
-    	for ( Repository repository : repositoryList ) {
-    		// Read the repository issues:
-    		// - for now don't use API query parameters to filter
-    		Message.printStatus(2, routine, "Reading issues for repository \"" + repository.getName() + "\"");
-    		List<Issue> issues0 = dataStore.readRepositoryIssues ( session, repository, timeoutSeconds );
-
+    	for ( List<Issue> issues0 : repositoryIssuesList ) {
     		// Filter the returned issues:
     		// - only include matched issues in the output table
+    		// - the server query may return additional issues, for example because the title match is not case-specific
     		
 	  		for ( Issue issue : issues0 ) {
 		  		String issueTitle = issue.getTitle();
@@ -541,16 +801,22 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 	  		}
     	}
 
+		BitbucketJfr.endCommandPhase ( phaseEvent, issues.size() );
+
 		// Sort on the assignee, repository, priority, and age.
+		phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_SORT );
 		Collections.sort(issues, new IssueComparator());
+		BitbucketJfr.endCommandPhase ( phaseEvent, issues.size() );
     	
     	// The remaining issues are added to the output table.
 
 		if ( table != null ) {
   			// Output to table.
+			phaseEvent = BitbucketJfr.beginCommandPhase ( bitbucketCommand, BitbucketJfr.PHASE_TABLE_FILL );
 			for ( Issue issue : issues ) {
 				String issueTitle = issue.getTitle();
-		  		if ( !allowDuplicates ) {
+		  		rec = null;
+		  		if ( !allowDuplicates && (issueTitleCol >= 0) ) {
 			  		// Try to match the repository name, which is the unique identifier.
 			  		rec = table.getRecord ( issueTitleCol, issueTitle );
 		  		}
@@ -559,39 +825,62 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 			  		rec = table.addRecord(table.emptyRecord());
 		  		}
 		  		// Set the data in the record.
-		  		rec.setFieldValue(issueRepositoryNameCol,issue.getRepositoryObject().getName());
+		  		if ( issueRepositoryNameCol >= 0 ) {
+		  			rec.setFieldValue(issueRepositoryNameCol,issue.getRepositoryObject().getName());
+		  		}
 		  		for ( int i = 0; i < issueProperties.length; i++ ) {
 		  			String propValue = issue.getProperty(issueProperties[i]);
 		  			// OK to set as null.
-		  			rec.setFieldValue(issuePropertiesCol[i],propValue);
+		  			if ( issuePropertiesCol[i] >= 0 ) {
+		  				rec.setFieldValue(issuePropertiesCol[i],propValue);
+		  			}
+		  		}
+		  		if ( issueIdCol >= 0 ) {
+		  			rec.setFieldValue(issueIdCol,issue.getId());
 		  		}
-		  		rec.setFieldValue(issueIdCol,issue.getId());
 		  		IssueLinks issueLinks = issue.getIssueLinks();
 		  		if ( issueLinks != null ) {
 		  			Link html = issueLinks.getHtml();
-		  			if ( html != null ) {
+		  			if ( (html != null) && (issueLinkCol >= 0) ) {
 		  				rec.setFieldValue(issueLinkCol,html.getHref());
 		  			}
 		  		}
-		  		rec.setFieldValue(issueTitleCol,issueTitle);
+		  		if ( issueTitleCol >= 0 ) {
+		  			rec.setFieldValue(issueTitleCol,issueTitle);
+		  		}
 		  		//rec.setFieldValue(issueNameCol,issue.getName());
 		  		//rec.setFieldValue(issueTypeCol,issue.getType());
-		  		rec.setFieldValue(issuePriorityCol,issue.getPriority());
-		  		rec.setFieldValue(issueKindCol,issue.getKind());
-		  		rec.setFieldValue(issueStateCol,issue.getState());
+		  		if ( issuePriorityCol >= 0 ) {
+		  			rec.setFieldValue(issuePriorityCol,issue.getPriority());
+		  		}
+		  		if ( issueKindCol >= 0 ) {
+		  			rec.setFieldValue(issueKindCol,issue.getKind());
+		  		}
+		  		if ( issueStateCol >= 0 ) {
+		  			rec.setFieldValue(issueStateCol,issue.getState());
+		  		}
 		  		User assignee = issue.getAssignee();
-		  		if ( assignee != null ) {
+		  		if ( (assignee != null) && (issueAssigneeCol >= 0) ) {
 		  			rec.setFieldValue(issueAssigneeCol,assignee.getDisplayName());
 		  		}
 		  		User reporter = issue.getReporter();
-		  		if ( reporter != null ) {
+		  		if ( (reporter != null) && (issueReporterCol >= 0) ) {
 		  			rec.setFieldValue(issueReporterCol,reporter.getDisplayName());
 		  		}
-		  		rec.setFieldValue(issueAgeDaysCol,issue.getAgeDays());
-		  		rec.setFieldValue(issueCreatedOnCol,issue.getCreatedOnAsDateTime());
-		  		rec.setFieldValue(issueUpdatedOnCol,issue.getUpdatedOnAsDateTime());
-		  		rec.setFieldValue(issueEditedOnCol,issue.getEditedOnAsDateTime());
+		  		if ( issueAgeDaysCol >= 0 ) {
+		  			rec.setFieldValue(issueAgeDaysCol,issue.getAgeDays());
+		  		}
+		  		if ( issueCreatedOnCol >= 0 ) {
+		  			rec.setFieldValue(issueCreatedOnCol,issue.getCreatedOnAsDateTime());
+		  		}
+		  		if ( issueUpdatedOnCol >= 0 ) {
+		  			rec.setFieldValue(issueUpdatedOnCol,issue.getUpdatedOnAsDateTime());
+		  		}
+		  		if ( issueEditedOnCol >= 0 ) {
+		  			rec.setFieldValue(issueEditedOnCol,issue.getEditedOnAsDateTime());
+		  		}
 			}
+			BitbucketJfr.endCommandPhase ( phaseEvent, issues.size() );
   		}
 
   		// Set the processor property indicating the number of issues.
@@ -622,6 +911,70 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
         return warningCount;
 	}
 
+	/**
+	 * Return the output column names that can be selected for a Bitbucket command, in the default order.
+	 * @param bitbucketCommand the Bitbucket command
+	 * @return the list of output column names, empty if the command does not output a table
+	 */
+	protected List<String> getOutputColumnChoices ( BitbucketCommandType bitbucketCommand ) {
+		List<String> columns = new ArrayList<>();
+		String [] columnArray = null;
+		if ( bitbucketCommand == BitbucketCommandType.LIST_PROJECTS ) {
+			columnArray = _ProjectColumns;
+		}
+		else if ( bitbucketCommand == BitbucketCommandType.LIST_REPOSITORIES ) {
+			columnArray = _RepositoryColumns;
+		}
+		else if ( bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES ) {
+			columnArray = _IssueColumns;
+		}
+		else if ( bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS ) {
+			columnArray = _MetricsColumns;
+		}
+		if ( columnArray != null ) {
+			for ( String column : columnArray ) {
+				columns.add(column);
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Indicate whether a column should be output.
+	 * @param outputColumns the list of requested output columns, empty to output all columns
+	 * @param column the column name to check
+	 * @return true if the column should be output
+	 */
+	private boolean isOutputColumn ( List<String> outputColumns, String column ) {
+		if ( outputColumns.isEmpty() ) {
+			return true;
+		}
+		for ( String outputColumn : outputColumns ) {
+			if ( outputColumn.equalsIgnoreCase(column) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parse the OutputColumns parameter into a list of column names.
+	 * @param OutputColumns the OutputColumns parameter value, column names separated by commas
+	 * @return the list of column names, empty if none are specified
+	 */
+	private List<String> parseOutputColumns ( String OutputColumns ) {
+		List<String> outputColumns = new ArrayList<>();
+		if ( (OutputColumns != null) && !OutputColumns.isEmpty() ) {
+			for ( String outputColumn : OutputColumns.split(",") ) {
+				outputColumn = outputColumn.trim();
+				if ( !outputColumn.isEmpty() ) {
+					outputColumns.add(outputColumn);
+				}
+			}
+		}
+		return outputColumns;
+	}
+
 	/**
 	Edit the command.
 	@param parent The parent JFrame to which the command dialog will belong.
@@ -865,8 +1218,22 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		if ( (AppendOutput != null) && AppendOutput.equalsIgnoreCase(_True)) {
 			appendOutput = true;
 		}
+		String OutputColumns = parameters.getValue ( "OutputColumns" );
+		if ( commandPhase == CommandPhaseType.RUN ) {
+			OutputColumns = TSCommandProcessorUtil.expandParameterValue(processor,this,OutputColumns);
+		}
+		// Empty list will output all columns.
+		List<String> outputColumns = parseOutputColumns ( OutputColumns );
+		String DataAgeProperty = parameters.getValue ( "DataAgeProperty" );
+		if ( commandPhase == CommandPhaseType.RUN ) {
+			DataAgeProperty = TSCommandProcessorUtil.expandParameterValue(processor,this,DataAgeProperty);
+		}
 
 		// General (bottom).
+		String MaxConcurrency = parameters.getValue ( "MaxConcurrency" );
+		if ( commandPhase == CommandPhaseType.RUN ) {
+	    	MaxConcurrency = TSCommandProcessorUtil.expandParameterValue(processor, this, MaxConcurrency);
+		}
 		String Timeout = parameters.getValue ("Timeout" );
 		int timeoutSeconds = 5*60; // Default = 5 minutes.
 		if ( commandPhase == CommandPhaseType.RUN ) {
@@ -938,6 +1305,23 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
            	throw new RuntimeException ( message );
     	}
 
+		// Maximum number of concurrent requests:
+		// - default to the datastore configuration
+		// - the datastore value is the upper limit because all requests share the datastore request semaphore
+		int maxConcurrency = dataStore.getMaxConcurrency();
+		if ( (MaxConcurrency != null) && !MaxConcurrency.isEmpty() && StringUtil.isInteger(MaxConcurrency) ) {
+			maxConcurrency = Integer.parseInt(MaxConcurrency);
+			if ( maxConcurrency > dataStore.getMaxConcurrency() ) {
+				message = "MaxConcurrency (" + maxConcurrency + ") is greater than the datastore MaxConcurrency ("
+					+ dataStore.getMaxConcurrency() + ") - using the datastore value.";
+				Message.printWarning ( warningLevel, routine, message );
+				status.addToLog ( commandPhase,
+					new CommandLogRecord(CommandStatusType.WARNING,
+						message, "Increase the datastore MaxConcurrency property to allow more concurrent requests." ) );
+				maxConcurrency = dataStore.getMaxConcurrency();
+			}
+		}
+
 		// Create a session using the datastore properties.
 		String problem = "";
 		String workspaceId = dataStore.getProperty("WorkspaceId");
@@ -1014,6 +1398,13 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
         		int issueUpdatedOnCol = -1;
         		int issueEditedOnCol = -1;
 
+        		// Datastore metrics columns:
+	    		// - order of columns
+        		int metricsEndpointCol = -1;
+        		int metricsMetricCol = -1;
+        		int metricsValueCol = -1;
+        		int metricsUnitsCol = -1;
+
 	    		if ( doTable || doOutputFile) {
 	    			// Requested a table and/or file:
 	    			// - if only file is request, create a temporary table that is then written to output
@@ -1057,10 +1448,36 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	        			columnList.add ( new TableField(TableField.DATA_TYPE_DATETIME, "UpdatedOn", -1) );
     	        			columnList.add ( new TableField(TableField.DATA_TYPE_DATETIME, "EditedOn", -1) );
     	        		}
+    	        		else if ( bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS ) {
+    	        			columnList.add ( new TableField(TableField.DATA_TYPE_STRING, "Endpoint", -1) );
+    	        			columnList.add ( new TableField(TableField.DATA_TYPE_STRING, "Metric", -1) );
+    	        			columnList.add ( new TableField(TableField.DATA_TYPE_DOUBLE, "Value", -1, 3) );
+    	        			columnList.add ( new TableField(TableField.DATA_TYPE_STRING, "Units", -1) );
+    	        		}
+    	        		// Remove columns that were not requested:
+    	        		// - issue property columns are always output
+    	        		if ( !outputColumns.isEmpty() ) {
+    	        			List<String> columnChoices = getOutputColumnChoices ( bitbucketCommand );
+    	        			List<TableField> columnList2 = new ArrayList<>();
+    	        			for ( TableField column : columnList ) {
+    	        				boolean isChoice = false;
+    	        				for ( String columnChoice : columnChoices ) {
+    	        					if ( columnChoice.equals(column.getName()) ) {
+    	        						isChoice = true;
+    	        						break;
+    	        					}
+    	        				}
+    	        				if ( !isChoice || isOutputColumn(outputColumns, column.getName()) ) {
+    	        					columnList2.add(column);
+    	        				}
+    	        			}
+    	        			columnList = columnList2;
+    	        		}
     	        		// 2. Create the table if not found from the processor above.
     	        		if ( (bitbucketCommand == BitbucketCommandType.LIST_PROJECTS) ||
     	        			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORIES) ||
-    	        			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ) {
+    	        			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ||
+    	        			(bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS) ) {
     	        			// Create the table.
     	        			table = new DataTable( columnList );
     	        		}
@@ -1100,12 +1517,19 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	        			issueUpdatedOnCol = table.getFieldIndex("UpdatedOn");
     	        			issueEditedOnCol = table.getFieldIndex("EditedOn");
     	        		}
+    	        		else if ( bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS ) {
+    	        			metricsEndpointCol = table.getFieldIndex("Endpoint");
+    	        			metricsMetricCol = table.getFieldIndex("Metric");
+    	        			metricsValueCol = table.getFieldIndex("Value");
+    	        			metricsUnitsCol = table.getFieldIndex("Units");
+    	        		}
     	        		// 4. Set the table in the processor:
     	        		//    - if new will add
     	        		//    - if append will overwrite by replacing the matching table ID
     	        		if ( (bitbucketCommand == BitbucketCommandType.LIST_PROJECTS) ||
     	        			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORIES) ||
-    	        			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ) {
+    	        			(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ||
+    	        			(bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS) ) {
     	        			if ( (OutputTableID != null) && !OutputTableID.isEmpty() ) {
     	        				table.setTableID ( OutputTableID );
                 				Message.printStatus(2, routine, "Created new table \"" + OutputTableID + "\" for output.");
@@ -1140,47 +1564,47 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	        			projectNameCol = table.getFieldIndex("Name");
     	        			projectTypeCol = table.getFieldIndex("Type");
     	        			projectKeyCol = table.getFieldIndex("Key");
-    	        			if ( projectNameCol < 0 ) {
+    	        			if ( (projectNameCol < 0) && isOutputColumn(outputColumns, "Name") ) {
     	            			projectNameCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Name", -1), "");
     	        			}
-    	        			if ( projectTypeCol < 0 ) {
+    	        			if ( (projectTypeCol < 0) && isOutputColumn(outputColumns, "Type") ) {
     	            			projectTypeCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Type", -1), "");
     	        			}
-    	        			if ( projectKeyCol < 0 ) {
+    	        			if ( (projectKeyCol < 0) && isOutputColumn(outputColumns, "Key") ) {
     	            			projectKeyCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Key", -1), "");
     	        			}
     	        		}
     	        		else if ( bitbucketCommand == BitbucketCommandType.LIST_REPOSITORIES ) {
     	        			repositoryNameCol = table.getFieldIndex("Name");
-    	        			if ( repositoryNameCol < 0 ) {
+    	        			if ( (repositoryNameCol < 0) && isOutputColumn(outputColumns, "Name") ) {
     	            			repositoryNameCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Name", -1), "");
     	        			}
     	        			repositorySlugCol = table.getFieldIndex("Slug");
-    	        			if ( repositorySlugCol < 0 ) {
+    	        			if ( (repositorySlugCol < 0) && isOutputColumn(outputColumns, "Slug") ) {
     	            			repositorySlugCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Slug", -1), "");
     	        			}
     	        			repositoryCreatedOnCol = table.getFieldIndex("CreatedOn");
-    	        			if ( repositoryCreatedOnCol < 0 ) {
+    	        			if ( (repositoryCreatedOnCol < 0) && isOutputColumn(outputColumns, "CreatedOn") ) {
     	            			repositoryCreatedOnCol = table.addField(new TableField(TableField.DATA_TYPE_DATETIME, "CreatedOn", -1), "");
     	        			}
     	        			repositoryUpdatedOnCol = table.getFieldIndex("UpdatedOn");
-    	        			if ( repositoryUpdatedOnCol < 0 ) {
+    	        			if ( (repositoryUpdatedOnCol < 0) && isOutputColumn(outputColumns, "UpdatedOn") ) {
     	            			repositoryUpdatedOnCol = table.addField(new TableField(TableField.DATA_TYPE_DATETIME, "UpdatedOn", -1), "");
     	        			}
     	        			repositoryHasIssuesCol = table.getFieldIndex("HasIssues");
-    	        			if ( repositoryHasIssuesCol < 0 ) {
+    	        			if ( (repositoryHasIssuesCol < 0) && isOutputColumn(outputColumns, "HasIssues") ) {
     	            			repositoryHasIssuesCol = table.addField(new TableField(TableField.DATA_TYPE_BOOLEAN, "HasIssues", -1), null);
     	        			}
     	        			repositoryIsPrivateCol = table.getFieldIndex("IsPrivate");
-    	        			if ( repositoryIsPrivateCol < 0 ) {
+    	        			if ( (repositoryIsPrivateCol < 0) && isOutputColumn(outputColumns, "IsPrivate") ) {
     	            			repositoryIsPrivateCol = table.addField(new TableField(TableField.DATA_TYPE_BOOLEAN, "IsPrivate", -1), null);
     	        			}
     	        			repositorySizeCol = table.getFieldIndex("Size");
-    	        			if ( repositorySizeCol < 0 ) {
+    	        			if ( (repositorySizeCol < 0) && isOutputColumn(outputColumns, "Size") ) {
     	            			repositorySizeCol = table.addField(new TableField(TableField.DATA_TYPE_INT, "Size", -1), null);
     	        			}
     	        			repositoryDescriptionCol = table.getFieldIndex("Description");
-    	        			if ( repositoryDescriptionCol < 0 ) {
+    	        			if ( (repositoryDescriptionCol < 0) && isOutputColumn(outputColumns, "Description") ) {
     	            			repositoryDescriptionCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Description", -1), "");
     	        			}
     	        		}
@@ -1203,16 +1627,16 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	        			issueCreatedOnCol = table.getFieldIndex("CreatedOn");
     	        			issueUpdatedOnCol = table.getFieldIndex("UpdatedOn");
     	        			issueEditedOnCol = table.getFieldIndex("EditedOn");
-    	        			if ( issueRepositoryNameCol < 0 ) {
+    	        			if ( (issueRepositoryNameCol < 0) && isOutputColumn(outputColumns, "RepositoryName") ) {
     	            			issueRepositoryNameCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "RepositoryName", -1), "");
     	        			}
-    	        			if ( issueIdCol < 0 ) {
+    	        			if ( (issueIdCol < 0) && isOutputColumn(outputColumns, "Id") ) {
     	            			issueIdCol = table.addField(new TableField(TableField.DATA_TYPE_INT, "Id", -1), "");
     	        			}
-    	        			if ( issueLinkCol < 0 ) {
+    	        			if ( (issueLinkCol < 0) && isOutputColumn(outputColumns, "Link") ) {
     	            			issueLinkCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Link", -1), "");
     	        			}
-    	        			if ( issueTitleCol < 0 ) {
+    	        			if ( (issueTitleCol < 0) && isOutputColumn(outputColumns, "Title") ) {
     	            			issueTitleCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Title", -1), "");
     	        			}
     	        			//if ( issueNameCol < 0 ) {
@@ -1221,34 +1645,52 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	        			//if ( issueTypeCol < 0 ) {
     	            		//	issueTypeCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Type", -1), "");
     	        			//}
-    	        			if ( issuePriorityCol < 0 ) {
+    	        			if ( (issuePriorityCol < 0) && isOutputColumn(outputColumns, "Priority") ) {
     	            			issuePriorityCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Priority", -1), "");
     	        			}
-    	        			if ( issueKindCol < 0 ) {
+    	        			if ( (issueKindCol < 0) && isOutputColumn(outputColumns, "Kind") ) {
     	            			issueKindCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Kind", -1), "");
     	        			}
-    	        			if ( issueStateCol < 0 ) {
+    	        			if ( (issueStateCol < 0) && isOutputColumn(outputColumns, "State") ) {
     	            			issueStateCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "State", -1), "");
     	        			}
-    	        			if ( issueAssigneeCol < 0 ) {
+    	        			if ( (issueAssigneeCol < 0) && isOutputColumn(outputColumns, "Assignee") ) {
     	            			issueAssigneeCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Assignee", -1), "");
     	        			}
-    	        			if ( issueReporterCol < 0 ) {
+    	        			if ( (issueReporterCol < 0) && isOutputColumn(outputColumns, "Reporter") ) {
     	            			issueReporterCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Reporter", -1), "");
     	        			}
-    	        			if ( issueAgeDaysCol < 0 ) {
+    	        			if ( (issueAgeDaysCol < 0) && isOutputColumn(outputColumns, "AgeDays") ) {
     	            			issueAgeDaysCol = table.addField(new TableField(TableField.DATA_TYPE_INT, "AgeDays", -1), "");
     	        			}
-    	        			if ( issueCreatedOnCol < 0 ) {
+    	        			if ( (issueCreatedOnCol < 0) && isOutputColumn(outputColumns, "CreatedOn") ) {
     	            			issueCreatedOnCol = table.addField(new TableField(TableField.DATA_TYPE_DATETIME, "CreatedOn", -1), "");
     	        			}
-    	        			if ( issueUpdatedOnCol < 0 ) {
+    	        			if ( (issueUpdatedOnCol < 0) && isOutputColumn(outputColumns, "UpdatedOn") ) {
     	            			issueUpdatedOnCol = table.addField(new TableField(TableField.DATA_TYPE_DATETIME, "UpdatedOn", -1), "");
     	        			}
-    	        			if ( issueEditedOnCol < 0 ) {
+    	        			if ( (issueEditedOnCol < 0) && isOutputColumn(outputColumns, "EditedOn") ) {
     	            			issueEditedOnCol = table.addField(new TableField(TableField.DATA_TYPE_DATETIME, "EditedOn", -1), "");
     	        			}
     	        		}
+    	        		else if ( bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS ) {
+    	        			metricsEndpointCol = table.getFieldIndex("Endpoint");
+    	        			if ( (metricsEndpointCol < 0) && isOutputColumn(outputColumns, "Endpoint") ) {
+    	            			metricsEndpointCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Endpoint", -1), "");
+    	        			}
+    	        			metricsMetricCol = table.getFieldIndex("Metric");
+    	        			if ( (metricsMetricCol < 0) && isOutputColumn(outputColumns, "Metric") ) {
+    	            			metricsMetricCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Metric", -1), "");
+    	        			}
+    	        			metricsValueCol = table.getFieldIndex("Value");
+    	        			if ( (metricsValueCol < 0) && isOutputColumn(outputColumns, "Value") ) {
+    	            			metricsValueCol = table.addField(new TableField(TableField.DATA_TYPE_DOUBLE, "Value", -1, 3), null);
+    	        			}
+    	        			metricsUnitsCol = table.getFieldIndex("Units");
+    	        			if ( (metricsUnitsCol < 0) && isOutputColumn(outputColumns, "Units") ) {
+    	            			metricsUnitsCol = table.addField(new TableField(TableField.DATA_TYPE_STRING, "Units", -1), "");
+    	        			}
+    	        		}
     	        	}
     	    	}
 
@@ -1265,6 +1707,7 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	    			projectKeyCol,
     	    			listRepositoriesRegEx,
     	    			ListRepositoriesCountProperty,
+    	    			DataAgeProperty,
     	    			timeoutSeconds,
     	    			status, logLevel, warningCount, commandTag );
     	    	}
@@ -1285,6 +1728,7 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	    			repositoryDescriptionCol,
     	    			listRepositoriesRegEx,
     	    			ListRepositoriesCountProperty,
+    	    			DataAgeProperty,
     	    			timeoutSeconds,
     	    			status, logLevel, warningCount, commandTag );
     	    	}
@@ -1309,6 +1753,7 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	    			repositoryDescriptionCol,
     	    			listRepositoriesRegEx,
     	    			ListRepositoriesCountProperty,
+    	    			DataAgeProperty,
     	    			timeoutSeconds,
     	    			status, logLevel, warningCount, commandTag );
    	        		// Read the list of issues for the repositories.
@@ -1336,11 +1781,22 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
     	        		issueEditedOnCol,
     	    			Assignee,
     	        		includeOpenIssues, includeClosedIssues,
-    	    			listRepositoryIssuesRegEx,
+    	    			ListRepositoryIssuesRegEx, listRepositoryIssuesRegEx,
     	    			ListRepositoryIssuesCountProperty,
+    	    			maxConcurrency,
     	    			timeoutSeconds,
     	    			status, logLevel, warningCount, commandTag );
     	    	}
+    	    	else if ( bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS ) {
+    	    		warningCount = doGetDatastoreMetrics (
+    	    			dataStore,
+    	    			table,
+    	    			metricsEndpointCol,
+    	    			metricsMetricCol,
+    	    			metricsValueCol,
+    	    			metricsUnitsCol,
+    	    			status, logLevel, warningCount, commandTag );
+    	    	}
 
 	        	// Create the output file:
 	    	   	// - write the table to a delimited file
@@ -1361,7 +1817,9 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 	    			   		// - the output is only for this command so must append to the file (if it exists)
 	    				   	writeProps.put("Append", "True");
 	    			   	}
+	    			   	BitbucketCommandPhaseEvent phaseEvent = BitbucketJfr.beginCommandPhase ( BitbucketCommand, BitbucketJfr.PHASE_FILE_WRITE );
 	    			   	table.writeDelimitedFile(OutputFile_full, ",", writeColumnNames, comments, commentLinePrefix, writeProps);
+	    			   	BitbucketJfr.endCommandPhase ( phaseEvent, table.getNumberOfRecords() );
 	           			setOutputFile(new File(OutputFile_full));
 	    		   	}
 	    		   	// TODO smalers 2023-01-31 need to implement.
@@ -1380,7 +1838,8 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 	    	else if ( commandPhase == CommandPhaseType.DISCOVERY ) {
    	        	if ( (bitbucketCommand == BitbucketCommandType.LIST_PROJECTS) ||
    	        		(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORIES) ||
-   	        		(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ) {
+   	        		(bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES) ||
+   	        		(bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS) ) {
    	        		if ( (OutputTableID != null) && !OutputTableID.isEmpty() ) {
    	        			// Have a user-specified table identifier, may use ${Property}.
    	        			if ( table == null ) {
@@ -1404,6 +1863,9 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 			}
         	else if ( bitbucketCommand == BitbucketCommandType.LIST_REPOSITORY_ISSUES ) {
 				message = "Unexpected error listing repository issues (" + e + ").";
+        	}
+        	else if ( bitbucketCommand == BitbucketCommandType.GET_DATASTORE_METRICS ) {
+				message = "Unexpected error getting datastore metrics (" + e + ").";
         	}
 			else {
 				message = "Unexpected error for unknown Bitbucket command: " + BitbucketCommand;
@@ -1429,6 +1891,42 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 		status.refreshPhaseSeverity(CommandPhaseType.RUN,CommandStatusType.SUCCESS);
 	}
 
+	/**
+	 * Set the property indicating the age of the data that were listed.
+	 * @param processor the command processor
+	 * @param dataAgeProperty the property name, or null or empty to not set the property
+	 * @param dataAgeSeconds the age of the data in seconds, 0 if the data were read by the command,
+	 * or -1 if the age of saved data is not known
+	 * @param status the command status
+	 * @param logLevel the warning level
+	 * @param warningCount the warning count
+	 * @param commandTag the command tag for messages
+	 * @return the updated warning count
+	 */
+	private int setDataAgeProperty ( CommandProcessor processor, String dataAgeProperty, long dataAgeSeconds,
+		CommandStatus status, int logLevel, int warningCount, String commandTag ) {
+		String routine = getClass().getSimpleName() + ".setDataAgeProperty";
+		if ( (dataAgeProperty == null) || dataAgeProperty.isEmpty() ) {
+			return warningCount;
+		}
+       	PropList requestParams = new PropList ( "" );
+       	requestParams.setUsingObject ( "PropertyName", dataAgeProperty );
+       	requestParams.setUsingObject ( "PropertyValue", Integer.valueOf((int)Math.min(dataAgeSeconds, Integer.MAX_VALUE)) );
+       	try {
+           	processor.processRequest( "SetProperty", requestParams);
+       	}
+       	catch ( Exception e ) {
+           	String message = "Error requesting SetProperty(Property=\"" + dataAgeProperty + "\") from processor.";
+           	Message.printWarning(logLevel,
+               	MessageUtil.formatMessageTag( commandTag, ++warningCount),
+               	routine, message );
+           	status.addToLog ( CommandPhaseType.RUN,
+               	new CommandLogRecord(CommandStatusType.FAILURE,
+                   	message, "Report the problem to software support." ) );
+       	}
+		return warningCount;
+	}
+
 	/**
 	Set the table that is read by this class in discovery mode.
 	@param table the output table used in discovery mode
@@ -1472,8 +1970,11 @@ implements CommandDiscoverable, FileGenerator, ObjectListProvider
 			"OutputTableID",
 			"OutputFile",
 			"AppendOutput",
+			"OutputColumns",
+			"DataAgeProperty",
 			// General (bottom).
 			"IfInputNotFound",
+			"MaxConcurrency",
 			"Timeout"
 		};
 		return this.toString(parameters, parameterOrder);
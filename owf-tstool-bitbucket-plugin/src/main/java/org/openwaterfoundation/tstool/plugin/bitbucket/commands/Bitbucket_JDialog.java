@@ -78,6 +78,7 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 	private final int listProjectsTabIndex = 0;
 	private final int listRepositoriesTabIndex = 1;
 	private final int listRepositoryIssuesTabIndex = 2;
+	private final int outputTabIndex = 3;
 
 	private final String __AddWorkingDirectory = "Abs";
 	private final String __RemoveWorkingDirectory = "Rel";
@@ -114,8 +115,11 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 	private SimpleJComboBox __OutputTableID_JComboBox = null;
 	private JTextField __OutputFile_JTextField = null;
 	private SimpleJComboBox __AppendOutput_JComboBox = null;
+	private JTextField __OutputColumns_JTextField = null;
+	private JTextField __DataAgeProperty_JTextField = null;
 
 	// General (bottom).
+	private JTextField __MaxConcurrency_JTextField;
 	private JTextField __Timeout_JTextField;
 
 	private JTextArea __command_JTextArea = null;
@@ -251,7 +255,10 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		String OutputTableID = __OutputTableID_JComboBox.getSelected();
 		String OutputFile = __OutputFile_JTextField.getText().trim();
 		String AppendOutput = __AppendOutput_JComboBox.getSelected();
+		String OutputColumns = __OutputColumns_JTextField.getText().trim();
+		String DataAgeProperty = __DataAgeProperty_JTextField.getText().trim();
 		// General (bottom).
+		String MaxConcurrency = __MaxConcurrency_JTextField.getText().trim();
 		String Timeout = __Timeout_JTextField.getText().trim();
 		//String IfInputNotFound = __IfInputNotFound_JComboBox.getSelected();
 		__error_wait = false;
@@ -304,11 +311,20 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 	    if ( (AppendOutput != null) && !AppendOutput.isEmpty() ) {
 	        props.set ( "AppendOutput", AppendOutput );
 	    }
+	    if ( (OutputColumns != null) && !OutputColumns.isEmpty() ) {
+	        props.set ( "OutputColumns", OutputColumns );
+	    }
+	    if ( (DataAgeProperty != null) && !DataAgeProperty.isEmpty() ) {
+	        props.set ( "DataAgeProperty", DataAgeProperty );
+	    }
 	    /*
 		if ( IfInputNotFound.length() > 0 ) {
 			props.set ( "IfInputNotFound", IfInputNotFound );
 		}
 		*/
+		if ( !MaxConcurrency.isEmpty() ) {
+			props.set ( "MaxConcurrency", MaxConcurrency );
+		}
 		if ( !Timeout.isEmpty() ) {
 			props.set ( "Timeout", Timeout );
 		}
@@ -347,8 +363,11 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		String OutputTableID = __OutputTableID_JComboBox.getSelected();
 	    String OutputFile = __OutputFile_JTextField.getText().trim();
 		String AppendOutput = __AppendOutput_JComboBox.getSelected();
+		String OutputColumns = __OutputColumns_JTextField.getText().trim();
+		String DataAgeProperty = __DataAgeProperty_JTextField.getText().trim();
 		//String IfInputNotFound = __IfInputNotFound_JComboBox.getSelected();
 		// General (bottom).
+		String MaxConcurrency = __MaxConcurrency_JTextField.getText().trim();
 		String Timeout = __Timeout_JTextField.getText().trim();
 
 	    // General (top).
@@ -371,7 +390,10 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		__command.setCommandParameter ( "OutputTableID", OutputTableID );
 		__command.setCommandParameter ( "OutputFile", OutputFile );
 		__command.setCommandParameter ( "AppendOutput", AppendOutput );
+		__command.setCommandParameter ( "OutputColumns", OutputColumns );
+		__command.setCommandParameter ( "DataAgeProperty", DataAgeProperty );
 		//__command.setCommandParameter ( "IfInputNotFound", IfInputNotFound );
+		__command.setCommandParameter ( "MaxConcurrency", MaxConcurrency );
 		__command.setCommandParameter ( "Timeout", Timeout );
 	}
 
@@ -623,7 +645,7 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 	    __main_JTabbedPane.addTab ( "Output", output_JPanel );
 
 	    JGUIUtil.addComponent(output_JPanel, new JLabel (
-	    	"The following parameters are used with 'List Projects', 'List Repositories' and 'List Repository Issues' commands."),
+	    	"The following parameters are used with 'List Projects', 'List Repositories', 'List Repository Issues' and 'Get Datastore Metrics' commands."),
 			0, ++yOutput, 8, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.WEST);
 	    JGUIUtil.addComponent(output_JPanel, new JLabel ("An output table and/or file can be created."),
 			0, ++yOutput, 8, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.WEST);
@@ -693,6 +715,27 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 			"Optional - append to output (default=" + __command._False + ")."),
 			3, yOutput, 2, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.WEST);
 
+	    JGUIUtil.addComponent(output_JPanel, new JLabel ( "Output columns:" ),
+	        0, ++yOutput, 1, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.EAST);
+	    __OutputColumns_JTextField = new JTextField ( "", 30 );
+	    __OutputColumns_JTextField.setToolTipText("Output column names separated by commas, can use ${Property} notation.");
+	    __OutputColumns_JTextField.addKeyListener ( this );
+	    JGUIUtil.addComponent(output_JPanel, __OutputColumns_JTextField,
+	        1, yOutput, 2, 1, 1, 0, insetsTLBR, GridBagConstraints.HORIZONTAL, GridBagConstraints.WEST);
+	    JGUIUtil.addComponent(output_JPanel, new JLabel( "Optional - columns to output (default=all)."),
+	        3, yOutput, 4, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.WEST);
+
+	    JGUIUtil.addComponent(output_JPanel, new JLabel ( "Data age property:" ),
+	        0, ++yOutput, 1, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.EAST);
+	    __DataAgeProperty_JTextField = new JTextField ( "", 30 );
+	    __DataAgeProperty_JTextField.setToolTipText(
+	    	"Specify the property name for the age of the datastore's saved projects or repositories (seconds), can use ${Property} notation");
+	    __DataAgeProperty_JTextField.addKeyListener ( this );
+	    JGUIUtil.addComponent(output_JPanel, __DataAgeProperty_JTextField,
+	        1, yOutput, 2, 1, 1, 0, insetsTLBR, GridBagConstraints.HORIZONTAL, GridBagConstraints.WEST);
+	    JGUIUtil.addComponent(output_JPanel, new JLabel( "Optional - property to set to the age of saved data, seconds."),
+	        3, yOutput, 4, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.WEST);
+
 	    /*
 	    JGUIUtil.addComponent(main_JPanel, new JLabel ( "If input not found?:"),
 			0, ++y, 1, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.EAST);
@@ -714,6 +757,16 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 
 	    // General (bottom).
 
+	    JGUIUtil.addComponent(main_JPanel, new JLabel ( "Maximum concurrency:"),
+	        0, ++y, 1, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.EAST);
+	    __MaxConcurrency_JTextField = new JTextField ( "", 20 );
+	    __MaxConcurrency_JTextField.setToolTipText("Maximum number of concurrent requests, can use ${Property} notation.");
+	    __MaxConcurrency_JTextField.addKeyListener ( this );
+	    JGUIUtil.addComponent(main_JPanel, __MaxConcurrency_JTextField,
+	        1, y, 2, 1, 1, 0, insetsTLBR, GridBagConstraints.HORIZONTAL, GridBagConstraints.WEST);
+	    JGUIUtil.addComponent(main_JPanel, new JLabel ( "Optional - maximum concurrent requests (default = datastore MaxConcurrency)."),
+	        3, y, 4, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.WEST);
+
 	    JGUIUtil.addComponent(main_JPanel, new JLabel ( "Timeout:"),
 	        0, ++y, 1, 1, 0, 0, insetsTLBR, GridBagConstraints.NONE, GridBagConstraints.EAST);
 	    __Timeout_JTextField = new JTextField ( "", 20 );
@@ -826,8 +879,11 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		String OutputTableID = "";
 		String OutputFile = "";
 		String AppendOutput = "";
+		String OutputColumns = "";
+		String DataAgeProperty = "";
 		//String IfInputNotFound = "";
 		// General (bottom).
+		String MaxConcurrency = "";
 		String Timeout = "";
 	    PropList parameters = null;
 		if ( __first_time ) {
@@ -853,8 +909,11 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 			OutputTableID = parameters.getValue ( "OutputTableID" );
 			OutputFile = parameters.getValue ( "OutputFile" );
 			AppendOutput = parameters.getValue ( "AppendOutput" );
+			OutputColumns = parameters.getValue ( "OutputColumns" );
+			DataAgeProperty = parameters.getValue ( "DataAgeProperty" );
 			//IfInputNotFound = parameters.getValue ( "IfInputNotFound" );
 			// General (bottom).
+			MaxConcurrency = parameters.getValue ( "MaxConcurrency" );
 			Timeout = parameters.getValue ( "Timeout" );
 
 			// General (top).
@@ -983,6 +1042,12 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 					"AppendOutput parameter \"" + AppendOutput + "\".  Select a value or Cancel." );
 				}
 			}
+	        if ( OutputColumns != null ) {
+	            __OutputColumns_JTextField.setText ( OutputColumns );
+	        }
+	        if ( DataAgeProperty != null ) {
+	            __DataAgeProperty_JTextField.setText ( DataAgeProperty );
+	        }
 	        /*
 			if ( JGUIUtil.isSimpleJComboBoxItem(__IfInputNotFound_JComboBox, IfInputNotFound,JGUIUtil.NONE, null, null ) ) {
 				__IfInputNotFound_JComboBox.select ( IfInputNotFound );
@@ -1000,6 +1065,9 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 				}
 			}
 			*/
+		    if ( MaxConcurrency != null ) {
+		    	__MaxConcurrency_JTextField.setText ( MaxConcurrency );
+		    }
 		    if ( Timeout != null ) {
 		    	__Timeout_JTextField.setText ( Timeout );
 		    }
@@ -1031,7 +1099,10 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		OutputTableID = __OutputTableID_JComboBox.getSelected();
 		OutputFile = __OutputFile_JTextField.getText().trim();
 		AppendOutput = __AppendOutput_JComboBox.getSelected();
+		OutputColumns = __OutputColumns_JTextField.getText().trim();
+		DataAgeProperty = __DataAgeProperty_JTextField.getText().trim();
 	    // General (bottom).
+		MaxConcurrency = __MaxConcurrency_JTextField.getText().trim();
 		Timeout = __Timeout_JTextField.getText().trim();
 		//IfInputNotFound = __IfInputNotFound_JComboBox.getSelected();
 		PropList props = new PropList ( __command.getCommandName() );
@@ -1055,8 +1126,11 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		props.add ( "OutputTableID=" + OutputTableID );
 		props.add ( "OutputFile=" + OutputFile );
 		props.add ( "AppendOutput=" + AppendOutput );
+		props.add ( "OutputColumns=" + OutputColumns );
+		props.add ( "DataAgeProperty=" + DataAgeProperty );
 		//props.add ( "IfInputNotFound=" + IfInputNotFound );
 	    // General (bottom).
+		props.add ( "MaxConcurrency=" + MaxConcurrency );
 		props.add ( "Timeout=" + Timeout );
 		__command_JTextArea.setText( __command.toString(props).trim() );
 		// Check the path and determine what the label on the path button should be.
@@ -1112,6 +1186,10 @@ implements ActionListener, ChangeListener, ItemListener, KeyListener, WindowList
 		else if ( command.equalsIgnoreCase("" + BitbucketCommandType.LIST_REPOSITORY_ISSUES) ) {
 			__main_JTabbedPane.setSelectedIndex(this.listRepositoryIssuesTabIndex);
 		}
+		else if ( command.equalsIgnoreCase("" + BitbucketCommandType.GET_DATASTORE_METRICS) ) {
+			// No command-specific parameters so show the output parameters.
+			__main_JTabbedPane.setSelectedIndex(this.outputTabIndex);
+		}
 	}
 
 	/**
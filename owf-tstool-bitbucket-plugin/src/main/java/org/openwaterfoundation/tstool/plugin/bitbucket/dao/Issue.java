@@ -478,7 +478,11 @@ public class Issue {
 	 *  // Property1=Value1 Property2=Value2
 	 */
 	public void parseProperties () {
-		// Get the raw content as a blob.
+		// Get the raw content as a blob:
+		// - the content may not have been read if a partial response was requested
+		if ( (getContent() == null) || (getContent().getRaw() == null) ) {
+			return;
+		}
 		String raw = getContent().getRaw();
 		
 		// The content lines seem to be delimited \r\n so split by \n first.
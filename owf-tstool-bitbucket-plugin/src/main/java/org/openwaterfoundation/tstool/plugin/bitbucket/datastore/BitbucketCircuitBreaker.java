@@ -0,0 +1,205 @@
+// BitbucketCircuitBreaker - stop making requests to a host that is failing
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import RTi.Util.Message.Message;
+
+/**
+ * Circuit breaker for a web service host, used to fail quickly when the host is not working
+ * rather than waiting for each request to time out.
+ * <ul>
+ * <li>Closed:  requests are made normally.
+ *     If the number of consecutive transient failures reaches the threshold, the circuit is opened.</li>
+ * <li>Open:  requests fail immediately.
+ *     After the open time, the circuit is half-open.</li>
+ * <li>Half-open:  one trial request is allowed and other requests fail immediately.
+ *     If the trial request succeeds, the circuit is closed, otherwise it is opened again.</li>
+ * </ul>
+ */
+public class BitbucketCircuitBreaker {
+
+	/**
+	 * Default number of consecutive failures that open the circuit.
+	 */
+	public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+	/**
+	 * Default time that the circuit is open, seconds.
+	 */
+	public static final int DEFAULT_OPEN_TIME_SECONDS = 30;
+
+	/**
+	 * Circuit states.
+	 */
+	public enum State {
+		CLOSED,
+		OPEN,
+		HALF_OPEN
+	}
+
+	/**
+	 * Host for the circuit, used in messages.
+	 */
+	private final String host;
+
+	/**
+	 * Number of consecutive failures that open the circuit.
+	 */
+	private final int failureThreshold;
+
+	/**
+	 * Time that the circuit is open, milliseconds.
+	 */
+	private final long openTimeMs;
+
+	/**
+	 * Current state.
+	 */
+	private State state = State.CLOSED;
+
+	/**
+	 * Number of consecutive failures.
+	 */
+	private int failureCount = 0;
+
+	/**
+	 * Time that the circuit was opened, milliseconds since 1970.
+	 */
+	private long openedTime = 0;
+
+	/**
+	 * Whether the trial request is in progress in the half-open state.
+	 */
+	private boolean trialInProgress = false;
+
+	/**
+	 * Number of times that the circuit was opened.
+	 */
+	private long openCount = 0;
+
+	/**
+	 * Constructor.
+	 * @param host the host for the circuit, used in messages
+	 * @param failureThreshold the number of consecutive failures that open the circuit
+	 * @param openTimeSeconds the time that the circuit is open, seconds
+	 */
+	public BitbucketCircuitBreaker ( String host, int failureThreshold, int openTimeSeconds ) {
+		this.host = host;
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.openTimeMs = Math.max(0, openTimeSeconds)*1000L;
+	}
+
+	/**
+	 * Check whether a request can be made.
+	 * @throws OpenException if the circuit is open
+	 */
+	public synchronized void checkAllowed () {
+		String routine = getClass().getSimpleName() + ".checkAllowed";
+		if ( this.state == State.OPEN ) {
+			if ( System.currentTimeMillis() - this.openedTime >= this.openTimeMs ) {
+				Message.printStatus(2, routine, "Trying a request to host \"" + this.host + "\" after the circuit was open.");
+				this.state = State.HALF_OPEN;
+				this.trialInProgress = false;
+			}
+			else {
+				throw new OpenException ( "Requests to host \"" + this.host + "\" are stopped after " + this.failureCount
+					+ " failures.  Will try again in " + (this.openTimeMs - (System.currentTimeMillis() - this.openedTime))/1000 + " seconds." );
+			}
+		}
+		if ( this.state == State.HALF_OPEN ) {
+			if ( this.trialInProgress ) {
+				throw new OpenException ( "Requests to host \"" + this.host + "\" are stopped while checking whether the host has recovered." );
+			}
+			this.trialInProgress = true;
+		}
+	}
+
+	/**
+	 * Return the number of times that the circuit was opened.
+	 * @return the number of times that the circuit was opened
+	 */
+	public synchronized long getOpenCount () {
+		return this.openCount;
+	}
+
+	/**
+	 * Return the current state.
+	 * @return the current state
+	 */
+	public synchronized State getState () {
+		return this.state;
+	}
+
+	/**
+	 * Record a request that did not complete for a reason that does not indicate the state of the host,
+	 * for example because it was interrupted, so that another trial request can be made.
+	 */
+	public synchronized void recordCancelled () {
+		this.trialInProgress = false;
+	}
+
+	/**
+	 * Record a failed request, which may open the circuit.
+	 */
+	public synchronized void recordFailure () {
+		String routine = getClass().getSimpleName() + ".recordFailure";
+		++this.failureCount;
+		this.trialInProgress = false;
+		if ( (this.state == State.HALF_OPEN) || ((this.state == State.CLOSED) && (this.failureCount >= this.failureThreshold)) ) {
+			this.state = State.OPEN;
+			this.openedTime = System.currentTimeMillis();
+			++this.openCount;
+			Message.printWarning(3, routine, "Stopping requests to host \"" + this.host + "\" for " + this.openTimeMs/1000
+				+ " seconds after " + this.failureCount + " consecutive failures.");
+		}
+	}
+
+	/**
+	 * Record a successful request, which closes the circuit.
+	 * A request that returns an HTTP client error (e.g., 404) is also a success because the host is responding.
+	 */
+	public synchronized void recordSuccess () {
+		String routine = getClass().getSimpleName() + ".recordSuccess";
+		if ( this.state != State.CLOSED ) {
+			Message.printStatus(2, routine, "Host \"" + this.host + "\" has recovered.  Resuming requests.");
+		}
+		this.state = State.CLOSED;
+		this.failureCount = 0;
+		this.trialInProgress = false;
+	}
+
+	/**
+	 * Exception thrown when a request is not made because the circuit is open.
+	 */
+	@SuppressWarnings("serial")
+	public static class OpenException extends RuntimeException {
+
+		/**
+		 * Constructor.
+		 * @param message exception message
+		 */
+		public OpenException ( String message ) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,396 @@
+// BitbucketConditionalCache - cache of pages used with conditional requests
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import RTi.Util.String.MultiKeyStringDictionary;
+
+/**
+ * In-memory cache of pages, used to make conditional requests.
+ * The response and the ETag and Last-Modified response headers are saved for each page that is read.
+ * The next request for the same page sends If-None-Match and If-Modified-Since request headers and
+ * if the server responds with 304 (Not Modified), the cached response is parsed without reading the response.
+ * The response bytes rather than the parsed page are saved so that each read creates new objects,
+ * which the calling code can modify (e.g., to set the repository for issues).
+ * The cache is owned by the datastore and is therefore shared by all commands in a TSTool session.
+ * The total size of the cached responses is limited and the least recently used pages are removed first.
+ */
+public class BitbucketConditionalCache {
+
+	/**
+	 * Default maximum total size of the cached responses, bytes.
+	 */
+	public static final long DEFAULT_MAX_SIZE_BYTES = 50L*1024*1024;
+
+	/**
+	 * Cached pages, with key from createKey(), in least recently used order.
+	 */
+	private final LinkedHashMap<String,CacheEntry> cacheMap = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Maximum total size of the cached responses, bytes.
+	 */
+	private final long maxSizeBytes;
+
+	/**
+	 * Total size of the cached responses, bytes.
+	 */
+	private long totalSize = 0;
+
+	/**
+	 * Constructor using the default maximum size.
+	 */
+	public BitbucketConditionalCache () {
+		this ( DEFAULT_MAX_SIZE_BYTES );
+	}
+
+	/**
+	 * Constructor.
+	 * @param maxSizeBytes the maximum total size of the cached responses, bytes
+	 */
+	public BitbucketConditionalCache ( long maxSizeBytes ) {
+		this.maxSizeBytes = maxSizeBytes;
+	}
+
+	/**
+	 * Remove all cached pages.
+	 */
+	public synchronized void clear () {
+		this.cacheMap.clear();
+		this.totalSize = 0;
+	}
+
+	/**
+	 * Create the cache key for a request.
+	 * The key includes a hash of the request headers so that pages read with different credentials are not shared,
+	 * and credentials are not stored in the key.
+	 * @param urlString the request URL
+	 * @param requestProperties the request headers, including authorization
+	 * @return the cache key
+	 */
+	public static String createKey ( String urlString, MultiKeyStringDictionary requestProperties ) {
+		StringBuilder b = new StringBuilder();
+		if ( requestProperties != null ) {
+			for ( int i = 0; i < requestProperties.size(); i++ ) {
+				b.append(requestProperties.getKey(i));
+				b.append('=');
+				b.append(requestProperties.getValue(i));
+				b.append('\n');
+			}
+		}
+		return urlString + "#" + sha256(b.toString());
+	}
+
+	/**
+	 * Return the cached entry for a key.
+	 * @param key the cache key from createKey()
+	 * @return the cached entry, or null if not cached
+	 */
+	public synchronized CacheEntry get ( String key ) {
+		return this.cacheMap.get(key);
+	}
+
+	/**
+	 * Return the conditional request headers for a cached entry.
+	 * @param entry the cached entry, can be null
+	 * @return the request headers to add to the request, empty if no entry
+	 */
+	public static Map<String,String> getConditionalHeaders ( CacheEntry entry ) {
+		Map<String,String> headers = new LinkedHashMap<>();
+		if ( entry != null ) {
+			if ( entry.getETag() != null ) {
+				headers.put("If-None-Match", entry.getETag());
+			}
+			if ( entry.getLastModified() != null ) {
+				headers.put("If-Modified-Since", entry.getLastModified());
+			}
+		}
+		return headers;
+	}
+
+	/**
+	 * Return the maximum total size of the cached responses.
+	 * @return the maximum total size of the cached responses, bytes
+	 */
+	public long getMaxSize () {
+		return this.maxSizeBytes;
+	}
+
+	/**
+	 * Return the total size of the cached responses.
+	 * @return the total size of the cached responses, bytes
+	 */
+	public synchronized long getTotalSize () {
+		return this.totalSize;
+	}
+
+	/**
+	 * Indicate whether a page for a URL should be cached.
+	 * Pages for an incremental issue query ('q' parameter using 'updated_on') are not cached
+	 * because the query changes each time that issues are read.
+	 * @param urlString the request URL
+	 * @return true if the page should be cached
+	 */
+	public static boolean isCacheable ( String urlString ) {
+		int pos = urlString.indexOf('?');
+		if ( pos < 0 ) {
+			return true;
+		}
+		for ( String parameter : urlString.substring(pos + 1).split("&") ) {
+			if ( parameter.startsWith("q=") ) {
+				try {
+					String query = URLDecoder.decode(parameter.substring(2), StandardCharsets.UTF_8.toString());
+					if ( query.contains("updated_on") ) {
+						return false;
+					}
+				}
+				catch ( UnsupportedEncodingException | IllegalArgumentException e ) {
+					// Malformed query so don't cache.
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Save a response in the cache.
+	 * The response is only saved if the ETag or Last-Modified header was returned
+	 * and the response is not larger than the maximum size.
+	 * The least recently used pages are removed if the maximum size is exceeded.
+	 * @param key the cache key from createKey()
+	 * @param etag the ETag response header, can be null
+	 * @param lastModified the Last-Modified response header, can be null
+	 * @param data the response, or null if it was not captured
+	 */
+	public synchronized void put ( String key, String etag, String lastModified, byte [] data ) {
+		CacheEntry previous = this.cacheMap.remove(key);
+		if ( previous != null ) {
+			this.totalSize -= previous.getData().length;
+		}
+		if ( ((etag == null) && (lastModified == null)) || (data == null) || (data.length > this.maxSizeBytes) ) {
+			// Can't make a conditional request so don't cache.
+			return;
+		}
+		this.cacheMap.put(key, new CacheEntry(etag, lastModified, data));
+		this.totalSize += data.length;
+		Iterator<CacheEntry> it = this.cacheMap.values().iterator();
+		while ( (this.totalSize > this.maxSizeBytes) && it.hasNext() ) {
+			this.totalSize -= it.next().getData().length;
+			it.remove();
+		}
+	}
+
+	/**
+	 * Return the number of cached pages.
+	 * @return the number of cached pages
+	 */
+	public synchronized int size () {
+		return this.cacheMap.size();
+	}
+
+	/**
+	 * Wrap a response stream so that the bytes that are read are saved, to pass to put().
+	 * @param in the response stream
+	 * @return the wrapped stream
+	 */
+	public CaptureInputStream wrap ( InputStream in ) {
+		return new CaptureInputStream ( in, this.maxSizeBytes );
+	}
+
+	/**
+	 * Compute the SHA-256 hash for a string.
+	 * @param s string to hash
+	 * @return the hash as a hexadecimal string
+	 */
+	private static String sha256 ( String s ) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte [] bytes = digest.digest(s.getBytes(StandardCharsets.UTF_8));
+			StringBuilder b = new StringBuilder();
+			for ( byte by : bytes ) {
+				b.append(String.format("%02x", by));
+			}
+			return b.toString();
+		}
+		catch ( NoSuchAlgorithmException e ) {
+			// Should not happen since SHA-256 is required to be supported by Java.
+			return "" + s.hashCode();
+		}
+	}
+
+	/**
+	 * Input stream that saves the bytes that are read, up to a maximum size.
+	 */
+	public static class CaptureInputStream extends FilterInputStream {
+
+		/**
+		 * The bytes that have been read.
+		 */
+		private ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		/**
+		 * Maximum number of bytes to save.
+		 */
+		private final long maxSizeBytes;
+
+		/**
+		 * Whether the stream has been closed.
+		 */
+		private boolean closed = false;
+
+		/**
+		 * Constructor.
+		 * @param in the response stream
+		 * @param maxSizeBytes maximum number of bytes to save, after which the bytes are discarded
+		 */
+		public CaptureInputStream ( InputStream in, long maxSizeBytes ) {
+			super(in);
+			this.maxSizeBytes = maxSizeBytes;
+		}
+
+		/**
+		 * Return the bytes that were read.
+		 * @return the bytes that were read, or null if the maximum size was exceeded
+		 */
+		public byte [] getData () {
+			if ( this.out == null ) {
+				return null;
+			}
+			return this.out.toByteArray();
+		}
+
+		@Override
+		public int read () throws IOException {
+			int b = super.read();
+			if ( (b >= 0) && (this.out != null) ) {
+				this.out.write(b);
+				checkSize();
+			}
+			return b;
+		}
+
+		@Override
+		public int read ( byte[] b, int off, int len ) throws IOException {
+			int n = super.read(b, off, len);
+			if ( (n > 0) && (this.out != null) ) {
+				this.out.write(b, off, n);
+				checkSize();
+			}
+			return n;
+		}
+
+		/**
+		 * Discard the saved bytes if the maximum size is exceeded.
+		 */
+		private void checkSize () {
+			if ( this.out.size() > this.maxSizeBytes ) {
+				this.out = null;
+			}
+		}
+
+		@Override
+		public void close () throws IOException {
+			// The parser may also close the stream so only close once.
+			if ( this.closed ) {
+				return;
+			}
+			this.closed = true;
+			// The remainder of the response is not read:
+			// - the parser has read the complete JSON value, which is all that is needed
+			// - if the response is not complete (e.g., parse error), the saved data are discarded
+			//   and closing the response reads a limited amount to reuse the connection
+			super.close();
+		}
+	}
+
+	/**
+	 * Cached response and the response headers needed for a conditional request.
+	 */
+	public static class CacheEntry {
+
+		/**
+		 * ETag response header.
+		 */
+		private final String etag;
+
+		/**
+		 * Last-Modified response header.
+		 */
+		private final String lastModified;
+
+		/**
+		 * The response.
+		 */
+		private final byte [] data;
+
+		/**
+		 * Constructor.
+		 * @param etag the ETag response header, can be null
+		 * @param lastModified the Last-Modified response header, can be null
+		 * @param data the response, can be null if only used for the conditional request headers
+		 */
+		public CacheEntry ( String etag, String lastModified, byte [] data ) {
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.data = data;
+		}
+
+		/**
+		 * Return the response.
+		 * The array must not be modified.
+		 * @return the response
+		 */
+		public byte [] getData () {
+			return this.data;
+		}
+
+		/**
+		 * Return the ETag response header.
+		 * @return the ETag response header, or null if not returned
+		 */
+		public String getETag () {
+			return this.etag;
+		}
+
+		/**
+		 * Return the Last-Modified response header.
+		 * @return the Last-Modified response header, or null if not returned
+		 */
+		public String getLastModified () {
+			return this.lastModified;
+		}
+	}
+}
@@ -22,16 +22,27 @@ NoticeEnd */
 
 package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.openwaterfoundation.tstool.plugin.bitbucket.PluginMeta;
 import org.openwaterfoundation.tstool.plugin.bitbucket.app.BitbucketSession;
@@ -42,13 +53,17 @@ import org.openwaterfoundation.tstool.plugin.bitbucket.dao.ProjectComparator;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dao.RepositoryComparator;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dao.User;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.HttpCodeException;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dto.IssuesResponse;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.PagedResponse;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dto.ProjectsResponse;
 import org.openwaterfoundation.tstool.plugin.bitbucket.dto.RepositoriesResponse;
+import org.openwaterfoundation.tstool.plugin.bitbucket.jfr.BitbucketJfr;
+import org.openwaterfoundation.tstool.plugin.bitbucket.jfr.BitbucketJsonParseEvent;
+import org.openwaterfoundation.tstool.plugin.bitbucket.jfr.BitbucketPageFetchEvent;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import RTi.TS.TS;
 import RTi.TS.TSIdent;
@@ -57,8 +72,6 @@ import RTi.Util.GUI.JWorksheet_AbstractExcelCellRenderer;
 import RTi.Util.GUI.JWorksheet_AbstractRowTableModel;
 import RTi.Util.IO.PropList;
 import RTi.Util.IO.RequirementCheck;
-import RTi.Util.IO.UrlReader;
-import RTi.Util.IO.UrlResponse;
 import RTi.Util.Message.Message;
 import RTi.Util.String.MultiKeyStringDictionary;
 import RTi.Util.String.StringUtil;
@@ -82,6 +95,39 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 	 */
 	private final String COMMON_REQUEST_PARAMETERS = "?pagelen=100";
 
+	/**
+	 * Fields for the paged response envelope, requested when a partial response is requested using 'fields'.
+	 */
+	private final String [] PAGE_FIELDS = { "next", "size", "page", "pagelen" };
+
+	/**
+	 * Pattern to match the 'page' query parameter (but not 'pagelen').
+	 */
+	private static final Pattern PAGE_PARAMETER_PATTERN = Pattern.compile("([?&])page=[0-9]+");
+
+	/**
+	 * Issue fields that are always requested when a partial response is requested,
+	 * needed to filter and sort issues.
+	 */
+	private final String [] ISSUE_REQUIRED_FIELDS = { "id", "title", "state", "priority", "kind", "created_on", "assignee.display_name" };
+
+	/**
+	 * Issue fields that are always requested when a partial response is requested and incremental issue sync is used,
+	 * which also needs 'updated_on' for the watermark.
+	 */
+	private final String [] ISSUE_SYNC_REQUIRED_FIELDS = { "id", "title", "state", "priority", "kind", "created_on", "assignee.display_name", "updated_on" };
+
+	/**
+	 * Project fields that are always requested when a partial response is requested, needed to sort projects.
+	 */
+	private final String [] PROJECT_REQUIRED_FIELDS = { "name" };
+
+	/**
+	 * Repository fields that are always requested when a partial response is requested,
+	 * needed to sort repositories and read issues.
+	 */
+	private final String [] REPOSITORY_REQUIRED_FIELDS = { "name", "slug", "has_issues" };
+
 	// TODO smalers 2023-11-13 why is this separate from the built-in datastore properties?
 	/**
 	 * Properties for the plugin, used to help with application integration.
@@ -89,31 +135,202 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 	Map<String,Object> pluginProperties = new LinkedHashMap<>();
 
 	/**
-	 * Global project list.
+	 * Global project list:
+	 * - the list is replaced (not modified) when global data are read so that it can be used by other threads
+	 */
+	private volatile List<Project> projectList = new ArrayList<>();
+
+	/**
+	 * Global repository list:
+	 * - the list is replaced (not modified) when global data are read so that it can be used by other threads
+	 */
+	private volatile List<Repository> repositoryList = new ArrayList<>();
+
+	/**
+	 * Default time in seconds after which global data are read again.
+	 */
+	public static final int DEFAULT_GLOBAL_DATA_EXPIRATION_OFFSET = 3600;
+
+	/**
+	 * Time in seconds after which global data are read again, from the 'GlobalDataExpirationOffset' configuration property.
+	 */
+	private int globalDataExpirationOffset = DEFAULT_GLOBAL_DATA_EXPIRATION_OFFSET;
+
+	/**
+	 * Default time in seconds after global data expire during which the expired data are used
+	 * while the data are read again in the background.
+	 */
+	public static final int DEFAULT_GLOBAL_DATA_STALE_GRACE = 24*3600;
+
+	/**
+	 * Time in seconds after global data expire during which the expired data are used,
+	 * from the 'GlobalDataStaleGrace' configuration property.
+	 * After the grace time, the data are read before being used.
+	 */
+	private int globalDataStaleGrace = DEFAULT_GLOBAL_DATA_STALE_GRACE;
+
+	/**
+	 * Timeout in seconds for requests to read global data.
 	 */
-	//List<Project> projectList = new ArrayList<>();
+	private static final int GLOBAL_DATA_TIMEOUT_SECONDS = 5*60;
 
 	/**
-	 * Global repository list.
+	 * Maximum time in seconds after which global data are read again if they have never been read successfully,
+	 * so that a temporary error at startup does not prevent using the global data until the expiration offset.
 	 */
-	//List<Repository> repositoryList = new ArrayList<>();
+	private static final int GLOBAL_DATA_RETRY_SECONDS = 60;
 
 	/**
 	 * Expiration time at which global data will be refreshed.
 	 */
-	OffsetDateTime globalDataExpirationTime = null;
+	private volatile OffsetDateTime globalDataExpirationTime = null;
+
+	/**
+	 * Time that global data were last read successfully, used to determine the age of the data.
+	 */
+	private volatile OffsetDateTime globalDataReadTime = null;
+
+	/**
+	 * Lock used so that global data are not read by more than one thread at the same time.
+	 */
+	private final ReentrantLock globalDataReadLock = new ReentrantLock();
 
 	/**
 	 * Global data read problems:
 	 * - if not empty, this should be set as an error in the Bitbucket command to indicate incomplete data
+	 * - the list is replaced (not modified) when global data are read so that it can be used by other threads
+	 */
+	private volatile List<String> globalDataProblems = new ArrayList<>();
+
+	/**
+	 * Whether global data are being read in the background, used to avoid starting multiple reads.
 	 */
-	List<String> globalDataProblems = new ArrayList<>();
+	private final AtomicBoolean globalDataRefreshInProgress = new AtomicBoolean(false);
 
 	/**
 	 * Global debug option for datastore, used for development and troubleshooting.
 	 */
 	private boolean debug = false;
 
+	/**
+	 * HTTP client shared by all requests:
+	 * - connections are kept alive and reused between pages and read methods
+	 */
+	private BitbucketHttpClient httpClient = null;
+
+	/**
+	 * Default maximum number of concurrent requests, for example to read issues for multiple repositories.
+	 */
+	public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+	/**
+	 * Maximum number of concurrent requests, from the 'MaxConcurrency' configuration property.
+	 */
+	private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+	/**
+	 * Execution engine used to run requests concurrently:
+	 * - uses virtual threads if available
+	 */
+	private BitbucketRequestExecutor requestExecutor = null;
+
+	/**
+	 * Cache of pages used with conditional requests, shared by all commands that use the datastore:
+	 * - null if conditional requests are disabled
+	 */
+	private BitbucketConditionalCache conditionalCache = null;
+
+	/**
+	 * Persistent cache of responses, shared by TSTool sessions:
+	 * - null if the 'CacheDir' configuration property is not set
+	 */
+	private BitbucketDiskCache diskCache = null;
+
+	/**
+	 * Fixtures used to record and replay responses:
+	 * - null if the 'HttpMode' configuration property is not Record or Replay
+	 */
+	private BitbucketHttpFixtures httpFixtures = null;
+
+	/**
+	 * Problem setting up the fixtures for the 'HttpMode' configuration property:
+	 * - null if the fixtures are not used or were set up
+	 * - if set, requests fail rather than being made to Bitbucket
+	 */
+	private String httpFixturesProblem = null;
+
+	/**
+	 * Repository issues that are updated incrementally, shared by all commands that use the datastore:
+	 * - null if the 'IncrementalIssueSync' configuration property is not True
+	 */
+	private BitbucketIssueSync issueSync = null;
+
+	/**
+	 * Snapshot file for workspace data, used to start a session without reading the web services:
+	 * - null if the 'SnapshotFile' configuration property is not set
+	 */
+	private BitbucketSnapshot snapshot = null;
+
+	/**
+	 * Lock used so that the snapshot file is not written by more than one thread at the same time.
+	 */
+	private final Object snapshotWriteLock = new Object();
+
+	/**
+	 * Whether a background snapshot write has been scheduled, used to combine changes into one write.
+	 */
+	private final AtomicBoolean snapshotWritePending = new AtomicBoolean(false);
+
+	/**
+	 * Delay before writing the snapshot after issues change, milliseconds,
+	 * so that issues for multiple repositories that are read at the same time are written once.
+	 */
+	private static final long SNAPSHOT_WRITE_DELAY_MS = 5000;
+
+	/**
+	 * Limits the rate of requests to stay within the Bitbucket API quota:
+	 * - null if 'RequestRateLimit' is 0
+	 */
+	private BitbucketRateLimiter rateLimiter = null;
+
+	/**
+	 * Coalesces concurrent reads of the same page, sharing the response bytes so that each caller parses its own objects:
+	 * - null if 'CoalesceRequests' is False
+	 */
+	private BitbucketSingleFlight<String,byte[]> pageSingleFlight = null;
+
+	/**
+	 * Coalesces concurrent reads of the same repository list:
+	 * - null if 'CoalesceRequests' is False
+	 */
+	private BitbucketSingleFlight<String,List<Repository>> repositoriesSingleFlight = null;
+
+	/**
+	 * Request metrics for each endpoint, which are cumulative for the TSTool session.
+	 */
+	private final BitbucketDataStoreMetrics metrics = new BitbucketDataStoreMetrics();
+
+	/**
+	 * Policy for retrying requests that fail due to transient errors.
+	 */
+	private BitbucketRetryPolicy retryPolicy = null;
+
+	/**
+	 * Circuit breaker for each host:
+	 * - empty if 'CircuitBreakerFailureThreshold' is 0
+	 */
+	private final ConcurrentHashMap<String,BitbucketCircuitBreaker> circuitBreakerMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of consecutive failures that open the circuit breaker for a host, 0 to not use a circuit breaker.
+	 */
+	private int circuitBreakerFailureThreshold = BitbucketCircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+
+	/**
+	 * Time that a circuit breaker is open, seconds.
+	 */
+	private int circuitBreakerOpenTime = BitbucketCircuitBreaker.DEFAULT_OPEN_TIME_SECONDS;
+
 	/**
 	Constructor for web service.
 	@param name identifier for the data store
@@ -142,23 +359,207 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
         this.pluginProperties.put("Author", "Open Water Foundation, https://openwaterfoundation.org");
         this.pluginProperties.put("Version", PluginMeta.VERSION);
 
-	    // Read global data used throughout the session:
-	    // - in particular a cache of the TimeSeriesCatalog used for further queries
+	    // Create the HTTP client that is shared by all requests.
+	    this.httpClient = new BitbucketHttpClient (
+	    	getIntegerProperty ( props, "HttpPoolSize", BitbucketHttpClient.DEFAULT_POOL_SIZE ),
+	    	getIntegerProperty ( props, "HttpIdleTimeout", BitbucketHttpClient.DEFAULT_IDLE_TIMEOUT_SECONDS ),
+	    	getIntegerProperty ( props, "HttpConnectTimeout", BitbucketHttpClient.DEFAULT_CONNECT_TIMEOUT_SECONDS ),
+	    	!"false".equalsIgnoreCase(props.getValue("HttpCompression")) );
+
+	    // Record or replay responses using a fixture folder:
+	    // - caches, the snapshot file, and incremental issue sync are not used,
+	    //   so that all requests are recorded and replay does not depend on previous sessions
+	    BitbucketHttpMode httpMode = BitbucketHttpMode.LIVE;
+	    prop = props.getValue("HttpMode");
+	    if ( (prop != null) && !prop.trim().isEmpty() ) {
+	    	httpMode = BitbucketHttpMode.valueOfIgnoreCase(prop.trim());
+	    	if ( httpMode == null ) {
+	    		Message.printWarning(2, routine, "Datastore \"" + name + "\" HttpMode (" + prop + ") is invalid.  Using Live.");
+	    		httpMode = BitbucketHttpMode.LIVE;
+	    	}
+	    }
+	    if ( httpMode != BitbucketHttpMode.LIVE ) {
+	    	prop = props.getValue("HttpFixtureDir");
+	    	if ( (prop == null) || prop.trim().isEmpty() ) {
+	    		this.httpFixturesProblem = "HttpMode=" + httpMode + " requires HttpFixtureDir.";
+	    	}
+	    	else {
+	    		try {
+	    			this.httpFixtures = new BitbucketHttpFixtures ( new File(prop.trim()), httpMode );
+	    			Message.printStatus(2, routine, "Datastore \"" + name + "\" HttpMode=" + httpMode
+	    				+ " using fixture folder \"" + prop.trim() + "\".  Caches, the snapshot file, and incremental issue sync are not used.");
+	    		}
+	    		catch ( Exception e ) {
+	    			this.httpFixturesProblem = "Error using HTTP fixture folder \"" + prop.trim() + "\" (" + e + ").";
+	    		}
+	    	}
+	    	if ( this.httpFixturesProblem != null ) {
+	    		// Do not make live requests when record or replay was requested:
+	    		// - the datastore is created so that TSTool starts, but requests fail
+	    		Message.printWarning(2, routine, "Datastore \"" + name + "\" " + this.httpFixturesProblem
+	    			+ "  Requests will fail.");
+	    		setStatus ( 1 );
+	    		setStatusMessage ( this.httpFixturesProblem );
+	    	}
+	    }
+
+	    // Maximum number of concurrent requests, which can be overridden by commands.
+	    this.maxConcurrency = getIntegerProperty ( props, "MaxConcurrency", DEFAULT_MAX_CONCURRENCY );
+	    if ( this.maxConcurrency < 1 ) {
+	    	this.maxConcurrency = 1;
+	    }
+
+	    // Create the execution engine for concurrent requests:
+	    // - virtual threads are used by default if the Java runtime supports them
+	    boolean useVirtualThreads = true;
+	    prop = props.getValue("UseVirtualThreads");
+	    if ( (prop != null) && prop.equalsIgnoreCase("false") ) {
+	    	useVirtualThreads = false;
+	    }
+	    this.requestExecutor = new BitbucketRequestExecutor ( this.maxConcurrency, useVirtualThreads );
+
+	    // Create the cache for conditional requests:
+	    // - enabled by default
+	    prop = props.getValue("ConditionalRequests");
+	    if ( ((prop == null) || !prop.equalsIgnoreCase("false")) && (httpMode == BitbucketHttpMode.LIVE) ) {
+	    	long maxSizeBytes = getIntegerProperty ( props, "ConditionalRequestsMaxSize",
+	    		(int)(BitbucketConditionalCache.DEFAULT_MAX_SIZE_BYTES/(1024*1024)) )*1024L*1024L;
+	    	this.conditionalCache = new BitbucketConditionalCache ( maxSizeBytes );
+	    }
+
+	    // Create the request rate limiter:
+	    // - enabled by default using the standard Bitbucket hourly limit
+	    int requestRateLimit = getIntegerProperty ( props, "RequestRateLimit", BitbucketRateLimiter.DEFAULT_REQUESTS_PER_HOUR );
+	    if ( (requestRateLimit > 0) && (httpMode != BitbucketHttpMode.REPLAY) ) {
+	    	this.rateLimiter = new BitbucketRateLimiter ( requestRateLimit,
+	    		getIntegerProperty ( props, "RequestRateBurst", BitbucketRateLimiter.DEFAULT_BURST ),
+	    		getIntegerProperty ( props, "RequestRateMaxRetries", BitbucketRateLimiter.DEFAULT_MAX_RETRIES ) );
+	    }
+
+	    // Coalesce concurrent identical requests:
+	    // - enabled by default
+	    prop = props.getValue("CoalesceRequests");
+	    if ( (prop == null) || !prop.equalsIgnoreCase("false") ) {
+	    	this.pageSingleFlight = new BitbucketSingleFlight<>();
+	    	this.repositoriesSingleFlight = new BitbucketSingleFlight<>();
+	    }
+
+	    // Create the retry policy and circuit breaker settings for transient errors.
+	    this.retryPolicy = new BitbucketRetryPolicy (
+	    	getIntegerProperty ( props, "RetryMaxAttempts", BitbucketRetryPolicy.DEFAULT_MAX_ATTEMPTS ),
+	    	getIntegerProperty ( props, "RetryInitialDelay", BitbucketRetryPolicy.DEFAULT_INITIAL_DELAY_MS ),
+	    	getIntegerProperty ( props, "RetryMaxDelay", BitbucketRetryPolicy.DEFAULT_MAX_DELAY_MS ) );
+	    this.circuitBreakerFailureThreshold = getIntegerProperty ( props, "CircuitBreakerFailureThreshold",
+	    	BitbucketCircuitBreaker.DEFAULT_FAILURE_THRESHOLD );
+	    this.circuitBreakerOpenTime = getIntegerProperty ( props, "CircuitBreakerOpenTime",
+	    	BitbucketCircuitBreaker.DEFAULT_OPEN_TIME_SECONDS );
+
+	    // Create the persistent response cache:
+	    // - only enabled if a folder is specified
+	    prop = props.getValue("CacheDir");
+	    if ( (prop != null) && !prop.trim().isEmpty() && (httpMode == BitbucketHttpMode.LIVE) ) {
+	    	Map<BitbucketEndpointType,Integer> ttlMap = new LinkedHashMap<>();
+	    	ttlMap.put ( BitbucketEndpointType.PROJECTS,
+	    		getIntegerProperty ( props, "CacheTtlProjects", BitbucketDiskCache.DEFAULT_TTL_SECONDS ) );
+	    	ttlMap.put ( BitbucketEndpointType.REPOSITORIES,
+	    		getIntegerProperty ( props, "CacheTtlRepositories", BitbucketDiskCache.DEFAULT_TTL_SECONDS ) );
+	    	ttlMap.put ( BitbucketEndpointType.ISSUES,
+	    		getIntegerProperty ( props, "CacheTtlIssues", BitbucketDiskCache.DEFAULT_TTL_ISSUES_SECONDS ) );
+	    	long maxSizeBytes = getIntegerProperty ( props, "CacheMaxSize",
+	    		(int)(BitbucketDiskCache.DEFAULT_MAX_SIZE_BYTES/(1024*1024)) )*1024L*1024L;
+	    	try {
+	    		this.diskCache = new BitbucketDiskCache ( new File(prop.trim()), maxSizeBytes, ttlMap );
+	    	}
+	    	catch ( Exception e ) {
+	    		Message.printWarning(2, routine, "Datastore \"" + name + "\" error creating response cache folder \""
+	    			+ prop + "\" (" + e + ").  Not using the response cache.");
+	    	}
+	    }
+
+	    // Create the incremental issue sync:
+	    // - disabled by default because deleted issues are only detected when all issues are read
+	    prop = props.getValue("IncrementalIssueSync");
+	    if ( (prop != null) && prop.equalsIgnoreCase("true") && (httpMode == BitbucketHttpMode.LIVE) ) {
+	    	this.issueSync = new BitbucketIssueSync (
+	    		getIntegerProperty ( props, "IssueSyncMaxAge", BitbucketIssueSync.DEFAULT_MAX_AGE_SECONDS ) );
+	    }
+
+	    // Time after which global data are read again.
+	    this.globalDataExpirationOffset = getIntegerProperty ( props, "GlobalDataExpirationOffset", DEFAULT_GLOBAL_DATA_EXPIRATION_OFFSET );
+	    // Time after expiration that global data can be used while being read again in the background.
+	    this.globalDataStaleGrace = Math.max(0, getIntegerProperty ( props, "GlobalDataStaleGrace", DEFAULT_GLOBAL_DATA_STALE_GRACE ));
+
+	    // Read the snapshot file, which provides global data (and issues) from a previous session:
+	    // - if the snapshot has not expired, the global data are not read at startup
+	    // - if the snapshot has expired, the snapshot data are used while the global data are read (see checkGlobalDataExpiration())
+	    boolean snapshotIsCurrent = false;
+	    prop = props.getValue("SnapshotFile");
+	    if ( (prop != null) && !prop.trim().isEmpty() && (httpMode == BitbucketHttpMode.LIVE) ) {
+	    	this.snapshot = new BitbucketSnapshot ( new File(prop.trim()) );
+	    	snapshotIsCurrent = readSnapshot();
+	    }
 
-	    readGlobalData();
+	    // Read global data used throughout the session:
+	    // - by default, read in the background so that the datastore (and TSTool startup) does not wait for web service requests
+	    // - the cached data are not used until they have been read, and commands read the data directly until then
+	    prop = props.getValue("GlobalDataStartup");
+	    if ( snapshotIsCurrent ) {
+	    	// Global data were read from the snapshot.
+	    }
+	    else if ( (prop != null) && prop.equalsIgnoreCase("Wait") ) {
+	    	readGlobalData();
+	    }
+	    else if ( (prop != null) && prop.equalsIgnoreCase("Lazy") ) {
+	    	// Read when the cached data are first requested (see getCachedProjects() and getCachedRepositories()).
+	    	if ( (this.globalDataExpirationTime == null) && (this.httpFixturesProblem == null) ) {
+	    		setStatusMessage ( "Projects and repositories will be read when first used." );
+	    	}
+	    }
+	    else {
+	    	if ( (prop != null) && !prop.isEmpty() && !prop.equalsIgnoreCase("Background") ) {
+	    		Message.printWarning(2, routine, "Datastore \"" + name + "\" GlobalDataStartup (" + prop
+	    			+ ") is invalid.  Using Background.");
+	    	}
+	    	refreshGlobalDataInBackground();
+	    }
 	}
 
 	/**
 	 * Check global data to evaluate whether it has expired.
-	 * If the global data are expired, read it again.
+	 * <ul>
+	 * <li>If the global data expired within the stale grace time ('GlobalDataStaleGrace' configuration property),
+	 *     read it again in a background thread.
+	 *     The current global data can be used until the new data have been read.</li>
+	 * <li>If the global data expired before the stale grace time, read it again before returning
+	 *     so that very old data are not used.</li>
+	 * </ul>
 	 */
 	public void checkGlobalDataExpiration () {
 		String routine = getClass().getSimpleName() + ".checkGlobalDataExpiration";
 		OffsetDateTime now = OffsetDateTime.now();
-		if ( (this.globalDataExpirationTime != null) && now.isAfter(this.globalDataExpirationTime) ) {
-			// Global data have expired so read it again.
-			Message.printStatus(2, routine, "Global data have expired.  Reading current data.");
-			readGlobalData();
+		OffsetDateTime expirationTime = this.globalDataExpirationTime;
+		if ( (expirationTime != null) && now.isAfter(expirationTime) ) {
+			if ( now.isAfter(expirationTime.plusSeconds(this.globalDataStaleGrace)) ) {
+				// Global data are too old to use so read it again before returning:
+				// - if another thread is reading, wait for it and then check whether the data were updated
+				this.globalDataReadLock.lock();
+				try {
+					expirationTime = this.globalDataExpirationTime;
+					if ( now.isAfter(expirationTime.plusSeconds(this.globalDataStaleGrace)) ) {
+						Message.printStatus(2, routine, "Global data expired more than " + this.globalDataStaleGrace
+							+ " seconds ago.  Reading current data.");
+						readGlobalData();
+					}
+				}
+				finally {
+					this.globalDataReadLock.unlock();
+				}
+			}
+			else {
+				// Global data have expired so read it again.
+				Message.printStatus(2, routine, "Global data have expired.  Reading current data in the background.");
+				refreshGlobalDataInBackground();
+			}
 		}
 	}
 
@@ -368,6 +769,20 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 		}
 	}
 
+    /**
+     * Get the age of the global data, which is the time since the data were last read successfully.
+     * The age can be greater than the 'GlobalDataExpirationOffset' if expired data are being used
+     * while the data are read again in the background.
+     * @return the age of the global data in seconds, or -1 if the data have not been read
+     */
+    public long getGlobalDataAgeSeconds () {
+    	OffsetDateTime readTime = this.globalDataReadTime;
+    	if ( readTime == null ) {
+    		return -1;
+    	}
+    	return Math.max(0, Duration.between(readTime, OffsetDateTime.now()).getSeconds());
+    }
+
     /**
      * Get the global data expiration time.
      * @return the global data expiration time
@@ -376,6 +791,67 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
     	return this.globalDataExpirationTime;
     }
 
+    /**
+     * Get the maximum number of concurrent requests.
+     * @return the maximum number of concurrent requests, from the 'MaxConcurrency' configuration property
+     */
+    public int getMaxConcurrency () {
+    	return this.maxConcurrency;
+    }
+
+    /**
+     * Get an integer datastore configuration property.
+     * @param props datastore configuration properties
+     * @param propName the property name
+     * @param defaultValue the value to return if the property is not set or is invalid
+     * @return the property value as an integer
+     */
+    private int getIntegerProperty ( PropList props, String propName, int defaultValue ) {
+    	String routine = getClass().getSimpleName() + ".getIntegerProperty";
+    	String prop = props.getValue ( propName );
+    	if ( (prop == null) || prop.trim().isEmpty() ) {
+    		return defaultValue;
+    	}
+    	else if ( StringUtil.isInteger(prop.trim()) ) {
+    		return Integer.parseInt(prop.trim());
+    	}
+    	else {
+    		Message.printWarning(2, routine, "Datastore \"" + getName() + "\" " + propName + " (" + prop
+    			+ ") is not an integer.  Using the default (" + defaultValue + ").");
+    		return defaultValue;
+    	}
+    }
+
+    /**
+     * Return the 'fields' query parameter used to request a partial response.
+     * See:  https://developer.atlassian.com/cloud/bitbucket/rest/intro/#partial-response
+     * @param fields the fields for each value object (e.g., "title", "assignee.display_name"),
+     * or null to return the full objects
+     * @param requiredFields fields that are always requested because they are used by the datastore
+     * @return the query parameter including the leading '&amp;', or an empty string if full objects should be returned
+     */
+    private String getFieldsParameter ( List<String> fields, String [] requiredFields ) {
+    	if ( fields == null ) {
+    		return "";
+    	}
+    	StringBuilder b = new StringBuilder("&fields=");
+    	b.append(String.join(",", PAGE_FIELDS));
+    	List<String> valueFields = new ArrayList<>();
+    	for ( String field : requiredFields ) {
+    		valueFields.add(field);
+    	}
+    	for ( String field : fields ) {
+    		if ( !valueFields.contains(field) ) {
+    			valueFields.add(field);
+    		}
+    	}
+    	for ( String field : valueFields ) {
+    		b.append(",values.");
+    		b.append(field);
+    	}
+    	return b.toString();
+    }
+
     /**
      * Get the global data problems.
      * @return the global data problems list
@@ -384,6 +860,237 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
     	return this.globalDataProblems;
     }
 
+    /**
+     * Return the cached projects if they can be used for a session,
+     * checking whether the global data have expired, in which case the data are read again
+     * (see checkGlobalDataExpiration()).  Use getGlobalDataAgeSeconds() to determine the age of the data.
+     * @param session the session that will use the projects
+     * @return a copy of the cached projects, or null if the cached projects cannot be used
+     * (not read successfully yet, or the session has different credentials) and the projects should be read
+     */
+    public List<Project> getCachedProjects ( BitbucketSession session ) {
+    	if ( !isGlobalDataSession(session) ) {
+    		return null;
+    	}
+    	if ( this.globalDataReadTime == null ) {
+    		// Global data have not been read successfully so the lists are empty or incomplete:
+    		// - start reading in the background if not already reading (e.g., for 'GlobalDataStartup=Lazy'),
+    		//   or if a previous read had errors and the retry time has passed
+    		OffsetDateTime expirationTime = this.globalDataExpirationTime;
+    		if ( (expirationTime == null) || OffsetDateTime.now().isAfter(expirationTime) ) {
+    			refreshGlobalDataInBackground();
+    		}
+    		return null;
+    	}
+    	checkGlobalDataExpiration();
+    	return new ArrayList<>(this.projectList);
+    }
+
+    /**
+     * Return the cached repositories if they can be used for a session,
+     * checking whether the global data have expired, in which case the data are read again
+     * (see checkGlobalDataExpiration()).  Use getGlobalDataAgeSeconds() to determine the age of the data.
+     * @param session the session that will use the repositories
+     * @return a copy of the cached repositories, or null if the cached repositories cannot be used
+     * (not read successfully yet, or the session has different credentials) and the repositories should be read
+     */
+    public List<Repository> getCachedRepositories ( BitbucketSession session ) {
+    	if ( !isGlobalDataSession(session) ) {
+    		return null;
+    	}
+    	if ( this.globalDataReadTime == null ) {
+    		// Global data have not been read successfully so the lists are empty or incomplete:
+    		// - start reading in the background if not already reading (e.g., for 'GlobalDataStartup=Lazy'),
+    		//   or if a previous read had errors and the retry time has passed
+    		OffsetDateTime expirationTime = this.globalDataExpirationTime;
+    		if ( (expirationTime == null) || OffsetDateTime.now().isAfter(expirationTime) ) {
+    			refreshGlobalDataInBackground();
+    		}
+    		return null;
+    	}
+    	checkGlobalDataExpiration();
+    	return new ArrayList<>(this.repositoryList);
+    }
+
+    /**
+     * Create a session using the datastore configuration properties, used to read global data.
+     * @return the session, or null if the properties needed for the session are not set
+     */
+    public BitbucketSession getDefaultSession () {
+    	String workspaceId = getProperty("WorkspaceId");
+    	String userName = getProperty("UserName");
+    	String appPassword = getProperty("AppPassword");
+    	if ( (workspaceId == null) || workspaceId.isEmpty() || (userName == null) || userName.isEmpty()
+    		|| (appPassword == null) || appPassword.isEmpty() ) {
+    		return null;
+    	}
+    	return new BitbucketSession ( workspaceId, userName, appPassword );
+    }
+
+	/**
+	 * Get the cache used for conditional requests.
+	 * @return the cache used for conditional requests, or null if conditional requests are disabled
+	 */
+	public BitbucketConditionalCache getConditionalCache () {
+		return this.conditionalCache;
+	}
+
+	/**
+	 * Get the circuit breaker for the host in a URL.
+	 * @param urlString the URL for a request
+	 * @return the circuit breaker for the host, or null if circuit breakers are not used
+	 */
+	private BitbucketCircuitBreaker getCircuitBreaker ( String urlString ) {
+		if ( this.circuitBreakerFailureThreshold <= 0 ) {
+			return null;
+		}
+		String host = null;
+		try {
+			host = URI.create(urlString).getHost();
+		}
+		catch ( IllegalArgumentException e ) {
+			// Should not happen since the URL is created by the datastore.
+		}
+		if ( host == null ) {
+			host = "";
+		}
+		return this.circuitBreakerMap.computeIfAbsent ( host.toLowerCase(),
+			h -> new BitbucketCircuitBreaker ( h, this.circuitBreakerFailureThreshold, this.circuitBreakerOpenTime ) );
+	}
+
+	/**
+	 * Get the circuit breakers.
+	 * @return the circuit breakers, with key being the host
+	 */
+	public Map<String,BitbucketCircuitBreaker> getCircuitBreakers () {
+		return Collections.unmodifiableMap(this.circuitBreakerMap);
+	}
+
+	/**
+	 * Get the persistent response cache.
+	 * @return the persistent response cache, or null if not enabled
+	 */
+	public BitbucketDiskCache getDiskCache () {
+		return this.diskCache;
+	}
+
+	/**
+	 * Get the repository issues that are updated incrementally.
+	 * @return the incremental issue sync, or null if not enabled
+	 */
+	public BitbucketIssueSync getIssueSync () {
+		return this.issueSync;
+	}
+
+	/**
+	 * Get the request metrics for each endpoint.
+	 * @return the request metrics for each endpoint
+	 */
+	public BitbucketDataStoreMetrics getMetrics () {
+		return this.metrics;
+	}
+
+	/**
+	 * Get the request metrics for each endpoint and metrics for the datastore,
+	 * which are listed with endpoint "Datastore".
+	 * @return the list of metrics
+	 */
+	public List<BitbucketDataStoreMetrics.Metric> getMetricList () {
+		List<BitbucketDataStoreMetrics.Metric> metricList = this.metrics.getMetrics();
+		String endpoint = "Datastore";
+		if ( this.pageSingleFlight != null ) {
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "SharedPageRequests", this.pageSingleFlight.getSharedCount(), "count"));
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "SharedRepositoryRequests", this.repositoriesSingleFlight.getSharedCount(), "count"));
+		}
+		if ( this.rateLimiter != null ) {
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "RateLimitWaits", this.rateLimiter.getWaitCount(), "count"));
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "RateLimitWaitTime", this.rateLimiter.getWaitTimeMs(), "ms"));
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "RateLimited", this.rateLimiter.getRateLimitedCount(), "count"));
+		}
+		long openCount = 0;
+		for ( BitbucketCircuitBreaker circuitBreaker : this.circuitBreakerMap.values() ) {
+			openCount += circuitBreaker.getOpenCount();
+		}
+		metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "CircuitBreakerOpens", openCount, "count"));
+		metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "HttpBytesReceived", this.httpClient.getBytesReceived(), "bytes"));
+		metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "HttpBytesDecoded", this.httpClient.getBytesDecoded(), "bytes"));
+		if ( this.conditionalCache != null ) {
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "ConditionalCachePages", this.conditionalCache.size(), "count"));
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "ConditionalCacheSize", this.conditionalCache.getTotalSize(), "bytes"));
+		}
+		if ( this.issueSync != null ) {
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "IssueSets", this.issueSync.size(), "count"));
+		}
+		if ( this.httpFixtures != null ) {
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "HttpFixturesRecorded", this.httpFixtures.getRecordCount(), "count"));
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "HttpFixturesReplayed", this.httpFixtures.getReplayCount(), "count"));
+			metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "HttpFixturesMissing", this.httpFixtures.getMissCount(), "count"));
+		}
+		metricList.add(new BitbucketDataStoreMetrics.Metric(endpoint, "GlobalDataAge", getGlobalDataAgeSeconds(), "s"));
+		return metricList;
+	}
+
+	/**
+	 * Get the snapshot.
+	 * @return the snapshot, or null if the 'SnapshotFile' configuration property is not set
+	 */
+	public BitbucketSnapshot getSnapshot () {
+		return this.snapshot;
+	}
+
+	/**
+	 * Get the request rate limiter.
+	 * @return the request rate limiter, or null if the request rate is not limited
+	 */
+	public BitbucketRateLimiter getRateLimiter () {
+		return this.rateLimiter;
+	}
+
+	/**
+	 * Get the execution engine used to run concurrent requests.
+	 * @return the execution engine used to run concurrent requests
+	 */
+	public BitbucketRequestExecutor getRequestExecutor () {
+		return this.requestExecutor;
+	}
+
+	/**
+	 * Get the HTTP client that is shared by all requests.
+	 * @return the HTTP client
+	 */
+	public BitbucketHttpClient getHttpClient () {
+		return this.httpClient;
+	}
+
+	/**
+	 * Get the fixtures used to record and replay responses.
+	 * @return the fixtures used to record and replay responses, or null if 'HttpMode' is Live
+	 */
+	public BitbucketHttpFixtures getHttpFixtures () {
+		return this.httpFixtures;
+	}
+
+	/**
+	 * Get the response for a request, from the server or the recorded response if replaying.
+	 * @param urlString the URL to read
+	 * @param requestProperties HTTP request headers
+	 * @param additionalHeaders additional HTTP request headers (e.g., for conditional requests), can be null
+	 * @param timeoutSeconds the timeout in seconds
+	 * @return the response
+	 * @throws IOException if an I/O error occurs
+	 * @throws InterruptedException if the request is interrupted
+	 */
+	private BitbucketHttpResponse getHttpResponse ( String urlString, MultiKeyStringDictionary requestProperties,
+		Map<String,String> additionalHeaders, int timeoutSeconds ) throws IOException, InterruptedException {
+		if ( this.httpFixturesProblem != null ) {
+			throw new RuntimeException("Datastore \"" + getName() + "\" " + this.httpFixturesProblem);
+		}
+		if ( (this.httpFixtures != null) && (this.httpFixtures.getMode() == BitbucketHttpMode.REPLAY) ) {
+			return this.httpFixtures.get(urlString);
+		}
+		return this.httpClient.get(urlString, requestProperties, additionalHeaders, timeoutSeconds);
+	}
+
 	/**
 	 * Get the HTTP request properties (HTTP headers).
 	 * This must be added to all HTTP requests.
@@ -416,19 +1123,17 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
      * Get the global list of cached projects.
      * @return the global list of cached projects
      */
-	/*
     public List<Project> getProjectCache () {
     	return this.projectList;
     }
-    */
 
     /**
      * Get the global list of cached repositories.
      * @return the global list of cached repositories
      */
-    //public List<Repository> getRepositoryCache () {
-    	//return this.repositoryList;
-    //}
+    public List<Repository> getRepositoryCache () {
+    	return this.repositoryList;
+    }
 
 	/**
 	 * This version is required by TSTool UI.
@@ -473,6 +1178,21 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
     	return null;
     }
 
+	/**
+	 * Indicate whether a session has the same workspace and credentials as the session used to read global data,
+	 * in which case the global data can be used for the session.
+	 * @param session the session to check
+	 * @return true if the global data can be used for the session
+	 */
+	private boolean isGlobalDataSession ( BitbucketSession session ) {
+		BitbucketSession defaultSession = getDefaultSession();
+		if ( (session == null) || (defaultSession == null) ) {
+			return false;
+		}
+		return session.getWorkspaceId().equals(defaultSession.getWorkspaceId())
+			&& session.getAuthorization().equals(defaultSession.getAuthorization());
+	}
+
 	/**
 	 * Indicate whether the datastore provides a time series input filter.
 	 * This datastore does provide an input filter panel.
@@ -483,83 +1203,746 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 
 	/**
 	 * Read global data that should be kept in memory to increase performance.
-	 * This is called from the constructor.
+	 * This is called in the background after the datastore is created (see the 'GlobalDataStartup' configuration property)
+	 * and when the global data have expired.
 	 * The following data are read and are available with get() methods:
 	 * <ul>
-	 * <li>TimeSeriesCatalog - cache used to find time series without re-requesting from the web service</li>
+	 * <li>projects - cache used to list projects without re-requesting from the web service</li>
+	 * <li>repositories - cache used to list repositories and repository issues without re-requesting from the web service</li>
 	 * </ul>
 	 * If an error is detected, set on the datastore so that TSTool View / Datastores will show the error.
 	 * This is usually an issue with a misconfigured datastore.
 	 */
 	public void readGlobalData () {
 		String routine = getClass().getSimpleName() + ".readGlobalData";
-		//Message.printWarning ( 2, routine, "Reading global data for datastore \"" + getName() + "\"." );
-		OffsetDateTime now = OffsetDateTime.now();
-		//this.globalDataExpirationTime = now.plusSeconds(this.globalDataExpirationOffset);
-		//Message.printWarning ( 2, routine, "Global data will expire at: " + this.globalDataExpirationTime );
-
-		// Add to avoid Eclipse warning if 'debug' is not used.
-		if ( debug ) {
-		}
-
-		// Clear the global data problems.
-		this.globalDataProblems.clear();
+		this.globalDataReadLock.lock();
+		try {
+			//Message.printWarning ( 2, routine, "Reading global data for datastore \"" + getName() + "\"." );
+			OffsetDateTime now = OffsetDateTime.now();
 
-		// Project objects.
+			// Add to avoid Eclipse warning if 'debug' is not used.
+			if ( debug ) {
+			}
 
-		/*
-		try {
-			List<Project> projectList0 = readProjects();
-			if ( (projectList0.size() == 0) && (this.projectList.size() > 0) ) {
-				Message.printStatus(2, routine, "Read 0 projects." );
-				Message.printStatus(2, routine, "Keeping " + this.projectList.size() + " previously read project data." );
-				Message.printStatus(2, routine, "May have reached API access limits.  Will try again in " +
-				this.globalDataExpirationOffset + " seconds." );
+			// Collect the global data problems:
+			// - replace the list at the end so that other threads do not see a partial list
+			List<String> problems = new ArrayList<>();
+
+			BitbucketSession session = getDefaultSession();
+			if ( session == null ) {
+				Message.printWarning(3, routine, "Datastore \"" + getName() + "\" WorkspaceID, UserName, or AppPassword is not set.  Not reading global data.");
+				problems.add("WorkspaceID, UserName, or AppPassword is not set for the datastore.");
+				this.globalDataProblems = problems;
+				setStatus ( 1 );
+				setStatusMessage ( problems.get(0) );
+				return;
 			}
-			else {
-				this.projectList = projectList0;
-				Message.printStatus(2, routine, "Read " + this.projectList.size() + " projects." );
-				if ( Message.isDebugOn ) {
-					//for ( Project project : this.projectList ) {
-					//	Message.printStatus(2, routine, "Project: " + project );
-					//}
-				}
+			if ( this.httpFixturesProblem != null ) {
+				Message.printWarning(3, routine, "Datastore \"" + getName() + "\" " + this.httpFixturesProblem + "  Not reading global data.");
+				problems.add(this.httpFixturesProblem);
+				this.globalDataProblems = problems;
+				setStatus ( 1 );
+				setStatusMessage ( problems.get(0) );
+				return;
+			}
+			if ( this.globalDataExpirationTime == null ) {
+				// Show that the data are being read, for example in the TSTool datastore view.
+				setStatusMessage ( "Reading projects and repositories." );
 			}
-		}
-		catch ( Exception e ) {
-			Message.printWarning(3, routine, "Error reading global projects (" + e + ")");
-			Message.printWarning(3, routine, e );
-			this.globalDataProblems.add("Error reading global projects data.");
-		}
-		*/
 
-		// Repository objects:
-		// - this handles HTTP 420
+			// Project objects.
 
-		/*
-		try {
-			List<Repository> repositoryList0 = readRepositories(null);
-			if ( (repositoryList0.size() == 0) && (this.repositoryList.size() > 0) ) {
-				Message.printStatus(2, routine, "Read 0 repositories." );
-				Message.printStatus(2, routine, "Keeping " + this.repositoryList.size() + " previously read repository data." );
-			}
-			else {
-				this.repositoryList = repositoryList0;
-				Message.printStatus(2, routine, "Read " + this.repositoryList.size() + " repositories." );
-				if ( Message.isDebugOn ) {
-					//for ( Repository repository : this.repositoryList ) {
-					//	Message.printStatus(2, routine, "Repository: " + repository );
-					//}
+			try {
+				List<Project> projectList0 = readProjects(session, GLOBAL_DATA_TIMEOUT_SECONDS);
+				if ( (projectList0.size() == 0) && (this.projectList.size() > 0) ) {
+					Message.printStatus(2, routine, "Read 0 projects." );
+					Message.printStatus(2, routine, "Keeping " + this.projectList.size() + " previously read project data." );
+					Message.printStatus(2, routine, "May have reached API access limits.  Will try again in " +
+					this.globalDataExpirationOffset + " seconds." );
+				}
+				else {
+					this.projectList = projectList0;
+					Message.printStatus(2, routine, "Read " + this.projectList.size() + " projects." );
+					if ( Message.isDebugOn ) {
+						//for ( Project project : this.projectList ) {
+						//	Message.printStatus(2, routine, "Project: " + project );
+						//}
+					}
 				}
 			}
-		}
-		catch ( Exception e ) {
-			Message.printWarning(3, routine, "Error reading global repositories (" + e + ")");
+			catch ( Exception e ) {
+				Message.printWarning(3, routine, "Error reading global projects (" + e + ")");
+				Message.printWarning(3, routine, e );
+				problems.add("Error reading global projects data.");
+			}
+
+			// Repository objects:
+			// - this handles HTTP 420
+
+			try {
+				List<Repository> repositoryList0 = readRepositories(session, GLOBAL_DATA_TIMEOUT_SECONDS);
+				if ( (repositoryList0.size() == 0) && (this.repositoryList.size() > 0) ) {
+					Message.printStatus(2, routine, "Read 0 repositories." );
+					Message.printStatus(2, routine, "Keeping " + this.repositoryList.size() + " previously read repository data." );
+				}
+				else {
+					this.repositoryList = repositoryList0;
+					Message.printStatus(2, routine, "Read " + this.repositoryList.size() + " repositories." );
+					if ( Message.isDebugOn ) {
+						//for ( Repository repository : this.repositoryList ) {
+						//	Message.printStatus(2, routine, "Repository: " + repository );
+						//}
+					}
+				}
+			}
+			catch ( Exception e ) {
+				Message.printWarning(3, routine, "Error reading global repositories (" + e + ")");
+				Message.printWarning(3, routine, e );
+				problems.add("Error reading global repository data.");
+			}
+
+			this.globalDataProblems = problems;
+			if ( problems.isEmpty() ) {
+				// The data are current so the age starts now.
+				this.globalDataReadTime = now;
+				setStatus ( 0 );
+				setStatusMessage ( "Read " + this.projectList.size() + " projects and " + this.repositoryList.size()
+					+ " repositories at " + now.withNano(0) + "." );
+				// Save the data for the next session.
+				writeSnapshot();
+			}
+			else {
+				setStatus ( 1 );
+				setStatusMessage ( String.join("  ", problems) );
+			}
+
+			// Set the expiration time:
+			// - also set if there were problems so that the data are read again later
+			// - if the data have never been read successfully, read again soon
+			if ( this.globalDataReadTime == null ) {
+				this.globalDataExpirationTime = now.plusSeconds(Math.min(this.globalDataExpirationOffset, GLOBAL_DATA_RETRY_SECONDS));
+			}
+			else {
+				this.globalDataExpirationTime = now.plusSeconds(this.globalDataExpirationOffset);
+			}
+			Message.printStatus ( 2, routine, "Global data will expire at: " + this.globalDataExpirationTime );
+		}
+		finally {
+			this.globalDataReadLock.unlock();
+		}
+	}
+
+	/**
+	 * Read the snapshot file and use its data for the global data and incremental issues.
+	 * @return true if the snapshot global data were used and have not expired,
+	 * false if the snapshot could not be used or has expired and global data should be read
+	 */
+	private boolean readSnapshot () {
+		String routine = getClass().getSimpleName() + ".readSnapshot";
+		BitbucketSession session = getDefaultSession();
+		if ( session == null ) {
+			return false;
+		}
+		BitbucketSnapshot.Contents contents = null;
+		try {
+			contents = this.snapshot.read ( session.getWorkspaceId() );
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error reading snapshot file \"" + this.snapshot.getFile() + "\" (" + e + ").");
 			Message.printWarning(3, routine, e );
-			this.globalDataProblems.add("Error reading global repository data.");
 		}
-		*/
+		if ( contents == null ) {
+			return false;
+		}
+		if ( this.issueSync != null ) {
+			for ( BitbucketSnapshot.IssueSetContents issueSetContents : contents.getIssueSets() ) {
+				List<Issue> issueList = issueSetContents.getIssues();
+				postProcessIssues ( null, issueList );
+				this.issueSync.getIssueSet(issueSetContents.getKey()).restore ( issueList, issueSetContents.getFullReadTime() );
+			}
+		}
+		OffsetDateTime readTime = contents.getReadTime();
+		if ( readTime == null ) {
+			// The snapshot only contains issues.
+			return false;
+		}
+		this.projectList = contents.getProjects();
+		this.repositoryList = contents.getRepositories();
+		this.globalDataReadTime = readTime;
+		this.globalDataExpirationTime = readTime.plusSeconds(this.globalDataExpirationOffset);
+		setStatusMessage ( "Using " + this.projectList.size() + " projects and " + this.repositoryList.size()
+			+ " repositories from snapshot read at " + readTime.withNano(0) + "." );
+		Message.printStatus(2, routine, "Read " + this.projectList.size() + " projects, " + this.repositoryList.size()
+			+ " repositories, and " + contents.getIssueSets().size() + " issue sets from snapshot file \""
+			+ this.snapshot.getFile() + "\", read from Bitbucket at " + readTime + "." );
+		return OffsetDateTime.now().isBefore(this.globalDataExpirationTime);
+	}
+
+	/**
+	 * Read global data in a background thread so that the calling code does not wait.
+	 * If a background read is already in progress, another read is not started.
+	 */
+	public void refreshGlobalDataInBackground () {
+		String routine = getClass().getSimpleName() + ".refreshGlobalDataInBackground";
+		if ( !this.globalDataRefreshInProgress.compareAndSet(false, true) ) {
+			// Already reading.
+			return;
+		}
+		Thread thread = new Thread ( () -> {
+			try {
+				readGlobalData();
+			}
+			catch ( Exception e ) {
+				Message.printWarning(3, routine, "Error reading global data in the background (" + e + ").");
+				Message.printWarning(3, routine, e );
+			}
+			finally {
+				this.globalDataRefreshInProgress.set(false);
+			}
+		}, "BitbucketDataStore-GlobalData-" + getName() );
+		// Use a daemon thread so that the thread does not prevent TSTool from exiting.
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Set the 'page' query parameter in a URL, replacing the parameter if it exists.
+	 * @param urlString the URL to modify
+	 * @param page the page number (1+)
+	 * @return the URL with the page parameter set
+	 */
+	private String setPageParameter ( String urlString, int page ) {
+		Matcher matcher = PAGE_PARAMETER_PATTERN.matcher(urlString);
+		if ( matcher.find() ) {
+			return matcher.replaceFirst("$1page=" + page);
+		}
+		else if ( urlString.contains("?") ) {
+			return urlString + "&page=" + page;
+		}
+		else {
+			return urlString + "?page=" + page;
+		}
+	}
+
+	/**
+	 * Read one page of results.
+	 * If the same page is being read by another thread (e.g., another command), wait for and share that response
+	 * rather than making another request.
+	 * The shared response bytes are parsed for each caller so that callers do not share objects,
+	 * which are modified when processed (e.g., issues).
+	 * @param routine the calling routine, for logging
+	 * @param endpointType the endpoint that is being read
+	 * @param workspace the Bitbucket workspace, used with the URL for the persistent cache key
+	 * @param urlString the URL to read
+	 * @param requestProperties HTTP request headers
+	 * @param timeoutSeconds the timeout in seconds
+	 * @param responseClass the class for the response
+	 * @return the response for the page
+	 */
+	private <R> R readPage ( String routine, BitbucketEndpointType endpointType, String workspace, String urlString,
+		MultiKeyStringDictionary requestProperties, int timeoutSeconds, Class<R> responseClass ) {
+		if ( this.pageSingleFlight == null ) {
+			return fetchPage ( routine, endpointType, workspace, urlString, requestProperties, timeoutSeconds, responseClass, null );
+		}
+		// The key includes the credentials so that pages are only shared for the same user.
+		String key = BitbucketConditionalCache.createKey(urlString, requestProperties) + "#" + responseClass.getName();
+		// The page read by this caller, if this caller makes the request.
+		AtomicReference<R> ownPageResponse = new AtomicReference<>();
+		byte [] pageData = null;
+		try {
+			pageData = this.pageSingleFlight.execute ( key, () -> {
+				AtomicReference<byte[]> fetchedData = new AtomicReference<>();
+				ownPageResponse.set ( fetchPage ( routine, endpointType, workspace, urlString, requestProperties,
+					timeoutSeconds, responseClass, fetchedData ) );
+				return fetchedData.get();
+			});
+		}
+		catch ( RuntimeException e ) {
+			throw e;
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error reading '" + endpointType + "' using \"" + urlString + "\".");
+			Message.printWarning(3, routine, e);
+			throw new RuntimeException(e);
+		}
+		if ( ownPageResponse.get() != null ) {
+			return ownPageResponse.get();
+		}
+		if ( pageData == null ) {
+			// The shared response was too large to save so read the page.
+			return fetchPage ( routine, endpointType, workspace, urlString, requestProperties, timeoutSeconds, responseClass, null );
+		}
+		// Parse the shared response to create objects for this caller.
+		try {
+			BitbucketJsonParseEvent parseEvent = BitbucketJfr.beginJsonParse(endpointType.getName(), responseClass, "SharedResponse");
+			R pageResponse = JacksonToolkit.getInstance().getObjectReader(responseClass).readValue(pageData);
+			BitbucketJfr.endJsonParse(parseEvent, pageData.length);
+			return pageResponse;
+		}
+		catch ( IOException e ) {
+			Message.printWarning(3, routine, "Error parsing shared '" + endpointType + "' for \"" + urlString + "\".");
+			Message.printWarning(3, routine, e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Read one page of results from the cache or server.
+	 * The response is parsed as it is read from the response stream, without creating a string for the full response,
+	 * unless debug is turned on, in which case the response is logged.
+	 * If the persistent response cache is enabled and the page was saved within the time to live for the endpoint,
+	 * the saved response is used without making a request.
+	 * If conditional requests are enabled and the page was previously read,
+	 * a conditional request is made and the cached page is returned if the page has not been modified.
+	 * If the request rate is limited, the request waits for the rate limiter
+	 * and is retried if the response is 429 (Too Many Requests).
+	 * Requests that fail due to transient errors (server errors and I/O errors such as timeouts) are retried,
+	 * so that one failed page does not cause all pages to be read again,
+	 * and the circuit breaker for the host fails requests immediately if the host has failed repeatedly.
+	 * @param routine the calling routine, for logging
+	 * @param endpointType the endpoint that is being read
+	 * @param workspace the Bitbucket workspace, used with the URL for the persistent cache key
+	 * @param urlString the URL to read
+	 * @param requestProperties HTTP request headers
+	 * @param timeoutSeconds the timeout in seconds
+	 * @param responseClass the class for the response
+	 * @param pageData if not null, set to the response bytes that the page was parsed from,
+	 * so that the response can be shared, or null if the response was too large to save
+	 * @return the response for the page
+	 */
+	private <R> R fetchPage ( String routine, BitbucketEndpointType endpointType, String workspace, String urlString,
+		MultiKeyStringDictionary requestProperties, int timeoutSeconds, Class<R> responseClass, AtomicReference<byte[]> pageData ) {
+		BitbucketDataStoreMetrics.EndpointMetrics endpointMetrics = this.metrics.getEndpointMetrics(endpointType);
+		try {
+			// Use the shared reader so that Jackson does not need to introspect the classes for each page.
+			ObjectReader reader = JacksonToolkit.getInstance().getObjectReader(responseClass);
+
+			// Check the persistent cache.
+			String diskCacheKey = null;
+			BitbucketDiskCache.CachedResponse diskResponse = null;
+			if ( this.diskCache != null ) {
+				diskCacheKey = this.diskCache.createKey(urlString, workspace);
+				diskResponse = this.diskCache.get(diskCacheKey);
+				if ( (diskResponse != null) && this.diskCache.isFresh(diskResponse, endpointType) ) {
+					try {
+						BitbucketJsonParseEvent parseEvent = BitbucketJfr.beginJsonParse(endpointType.getName(), responseClass, "ResponseCache");
+						R pageResponse = reader.readValue(diskResponse.getData());
+						BitbucketJfr.endJsonParse(parseEvent, diskResponse.getData().length);
+						Message.printStatus(2, routine, "Using " + endpointType + " from the response cache.");
+						endpointMetrics.recordDiskCacheHit();
+						if ( pageData != null ) {
+							pageData.set(diskResponse.getData());
+						}
+						return pageResponse;
+					}
+					catch ( IOException e ) {
+						Message.printWarning(3, routine, "Error parsing cached " + endpointType + " (" + e + ").  Reading from the server.");
+						diskResponse = null;
+					}
+				}
+			}
+
+			// Check for a cached page to make a conditional request:
+			// - use the in-memory page if available
+			// - otherwise use the saved response if it was not used above because it is older than the time to live
+			String cacheKey = null;
+			BitbucketConditionalCache.CacheEntry cacheEntry = null;
+			if ( (this.conditionalCache != null) && BitbucketConditionalCache.isCacheable(urlString) ) {
+				cacheKey = BitbucketConditionalCache.createKey(urlString, requestProperties);
+				cacheEntry = this.conditionalCache.get(cacheKey);
+			}
+			Map<String,String> conditionalHeaders = null;
+			if ( cacheEntry != null ) {
+				conditionalHeaders = BitbucketConditionalCache.getConditionalHeaders(cacheEntry);
+			}
+			else if ( diskResponse != null ) {
+				conditionalHeaders = BitbucketConditionalCache.getConditionalHeaders(
+					new BitbucketConditionalCache.CacheEntry(diskResponse.getETag(), diskResponse.getLastModified(), null));
+			}
+			else {
+				conditionalHeaders = BitbucketConditionalCache.getConditionalHeaders(null);
+			}
+			Map<String,String> conditionalHeadersFinal = conditionalHeaders;
+			String cacheKeyFinal = cacheKey;
+			BitbucketConditionalCache.CacheEntry cacheEntryFinal = cacheEntry;
+			String diskCacheKeyFinal = diskCacheKey;
+			BitbucketDiskCache.CachedResponse diskResponseFinal = diskResponse;
+			// Make the request:
+			// - if the request rate is limited, wait for the rate limiter and retry if the response is 429 (Too Many Requests)
+			// - fail immediately if the circuit breaker for the host is open
+			// - retry transient errors after an increasing delay
+			BitbucketCircuitBreaker circuitBreaker = getCircuitBreaker ( urlString );
+			int rateLimitRetryCount = 0;
+			for ( int attempt = 1; ; attempt++ ) {
+				// Wait for the rate limiter before checking the circuit breaker:
+				// - checking the circuit breaker may start a trial request, which must not wait,
+				//   because an interrupted wait would not end the trial and all later requests would fail
+				if ( this.rateLimiter != null ) {
+					this.rateLimiter.acquire();
+				}
+				if ( circuitBreaker != null ) {
+					circuitBreaker.checkAllowed();
+				}
+				try {
+					R result = this.requestExecutor.runRequest ( () -> {
+						// The JFR event is only created if JFR is recording.
+						BitbucketPageFetchEvent fetchEvent = BitbucketJfr.beginPageFetch(endpointType.getName(), urlString);
+						int fetchStatus = 0;
+						String fetchSource = null;
+						long fetchBytesReceived = 0;
+						long fetchBytesDecoded = 0;
+						long requestStartNs = System.nanoTime();
+						try ( BitbucketHttpResponse urlResponse = getHttpResponse(urlString, requestProperties, conditionalHeadersFinal, timeoutSeconds ) ) {
+							// Latency is the time until the response status and headers are received.
+							endpointMetrics.recordRequest(System.nanoTime() - requestStartNs);
+							fetchStatus = urlResponse.getResponseCode();
+							if ( (this.rateLimiter != null) && this.rateLimiter.update(urlResponse) ) {
+								// Too many requests so retry after waiting.
+								throw new HttpCodeException ( "Request rate limit exceeded (code=429).", 429 );
+							}
+							if ( (urlResponse.getResponseCode() == 304) && (cacheEntryFinal != null) ) {
+								// Not modified so use the cached page:
+								// - parse the saved response so that the calling code gets new objects
+								Message.printStatus(2, routine, "Page has not been modified.  Using cached " + endpointType + ".");
+								BitbucketJsonParseEvent parseEvent = BitbucketJfr.beginJsonParse(endpointType.getName(), responseClass, "ConditionalCache");
+								R pageResponse = reader.readValue(cacheEntryFinal.getData());
+								BitbucketJfr.endJsonParse(parseEvent, cacheEntryFinal.getData().length);
+								if ( pageData != null ) {
+									pageData.set(cacheEntryFinal.getData());
+								}
+								if ( diskResponseFinal != null ) {
+									// Also reset the time for the saved response so that it is used until the time to live.
+									this.diskCache.touch(diskCacheKeyFinal);
+								}
+								endpointMetrics.recordNotModified();
+								fetchSource = "NotModified";
+								return pageResponse;
+							}
+							else if ( (urlResponse.getResponseCode() == 304) && (diskResponseFinal != null) ) {
+								// Not modified so use the saved response.
+								Message.printStatus(2, routine, "Page has not been modified.  Using " + endpointType + " from the response cache.");
+								BitbucketJsonParseEvent parseEvent = BitbucketJfr.beginJsonParse(endpointType.getName(), responseClass, "ResponseCache");
+								R pageResponse = reader.readValue(diskResponseFinal.getData());
+								BitbucketJfr.endJsonParse(parseEvent, diskResponseFinal.getData().length);
+								if ( pageData != null ) {
+									pageData.set(diskResponseFinal.getData());
+								}
+								this.diskCache.touch(diskCacheKeyFinal);
+								if ( cacheKeyFinal != null ) {
+									this.conditionalCache.put(cacheKeyFinal, diskResponseFinal.getETag(), diskResponseFinal.getLastModified(),
+										diskResponseFinal.getData());
+								}
+								endpointMetrics.recordNotModified();
+								fetchSource = "NotModified";
+								return pageResponse;
+							}
+							else if ( urlResponse.hadError() ) {
+								if ( (this.httpFixtures != null) && (this.httpFixtures.getMode() == BitbucketHttpMode.RECORD)
+									&& BitbucketHttpFixtures.isRecorded(urlResponse.getResponseCode()) ) {
+									// Record the error (e.g., 404) so that replay has the same result.
+									try {
+										this.httpFixtures.record(urlString, urlResponse.getResponseCode(), urlResponse.getResponseError());
+									}
+									catch ( IOException e ) {
+										Message.printWarning(3, routine, "Error recording " + endpointType + " error response in the HTTP fixture folder (" + e + ").");
+									}
+								}
+								// TODO smalers 2020-06-12 would be nice to not catch this immediately.
+								throw new HttpCodeException ( "Reading URL returned error (code=" + urlResponse.getResponseCode()
+									+ "): " + urlResponse.getResponseError(), urlResponse.getResponseCode() );
+							}
+							else if ( urlResponse.getResponseCode() != 200 ) {
+								throw new HttpCodeException ( "Reading URL returned error code: " + urlResponse.getResponseCode(),
+									urlResponse.getResponseCode() );
+							}
+							// Parse the response into objects:
+							// - if the persistent cache is used, the response is saved as it is parsed
+							Message.printStatus(2, routine, "JSON response code = " + urlResponse.getResponseCode());
+							BitbucketDiskCache.PendingEntry pendingEntry = null;
+							if ( diskCacheKeyFinal != null ) {
+								pendingEntry = this.diskCache.begin(diskCacheKeyFinal, urlString);
+							}
+							BitbucketHttpFixtures.Recording recording = null;
+							if ( (this.httpFixtures != null) && (this.httpFixtures.getMode() == BitbucketHttpMode.RECORD) ) {
+								recording = this.httpFixtures.begin(urlString, urlResponse.getResponseCode());
+							}
+							BitbucketConditionalCache.CaptureInputStream capture = null;
+							R pageResponse = null;
+							long parseStartNs = System.nanoTime();
+							try {
+								InputStream responseStream = null;
+								if ( debug ) {
+									String responseJson = urlResponse.getResponse();
+									Message.printStatus(2, routine, "Response=" + responseJson);
+									responseStream = new ByteArrayInputStream(responseJson.getBytes(StandardCharsets.UTF_8));
+								}
+								else {
+									responseStream = urlResponse.getResponseStream();
+								}
+								if ( pendingEntry != null ) {
+									responseStream = pendingEntry.wrap(responseStream);
+								}
+								if ( recording != null ) {
+									responseStream = recording.wrap(responseStream);
+								}
+								if ( cacheKeyFinal != null ) {
+									capture = this.conditionalCache.wrap(responseStream);
+									responseStream = capture;
+								}
+								else if ( pageData != null ) {
+									// Save the response so that it can be shared.
+									capture = new BitbucketConditionalCache.CaptureInputStream(responseStream,
+										BitbucketConditionalCache.DEFAULT_MAX_SIZE_BYTES);
+									responseStream = capture;
+								}
+								BitbucketJsonParseEvent parseEvent = BitbucketJfr.beginJsonParse(endpointType.getName(), responseClass, "Response");
+								try ( InputStream in = responseStream ) {
+									pageResponse = reader.readValue(in);
+								}
+								BitbucketJfr.endJsonParse(parseEvent, urlResponse.getResponseLength());
+							}
+							catch ( Exception e ) {
+								if ( pendingEntry != null ) {
+									pendingEntry.abort();
+								}
+								if ( recording != null ) {
+									recording.abort();
+								}
+								throw e;
+							}
+							if ( urlResponse.getContentEncoding() != null ) {
+								Message.printStatus(2, routine, "JSON response has length = " + urlResponse.getResponseLength()
+									+ " (" + urlResponse.getReceivedLength() + " bytes received using " + urlResponse.getContentEncoding() + ").");
+							}
+							else {
+								Message.printStatus(2, routine, "JSON response has length = " + urlResponse.getResponseLength());
+							}
+							fetchSource = "Response";
+							fetchBytesReceived = urlResponse.getReceivedLength();
+							fetchBytesDecoded = urlResponse.getResponseLength();
+							endpointMetrics.recordParsedPage(System.nanoTime() - parseStartNs, fetchBytesReceived, fetchBytesDecoded);
+							if ( pendingEntry != null ) {
+								try {
+									pendingEntry.commit(urlResponse.getHeader("ETag"), urlResponse.getHeader("Last-Modified"));
+								}
+								catch ( IOException e ) {
+									Message.printWarning(3, routine, "Error saving " + endpointType + " in the response cache (" + e + ").");
+								}
+							}
+							if ( recording != null ) {
+								try {
+									recording.commit(urlResponse.getHeader("ETag"), urlResponse.getHeader("Last-Modified"));
+								}
+								catch ( IOException e ) {
+									Message.printWarning(3, routine, "Error recording " + endpointType + " in the HTTP fixture folder (" + e + ").");
+								}
+							}
+							byte [] capturedData = (capture == null) ? null : capture.getData();
+							if ( cacheKeyFinal != null ) {
+								// Save the page for later conditional requests.
+								this.conditionalCache.put(cacheKeyFinal, urlResponse.getHeader("ETag"), urlResponse.getHeader("Last-Modified"), capturedData);
+							}
+							if ( pageData != null ) {
+								pageData.set(capturedData);
+							}
+							return pageResponse;
+						}
+						finally {
+							BitbucketJfr.endPageFetch(fetchEvent, fetchStatus, fetchSource, fetchBytesReceived, fetchBytesDecoded);
+						}
+					});
+					if ( circuitBreaker != null ) {
+						circuitBreaker.recordSuccess();
+					}
+					return result;
+				}
+				catch ( Exception e ) {
+					if ( (e instanceof HttpCodeException) && (((HttpCodeException)e).getCode() == 429) && (this.rateLimiter != null) ) {
+						// The host is responding but too many requests have been made:
+						// - the rate limiter waits before the next attempt
+						if ( circuitBreaker != null ) {
+							circuitBreaker.recordCancelled();
+						}
+						if ( rateLimitRetryCount < this.rateLimiter.getMaxRetries() ) {
+							++rateLimitRetryCount;
+							--attempt;
+							endpointMetrics.recordRateLimitRetry();
+							Message.printStatus(2, routine, "Retrying request for " + endpointType + " (rate limit retry "
+								+ rateLimitRetryCount + " of " + this.rateLimiter.getMaxRetries() + ").");
+							continue;
+						}
+						throw e;
+					}
+					if ( !BitbucketRetryPolicy.isTransient(e) ) {
+						if ( circuitBreaker != null ) {
+							if ( e instanceof HttpCodeException ) {
+								// The host responded (e.g., 404) so it is working.
+								circuitBreaker.recordSuccess();
+							}
+							else {
+								circuitBreaker.recordCancelled();
+							}
+						}
+						throw e;
+					}
+					if ( circuitBreaker != null ) {
+						circuitBreaker.recordFailure();
+					}
+					if ( !this.retryPolicy.canRetry(attempt) ) {
+						Message.printWarning(3, routine, "Request for " + endpointType + " failed after " + attempt + " attempts.");
+						throw e;
+					}
+					long delayMs = this.retryPolicy.getDelayMs(attempt);
+					Message.printWarning(3, routine, "Request for " + endpointType + " failed (" + e + ").  Retrying in "
+						+ delayMs + " ms (attempt " + (attempt + 1) + " of " + this.retryPolicy.getMaxAttempts() + ").");
+					endpointMetrics.recordRetry();
+					Thread.sleep(delayMs);
+				}
+			}
+		}
+		catch ( RuntimeException e ) {
+			endpointMetrics.recordError();
+			throw e;
+		}
+		catch ( Exception e ) {
+			endpointMetrics.recordError();
+			Message.printWarning(3, routine, "Error reading '" + endpointType + "' using \"" + urlString + "\".");
+			Message.printWarning(3, routine, e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Read all pages of results for a request and return the values.
+	 * The first page is read and if the response indicates the total number of values,
+	 * the URLs for the remaining pages are determined and the pages are read concurrently.
+	 * Otherwise, the pages are read one at a time using the 'next' URL from each page.
+	 * The values are returned in page order.
+	 * @param routine the calling routine, for logging
+	 * @param endpointType the endpoint that is being read
+	 * @param workspace the Bitbucket workspace, used with the URL for the persistent cache key
+	 * @param urlString the URL for the first page
+	 * @param requestProperties HTTP request headers
+	 * @param timeoutSeconds the timeout in seconds
+	 * @param responseClass the class for the response
+	 * @return the values from all pages
+	 */
+	private <T, R extends PagedResponse<T>> List<T> readPagedValues ( String routine, BitbucketEndpointType endpointType,
+		String workspace, String urlString,
+		MultiKeyStringDictionary requestProperties, int timeoutSeconds, Class<R> responseClass ) {
+		List<T> valueList = new ArrayList<>();
+
+		// Read the first page.
+		Message.printStatus(2, routine, "Reading " + endpointType + " using: " + urlString);
+		R firstPageResponse = readPage ( routine, endpointType, workspace, urlString, requestProperties, timeoutSeconds, responseClass );
+		//logResponseErrors ( pageResponse.getErrors() );
+		Message.printStatus(2, routine, "Read " + firstPageResponse.getValues().size() + " " + endpointType + ".");
+		valueList.addAll(firstPageResponse.getValues());
+		String nextUrlString = firstPageResponse.getNext();
+
+		// If the total size is known, read the remaining pages concurrently.
+		Integer size = firstPageResponse.getSize();
+		Integer page = firstPageResponse.getPage();
+		Integer pagelen = firstPageResponse.getPagelen();
+		if ( (nextUrlString != null) && !nextUrlString.isEmpty() && (size != null) && (page != null) && (page == 1)
+			&& (pagelen != null) && (pagelen > 0) ) {
+			int pageCount = (size + pagelen - 1)/pagelen;
+			Message.printStatus(2, routine, "Reading " + (pageCount - 1) + " additional pages of " + endpointType
+				+ " concurrently (size=" + size + ", pagelen=" + pagelen + ").");
+			List<Callable<R>> tasks = new ArrayList<>();
+			for ( int ipage = 2; ipage <= pageCount; ipage++ ) {
+				String pageUrlString = setPageParameter ( urlString, ipage );
+				tasks.add ( () -> {
+					Message.printStatus(2, routine, "Reading " + endpointType + " using: " + pageUrlString);
+					return readPage ( routine, endpointType, workspace, pageUrlString, requestProperties, timeoutSeconds, responseClass );
+				});
+			}
+			List<R> pageResponses = null;
+			try {
+				pageResponses = this.requestExecutor.invokeAllPages ( tasks );
+			}
+			catch ( RuntimeException e ) {
+				throw e;
+			}
+			catch ( Exception e ) {
+				Message.printWarning(3, routine, "Error reading '" + endpointType + "' pages.");
+				Message.printWarning(3, routine, e);
+				throw new RuntimeException(e);
+			}
+			// Merge the pages in order.
+			for ( R pageResponse : pageResponses ) {
+				Message.printStatus(2, routine, "Read " + pageResponse.getValues().size() + " " + endpointType
+					+ " for page " + pageResponse.getPage() + ".");
+				valueList.addAll(pageResponse.getValues());
+				// The 'next' URL from the last page will be null unless values were added while reading.
+				nextUrlString = pageResponse.getNext();
+			}
+		}
 
+		// Read the remaining pages one at a time:
+		// - all pages if the size was not returned
+		// - additional pages if values were added since the first page was read
+		while ( (nextUrlString != null) && !nextUrlString.isEmpty() ) {
+			Message.printStatus(2, routine, "Reading " + endpointType + " using: " + nextUrlString);
+			R pageResponse = readPage ( routine, endpointType, workspace, nextUrlString, requestProperties, timeoutSeconds, responseClass );
+			Message.printStatus(2, routine, "Read " + pageResponse.getValues().size() + " " + endpointType + ".");
+			// Add the page of results to the full list of output.
+			valueList.addAll(pageResponse.getValues());
+
+			// Set the URL string to the next URL.
+			nextUrlString = pageResponse.getNext();
+		}
+		return valueList;
+	}
+
+	/**
+	 * Read the list of projects.
+     * @param workspace the Bitbucket workspace for the projects
+     * @param timeoutSeconds the timeout in seconds
+ 	 * @return a list of Project.
+ 	 */
+	public List<Project> readProjects ( BitbucketSession session, int timeoutSeconds ) throws IOException {
+		List<String> fields = null;
+		return readProjects ( session, fields, timeoutSeconds );
+	}
+
+	/**
+	 * Read the list of projects.
+     * @param workspace the Bitbucket workspace for the projects
+     * @param fields the project fields to read (e.g., "key"), or null to read all fields,
+     * fields needed to sort the projects are always read
+     * @param timeoutSeconds the timeout in seconds
+ 	 * @return a list of Project.
+ 	 */
+	public List<Project> readProjects ( BitbucketSession session, List<String> fields, int timeoutSeconds ) throws IOException {
+		String routine = getClass().getSimpleName() + ".readProjects";
+		//boolean debug = true;
+		
+		String rootUrl = getServiceRootURI().toString();
+		if ( ! rootUrl.endsWith("/") ) {
+			// Add a trailing /.
+			rootUrl = rootUrl + "/";
+		}
+		String workspace = session.getWorkspaceId();
+		// Encode the URL.
+		try {
+			workspace = URLEncoder.encode(workspace, StandardCharsets.UTF_8.toString());
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error encoding projects URL.");
+		}
+		String urlString = rootUrl + "/workspaces/" + workspace + "/projects" + COMMON_REQUEST_PARAMETERS
+			+ getFieldsParameter(fields, PROJECT_REQUIRED_FIELDS);
+
+		// Get request header properties for authentication.
+		MultiKeyStringDictionary requestProperties = getHttpRequestProperties(session);
+		
+		// Read data one page at a time.
+		List<Project> projectList = readPagedValues ( routine, BitbucketEndpointType.PROJECTS, workspace, urlString, requestProperties, timeoutSeconds, ProjectsResponse.class );
+
+		// Sort on the name.
+		Collections.sort(projectList, new ProjectComparator());
+		return projectList;
 	}
 
 	/**
@@ -644,98 +2027,25 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 }
 
 	/**
-	 * Read the list of projects.
-     * @param workspace the Bitbucket workspace for the projects
+	 * Read the list of repositories.
+     * @param workspace the Bitbucket workspace for the repositories
      * @param timeoutSeconds the timeout in seconds
- 	 * @return a list of Project.
+ 	 * @return a list of Repository.
  	 */
-	public List<Project> readProjects ( BitbucketSession session, int timeoutSeconds ) throws IOException {
-		String routine = getClass().getSimpleName() + ".readProjects";
-		//boolean debug = true;
-		
-		String rootUrl = getServiceRootURI().toString();
-		if ( ! rootUrl.endsWith("/") ) {
-			// Add a trailing /.
-			rootUrl = rootUrl + "/";
-		}
-		String workspace = session.getWorkspaceId();
-		// Encode the URL.
-		try {
-			workspace = URLEncoder.encode(workspace, StandardCharsets.UTF_8.toString());
-		}
-		catch ( Exception e ) {
-			Message.printWarning(3, routine, "Error encoding projects URL.");
-		}
-		String urlString = rootUrl + "/workspaces/" + workspace + "/projects" + COMMON_REQUEST_PARAMETERS;
-
-		// Get request header properties for authentication.
-		MultiKeyStringDictionary requestProperties = getHttpRequestProperties(session);
-		
-		// Read data one page at a time.
-		List<Project> projectList = new ArrayList<>();
-		while ( (urlString != null) && !urlString.isEmpty() ) {
-			Message.printStatus(2, routine, "Reading projects using: " + urlString);
-
-			String urlStringEncoded = urlString;
-			UrlReader urlReader = new UrlReader(urlStringEncoded, requestProperties, null, timeoutSeconds*1000 );
-			UrlResponse urlResponse = null;
-			try {
-				urlResponse = urlReader.read();
-			}
-			catch ( Exception e ) {
-				Message.printWarning(3, routine, "Error reading 'projects' using \"" + urlString + "\".");
-				Message.printWarning(3, routine, e);
-				throw new RuntimeException(e);
-			}
-			if ( urlResponse.hadError() ) {
-				// TODO smalers 2020-06-12 would be nice to not catch this immediately.
-				throw new RuntimeException ( "Reading URL returned error (code=" + urlResponse.getResponseCode()
-					+ "): " + urlResponse.getResponseError() );
-			}
-			else if ( urlResponse.getResponseCode() != 200 ) {
-				throw new RuntimeException ( "Reading URL returned error code: " + urlResponse.getResponseCode() );
-			}
-			else {
-				// Parse the response into objects.
-				ObjectMapper mapper = new ObjectMapper();
-				mapper.registerModule(new JavaTimeModule());
-				String responseJson = urlResponse.getResponse();
-				Message.printStatus(2, routine, "JSON response has length = " + responseJson.length());
-				Message.printStatus(2, routine, "JSON response code = " + urlResponse.getResponseCode());
-				try {
-					ProjectsResponse projectsResponse = mapper.readValue(responseJson, new TypeReference<ProjectsResponse>(){});
-					if ( debug ) {
-						Message.printStatus(2, routine, "Response=" + responseJson);
-					}
-					//logResponseErrors ( repositoriesResponse.getErrors() );
-					Message.printStatus(2, routine, "Read " + projectsResponse.getValues().size() + " projects.");
-					List<Project> projectList0 = projectsResponse.getValues();
-					// Add the page of results to the full list of output.
-					projectList.addAll(projectList0);
-			
-					// Set the URL string to the next URL.
-					urlString = projectsResponse.getNext();
-				}
-				catch ( Exception e ) {
-					Message.printWarning(3, routine, "Error reading 'projects' using \"" + urlString + "\".");
-					Message.printWarning(3, routine, e);
-					throw new RuntimeException(e);
-				}
-			}
-		}
-
-		// Sort on the name.
-		Collections.sort(projectList, new ProjectComparator());
-		return projectList;
+	public List<Repository> readRepositories ( BitbucketSession session, int timeoutSeconds ) throws IOException {
+		List<String> fields = null;
+		return readRepositories ( session, fields, timeoutSeconds );
 	}
 
 	/**
 	 * Read the list of repositories.
      * @param workspace the Bitbucket workspace for the repositories
+     * @param fields the repository fields to read (e.g., "description"), or null to read all fields,
+     * fields needed to sort the repositories and read issues are always read
      * @param timeoutSeconds the timeout in seconds
  	 * @return a list of Repository.
  	 */
-	public List<Repository> readRepositories ( BitbucketSession session, int timeoutSeconds ) throws IOException {
+	public List<Repository> readRepositories ( BitbucketSession session, List<String> fields, int timeoutSeconds ) throws IOException {
 		String routine = getClass().getSimpleName() + ".readRepositories";
 		//boolean debug = true;
 		
@@ -752,68 +2062,47 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 		catch ( Exception e ) {
 			Message.printWarning(3, routine, "Error encoding repositories URL.");
 		}
-		String urlString = rootUrl + "repositories/" + workspace + COMMON_REQUEST_PARAMETERS;
+		String urlString = rootUrl + "repositories/" + workspace + COMMON_REQUEST_PARAMETERS
+			+ getFieldsParameter(fields, REPOSITORY_REQUIRED_FIELDS);
 
 		// Get request header properties for authentication.
 		MultiKeyStringDictionary requestProperties = getHttpRequestProperties(session);
 		
 		// Read data one page at a time.
-		List<Repository> repositoryList = new ArrayList<>();
-		while ( (urlString != null) && !urlString.isEmpty() ) {
-			Message.printStatus(2, routine, "Reading repositories using: " + urlString);
-
-			String urlStringEncoded = urlString;
-			UrlReader urlReader = new UrlReader(urlStringEncoded, requestProperties, null, timeoutSeconds*1000 );
-			UrlResponse urlResponse = null;
+		String workspaceFinal = workspace;
+		Callable<List<Repository>> request = () -> {
+			List<Repository> repositoryList = readPagedValues ( routine, BitbucketEndpointType.REPOSITORIES, workspaceFinal, urlString, requestProperties, timeoutSeconds, RepositoriesResponse.class );
+
+			// Sort on the repository name.
+			Collections.sort(repositoryList, new RepositoryComparator());
+			return repositoryList;
+		};
+		if ( this.repositoriesSingleFlight == null ) {
 			try {
-				urlResponse = urlReader.read();
+				return request.call();
+			}
+			catch ( RuntimeException e ) {
+				throw e;
 			}
 			catch ( Exception e ) {
-				Message.printWarning(3, routine, "Error reading 'repositories' using \"" + urlString + "\".");
-				Message.printWarning(3, routine, e);
 				throw new RuntimeException(e);
 			}
-			if ( urlResponse.hadError() ) {
-				// TODO smalers 2020-06-12 would be nice to not catch this immediately.
-				throw new RuntimeException ( "Reading URL returned error (code=" + urlResponse.getResponseCode()
-					+ "): " + urlResponse.getResponseError() );
-			}
-			else if ( urlResponse.getResponseCode() != 200 ) {
-				throw new RuntimeException ( "Reading URL returned error code: " + urlResponse.getResponseCode() );
-			}
-			else {
-				// Parse the response into objects.
-				ObjectMapper mapper = new ObjectMapper();
-				mapper.registerModule(new JavaTimeModule());
-				String responseJson = urlResponse.getResponse();
-				Message.printStatus(2, routine, "JSON response has length = " + responseJson.length());
-				Message.printStatus(2, routine, "JSON response code = " + urlResponse.getResponseCode());
-				try {
-					RepositoriesResponse repositoriesResponse = mapper.readValue(responseJson, new TypeReference<RepositoriesResponse>(){});
-					if ( debug ) {
-						Message.printStatus(2, routine, "Response=" + responseJson);
-					}
-					//logResponseErrors ( repositoriesResponse.getErrors() );
-					Message.printStatus(2, routine, "Read " + repositoriesResponse.getValues().size() + " repositories.");
-					List<Repository> repositoryList0 = repositoriesResponse.getValues();
-					// Add the page of results to the full list of output.
-					repositoryList.addAll(repositoryList0);
-			
-					// Set the URL string to the next URL.
-					urlString = repositoriesResponse.getNext();
-				}
-				catch ( Exception e ) {
-					Message.printWarning(3, routine, "Error reading 'repositories' using \"" + urlString + "\".");
-					Message.printWarning(3, routine, e);
-					throw new RuntimeException(e);
-				}
-			}
 		}
 
-		// Sort on the repository name.
-		Collections.sort(repositoryList, new RepositoryComparator());
-
-		return repositoryList;
+		// If the same repositories are being read by another thread (e.g., another command), share the result:
+		// - return a copy of the list so that each caller can modify its list
+		try {
+			return new ArrayList<>(this.repositoriesSingleFlight.execute (
+				BitbucketConditionalCache.createKey(urlString, requestProperties), request ) );
+		}
+		catch ( RuntimeException e ) {
+			throw e;
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error reading repositories.");
+			Message.printWarning(3, routine, e);
+			throw new RuntimeException(e);
+		}
 	}
 
 	/**
@@ -824,6 +2113,39 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
  	 * @return a list of Repository.
  	 */
 	public List<Issue> readRepositoryIssues ( BitbucketSession session, Repository repository, int timeoutSeconds ) throws IOException {
+		IssueQuery issueQuery = null;
+		return readRepositoryIssues ( session, repository, issueQuery, timeoutSeconds );
+	}
+
+	/**
+	 * Read the list of repository issues.
+     * @param workspace the Bitbucket workspace for the repositories
+     * @param repository the Bitbucket repository for the issues
+     * @param issueQuery query criteria that are used to filter issues on the server,
+     * or null to read all issues (the returned issues may still need to be filtered by the calling code)
+     * @param timeoutSeconds the timeout in seconds
+ 	 * @return a list of Repository.
+ 	 */
+	public List<Issue> readRepositoryIssues ( BitbucketSession session, Repository repository, IssueQuery issueQuery, int timeoutSeconds )
+		throws IOException {
+		List<String> fields = null;
+		return readRepositoryIssues ( session, repository, issueQuery, fields, timeoutSeconds );
+	}
+
+	/**
+	 * Read the list of repository issues.
+     * @param workspace the Bitbucket workspace for the repositories
+     * @param repository the Bitbucket repository for the issues
+     * @param issueQuery query criteria that are used to filter issues on the server,
+     * or null to read all issues (the returned issues may still need to be filtered by the calling code),
+     * not used if incremental issue sync is enabled, in which case all issues are returned
+     * @param fields the issue fields to read (e.g., "content.raw"), or null to read all fields,
+     * fields needed to filter and sort the issues are always read
+     * @param timeoutSeconds the timeout in seconds
+ 	 * @return a list of Repository.
+ 	 */
+	public List<Issue> readRepositoryIssues ( BitbucketSession session, Repository repository, IssueQuery issueQuery,
+		List<String> fields, int timeoutSeconds ) throws IOException {
 		String routine = getClass().getSimpleName() + ".readRepositoryIssues";
 		//boolean debug = true;
 		List<Issue> issueList = new ArrayList<>();
@@ -846,67 +2168,121 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 		catch ( Exception e ) {
 			Message.printWarning(3, routine, "Error encoding repository issues URL.");
 		}
-		String urlString = rootUrl + "repositories/" + workspace + "/" + repository.getSlug() + "/issues" + COMMON_REQUEST_PARAMETERS;
+		String fieldsParameter = getFieldsParameter(fields, ISSUE_REQUIRED_FIELDS);
+		if ( this.issueSync != null ) {
+			// The watermark requires 'updated_on'.
+			fieldsParameter = getFieldsParameter(fields, ISSUE_SYNC_REQUIRED_FIELDS);
+		}
+		String urlString = rootUrl + "repositories/" + workspace + "/" + repository.getSlug() + "/issues" + COMMON_REQUEST_PARAMETERS
+			+ fieldsParameter;
 
 		// Get request header properties for authentication.
 		MultiKeyStringDictionary requestProperties = getHttpRequestProperties(session);
-		
-		// Read data one page at a time.
-		while ( (urlString != null) && !urlString.isEmpty() ) {
-			Message.printStatus(2, routine, "Reading issues using: " + urlString);
 
-			String urlStringEncoded = urlString;
-			UrlReader urlReader = new UrlReader(urlStringEncoded, requestProperties, null, timeoutSeconds*1000 );
-			UrlResponse urlResponse = null;
+		if ( this.issueSync != null ) {
+			// Read issues that have changed since the previous read and merge with the previous issues:
+			// - the query is not used so that all issues are available for later reads
+			// - the calling code filters the returned issues
+			BitbucketIssueSync.IssueSet issueSet = this.issueSync.getIssueSet (
+				BitbucketIssueSync.createKey(workspace, repository.getSlug(), fieldsParameter) );
+			issueSet.lock();
 			try {
-				urlResponse = urlReader.read();
+				boolean doFullRead = issueSet.needsFullRead();
+				if ( !doFullRead ) {
+					String queryString = "updated_on > " + issueSet.getWatermarkString();
+					Message.printStatus(2, routine, "Reading issues for repository \"" + repository.getName() + "\" using query: " + queryString);
+					String urlStringWithQuery = urlString + "&q=" + URLEncoder.encode(queryString, StandardCharsets.UTF_8.toString());
+					try {
+						issueList = readPagedValues ( routine, BitbucketEndpointType.ISSUES, workspace, urlStringWithQuery, requestProperties, timeoutSeconds, IssuesResponse.class );
+						postProcessIssues ( repository, issueList );
+						issueSet.merge ( issueList );
+						Message.printStatus(2, routine, "Merged " + issueList.size() + " changed issues for repository \""
+							+ repository.getName() + "\", total " + issueSet.size() + " issues.");
+					}
+					catch ( HttpCodeException e ) {
+						if ( e.getCode() == 400 ) {
+							// The query was not accepted so read all issues.
+							Message.printWarning(3, routine, "Issue query (" + queryString + ") was not accepted for repository \""
+								+ repository.getName() + "\".  Reading all issues.");
+							doFullRead = true;
+						}
+						else {
+							throw e;
+						}
+					}
+				}
+				if ( doFullRead ) {
+					Message.printStatus(2, routine, "Reading all issues for repository \"" + repository.getName() + "\".");
+					issueList = readPagedValues ( routine, BitbucketEndpointType.ISSUES, workspace, urlString, requestProperties, timeoutSeconds, IssuesResponse.class );
+					postProcessIssues ( repository, issueList );
+					issueSet.setAll ( issueList );
+				}
+				issueList = issueSet.getIssues();
 			}
-			catch ( Exception e ) {
-				Message.printWarning(3, routine, "Error reading 'issues' using \"" + urlString + "\".");
-				Message.printWarning(3, routine, e);
-				throw new RuntimeException(e);
+			finally {
+				issueSet.unlock();
 			}
-			if ( urlResponse.hadError() ) {
-				// TODO smalers 2020-06-12 would be nice to not catch this immediately.
-				throw new RuntimeException ( "Reading URL returned error (code=" + urlResponse.getResponseCode()
-					+ "): " + urlResponse.getResponseError() );
+			// Save the issues for the next session.
+			writeSnapshotInBackground();
+			// Set the repository because the previous issues may have been read with a different repository object.
+			for ( Issue issue : issueList ) {
+				issue.setRepositoryObject(repository);
 			}
-			else if ( urlResponse.getResponseCode() != 200 ) {
-				throw new RuntimeException ( "Reading URL returned error code: " + urlResponse.getResponseCode() );
+			Collections.sort(issueList, new IssueComparator());
+			return issueList;
+		}
+
+		// Add the query to filter issues on the server:
+		// - the 'next' URL returned by Bitbucket includes the query
+		String queryString = "";
+		if ( issueQuery != null ) {
+			queryString = issueQuery.toQueryString();
+		}
+		String urlStringWithQuery = urlString;
+		if ( !queryString.isEmpty() ) {
+			try {
+				urlStringWithQuery = urlString + "&q=" + URLEncoder.encode(queryString, StandardCharsets.UTF_8.toString());
+			}
+			catch ( Exception e ) {
+				Message.printWarning(3, routine, "Error encoding repository issues query.");
+			}
+		}
+
+		// Read data one page at a time.
+		try {
+			issueList.addAll ( readPagedValues ( routine, BitbucketEndpointType.ISSUES, workspace, urlStringWithQuery, requestProperties, timeoutSeconds, IssuesResponse.class ) );
+		}
+		catch ( HttpCodeException e ) {
+			if ( (e.getCode() == 400) && !urlStringWithQuery.equals(urlString) ) {
+				// The query was not accepted:
+				// - read all issues and rely on the calling code to filter
+				Message.printWarning(3, routine, "Issue query (" + queryString + ") was not accepted for repository \""
+					+ repository.getName() + "\".  Reading all issues.");
+				issueList.clear();
+				issueList.addAll ( readPagedValues ( routine, BitbucketEndpointType.ISSUES, workspace, urlString, requestProperties, timeoutSeconds, IssuesResponse.class ) );
 			}
 			else {
-				// Parse the response into objects.
-				ObjectMapper mapper = new ObjectMapper();
-				mapper.registerModule(new JavaTimeModule());
-				String responseJson = urlResponse.getResponse();
-				Message.printStatus(2, routine, "JSON response has length = " + responseJson.length());
-				Message.printStatus(2, routine, "JSON response code = " + urlResponse.getResponseCode());
-				try {
-					IssuesResponse issuesResponse = mapper.readValue(responseJson, new TypeReference<IssuesResponse>(){});
-					if ( debug ) {
-						Message.printStatus(2, routine, "Response=" + responseJson);
-					}
-					//logResponseErrors ( repositoriesResponse.getErrors() );
-					Message.printStatus(2, routine, "Read " + issuesResponse.getValues().size() + " issues.");
-					List<Issue> issueList0 = issuesResponse.getValues();
-					// Add the page of results to the full list of output.
-					issueList.addAll(issueList0);
-					
-					// Set the URL string to the next URL.
-					urlString = issuesResponse.getNext();
-				}
-				catch ( Exception e ) {
-					Message.printWarning(3, routine, "Error reading 'issues' using \"" + urlString + "\".");
-					Message.printWarning(3, routine, e);
-					throw new RuntimeException(e);
-				}
+				throw e;
 			}
 		}
 		
-		// Post-process the data:
-		// - set the repository for the issue
-		// - create an 'assignee' if not assigned
-		// - parse properties from the 
+		postProcessIssues ( repository, issueList );
+
+		// Sort on the assignee, repository, priority, and age.
+		Collections.sort(issueList, new IssueComparator());
+
+		return issueList;
+	}
+
+	/**
+	 * Post-process issues that have been read:
+	 * - set the repository for the issue
+	 * - create an 'assignee' if not assigned
+	 * - parse properties from the issue content
+	 * @param repository the repository for the issues
+	 * @param issueList the issues to process
+	 */
+	private void postProcessIssues ( Repository repository, List<Issue> issueList ) {
 		for ( Issue issue : issueList ) {
 			// Save the reference to the associated repository.
 			issue.setRepositoryObject(repository);
@@ -920,11 +2296,6 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
 			// Parse the properties.
 			issue.parseProperties();
 		}
-
-		// Sort on the assignee, repository, priority, and age.
-		Collections.sort(issueList, new IssueComparator());
-
-		return issueList;
 	}
 
     /**
@@ -947,4 +2318,53 @@ public class BitbucketDataStore extends AbstractWebServiceDataStore implements D
     	return "";
     }
 
-}
\ No newline at end of file
+	/**
+	 * Write the snapshot file using the current global data and incremental issues.
+	 * Errors are logged and are not thrown because the snapshot is only used to speed up the next session.
+	 */
+	public void writeSnapshot () {
+		String routine = getClass().getSimpleName() + ".writeSnapshot";
+		BitbucketSession session = getDefaultSession();
+		if ( (this.snapshot == null) || (session == null) ) {
+			return;
+		}
+		synchronized ( this.snapshotWriteLock ) {
+			try {
+				this.snapshot.write ( session.getWorkspaceId(), this.globalDataReadTime,
+					this.projectList, this.repositoryList, this.issueSync );
+			}
+			catch ( Exception e ) {
+				Message.printWarning(3, routine, "Error writing snapshot file \"" + this.snapshot.getFile() + "\" (" + e + ").");
+				Message.printWarning(3, routine, e );
+			}
+		}
+	}
+
+	/**
+	 * Write the snapshot file in a background thread after a short delay,
+	 * so that changes that occur at the same time result in one write.
+	 */
+	private void writeSnapshotInBackground () {
+		String routine = getClass().getSimpleName() + ".writeSnapshotInBackground";
+		if ( (this.snapshot == null) || !this.snapshotWritePending.compareAndSet(false, true) ) {
+			// No snapshot, or a write is already scheduled and will include the changes.
+			return;
+		}
+		Thread thread = new Thread ( () -> {
+			try {
+				Thread.sleep ( SNAPSHOT_WRITE_DELAY_MS );
+			}
+			catch ( InterruptedException e ) {
+				Message.printWarning(3, routine, "Snapshot write was interrupted.");
+				this.snapshotWritePending.set(false);
+				return;
+			}
+			// Clear before writing so that changes during the write cause another write.
+			this.snapshotWritePending.set(false);
+			writeSnapshot();
+		}, "BitbucketDataStore-Snapshot-" + getName() );
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+}
@@ -33,6 +33,8 @@ public class BitbucketDataStoreFactory implements DataStoreFactory {
 
 	/**
 	Create a Bitbucket instance.
+	The datastore is returned without waiting for the workspace projects and repositories to be read
+	(see the 'GlobalDataStartup' configuration property) so that TSTool startup is not delayed.
 	@param props datastore configuration properties, such as read from the configuration file
 	*/
 	public DataStore create ( PropList props ) {
@@ -0,0 +1,395 @@
+// BitbucketDataStoreMetrics - request metrics collected for a datastore
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request metrics collected for a datastore, for each endpoint.
+ * Counters are updated by concurrent requests without locking and are cumulative for the TSTool session.
+ * Request latency is the time from sending the request until the response status and headers are received,
+ * and parse time is the time to read and parse the response body.
+ * Latency is also counted in histogram buckets (see LATENCY_BUCKET_MS).
+ */
+public class BitbucketDataStoreMetrics {
+
+	/**
+	 * Upper limits of the latency histogram buckets, milliseconds.
+	 * A final bucket counts requests with latency greater than the last limit.
+	 */
+	public static final long [] LATENCY_BUCKET_MS = { 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+	/**
+	 * Metrics for each endpoint.
+	 */
+	private final Map<BitbucketEndpointType,EndpointMetrics> endpointMap = new EnumMap<>(BitbucketEndpointType.class);
+
+	/**
+	 * Constructor.
+	 */
+	public BitbucketDataStoreMetrics () {
+		for ( BitbucketEndpointType endpointType : BitbucketEndpointType.values() ) {
+			this.endpointMap.put(endpointType, new EndpointMetrics());
+		}
+	}
+
+	/**
+	 * Return the metrics for an endpoint.
+	 * @param endpointType the endpoint
+	 * @return the metrics for the endpoint
+	 */
+	public EndpointMetrics getEndpointMetrics ( BitbucketEndpointType endpointType ) {
+		return this.endpointMap.get(endpointType);
+	}
+
+	/**
+	 * Return the metrics as a list of values, for example to output to a table.
+	 * @return the metrics for all endpoints
+	 */
+	public List<Metric> getMetrics () {
+		List<Metric> metrics = new ArrayList<>();
+		for ( Map.Entry<BitbucketEndpointType,EndpointMetrics> entry : this.endpointMap.entrySet() ) {
+			entry.getValue().addMetrics(entry.getKey().getName(), metrics);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Reset all metrics to zero.
+	 */
+	public void reset () {
+		for ( EndpointMetrics endpointMetrics : this.endpointMap.values() ) {
+			endpointMetrics.reset();
+		}
+	}
+
+	/**
+	 * Metrics for one endpoint.
+	 */
+	public static class EndpointMetrics {
+
+		/**
+		 * Number of HTTP requests, including retries.
+		 */
+		private final LongAdder requestCount = new LongAdder();
+
+		/**
+		 * Number of pages returned, from any source.
+		 */
+		private final LongAdder pageCount = new LongAdder();
+
+		/**
+		 * Number of pages from the persistent response cache without a request.
+		 */
+		private final LongAdder diskCacheHitCount = new LongAdder();
+
+		/**
+		 * Number of 304 (Not Modified) responses, for which a cached page was used.
+		 */
+		private final LongAdder notModifiedCount = new LongAdder();
+
+		/**
+		 * Number of pages that were not cached and were parsed from a full response.
+		 */
+		private final LongAdder cacheMissCount = new LongAdder();
+
+		/**
+		 * Number of retries after transient errors.
+		 */
+		private final LongAdder retryCount = new LongAdder();
+
+		/**
+		 * Number of retries after 429 (Too Many Requests) responses.
+		 */
+		private final LongAdder rateLimitRetryCount = new LongAdder();
+
+		/**
+		 * Number of requests that failed after any retries.
+		 */
+		private final LongAdder errorCount = new LongAdder();
+
+		/**
+		 * Number of bytes received, which are compressed if the response was compressed.
+		 */
+		private final LongAdder bytesReceived = new LongAdder();
+
+		/**
+		 * Number of bytes after decompression.
+		 */
+		private final LongAdder bytesDecoded = new LongAdder();
+
+		/**
+		 * Total time to parse responses, nanoseconds.
+		 */
+		private final LongAdder parseTimeNs = new LongAdder();
+
+		/**
+		 * Total request latency, nanoseconds.
+		 */
+		private final LongAdder latencyNs = new LongAdder();
+
+		/**
+		 * Maximum request latency, nanoseconds.
+		 */
+		private final LongAccumulator maxLatencyNs = new LongAccumulator(Long::max, 0);
+
+		/**
+		 * Latency histogram counts, with a final bucket for latency greater than the last limit.
+		 */
+		private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKET_MS.length + 1);
+
+		/**
+		 * Constructor.
+		 */
+		private EndpointMetrics () {
+		}
+
+		/**
+		 * Add the metrics to a list.
+		 * @param endpoint the endpoint name
+		 * @param metrics the list to add to
+		 */
+		private void addMetrics ( String endpoint, List<Metric> metrics ) {
+			long requests = this.requestCount.sum();
+			long pages = this.cacheMissCount.sum();
+			metrics.add(new Metric(endpoint, "Requests", requests, "count"));
+			metrics.add(new Metric(endpoint, "Pages", this.pageCount.sum(), "count"));
+			metrics.add(new Metric(endpoint, "CacheMisses", pages, "count"));
+			metrics.add(new Metric(endpoint, "DiskCacheHits", this.diskCacheHitCount.sum(), "count"));
+			metrics.add(new Metric(endpoint, "NotModified", this.notModifiedCount.sum(), "count"));
+			metrics.add(new Metric(endpoint, "Retries", this.retryCount.sum(), "count"));
+			metrics.add(new Metric(endpoint, "RateLimitRetries", this.rateLimitRetryCount.sum(), "count"));
+			metrics.add(new Metric(endpoint, "Errors", this.errorCount.sum(), "count"));
+			metrics.add(new Metric(endpoint, "BytesReceived", this.bytesReceived.sum(), "bytes"));
+			metrics.add(new Metric(endpoint, "BytesDecoded", this.bytesDecoded.sum(), "bytes"));
+			double parseTimeMs = this.parseTimeNs.sum()/1.0e6;
+			metrics.add(new Metric(endpoint, "ParseTimeTotal", parseTimeMs, "ms"));
+			metrics.add(new Metric(endpoint, "ParseTimeMean", (pages > 0) ? parseTimeMs/pages : 0.0, "ms"));
+			metrics.add(new Metric(endpoint, "LatencyMean", (requests > 0) ? this.latencyNs.sum()/1.0e6/requests : 0.0, "ms"));
+			metrics.add(new Metric(endpoint, "LatencyMax", this.maxLatencyNs.get()/1.0e6, "ms"));
+			metrics.add(new Metric(endpoint, "LatencyP50", getLatencyPercentileMs(requests, 0.50), "ms"));
+			metrics.add(new Metric(endpoint, "LatencyP95", getLatencyPercentileMs(requests, 0.95), "ms"));
+			for ( int i = 0; i < LATENCY_BUCKET_MS.length; i++ ) {
+				metrics.add(new Metric(endpoint, "LatencyLe" + LATENCY_BUCKET_MS[i] + "ms", this.latencyBuckets.get(i), "count"));
+			}
+			metrics.add(new Metric(endpoint, "LatencyGt" + LATENCY_BUCKET_MS[LATENCY_BUCKET_MS.length - 1] + "ms",
+				this.latencyBuckets.get(LATENCY_BUCKET_MS.length), "count"));
+		}
+
+		/**
+		 * Estimate a latency percentile from the histogram, as the upper limit of the bucket that contains the percentile.
+		 * @param requests the number of requests
+		 * @param percentile the percentile (0 to 1)
+		 * @return the latency percentile in milliseconds, the maximum latency if in the last bucket,
+		 * or 0 if no requests have been made
+		 */
+		private double getLatencyPercentileMs ( long requests, double percentile ) {
+			long total = 0;
+			for ( int i = 0; i < this.latencyBuckets.length(); i++ ) {
+				total += this.latencyBuckets.get(i);
+			}
+			if ( (requests == 0) || (total == 0) ) {
+				return 0.0;
+			}
+			long target = (long)Math.ceil(total*percentile);
+			long count = 0;
+			for ( int i = 0; i < LATENCY_BUCKET_MS.length; i++ ) {
+				count += this.latencyBuckets.get(i);
+				if ( count >= target ) {
+					return LATENCY_BUCKET_MS[i];
+				}
+			}
+			return this.maxLatencyNs.get()/1.0e6;
+		}
+
+		/**
+		 * Record that a page was used from the persistent response cache without a request.
+		 */
+		public void recordDiskCacheHit () {
+			this.diskCacheHitCount.increment();
+			this.pageCount.increment();
+		}
+
+		/**
+		 * Record a request that failed after any retries.
+		 */
+		public void recordError () {
+			this.errorCount.increment();
+		}
+
+		/**
+		 * Record a 304 (Not Modified) response, for which a cached page was used.
+		 */
+		public void recordNotModified () {
+			this.notModifiedCount.increment();
+			this.pageCount.increment();
+		}
+
+		/**
+		 * Record a page that was parsed from a full response.
+		 * @param parseTimeNs the time to read and parse the response, nanoseconds
+		 * @param bytesReceived the number of bytes received
+		 * @param bytesDecoded the number of bytes after decompression
+		 */
+		public void recordParsedPage ( long parseTimeNs, long bytesReceived, long bytesDecoded ) {
+			this.cacheMissCount.increment();
+			this.pageCount.increment();
+			this.parseTimeNs.add(parseTimeNs);
+			this.bytesReceived.add(bytesReceived);
+			this.bytesDecoded.add(bytesDecoded);
+		}
+
+		/**
+		 * Record a retry after a 429 (Too Many Requests) response.
+		 */
+		public void recordRateLimitRetry () {
+			this.rateLimitRetryCount.increment();
+		}
+
+		/**
+		 * Record an HTTP request.
+		 * @param latencyNs the time until the response status and headers were received, nanoseconds
+		 */
+		public void recordRequest ( long latencyNs ) {
+			this.requestCount.increment();
+			this.latencyNs.add(latencyNs);
+			this.maxLatencyNs.accumulate(latencyNs);
+			long latencyMs = latencyNs/1000000;
+			int bucket = LATENCY_BUCKET_MS.length;
+			for ( int i = 0; i < LATENCY_BUCKET_MS.length; i++ ) {
+				if ( latencyMs <= LATENCY_BUCKET_MS[i] ) {
+					bucket = i;
+					break;
+				}
+			}
+			this.latencyBuckets.incrementAndGet(bucket);
+		}
+
+		/**
+		 * Record a retry after a transient error.
+		 */
+		public void recordRetry () {
+			this.retryCount.increment();
+		}
+
+		/**
+		 * Reset the metrics to zero.
+		 */
+		private void reset () {
+			this.requestCount.reset();
+			this.pageCount.reset();
+			this.diskCacheHitCount.reset();
+			this.notModifiedCount.reset();
+			this.cacheMissCount.reset();
+			this.retryCount.reset();
+			this.rateLimitRetryCount.reset();
+			this.errorCount.reset();
+			this.bytesReceived.reset();
+			this.bytesDecoded.reset();
+			this.parseTimeNs.reset();
+			this.latencyNs.reset();
+			this.maxLatencyNs.reset();
+			for ( int i = 0; i < this.latencyBuckets.length(); i++ ) {
+				this.latencyBuckets.set(i, 0);
+			}
+		}
+	}
+
+	/**
+	 * One metric value.
+	 */
+	public static class Metric {
+
+		/**
+		 * Endpoint name, or "Datastore" for datastore metrics.
+		 */
+		private final String endpoint;
+
+		/**
+		 * Metric name.
+		 */
+		private final String name;
+
+		/**
+		 * Metric value.
+		 */
+		private final double value;
+
+		/**
+		 * Metric units.
+		 */
+		private final String units;
+
+		/**
+		 * Constructor.
+		 * @param endpoint the endpoint name, or "Datastore" for datastore metrics
+		 * @param name the metric name
+		 * @param value the metric value
+		 * @param units the metric units
+		 */
+		public Metric ( String endpoint, String name, double value, String units ) {
+			this.endpoint = endpoint;
+			this.name = name;
+			this.value = value;
+			this.units = units;
+		}
+
+		/**
+		 * Return the endpoint name.
+		 * @return the endpoint name
+		 */
+		public String getEndpoint () {
+			return this.endpoint;
+		}
+
+		/**
+		 * Return the metric name.
+		 * @return the metric name
+		 */
+		public String getName () {
+			return this.name;
+		}
+
+		/**
+		 * Return the metric units.
+		 * @return the metric units
+		 */
+		public String getUnits () {
+			return this.units;
+		}
+
+		/**
+		 * Return the metric value.
+		 * @return the metric value
+		 */
+		public double getValue () {
+			return this.value;
+		}
+	}
+}
@@ -0,0 +1,647 @@
+// BitbucketDiskCache - persistent cache of Bitbucket web service responses
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import RTi.Util.Message.Message;
+
+/**
+ * Persistent cache of Bitbucket web service responses, saved in a folder so that responses can be reused
+ * by later TSTool sessions.
+ * <ul>
+ * <li>Each response is saved as a JSON file with a properties file containing the URL, time saved, ETag,
+ *     Last-Modified, size, and SHA-256 checksum.</li>
+ * <li>The file names are the SHA-256 hash of the normalized URL and the workspace.</li>
+ * <li>Responses are used if they are newer than the time to live (TTL) for the endpoint.
+ *     Older responses are revalidated with a conditional request if an ETag or Last-Modified was saved.</li>
+ * <li>The checksum is verified when a response is read and the response is deleted if it does not match.</li>
+ * <li>If the total size of the responses exceeds the maximum, the least recently used responses are deleted.</li>
+ * </ul>
+ * The index and total size are only changed while synchronized on the cache,
+ * so that the total size is consistent with the index when responses are deleted.
+ */
+public class BitbucketDiskCache {
+
+	/**
+	 * Default maximum cache size, bytes.
+	 */
+	public static final long DEFAULT_MAX_SIZE_BYTES = 100L*1024*1024;
+
+	/**
+	 * Default time to live for projects and repositories, seconds.
+	 */
+	public static final int DEFAULT_TTL_SECONDS = 24*3600;
+
+	/**
+	 * Default time to live for issues, seconds.
+	 */
+	public static final int DEFAULT_TTL_ISSUES_SECONDS = 300;
+
+	/**
+	 * Extension for response files.
+	 */
+	private static final String DATA_EXT = ".json";
+
+	/**
+	 * Extension for response metadata files.
+	 */
+	private static final String META_EXT = ".properties";
+
+	/**
+	 * Folder for the cache files.
+	 */
+	private final File cacheDir;
+
+	/**
+	 * Maximum total size of cached responses, bytes.
+	 */
+	private final long maxSizeBytes;
+
+	/**
+	 * Time to live for each endpoint type, seconds.
+	 */
+	private final Map<BitbucketEndpointType,Integer> ttlMap;
+
+	/**
+	 * Index of cached responses, used to manage the cache size:
+	 * - key is the cache key, value is the response size and last access time
+	 */
+	private final ConcurrentHashMap<String,IndexEntry> index = new ConcurrentHashMap<>();
+
+	/**
+	 * Total size of cached responses, bytes.
+	 */
+	private final AtomicLong totalSize = new AtomicLong(0);
+
+	/**
+	 * Create the cache, creating the folder if necessary and indexing existing files.
+	 * @param cacheDir folder for cache files
+	 * @param maxSizeBytes maximum total size of cached responses, bytes
+	 * @param ttlMap time to live for each endpoint type, seconds (defaults are used for missing values)
+	 * @throws IOException if the folder cannot be created
+	 */
+	public BitbucketDiskCache ( File cacheDir, long maxSizeBytes, Map<BitbucketEndpointType,Integer> ttlMap ) throws IOException {
+		String routine = getClass().getSimpleName() + ".BitbucketDiskCache";
+		this.cacheDir = cacheDir;
+		if ( maxSizeBytes > 0 ) {
+			this.maxSizeBytes = maxSizeBytes;
+		}
+		else {
+			this.maxSizeBytes = DEFAULT_MAX_SIZE_BYTES;
+		}
+		this.ttlMap = new ConcurrentHashMap<>(ttlMap);
+		Files.createDirectories(cacheDir.toPath());
+
+		// Index the existing files:
+		// - the metadata file modification time is the last access time
+		File [] metaFiles = cacheDir.listFiles( (dir, name) -> name.endsWith(META_EXT) );
+		if ( metaFiles != null ) {
+			for ( File metaFile : metaFiles ) {
+				String key = metaFile.getName().substring(0, metaFile.getName().length() - META_EXT.length());
+				File dataFile = getDataFile(key);
+				if ( dataFile.exists() ) {
+					long size = dataFile.length();
+					this.index.put(key, new IndexEntry(size, metaFile.lastModified()));
+					this.totalSize.addAndGet(size);
+				}
+				else {
+					metaFile.delete();
+				}
+			}
+		}
+		Message.printStatus(2, routine, "Using response cache folder \"" + cacheDir + "\" with " + this.index.size()
+			+ " responses, " + this.totalSize.get() + " bytes (maximum " + this.maxSizeBytes + " bytes).");
+		evict();
+	}
+
+	/**
+	 * Start writing a response to the cache.
+	 * The response stream should be wrapped using the returned object and then committed or aborted.
+	 * @param key the cache key from createKey()
+	 * @param urlString the URL for the response, saved in the metadata
+	 * @return the pending cache entry
+	 * @throws IOException if the temporary file cannot be created
+	 */
+	public PendingEntry begin ( String key, String urlString ) throws IOException {
+		return new PendingEntry(key, urlString);
+	}
+
+	/**
+	 * Create the cache key for a request.
+	 * @param urlString the request URL
+	 * @param workspace the Bitbucket workspace
+	 * @return the cache key
+	 */
+	public String createKey ( String urlString, String workspace ) {
+		return toHex(sha256().digest((normalizeUrl(urlString) + "|" + workspace).getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Delete a cached response.
+	 * @param key the cache key
+	 */
+	private synchronized void delete ( String key ) {
+		IndexEntry entry = this.index.remove(key);
+		if ( entry != null ) {
+			this.totalSize.addAndGet(-entry.size);
+		}
+		getDataFile(key).delete();
+		getMetaFile(key).delete();
+	}
+
+	/**
+	 * Delete the least recently used responses until the total size is less than the maximum.
+	 */
+	private synchronized void evict () {
+		String routine = getClass().getSimpleName() + ".evict";
+		if ( this.totalSize.get() <= this.maxSizeBytes ) {
+			return;
+		}
+		List<Map.Entry<String,IndexEntry>> entries = new ArrayList<>(this.index.entrySet());
+		Collections.sort(entries, Comparator.comparingLong(e -> e.getValue().lastAccess));
+		int count = 0;
+		for ( Map.Entry<String,IndexEntry> entry : entries ) {
+			if ( this.totalSize.get() <= this.maxSizeBytes ) {
+				break;
+			}
+			delete(entry.getKey());
+			++count;
+		}
+		Message.printStatus(2, routine, "Deleted " + count + " least recently used responses from the cache.");
+	}
+
+	/**
+	 * Return a cached response.
+	 * The checksum is verified and the response is deleted if it is not valid.
+	 * @param key the cache key from createKey()
+	 * @return the cached response, or null if not cached
+	 */
+	public CachedResponse get ( String key ) {
+		String routine = getClass().getSimpleName() + ".get";
+		if ( !this.index.containsKey(key) ) {
+			return null;
+		}
+		File metaFile = getMetaFile(key);
+		File dataFile = getDataFile(key);
+		try {
+			Properties meta = new Properties();
+			try ( InputStream in = new FileInputStream(metaFile) ) {
+				meta.load(in);
+			}
+			byte [] data = Files.readAllBytes(dataFile.toPath());
+			String checksum = toHex(sha256().digest(data));
+			if ( !checksum.equals(meta.getProperty("Checksum")) ) {
+				Message.printWarning(3, routine, "Cached response \"" + dataFile + "\" checksum does not match.  Deleting.");
+				delete(key);
+				return null;
+			}
+			// Update the last access time.
+			long now = System.currentTimeMillis();
+			IndexEntry entry = this.index.get(key);
+			if ( entry != null ) {
+				entry.lastAccess = now;
+			}
+			Files.setLastModifiedTime(metaFile.toPath(), FileTime.fromMillis(now));
+			return new CachedResponse ( data, Long.parseLong(meta.getProperty("SavedTime", "0")),
+				meta.getProperty("ETag"), meta.getProperty("LastModified") );
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error reading cached response \"" + dataFile + "\" (" + e + ").  Deleting.");
+			delete(key);
+			return null;
+		}
+	}
+
+	/**
+	 * Return the number of cached responses.
+	 * @return the number of cached responses
+	 */
+	public int getCount () {
+		return this.index.size();
+	}
+
+	/**
+	 * Return the total size of cached responses.
+	 * @return the total size of cached responses, bytes
+	 */
+	public long getTotalSize () {
+		return this.totalSize.get();
+	}
+
+	/**
+	 * Return the folder for the cache files.
+	 * @return the folder for the cache files
+	 */
+	public File getCacheDir () {
+		return this.cacheDir;
+	}
+
+	/**
+	 * Return the data file for a key.
+	 * @param key the cache key
+	 * @return the data file
+	 */
+	private File getDataFile ( String key ) {
+		return new File(this.cacheDir, key + DATA_EXT);
+	}
+
+	/**
+	 * Return the metadata file for a key.
+	 * @param key the cache key
+	 * @return the metadata file
+	 */
+	private File getMetaFile ( String key ) {
+		return new File(this.cacheDir, key + META_EXT);
+	}
+
+	/**
+	 * Return the time to live for an endpoint type.
+	 * @param endpointType the endpoint type
+	 * @return the time to live, seconds
+	 */
+	public int getTtlSeconds ( BitbucketEndpointType endpointType ) {
+		Integer ttl = this.ttlMap.get(endpointType);
+		if ( ttl != null ) {
+			return ttl;
+		}
+		else if ( endpointType == BitbucketEndpointType.ISSUES ) {
+			return DEFAULT_TTL_ISSUES_SECONDS;
+		}
+		else {
+			return DEFAULT_TTL_SECONDS;
+		}
+	}
+
+	/**
+	 * Indicate whether a cached response is within the time to live.
+	 * @param response the cached response
+	 * @param endpointType the endpoint type
+	 * @return true if the response can be used without checking the server
+	 */
+	public boolean isFresh ( CachedResponse response, BitbucketEndpointType endpointType ) {
+		long ageMs = System.currentTimeMillis() - response.getSavedTime();
+		return (ageMs >= 0) && (ageMs < getTtlSeconds(endpointType)*1000L);
+	}
+
+	/**
+	 * Normalize a URL so that equivalent URLs have the same key:
+	 * - the scheme and host are converted to lowercase
+	 * - the query parameters are sorted
+	 * @param urlString the URL to normalize
+	 * @return the normalized URL
+	 */
+	public static String normalizeUrl ( String urlString ) {
+		try {
+			URI uri = URI.create(urlString);
+			StringBuilder b = new StringBuilder();
+			if ( uri.getScheme() != null ) {
+				b.append(uri.getScheme().toLowerCase()).append("://");
+			}
+			if ( uri.getRawAuthority() != null ) {
+				b.append(uri.getRawAuthority().toLowerCase());
+			}
+			if ( uri.getRawPath() != null ) {
+				b.append(uri.getRawPath().replaceAll("//+", "/"));
+			}
+			if ( (uri.getRawQuery() != null) && !uri.getRawQuery().isEmpty() ) {
+				String [] parameters = uri.getRawQuery().split("&");
+				Arrays.sort(parameters);
+				b.append('?').append(String.join("&", parameters));
+			}
+			return b.toString();
+		}
+		catch ( IllegalArgumentException e ) {
+			return urlString;
+		}
+	}
+
+	/**
+	 * Create a SHA-256 message digest.
+	 * @return a new message digest
+	 */
+	private static MessageDigest sha256 () {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch ( NoSuchAlgorithmException e ) {
+			// Should not happen since SHA-256 is required to be supported by Java.
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Convert bytes to a hexadecimal string.
+	 * @param bytes bytes to convert
+	 * @return hexadecimal string
+	 */
+	private static String toHex ( byte [] bytes ) {
+		StringBuilder b = new StringBuilder();
+		for ( byte by : bytes ) {
+			b.append(String.format("%02x", by));
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Reset the saved time for a cached response, for example after the server indicates that it has not been modified.
+	 * @param key the cache key
+	 */
+	public void touch ( String key ) {
+		String routine = getClass().getSimpleName() + ".touch";
+		File metaFile = getMetaFile(key);
+		try {
+			Properties meta = new Properties();
+			try ( InputStream in = new FileInputStream(metaFile) ) {
+				meta.load(in);
+			}
+			meta.setProperty("SavedTime", "" + System.currentTimeMillis());
+			writeMeta(key, meta);
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error updating cached response \"" + metaFile + "\" (" + e + ").");
+		}
+	}
+
+	/**
+	 * Write a metadata file, using a temporary file so that a partial file is not read.
+	 * @param key the cache key
+	 * @param meta the metadata properties
+	 * @throws IOException if the file cannot be written
+	 */
+	private void writeMeta ( String key, Properties meta ) throws IOException {
+		File tempFile = File.createTempFile(key, ".tmp", this.cacheDir);
+		try ( OutputStream out = new FileOutputStream(tempFile) ) {
+			meta.store(out, "Bitbucket response cache metadata");
+		}
+		Files.move(tempFile.toPath(), getMetaFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * A response read from the cache.
+	 */
+	public static class CachedResponse {
+
+		/**
+		 * Response body.
+		 */
+		private final byte [] data;
+
+		/**
+		 * Time that the response was saved, milliseconds since 1970.
+		 */
+		private final long savedTime;
+
+		/**
+		 * ETag response header.
+		 */
+		private final String etag;
+
+		/**
+		 * Last-Modified response header.
+		 */
+		private final String lastModified;
+
+		/**
+		 * Constructor.
+		 */
+		private CachedResponse ( byte [] data, long savedTime, String etag, String lastModified ) {
+			this.data = data;
+			this.savedTime = savedTime;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Return the response body.
+		 * @return the response body
+		 */
+		public byte [] getData () {
+			return this.data;
+		}
+
+		/**
+		 * Return the ETag response header.
+		 * @return the ETag response header, or null if not saved
+		 */
+		public String getETag () {
+			return this.etag;
+		}
+
+		/**
+		 * Return the Last-Modified response header.
+		 * @return the Last-Modified response header, or null if not saved
+		 */
+		public String getLastModified () {
+			return this.lastModified;
+		}
+
+		/**
+		 * Return the time that the response was saved.
+		 * @return the time that the response was saved, milliseconds since 1970
+		 */
+		public long getSavedTime () {
+			return this.savedTime;
+		}
+	}
+
+	/**
+	 * Index entry for a cached response.
+	 */
+	private static class IndexEntry {
+
+		/**
+		 * Size of the response, bytes.
+		 */
+		private final long size;
+
+		/**
+		 * Last access time, milliseconds since 1970.
+		 */
+		private volatile long lastAccess;
+
+		/**
+		 * Constructor.
+		 */
+		private IndexEntry ( long size, long lastAccess ) {
+			this.size = size;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * A response that is being written to the cache while it is read from the server.
+	 */
+	public class PendingEntry {
+
+		/**
+		 * Cache key.
+		 */
+		private final String key;
+
+		/**
+		 * URL for the response.
+		 */
+		private final String urlString;
+
+		/**
+		 * Temporary file that the response is written to.
+		 */
+		private final File tempFile;
+
+		/**
+		 * Output stream for the temporary file, which computes the checksum.
+		 */
+		private final DigestOutputStream out;
+
+		/**
+		 * Number of bytes written.
+		 */
+		private long size = 0;
+
+		/**
+		 * Constructor.
+		 */
+		private PendingEntry ( String key, String urlString ) throws IOException {
+			this.key = key;
+			this.urlString = urlString;
+			this.tempFile = File.createTempFile(key, ".tmp", cacheDir);
+			this.out = new DigestOutputStream(new FileOutputStream(this.tempFile), sha256());
+		}
+
+		/**
+		 * Discard the response, for example because it could not be parsed.
+		 */
+		public void abort () {
+			try {
+				this.out.close();
+			}
+			catch ( IOException e ) {
+				// Ignore since the file is being deleted.
+			}
+			this.tempFile.delete();
+		}
+
+		/**
+		 * Save the response in the cache.
+		 * @param etag the ETag response header, can be null
+		 * @param lastModified the Last-Modified response header, can be null
+		 * @throws IOException if the response cannot be saved
+		 */
+		public void commit ( String etag, String lastModified ) throws IOException {
+			this.out.close();
+			String checksum = toHex(this.out.getMessageDigest().digest());
+			Properties meta = new Properties();
+			meta.setProperty("URL", this.urlString);
+			meta.setProperty("SavedTime", "" + System.currentTimeMillis());
+			meta.setProperty("Size", "" + this.size);
+			meta.setProperty("Checksum", checksum);
+			if ( etag != null ) {
+				meta.setProperty("ETag", etag);
+			}
+			if ( lastModified != null ) {
+				meta.setProperty("LastModified", lastModified);
+			}
+			// Replace the files and update the index and total size using the same lock as evict(),
+			// so that the total size matches the index.
+			synchronized ( BitbucketDiskCache.this ) {
+				// Remove the previous response, if any.
+				delete(this.key);
+				Files.move(this.tempFile.toPath(), getDataFile(this.key).toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				writeMeta(this.key, meta);
+				index.put(this.key, new IndexEntry(this.size, System.currentTimeMillis()));
+				totalSize.addAndGet(this.size);
+				evict();
+			}
+		}
+
+		/**
+		 * Wrap the response stream so that the bytes that are read are also written to the cache.
+		 * @param in the response stream
+		 * @return the wrapped stream
+		 */
+		public InputStream wrap ( InputStream in ) {
+			return new FilterInputStream(in) {
+				private boolean closed = false;
+
+				@Override
+				public int read () throws IOException {
+					int b = super.read();
+					if ( b >= 0 ) {
+						out.write(b);
+						++size;
+					}
+					return b;
+				}
+
+				@Override
+				public int read ( byte[] b, int off, int len ) throws IOException {
+					int n = super.read(b, off, len);
+					if ( n > 0 ) {
+						out.write(b, off, n);
+						size += n;
+					}
+					return n;
+				}
+
+				@Override
+				public void close () throws IOException {
+					// The parser may also close the stream so only close once.
+					if ( this.closed ) {
+						return;
+					}
+					this.closed = true;
+					// The remainder of the response is not read:
+					// - the parser has read the complete JSON value, which is all that is needed
+					// - if the response is not complete (e.g., parse error), the saved data are discarded
+					//   and closing the response reads a limited amount to reuse the connection
+					super.close();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,82 @@
+// BitbucketEndpointType - Bitbucket API endpoints that are read by the datastore
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+/**
+ * Bitbucket API endpoints that are read by the datastore,
+ * used to configure caching and other behavior for each endpoint.
+ */
+public enum BitbucketEndpointType {
+
+	/**
+	 * Workspace projects.
+	 */
+	PROJECTS("Projects", "projects"),
+
+	/**
+	 * Workspace repositories.
+	 */
+	REPOSITORIES("Repositories", "repositories"),
+
+	/**
+	 * Repository issues.
+	 */
+	ISSUES("Issues", "issues");
+
+	/**
+	 * The name used in configuration properties (e.g., "CacheTtlIssues").
+	 */
+	private final String name;
+
+	/**
+	 * The name of the objects that are returned, used in messages.
+	 */
+	private final String objectName;
+
+	/**
+	 * Construct an enumeration value.
+	 * @param name the name used in configuration properties
+	 * @param objectName the name of the objects that are returned, used in messages
+	 */
+	private BitbucketEndpointType ( String name, String objectName ) {
+		this.name = name;
+		this.objectName = objectName;
+	}
+
+	/**
+	 * Return the name used in configuration properties.
+	 * @return the name used in configuration properties
+	 */
+	public String getName () {
+		return this.name;
+	}
+
+	/**
+	 * Return the object name (e.g., "issues"), used in messages.
+	 * @return the object name
+	 */
+	@Override
+	public String toString () {
+		return this.objectName;
+	}
+}
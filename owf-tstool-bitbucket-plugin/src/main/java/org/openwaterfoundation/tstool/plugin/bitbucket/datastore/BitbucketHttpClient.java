@@ -0,0 +1,304 @@
+// BitbucketHttpClient - shared HTTP client used by the Bitbucket datastore
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import RTi.Util.Message.Message;
+import RTi.Util.String.MultiKeyStringDictionary;
+
+/**
+ * HTTP client that is shared by all requests made by a BitbucketDataStore.
+ * The Java HttpClient keeps connections alive between requests and uses HTTP/2 if the server supports it,
+ * so that a TCP and TLS handshake is not needed for each page of results.
+ * Compressed responses are requested by default and are decompressed by BitbucketHttpResponse.
+ * One instance should be created for a datastore and then used for all requests.
+ */
+public class BitbucketHttpClient {
+
+	/**
+	 * Default connection pool size.
+	 */
+	public static final int DEFAULT_POOL_SIZE = 8;
+
+	/**
+	 * Default idle timeout for connections kept in the pool, seconds.
+	 */
+	public static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 300;
+
+	/**
+	 * Default connect timeout, seconds.
+	 */
+	public static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 30;
+
+	/**
+	 * Java system property for the connection pool size, read by the Java HttpClient implementation.
+	 */
+	private static final String POOL_SIZE_SYSTEM_PROPERTY = "jdk.httpclient.connectionPoolSize";
+
+	/**
+	 * Java system property for the idle connection timeout, read by the Java HttpClient implementation.
+	 */
+	private static final String IDLE_TIMEOUT_SYSTEM_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+	/**
+	 * The Java HTTP client.
+	 */
+	private HttpClient httpClient = null;
+
+	/**
+	 * Executor used by the HTTP client for asynchronous work.
+	 */
+	private ExecutorService executor = null;
+
+	/**
+	 * Connection pool size.
+	 */
+	private int poolSize = DEFAULT_POOL_SIZE;
+
+	/**
+	 * Idle timeout for pooled connections, seconds.
+	 */
+	private int idleTimeoutSeconds = DEFAULT_IDLE_TIMEOUT_SECONDS;
+
+	/**
+	 * Connect timeout, seconds.
+	 */
+	private int connectTimeoutSeconds = DEFAULT_CONNECT_TIMEOUT_SECONDS;
+
+	/**
+	 * Whether to request compressed responses.
+	 */
+	private boolean compression = true;
+
+	/**
+	 * Total number of response bytes received, which is the compressed size for compressed responses.
+	 */
+	private final AtomicLong bytesReceived = new AtomicLong(0);
+
+	/**
+	 * Total number of response bytes after decompression.
+	 */
+	private final AtomicLong bytesDecoded = new AtomicLong(0);
+
+	/**
+	 * Create the HTTP client, requesting compressed responses.
+	 * @param poolSize the maximum number of connections to keep in the pool and the number of threads used by the client
+	 * @param idleTimeoutSeconds the time in seconds that an idle connection is kept in the pool
+	 * @param connectTimeoutSeconds the timeout in seconds to establish a connection
+	 */
+	public BitbucketHttpClient ( int poolSize, int idleTimeoutSeconds, int connectTimeoutSeconds ) {
+		this ( poolSize, idleTimeoutSeconds, connectTimeoutSeconds, true );
+	}
+
+	/**
+	 * Create the HTTP client.
+	 * @param poolSize the maximum number of connections to keep in the pool and the number of threads used by the client
+	 * @param idleTimeoutSeconds the time in seconds that an idle connection is kept in the pool
+	 * @param connectTimeoutSeconds the timeout in seconds to establish a connection
+	 * @param compression whether to request compressed responses (Accept-Encoding: gzip, deflate)
+	 */
+	public BitbucketHttpClient ( int poolSize, int idleTimeoutSeconds, int connectTimeoutSeconds, boolean compression ) {
+		String routine = getClass().getSimpleName() + ".BitbucketHttpClient";
+		if ( poolSize > 0 ) {
+			this.poolSize = poolSize;
+		}
+		if ( idleTimeoutSeconds > 0 ) {
+			this.idleTimeoutSeconds = idleTimeoutSeconds;
+		}
+		if ( connectTimeoutSeconds > 0 ) {
+			this.connectTimeoutSeconds = connectTimeoutSeconds;
+		}
+		this.compression = compression;
+
+		// The pool size and keep-alive timeout can only be set with system properties:
+		// - the properties are process-wide and apply to all Java HttpClient instances in TSTool,
+		//   including other datastores and plugins
+		// - the properties are read once when the Java HttpClient connection pool is first used,
+		//   so values set after that have no effect
+		// - therefore, only set the properties if not already defined (e.g., on the command line or by another datastore)
+		setSystemPropertyIfUndefined ( POOL_SIZE_SYSTEM_PROPERTY, "" + this.poolSize );
+		setSystemPropertyIfUndefined ( IDLE_TIMEOUT_SYSTEM_PROPERTY, "" + this.idleTimeoutSeconds );
+
+		// Use daemon threads so that the client does not prevent TSTool from exiting.
+		AtomicInteger threadCount = new AtomicInteger(0);
+		this.executor = Executors.newFixedThreadPool(this.poolSize, runnable -> {
+			Thread thread = new Thread(runnable, "BitbucketHttpClient-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_2)
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.connectTimeout(Duration.ofSeconds(this.connectTimeoutSeconds))
+			.executor(this.executor)
+			.build();
+
+		Message.printStatus(2, routine, "Created HTTP client with pool size " + this.poolSize
+			+ ", idle timeout " + this.idleTimeoutSeconds + " seconds, connect timeout " + this.connectTimeoutSeconds + " seconds"
+			+ ", compression " + (this.compression ? "requested" : "not requested") + ".");
+	}
+
+	/**
+	 * Set a Java system property if it is not already defined.
+	 * The property is process-wide so a value that was set previously, for example on the command line
+	 * or by another datastore, is not changed and a message is logged if the requested value is different.
+	 * @param name the system property name
+	 * @param value the requested value
+	 */
+	private void setSystemPropertyIfUndefined ( String name, String value ) {
+		String routine = getClass().getSimpleName() + ".setSystemPropertyIfUndefined";
+		String currentValue = System.getProperty(name);
+		if ( currentValue == null ) {
+			System.setProperty(name, value);
+		}
+		else if ( !currentValue.equals(value) ) {
+			Message.printStatus(2, routine, "Java system property " + name + "=" + currentValue
+				+ " is already set for TSTool.  Not using the datastore value (" + value + ").");
+		}
+	}
+
+	/**
+	 * Add to the total number of response bytes, called when a response is closed.
+	 * @param received the number of bytes received (compressed size for compressed responses)
+	 * @param decoded the number of bytes after decompression
+	 */
+	void addByteCounts ( long received, long decoded ) {
+		this.bytesReceived.addAndGet(received);
+		this.bytesDecoded.addAndGet(decoded);
+	}
+
+	/**
+	 * Read a URL using an HTTP GET request.
+	 * The response body is returned as a stream and the response must be closed by the caller.
+	 * @param urlString the URL to read
+	 * @param requestProperties HTTP request headers to add to the request, can be null
+	 * @param timeoutSeconds the timeout in seconds for the response
+	 * @return the response
+	 * @throws IOException if an I/O error occurs
+	 * @throws InterruptedException if the request is interrupted
+	 */
+	public BitbucketHttpResponse get ( String urlString, MultiKeyStringDictionary requestProperties, int timeoutSeconds )
+		throws IOException, InterruptedException {
+		Map<String,String> additionalHeaders = null;
+		return get ( urlString, requestProperties, additionalHeaders, timeoutSeconds );
+	}
+
+	/**
+	 * Read a URL using an HTTP GET request.
+	 * The response body is returned as a stream and the response must be closed by the caller.
+	 * @param urlString the URL to read
+	 * @param requestProperties HTTP request headers to add to the request, can be null
+	 * @param additionalHeaders additional HTTP request headers to add to the request (e.g., for conditional requests), can be null
+	 * @param timeoutSeconds the timeout in seconds for the response
+	 * @return the response
+	 * @throws IOException if an I/O error occurs
+	 * @throws InterruptedException if the request is interrupted
+	 */
+	public BitbucketHttpResponse get ( String urlString, MultiKeyStringDictionary requestProperties,
+		Map<String,String> additionalHeaders, int timeoutSeconds )
+		throws IOException, InterruptedException {
+		HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+			.uri(URI.create(urlString))
+			.GET();
+		if ( timeoutSeconds > 0 ) {
+			requestBuilder.timeout(Duration.ofSeconds(timeoutSeconds));
+		}
+		if ( this.compression ) {
+			// Bitbucket compresses JSON responses well, which reduces transfer time on slow connections.
+			requestBuilder.header("Accept-Encoding", "gzip, deflate");
+		}
+		if ( requestProperties != null ) {
+			for ( int i = 0; i < requestProperties.size(); i++ ) {
+				requestBuilder.header(requestProperties.getKey(i), requestProperties.getValue(i));
+			}
+		}
+		if ( additionalHeaders != null ) {
+			for ( Map.Entry<String,String> entry : additionalHeaders.entrySet() ) {
+				requestBuilder.header(entry.getKey(), entry.getValue());
+			}
+		}
+		HttpResponse<InputStream> httpResponse = this.httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofInputStream());
+		return new BitbucketHttpResponse(httpResponse.statusCode(), httpResponse.body(), httpResponse.headers().map(), this);
+	}
+
+	/**
+	 * Return the total number of response bytes after decompression.
+	 * @return the total number of response bytes after decompression
+	 */
+	public long getBytesDecoded () {
+		return this.bytesDecoded.get();
+	}
+
+	/**
+	 * Return the total number of response bytes received, which is the compressed size for compressed responses.
+	 * @return the total number of response bytes received
+	 */
+	public long getBytesReceived () {
+		return this.bytesReceived.get();
+	}
+
+	/**
+	 * Return the connect timeout.
+	 * @return the connect timeout, seconds
+	 */
+	public int getConnectTimeoutSeconds () {
+		return this.connectTimeoutSeconds;
+	}
+
+	/**
+	 * Indicate whether compressed responses are requested.
+	 * @return true if compressed responses are requested
+	 */
+	public boolean getCompression () {
+		return this.compression;
+	}
+
+	/**
+	 * Return the idle timeout for pooled connections.
+	 * @return the idle timeout for pooled connections, seconds
+	 */
+	public int getIdleTimeoutSeconds () {
+		return this.idleTimeoutSeconds;
+	}
+
+	/**
+	 * Return the connection pool size.
+	 * @return the connection pool size
+	 */
+	public int getPoolSize () {
+		return this.poolSize;
+	}
+}
@@ -0,0 +1,436 @@
+// BitbucketHttpFixtures - record and replay web service responses using a fixture folder
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Record and replay web service responses using a fixture folder, so that command files can be run
+ * repeatably without making requests to the server, for example to run tests and compare plugin versions.
+ * <ul>
+ * <li>In record mode, each response that is used by the datastore is saved as a JSON file (after decompression)
+ *     with a properties file containing the URL, response code, ETag, Last-Modified, and time recorded.
+ *     Transient errors (429 and 5xx) are not saved because the requests are retried.</li>
+ * <li>In replay mode, responses are read from the fixture files and an error occurs if a response was not recorded.</li>
+ * <li>The fixture file names are created from the URL path and a hash of the normalized URL without the scheme and host,
+ *     so that fixtures can be replayed with a different service root URL.
+ *     Request headers, including the credentials, are not saved.</li>
+ * </ul>
+ */
+public class BitbucketHttpFixtures {
+
+	/**
+	 * Extension for response files.
+	 */
+	private static final String DATA_EXT = ".json";
+
+	/**
+	 * Extension for response metadata files.
+	 */
+	private static final String META_EXT = ".properties";
+
+	/**
+	 * Maximum length of the readable part of the file names.
+	 */
+	private static final int MAX_NAME_LENGTH = 120;
+
+	/**
+	 * Folder for the fixture files.
+	 */
+	private final File fixtureDir;
+
+	/**
+	 * The mode, either RECORD or REPLAY.
+	 */
+	private final BitbucketHttpMode mode;
+
+	/**
+	 * Number of responses that were recorded.
+	 */
+	private final AtomicLong recordCount = new AtomicLong(0);
+
+	/**
+	 * Number of responses that were replayed.
+	 */
+	private final AtomicLong replayCount = new AtomicLong(0);
+
+	/**
+	 * Number of requests that could not be replayed because a response was not recorded.
+	 */
+	private final AtomicLong missCount = new AtomicLong(0);
+
+	/**
+	 * Create the fixtures, creating the folder if recording.
+	 * @param fixtureDir folder for fixture files
+	 * @param mode the mode, either RECORD or REPLAY
+	 * @throws IOException if the folder cannot be created when recording, or does not exist when replaying
+	 */
+	public BitbucketHttpFixtures ( File fixtureDir, BitbucketHttpMode mode ) throws IOException {
+		if ( (mode != BitbucketHttpMode.RECORD) && (mode != BitbucketHttpMode.REPLAY) ) {
+			throw new IllegalArgumentException("HTTP fixtures mode must be " + BitbucketHttpMode.RECORD
+				+ " or " + BitbucketHttpMode.REPLAY + ".");
+		}
+		this.fixtureDir = fixtureDir;
+		this.mode = mode;
+		if ( mode == BitbucketHttpMode.RECORD ) {
+			Files.createDirectories(fixtureDir.toPath());
+		}
+		else if ( !fixtureDir.isDirectory() ) {
+			throw new IOException("HTTP fixture folder \"" + fixtureDir + "\" does not exist.");
+		}
+	}
+
+	/**
+	 * Start recording a response.
+	 * The response stream should be wrapped using the returned object and then committed or aborted.
+	 * @param urlString the URL for the response
+	 * @param responseCode the HTTP response code
+	 * @return the pending recording
+	 * @throws IOException if the temporary file cannot be created
+	 */
+	public Recording begin ( String urlString, int responseCode ) throws IOException {
+		return new Recording(urlString, responseCode);
+	}
+
+	/**
+	 * Create the fixture name for a request, used for the fixture file names.
+	 * The name includes the URL path, for readability, and a hash of the normalized URL without the scheme and host.
+	 * @param urlString the request URL
+	 * @return the fixture name
+	 */
+	public static String createName ( String urlString ) {
+		String normalizedUrl = BitbucketDiskCache.normalizeUrl(urlString);
+		// Remove the scheme and host.
+		int pos = normalizedUrl.indexOf("://");
+		if ( pos >= 0 ) {
+			int pathPos = normalizedUrl.indexOf('/', pos + 3);
+			normalizedUrl = (pathPos >= 0) ? normalizedUrl.substring(pathPos) : "/";
+		}
+		String path = normalizedUrl;
+		pos = path.indexOf('?');
+		if ( pos >= 0 ) {
+			path = path.substring(0, pos);
+		}
+		String readableName = path.replaceAll("^/+", "").replaceAll("[^A-Za-z0-9._-]", "_");
+		if ( readableName.length() > MAX_NAME_LENGTH ) {
+			readableName = readableName.substring(0, MAX_NAME_LENGTH);
+		}
+		String hash = toHex(sha256().digest(normalizedUrl.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+		return readableName + "-" + hash;
+	}
+
+	/**
+	 * Return a recorded response.
+	 * A RuntimeException is thrown if the response was not recorded,
+	 * which is not retried by the datastore.
+	 * @param urlString the request URL
+	 * @return the recorded response
+	 * @throws IOException if the response cannot be read
+	 */
+	public BitbucketHttpResponse get ( String urlString ) throws IOException {
+		String name = createName(urlString);
+		File metaFile = getMetaFile(name);
+		if ( !metaFile.exists() ) {
+			this.missCount.incrementAndGet();
+			throw new RuntimeException("No recorded response for \"" + urlString + "\" in HTTP fixture folder \""
+				+ this.fixtureDir + "\" (" + metaFile.getName() + ").");
+		}
+		Properties meta = new Properties();
+		try ( InputStream in = new FileInputStream(metaFile) ) {
+			meta.load(in);
+		}
+		byte [] data = Files.readAllBytes(getDataFile(name).toPath());
+		Map<String,List<String>> headers = new HashMap<>();
+		headers.put("content-type", Collections.singletonList("application/json"));
+		if ( meta.getProperty("ETag") != null ) {
+			headers.put("etag", Collections.singletonList(meta.getProperty("ETag")));
+		}
+		if ( meta.getProperty("LastModified") != null ) {
+			headers.put("last-modified", Collections.singletonList(meta.getProperty("LastModified")));
+		}
+		this.replayCount.incrementAndGet();
+		return new BitbucketHttpResponse ( Integer.parseInt(meta.getProperty("ResponseCode", "200")),
+			new ByteArrayInputStream(data), headers );
+	}
+
+	/**
+	 * Return the data file for a fixture.
+	 * @param name the fixture name
+	 * @return the data file
+	 */
+	private File getDataFile ( String name ) {
+		return new File(this.fixtureDir, name + DATA_EXT);
+	}
+
+	/**
+	 * Return the folder for the fixture files.
+	 * @return the folder for the fixture files
+	 */
+	public File getFixtureDir () {
+		return this.fixtureDir;
+	}
+
+	/**
+	 * Return the metadata file for a fixture.
+	 * @param name the fixture name
+	 * @return the metadata file
+	 */
+	private File getMetaFile ( String name ) {
+		return new File(this.fixtureDir, name + META_EXT);
+	}
+
+	/**
+	 * Return the number of requests that could not be replayed because a response was not recorded.
+	 * @return the number of requests that could not be replayed
+	 */
+	public long getMissCount () {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the mode.
+	 * @return the mode, either RECORD or REPLAY
+	 */
+	public BitbucketHttpMode getMode () {
+		return this.mode;
+	}
+
+	/**
+	 * Return the number of responses that were recorded.
+	 * @return the number of responses that were recorded
+	 */
+	public long getRecordCount () {
+		return this.recordCount.get();
+	}
+
+	/**
+	 * Return the number of responses that were replayed.
+	 * @return the number of responses that were replayed
+	 */
+	public long getReplayCount () {
+		return this.replayCount.get();
+	}
+
+	/**
+	 * Indicate whether a response should be recorded.
+	 * Transient errors are not recorded because the requests are retried.
+	 * @param responseCode the HTTP response code
+	 * @return true if the response should be recorded
+	 */
+	public static boolean isRecorded ( int responseCode ) {
+		return (responseCode == 200) || ((responseCode >= 400) && (responseCode < 500) && (responseCode != 429));
+	}
+
+	/**
+	 * Record a response that has already been read, for example an error response.
+	 * @param urlString the URL for the response
+	 * @param responseCode the HTTP response code
+	 * @param response the response body
+	 * @throws IOException if the response cannot be saved
+	 */
+	public void record ( String urlString, int responseCode, String response ) throws IOException {
+		Recording recording = begin(urlString, responseCode);
+		try ( InputStream in = recording.wrap(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8))) ) {
+			// Read the full response so that it is written to the fixture file.
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		catch ( IOException e ) {
+			recording.abort();
+			throw e;
+		}
+		recording.commit(null, null);
+	}
+
+	/**
+	 * Create a SHA-256 message digest.
+	 * @return a new message digest
+	 */
+	private static MessageDigest sha256 () {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch ( NoSuchAlgorithmException e ) {
+			// Should not happen since SHA-256 is required to be supported by Java.
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Convert bytes to a hexadecimal string.
+	 * @param bytes bytes to convert
+	 * @return hexadecimal string
+	 */
+	private static String toHex ( byte [] bytes ) {
+		StringBuilder b = new StringBuilder();
+		for ( byte by : bytes ) {
+			b.append(String.format("%02x", by));
+		}
+		return b.toString();
+	}
+
+	/**
+	 * A response that is being recorded while it is read from the server.
+	 */
+	public class Recording {
+
+		/**
+		 * Fixture name.
+		 */
+		private final String name;
+
+		/**
+		 * URL for the response.
+		 */
+		private final String urlString;
+
+		/**
+		 * HTTP response code.
+		 */
+		private final int responseCode;
+
+		/**
+		 * Temporary file that the response is written to.
+		 */
+		private final File tempFile;
+
+		/**
+		 * Output stream for the temporary file.
+		 */
+		private final OutputStream out;
+
+		/**
+		 * Constructor.
+		 */
+		private Recording ( String urlString, int responseCode ) throws IOException {
+			this.name = createName(urlString);
+			this.urlString = urlString;
+			this.responseCode = responseCode;
+			this.tempFile = File.createTempFile(this.name.substring(0, Math.min(this.name.length(), 20)) + "-", ".tmp", fixtureDir);
+			this.out = new FileOutputStream(this.tempFile);
+		}
+
+		/**
+		 * Discard the response, for example because it could not be parsed.
+		 */
+		public void abort () {
+			try {
+				this.out.close();
+			}
+			catch ( IOException e ) {
+				// Ignore since the file is being deleted.
+			}
+			this.tempFile.delete();
+		}
+
+		/**
+		 * Save the response in the fixture folder, replacing a previous response for the same URL.
+		 * @param etag the ETag response header, can be null
+		 * @param lastModified the Last-Modified response header, can be null
+		 * @throws IOException if the response cannot be saved
+		 */
+		public void commit ( String etag, String lastModified ) throws IOException {
+			this.out.close();
+			Files.move(this.tempFile.toPath(), getDataFile(this.name).toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Properties meta = new Properties();
+			meta.setProperty("URL", this.urlString);
+			meta.setProperty("ResponseCode", "" + this.responseCode);
+			meta.setProperty("RecordedTime", "" + System.currentTimeMillis());
+			if ( etag != null ) {
+				meta.setProperty("ETag", etag);
+			}
+			if ( lastModified != null ) {
+				meta.setProperty("LastModified", lastModified);
+			}
+			// Write the metadata file last, using a temporary file, so that a partial fixture is not replayed.
+			File tempMetaFile = File.createTempFile(this.name.substring(0, Math.min(this.name.length(), 20)) + "-", ".tmp", fixtureDir);
+			try ( OutputStream metaOut = new FileOutputStream(tempMetaFile) ) {
+				meta.store(metaOut, "Bitbucket HTTP fixture metadata");
+			}
+			Files.move(tempMetaFile.toPath(), getMetaFile(this.name).toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			recordCount.incrementAndGet();
+		}
+
+		/**
+		 * Wrap the response stream so that the bytes that are read are also written to the fixture file.
+		 * @param in the response stream
+		 * @return the wrapped stream
+		 */
+		public InputStream wrap ( InputStream in ) {
+			return new FilterInputStream(in) {
+				private boolean closed = false;
+
+				@Override
+				public int read () throws IOException {
+					int b = super.read();
+					if ( b >= 0 ) {
+						out.write(b);
+					}
+					return b;
+				}
+
+				@Override
+				public int read ( byte[] b, int off, int len ) throws IOException {
+					int n = super.read(b, off, len);
+					if ( n > 0 ) {
+						out.write(b, off, n);
+					}
+					return n;
+				}
+
+				@Override
+				public void close () throws IOException {
+					// The parser may also close the stream so only close once.
+					if ( this.closed ) {
+						return;
+					}
+					this.closed = true;
+					// The remainder of the response is not read:
+					// - the parser has read the complete JSON value, which is all that is needed
+					// - if the response is not complete (e.g., parse error), the saved data are discarded
+					//   and closing the response reads a limited amount to reuse the connection
+					super.close();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,83 @@
+// BitbucketHttpMode - how the datastore makes web service requests
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+/**
+ * How the datastore makes web service requests, set with the 'HttpMode' configuration property.
+ */
+public enum BitbucketHttpMode {
+
+	/**
+	 * Make requests to the server.
+	 */
+	LIVE("Live"),
+
+	/**
+	 * Make requests to the server and save the responses in the fixture folder.
+	 */
+	RECORD("Record"),
+
+	/**
+	 * Read responses from the fixture folder without making requests to the server.
+	 */
+	REPLAY("Replay");
+
+	/**
+	 * The name used in configuration properties.
+	 */
+	private final String name;
+
+	/**
+	 * Construct an enumeration value.
+	 * @param name the name used in configuration properties
+	 */
+	private BitbucketHttpMode ( String name ) {
+		this.name = name;
+	}
+
+	/**
+	 * Return the name used in configuration properties.
+	 * @return the name used in configuration properties
+	 */
+	@Override
+	public String toString () {
+		return this.name;
+	}
+
+	/**
+	 * Return the enumeration value given a name, ignoring case.
+	 * @param name the name to match
+	 * @return the enumeration value, or null if not matched
+	 */
+	public static BitbucketHttpMode valueOfIgnoreCase ( String name ) {
+		if ( name == null ) {
+			return null;
+		}
+		for ( BitbucketHttpMode mode : values() ) {
+			if ( name.equalsIgnoreCase(mode.toString()) ) {
+				return mode;
+			}
+		}
+		return null;
+	}
+}
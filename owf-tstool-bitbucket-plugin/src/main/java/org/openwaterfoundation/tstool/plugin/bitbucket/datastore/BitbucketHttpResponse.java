@@ -0,0 +1,387 @@
+// BitbucketHttpResponse - response from a Bitbucket web service request
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Response from a Bitbucket web service request, returned by BitbucketHttpClient.
+ * The methods are similar to UrlResponse so that the datastore code reads the same way.
+ * The response body is provided as a stream so that JSON can be parsed as it is received,
+ * without first creating a string for the full response.
+ * If the response is compressed (Content-Encoding is gzip or deflate), the stream is decompressed as it is read.
+ * The response should be closed after it has been processed so that the connection can be reused.
+ * Closing the response body stream (e.g., by the JSON parser) also closes the response.
+ * If the response body was not read to the end (e.g., due to a parse error), up to MAX_DRAIN_BYTES are read
+ * and discarded when the response is closed, so that the connection can be reused.
+ * If more remains, the connection is closed rather than reused.
+ */
+public class BitbucketHttpResponse implements Closeable {
+
+	/**
+	 * Maximum number of unread response bytes (as received) that are read when the response is closed,
+	 * so that the connection can be reused.
+	 */
+	public static final int MAX_DRAIN_BYTES = 64*1024;
+
+	/**
+	 * The HTTP response code.
+	 */
+	private int responseCode = -1;
+
+	/**
+	 * The response body as received, which counts the bytes that are read (compressed size if compressed).
+	 */
+	private CountingInputStream receivedStream = null;
+
+	/**
+	 * The decompressed response body, created when the response body is first requested,
+	 * which is the same as receivedStream if the response is not compressed.
+	 */
+	private InputStream decodedStream = null;
+
+	/**
+	 * The decompressed response body, which counts the bytes that are read,
+	 * created when the response body is first requested.
+	 * Closing the stream closes the response.
+	 */
+	private CountingInputStream responseStream = null;
+
+	/**
+	 * Whether the response has been closed.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * The HTTP client that made the request, used to accumulate the number of bytes read, can be null.
+	 */
+	private BitbucketHttpClient httpClient = null;
+
+	/**
+	 * The response body as a string, only set if getResponse() is called.
+	 */
+	private String response = null;
+
+	/**
+	 * The response headers, with lowercase header names.
+	 */
+	private Map<String,List<String>> headers = null;
+
+	/**
+	 * Constructor.
+	 * @param responseCode the HTTP response code
+	 * @param responseStream the response body stream
+	 * @param headers the response headers
+	 */
+	public BitbucketHttpResponse ( int responseCode, InputStream responseStream, Map<String,List<String>> headers ) {
+		this ( responseCode, responseStream, headers, null );
+	}
+
+	/**
+	 * Constructor.
+	 * @param responseCode the HTTP response code
+	 * @param responseStream the response body stream, compressed if the Content-Encoding header indicates compression
+	 * @param headers the response headers
+	 * @param httpClient the HTTP client that made the request, used to accumulate the number of bytes read, can be null
+	 */
+	public BitbucketHttpResponse ( int responseCode, InputStream responseStream, Map<String,List<String>> headers,
+		BitbucketHttpClient httpClient ) {
+		this.responseCode = responseCode;
+		if ( responseStream == null ) {
+			responseStream = InputStream.nullInputStream();
+		}
+		this.receivedStream = new CountingInputStream(responseStream);
+		if ( headers == null ) {
+			this.headers = Collections.emptyMap();
+		}
+		else {
+			this.headers = headers;
+		}
+		this.httpClient = httpClient;
+	}
+
+	/**
+	 * Close the response stream.
+	 * Unread response bytes are read first, up to MAX_DRAIN_BYTES, so that the connection can be reused.
+	 * The decompression stream, if any, is closed so that its native memory is released.
+	 * The response is only closed once, whether this method is called or the response body stream is closed.
+	 */
+	@Override
+	public synchronized void close () throws IOException {
+		if ( this.closed ) {
+			return;
+		}
+		this.closed = true;
+		drain();
+		if ( this.decodedStream != null ) {
+			// Also closes the received stream.
+			this.decodedStream.close();
+		}
+		else {
+			this.receivedStream.close();
+		}
+		if ( this.httpClient != null ) {
+			this.httpClient.addByteCounts ( getReceivedLength(), getResponseLength() );
+			// Only count once.
+			this.httpClient = null;
+		}
+	}
+
+	/**
+	 * Read and discard the unread response bytes, up to MAX_DRAIN_BYTES.
+	 * The received stream is read rather than the decompressed stream because the decompressed data are not needed.
+	 */
+	private void drain () {
+		byte [] buffer = new byte[8192];
+		int remaining = MAX_DRAIN_BYTES;
+		try {
+			while ( remaining > 0 ) {
+				int n = this.receivedStream.read(buffer, 0, Math.min(buffer.length, remaining));
+				if ( n < 0 ) {
+					break;
+				}
+				remaining -= n;
+			}
+		}
+		catch ( IOException e ) {
+			// The connection will be closed rather than reused.
+		}
+	}
+
+	/**
+	 * Create the stream to decompress a 'deflate' response.
+	 * The 'deflate' content encoding should use the zlib format but some servers send raw deflate data,
+	 * so check for a zlib header.
+	 * @param in the compressed stream
+	 * @return the decompressed stream
+	 * @throws IOException if the stream cannot be read
+	 */
+	private InputStream createInflaterStream ( InputStream in ) throws IOException {
+		PushbackInputStream pushbackStream = new PushbackInputStream(in, 2);
+		byte [] header = new byte[2];
+		int n = pushbackStream.readNBytes(header, 0, 2);
+		if ( n > 0 ) {
+			pushbackStream.unread(header, 0, n);
+		}
+		boolean isZlib = (n == 2) && ((header[0] & 0x0F) == 8) && ((((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0);
+		return new InflaterInputStream(pushbackStream, new Inflater(!isZlib));
+	}
+
+	/**
+	 * Return the content encoding of the response.
+	 * @return the content encoding (e.g., "gzip"), or null if the response is not compressed
+	 */
+	public String getContentEncoding () {
+		String contentEncoding = getHeader("Content-Encoding");
+		if ( (contentEncoding == null) || contentEncoding.trim().isEmpty() || contentEncoding.trim().equalsIgnoreCase("identity") ) {
+			return null;
+		}
+		return contentEncoding.trim().toLowerCase();
+	}
+
+	/**
+	 * Return the first value for a response header.
+	 * @param name the header name (case-independent)
+	 * @return the first header value, or null if the header was not returned
+	 */
+	public String getHeader ( String name ) {
+		for ( Map.Entry<String,List<String>> entry : this.headers.entrySet() ) {
+			if ( entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty() ) {
+				return entry.getValue().get(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the response headers.
+	 * @return the response headers
+	 */
+	public Map<String,List<String>> getHeaders () {
+		return this.headers;
+	}
+
+	/**
+	 * Return the response body as a string.
+	 * The full response stream is read, so this should only be called for small responses,
+	 * error responses, or troubleshooting.
+	 * @return the response body
+	 */
+	public String getResponse () {
+		if ( this.response == null ) {
+			try {
+				this.response = new String(getResponseStream().readAllBytes(), StandardCharsets.UTF_8);
+			}
+			catch ( IOException e ) {
+				this.response = "";
+			}
+		}
+		return this.response;
+	}
+
+	/**
+	 * Return the HTTP response code.
+	 * @return the HTTP response code
+	 */
+	public int getResponseCode () {
+		return this.responseCode;
+	}
+
+	/**
+	 * Return the response body if an error was returned.
+	 * @return the response body if an error was returned, or an empty string
+	 */
+	public String getResponseError () {
+		if ( hadError() ) {
+			return getResponse();
+		}
+		else {
+			return "";
+		}
+	}
+
+	/**
+	 * Return the number of bytes that have been received for the response body,
+	 * which is the compressed size if the response is compressed.
+	 * @return the number of bytes that have been received for the response body
+	 */
+	public long getReceivedLength () {
+		return this.receivedStream.getCount();
+	}
+
+	/**
+	 * Return the number of bytes that have been read from the response body, after decompression.
+	 * @return the number of bytes that have been read from the response body
+	 */
+	public long getResponseLength () {
+		if ( this.responseStream == null ) {
+			return 0;
+		}
+		return this.responseStream.getCount();
+	}
+
+	/**
+	 * Return the response body stream, which is decompressed if the response is compressed.
+	 * The stream should only be read once.  Closing the stream closes the response.
+	 * @return the response body stream
+	 * @throws IOException if the compressed stream cannot be read
+	 */
+	public InputStream getResponseStream () throws IOException {
+		if ( this.responseStream == null ) {
+			String contentEncoding = getContentEncoding();
+			InputStream decodedStream = null;
+			if ( contentEncoding == null ) {
+				decodedStream = this.receivedStream;
+			}
+			else if ( contentEncoding.equals("gzip") || contentEncoding.equals("x-gzip") ) {
+				decodedStream = new GZIPInputStream(this.receivedStream, 8192);
+			}
+			else if ( contentEncoding.equals("deflate") ) {
+				decodedStream = createInflaterStream(this.receivedStream);
+			}
+			else {
+				throw new IOException("Response content encoding \"" + contentEncoding + "\" is not supported.");
+			}
+			this.decodedStream = decodedStream;
+			this.responseStream = new CountingInputStream(decodedStream) {
+				@Override
+				public void close () throws IOException {
+					// Close the response so that unread bytes are drained before the connection is closed.
+					BitbucketHttpResponse.this.close();
+				}
+			};
+		}
+		return this.responseStream;
+	}
+
+	/**
+	 * Indicate whether the response had an error (HTTP code 400 or larger).
+	 * @return true if the response had an error
+	 */
+	public boolean hadError () {
+		return this.responseCode >= 400;
+	}
+
+	/**
+	 * Input stream that counts the bytes that are read.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		/**
+		 * Number of bytes that have been read.
+		 */
+		private long count = 0;
+
+		/**
+		 * Constructor.
+		 * @param in the input stream to read
+		 */
+		public CountingInputStream ( InputStream in ) {
+			super(in);
+		}
+
+		/**
+		 * Return the number of bytes that have been read.
+		 * @return the number of bytes that have been read
+		 */
+		public long getCount () {
+			return this.count;
+		}
+
+		@Override
+		public int read () throws IOException {
+			int b = super.read();
+			if ( b >= 0 ) {
+				++this.count;
+			}
+			return b;
+		}
+
+		@Override
+		public int read ( byte[] b, int off, int len ) throws IOException {
+			int n = super.read(b, off, len);
+			if ( n > 0 ) {
+				this.count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip ( long n ) throws IOException {
+			long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
+		}
+	}
+}
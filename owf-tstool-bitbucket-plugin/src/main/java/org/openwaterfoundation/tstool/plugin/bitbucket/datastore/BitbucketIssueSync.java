@@ -0,0 +1,287 @@
+// BitbucketIssueSync - repository issues that are kept in memory and updated incrementally
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+
+/**
+ * Repository issues that are kept in memory and updated incrementally.
+ * After all issues for a repository are read, the latest 'updated_on' value is saved as the watermark.
+ * Later reads only request issues with 'updated_on' after the watermark and the changed issues are merged
+ * into the saved issues using the issue identifier.
+ * Because deleted issues are not returned by an incremental read, all issues are read again
+ * after a maximum age.
+ */
+public class BitbucketIssueSync {
+
+	/**
+	 * Default time in seconds after which all issues are read again.
+	 */
+	public static final int DEFAULT_MAX_AGE_SECONDS = 24*3600;
+
+	/**
+	 * Time in seconds after which all issues are read again.
+	 */
+	private final int maxAgeSeconds;
+
+	/**
+	 * Issue sets, with key from createKey().
+	 */
+	private final ConcurrentHashMap<String,IssueSet> issueSetMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor.
+	 * @param maxAgeSeconds the time in seconds after which all issues are read again
+	 */
+	public BitbucketIssueSync ( int maxAgeSeconds ) {
+		if ( maxAgeSeconds > 0 ) {
+			this.maxAgeSeconds = maxAgeSeconds;
+		}
+		else {
+			this.maxAgeSeconds = DEFAULT_MAX_AGE_SECONDS;
+		}
+	}
+
+	/**
+	 * Remove all issue sets so that all issues are read again.
+	 */
+	public void clear () {
+		this.issueSetMap.clear();
+	}
+
+	/**
+	 * Create the key for an issue set.
+	 * The requested fields are included because issues read with different fields cannot be merged.
+	 * @param workspace the Bitbucket workspace
+	 * @param repositorySlug the repository slug
+	 * @param fieldsParameter the 'fields' query parameter, or an empty string for full issues
+	 * @return the key for the issue set
+	 */
+	public static String createKey ( String workspace, String repositorySlug, String fieldsParameter ) {
+		return workspace + "/" + repositorySlug + fieldsParameter;
+	}
+
+	/**
+	 * Return the issue set for a key, creating an empty set if necessary.
+	 * @param key the key from createKey()
+	 * @return the issue set
+	 */
+	public IssueSet getIssueSet ( String key ) {
+		return this.issueSetMap.computeIfAbsent(key, k -> new IssueSet());
+	}
+
+	/**
+	 * Return the keys for the issue sets.
+	 * @return a new list containing the keys for the issue sets
+	 */
+	public List<String> getKeys () {
+		return new ArrayList<>(this.issueSetMap.keySet());
+	}
+
+	/**
+	 * Return the time in seconds after which all issues are read again.
+	 * @return the time in seconds after which all issues are read again
+	 */
+	public int getMaxAgeSeconds () {
+		return this.maxAgeSeconds;
+	}
+
+	/**
+	 * Return the number of issue sets.
+	 * @return the number of issue sets
+	 */
+	public int size () {
+		return this.issueSetMap.size();
+	}
+
+	/**
+	 * Issues for one repository.
+	 * The lock should be held while the issues are read and merged so that concurrent reads
+	 * for the same repository do not make duplicate requests.
+	 */
+	public class IssueSet {
+
+		/**
+		 * Issues, with key being the issue identifier, in the order read.
+		 */
+		private final Map<Integer,Issue> issueMap = new LinkedHashMap<>();
+
+		/**
+		 * Latest 'updated_on' for the issues, or null if all issues must be read.
+		 */
+		private OffsetDateTime watermark = null;
+
+		/**
+		 * Time that all issues were last read.
+		 */
+		private OffsetDateTime fullReadTime = null;
+
+		/**
+		 * Number of times that the issues have changed, used to determine whether the issues need to be saved.
+		 */
+		private long version = 0;
+
+		/**
+		 * Lock used to serialize reads for the repository.
+		 */
+		private final ReentrantLock lock = new ReentrantLock();
+
+		/**
+		 * Constructor.
+		 */
+		private IssueSet () {
+		}
+
+		/**
+		 * Return the time that all issues were last read.
+		 * @return the time that all issues were last read, or null if all issues have not been read
+		 */
+		public OffsetDateTime getFullReadTime () {
+			return this.fullReadTime;
+		}
+
+		/**
+		 * Return a copy of the issues.
+		 * @return a new list containing the issues
+		 */
+		public List<Issue> getIssues () {
+			return new ArrayList<>(this.issueMap.values());
+		}
+
+		/**
+		 * Return the number of times that the issues have changed.
+		 * @return the number of times that the issues have changed
+		 */
+		public long getVersion () {
+			return this.version;
+		}
+
+		/**
+		 * Return the watermark, formatted for use in a Bitbucket query.
+		 * @return the watermark as an ISO 8601 string
+		 */
+		public String getWatermarkString () {
+			return this.watermark.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+		}
+
+		/**
+		 * Lock the issue set.  The caller must call unlock() in a 'finally' block.
+		 */
+		public void lock () {
+			this.lock.lock();
+		}
+
+		/**
+		 * Indicate whether all issues need to be read,
+		 * because they have not been read or the maximum age has been exceeded.
+		 * @return true if all issues need to be read, false if an incremental read can be used
+		 */
+		public boolean needsFullRead () {
+			return (this.watermark == null) || (this.fullReadTime == null)
+				|| OffsetDateTime.now().isAfter(this.fullReadTime.plusSeconds(maxAgeSeconds));
+		}
+
+		/**
+		 * Restore issues that were previously saved, for example from a snapshot file.
+		 * The watermark is determined from the issues and the time that all issues were read is retained
+		 * so that all issues are read again after the maximum age, as if the issues had been read in this session.
+		 * @param issueList all issues for the repository
+		 * @param fullReadTime the time that all issues were read
+		 */
+		public void restore ( List<Issue> issueList, OffsetDateTime fullReadTime ) {
+			setAll ( issueList );
+			this.fullReadTime = fullReadTime;
+		}
+
+		/**
+		 * Replace the issues with all issues for the repository.
+		 * @param issueList all issues for the repository
+		 */
+		public void setAll ( List<Issue> issueList ) {
+			this.issueMap.clear();
+			this.watermark = null;
+			merge ( issueList );
+			this.fullReadTime = OffsetDateTime.now();
+			++this.version;
+		}
+
+		/**
+		 * Merge changed issues, replacing issues that have the same identifier and updating the watermark.
+		 * @param issueList changed issues
+		 */
+		public void merge ( List<Issue> issueList ) {
+			if ( !issueList.isEmpty() ) {
+				++this.version;
+			}
+			for ( Issue issue : issueList ) {
+				this.issueMap.put(issue.getId(), issue);
+				OffsetDateTime updatedOn = parseDateTime(issue.getUpdatedOn());
+				if ( (updatedOn != null) && ((this.watermark == null) || updatedOn.isAfter(this.watermark)) ) {
+					this.watermark = updatedOn;
+				}
+			}
+		}
+
+		/**
+		 * Return the number of issues.
+		 * @return the number of issues
+		 */
+		public int size () {
+			return this.issueMap.size();
+		}
+
+		/**
+		 * Unlock the issue set.
+		 */
+		public void unlock () {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Parse a Bitbucket date/time string.
+	 * @param s the date/time string (e.g., "2024-05-01T12:34:56.123456+00:00")
+	 * @return the parsed date/time, or null if it cannot be parsed
+	 */
+	private static OffsetDateTime parseDateTime ( String s ) {
+		if ( (s == null) || s.isEmpty() ) {
+			return null;
+		}
+		try {
+			return OffsetDateTime.parse(s);
+		}
+		catch ( DateTimeParseException e ) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,293 @@
+// BitbucketRateLimiter - limit the rate of web service requests to stay within the Bitbucket API quota
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import RTi.Util.Message.Message;
+
+/**
+ * Limit the rate of web service requests to stay within the Bitbucket API quota.
+ * See:  https://support.atlassian.com/bitbucket-cloud/docs/api-request-limits/
+ * <p>
+ * A token bucket is used:
+ * <ul>
+ * <li>the bucket holds up to 'burst' tokens and starts full so that a small number of requests are not delayed</li>
+ * <li>tokens are added at the hourly limit divided by 3600 per second</li>
+ * <li>each request uses a token and waits if no tokens are available, which spreads out large numbers of requests</li>
+ * </ul>
+ * The rate limit response headers are used to adjust the limiter:
+ * <ul>
+ * <li>X-RateLimit-Limit sets the hourly limit</li>
+ * <li>X-RateLimit-Remaining limits the available tokens</li>
+ * <li>X-RateLimit-Reset (epoch seconds) pauses requests if no requests remain</li>
+ * <li>Retry-After (seconds or HTTP date) for a 429 (Too Many Requests) response pauses requests</li>
+ * </ul>
+ */
+public class BitbucketRateLimiter {
+
+	/**
+	 * Default number of requests per hour.
+	 */
+	public static final int DEFAULT_REQUESTS_PER_HOUR = 1000;
+
+	/**
+	 * Default number of requests that can be made without waiting.
+	 */
+	public static final int DEFAULT_BURST = 100;
+
+	/**
+	 * Default number of times to retry a request that received a 429 response.
+	 */
+	public static final int DEFAULT_MAX_RETRIES = 5;
+
+	/**
+	 * Time in seconds to pause after a 429 response that did not include Retry-After.
+	 */
+	private static final int DEFAULT_RETRY_AFTER_SECONDS = 60;
+
+	/**
+	 * Number of requests per hour.
+	 */
+	private int requestsPerHour;
+
+	/**
+	 * Maximum number of tokens.
+	 */
+	private final int burst;
+
+	/**
+	 * Number of times to retry a request that received a 429 response.
+	 */
+	private final int maxRetries;
+
+	/**
+	 * Currently available tokens, can be negative if requests have reserved future tokens.
+	 */
+	private double tokens;
+
+	/**
+	 * Time that tokens were last added, milliseconds since 1970.
+	 */
+	private long refillTime;
+
+	/**
+	 * Time until which requests are paused, milliseconds since 1970.
+	 */
+	private long pausedUntil = 0;
+
+	/**
+	 * Number of requests that had to wait.
+	 */
+	private long waitCount = 0;
+
+	/**
+	 * Total time that requests waited, milliseconds.
+	 */
+	private long waitTimeMs = 0;
+
+	/**
+	 * Number of 429 responses.
+	 */
+	private long rateLimitedCount = 0;
+
+	/**
+	 * Constructor.
+	 * @param requestsPerHour the number of requests per hour
+	 * @param burst the number of requests that can be made without waiting
+	 * @param maxRetries the number of times to retry a request that received a 429 response
+	 */
+	public BitbucketRateLimiter ( int requestsPerHour, int burst, int maxRetries ) {
+		this.requestsPerHour = (requestsPerHour > 0) ? requestsPerHour : DEFAULT_REQUESTS_PER_HOUR;
+		this.burst = (burst > 0) ? burst : 1;
+		this.maxRetries = (maxRetries >= 0) ? maxRetries : DEFAULT_MAX_RETRIES;
+		this.tokens = this.burst;
+		this.refillTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Wait until a request can be made.
+	 * @throws InterruptedException if the wait is interrupted
+	 */
+	public void acquire () throws InterruptedException {
+		String routine = getClass().getSimpleName() + ".acquire";
+		long waitMs = 0;
+		synchronized ( this ) {
+			long now = System.currentTimeMillis();
+			refill ( now );
+			// Reserve a token, waiting for it to be added if necessary.
+			this.tokens -= 1.0;
+			if ( this.tokens < 0.0 ) {
+				waitMs = (long)Math.ceil(-this.tokens*3600000.0/this.requestsPerHour);
+			}
+			if ( this.pausedUntil > now ) {
+				waitMs = Math.max(waitMs, this.pausedUntil - now);
+			}
+			if ( waitMs > 0 ) {
+				++this.waitCount;
+				this.waitTimeMs += waitMs;
+			}
+		}
+		if ( waitMs > 0 ) {
+			if ( waitMs >= 1000 ) {
+				Message.printStatus(2, routine, "Waiting " + waitMs + " ms to stay within the request rate limit.");
+			}
+			Thread.sleep(waitMs);
+		}
+	}
+
+	/**
+	 * Return the number of times to retry a request that received a 429 response.
+	 * @return the number of times to retry
+	 */
+	public int getMaxRetries () {
+		return this.maxRetries;
+	}
+
+	/**
+	 * Return the number of 429 responses.
+	 * @return the number of 429 responses
+	 */
+	public synchronized long getRateLimitedCount () {
+		return this.rateLimitedCount;
+	}
+
+	/**
+	 * Return the number of requests per hour.
+	 * @return the number of requests per hour
+	 */
+	public synchronized int getRequestsPerHour () {
+		return this.requestsPerHour;
+	}
+
+	/**
+	 * Return the number of requests that had to wait.
+	 * @return the number of requests that had to wait
+	 */
+	public synchronized long getWaitCount () {
+		return this.waitCount;
+	}
+
+	/**
+	 * Return the total time that requests waited.
+	 * @return the total time that requests waited, milliseconds
+	 */
+	public synchronized long getWaitTimeMs () {
+		return this.waitTimeMs;
+	}
+
+	/**
+	 * Parse an integer header value.
+	 * @param value the header value
+	 * @return the integer, or -1 if the value is null or not an integer
+	 */
+	private long parseLong ( String value ) {
+		if ( value == null ) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch ( NumberFormatException e ) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Parse the Retry-After header.
+	 * @param value the header value, either seconds or an HTTP date
+	 * @param now the current time, milliseconds since 1970
+	 * @return the time in milliseconds to wait, or -1 if the value is null or cannot be parsed
+	 */
+	private long parseRetryAfter ( String value, long now ) {
+		if ( value == null ) {
+			return -1;
+		}
+		long seconds = parseLong(value);
+		if ( seconds >= 0 ) {
+			return seconds*1000;
+		}
+		try {
+			ZonedDateTime retryTime = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+			return Math.max(0, retryTime.toInstant().toEpochMilli() - now);
+		}
+		catch ( DateTimeParseException e ) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Add tokens for the time since the last refill.
+	 * @param now the current time, milliseconds since 1970
+	 */
+	private void refill ( long now ) {
+		if ( now > this.refillTime ) {
+			this.tokens = Math.min(this.burst, this.tokens + (now - this.refillTime)*this.requestsPerHour/3600000.0);
+			this.refillTime = now;
+		}
+	}
+
+	/**
+	 * Update the limiter using the response code and headers.
+	 * @param response the response
+	 * @return true if the response code is 429 (Too Many Requests) and the request should be retried after waiting
+	 */
+	public boolean update ( BitbucketHttpResponse response ) {
+		String routine = getClass().getSimpleName() + ".update";
+		long now = System.currentTimeMillis();
+		synchronized ( this ) {
+			refill ( now );
+			long limit = parseLong(response.getHeader("X-RateLimit-Limit"));
+			if ( (limit > 0) && (limit != this.requestsPerHour) ) {
+				Message.printStatus(2, routine, "Using request rate limit from the server: " + limit + " requests per hour.");
+				this.requestsPerHour = (int)Math.min(limit, Integer.MAX_VALUE);
+			}
+			long remaining = parseLong(response.getHeader("X-RateLimit-Remaining"));
+			if ( remaining >= 0 ) {
+				this.tokens = Math.min(this.tokens, remaining);
+				if ( remaining == 0 ) {
+					long reset = parseLong(response.getHeader("X-RateLimit-Reset"));
+					if ( reset > 0 ) {
+						this.pausedUntil = Math.max(this.pausedUntil, reset*1000);
+					}
+				}
+			}
+			if ( response.getResponseCode() == 429 ) {
+				++this.rateLimitedCount;
+				long retryAfterMs = parseRetryAfter(response.getHeader("Retry-After"), now);
+				if ( retryAfterMs < 0 ) {
+					retryAfterMs = DEFAULT_RETRY_AFTER_SECONDS*1000L;
+				}
+				this.pausedUntil = Math.max(this.pausedUntil, now + retryAfterMs);
+				// No requests are available until the pause ends.
+				this.tokens = Math.min(this.tokens, 0.0);
+				Message.printWarning(3, routine, "Request rate limit exceeded (429).  Pausing requests for "
+					+ (this.pausedUntil - now) + " ms.");
+				return true;
+			}
+		}
+		return false;
+	}
+}
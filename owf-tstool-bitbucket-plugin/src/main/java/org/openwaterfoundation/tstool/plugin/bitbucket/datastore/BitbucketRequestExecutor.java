@@ -0,0 +1,313 @@
+// BitbucketRequestExecutor - execution engine for concurrent Bitbucket web service requests
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import RTi.Util.Message.Message;
+
+/**
+ * Execution engine for Bitbucket datastore requests.
+ * Each task is run on its own virtual thread if the Java runtime supports virtual threads (Java 21+),
+ * so that many blocking requests can be in progress without using many platform threads.
+ * If virtual threads are not available, a fixed pool of platform threads is used.
+ * <p>
+ * Concurrency is limited in two ways:
+ * <ul>
+ * <li>the number of web service requests that are in progress for the datastore is limited by a semaphore,
+ *     see runRequest()</li>
+ * <li>the number of tasks that are run at the same time for a call to invokeAll() can be limited,
+ *     for example to honor a command parameter</li>
+ * </ul>
+ * Tasks can call invokeAll() again (e.g., to read pages for a repository while repositories are read concurrently).
+ * When platform threads are used, nested calls are run in the calling thread to avoid exhausting the pool.
+ * Page reads should instead use invokeAllPages(), which uses a separate pool of platform threads for nested calls
+ * so that pages can be prefetched while repositories are read concurrently.
+ */
+public class BitbucketRequestExecutor {
+
+	/**
+	 * The executor that runs tasks.
+	 */
+	private ExecutorService executor = null;
+
+	/**
+	 * The executor that runs page tasks that are submitted from the platform thread pool,
+	 * created when first needed and not used with virtual threads.
+	 */
+	private ExecutorService pageExecutor = null;
+
+	/**
+	 * Whether virtual threads are used.
+	 */
+	private boolean useVirtualThreads = false;
+
+	/**
+	 * Maximum number of concurrent requests.
+	 */
+	private int maxConcurrency = 1;
+
+	/**
+	 * Semaphore used to limit the number of concurrent requests.
+	 */
+	private Semaphore requestSemaphore = null;
+
+	/**
+	 * Indicates whether the current thread is a platform thread in the pool, used to avoid nested pool use.
+	 */
+	private final ThreadLocal<Boolean> isPoolThread = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	/**
+	 * Indicates whether the current thread is a platform thread in the page pool, used to avoid nested pool use.
+	 */
+	private final ThreadLocal<Boolean> isPagePoolThread = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	/**
+	 * Create the executor.
+	 * @param maxConcurrency the maximum number of concurrent requests (and platform threads if virtual threads are not available)
+	 * @param useVirtualThreads whether to use virtual threads if available
+	 */
+	public BitbucketRequestExecutor ( int maxConcurrency, boolean useVirtualThreads ) {
+		String routine = getClass().getSimpleName() + ".BitbucketRequestExecutor";
+		if ( maxConcurrency > 0 ) {
+			this.maxConcurrency = maxConcurrency;
+		}
+		this.requestSemaphore = new Semaphore(this.maxConcurrency, true);
+
+		if ( useVirtualThreads ) {
+			this.executor = createVirtualThreadExecutor();
+		}
+		if ( this.executor != null ) {
+			this.useVirtualThreads = true;
+			Message.printStatus(2, routine, "Using virtual threads for requests, maximum concurrency = " + this.maxConcurrency + ".");
+		}
+		else {
+			this.executor = createPlatformThreadExecutor ( "BitbucketRequestExecutor", this.isPoolThread );
+			Message.printStatus(2, routine, "Using a pool of " + this.maxConcurrency + " platform threads for requests.");
+		}
+	}
+
+	/**
+	 * Create a fixed pool of maxConcurrency platform threads.
+	 * Daemon threads are used so that the executor does not prevent TSTool from exiting.
+	 * @param name the prefix for thread names
+	 * @param isThreadInPool the thread local that is set to true for threads in the pool
+	 * @return the executor
+	 */
+	private ExecutorService createPlatformThreadExecutor ( String name, ThreadLocal<Boolean> isThreadInPool ) {
+		AtomicInteger threadCount = new AtomicInteger(0);
+		return Executors.newFixedThreadPool(this.maxConcurrency, runnable -> {
+			Thread thread = new Thread( () -> {
+				isThreadInPool.set(Boolean.TRUE);
+				runnable.run();
+			}, name + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Create an executor that starts a new virtual thread for each task.
+	 * Reflection is used so that the code compiles and runs with Java versions that do not support virtual threads.
+	 * @return the executor, or null if virtual threads are not supported
+	 */
+	private ExecutorService createVirtualThreadExecutor () {
+		String routine = getClass().getSimpleName() + ".createVirtualThreadExecutor";
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)method.invoke(null);
+		}
+		catch ( NoSuchMethodException e ) {
+			Message.printStatus(2, routine, "Virtual threads are not supported by Java " + System.getProperty("java.version") + ".");
+			return null;
+		}
+		catch ( Exception e ) {
+			Message.printWarning(3, routine, "Error creating virtual thread executor (" + e + ").");
+			return null;
+		}
+	}
+
+	/**
+	 * Return the executor for page tasks that are submitted from the platform thread pool, creating if necessary.
+	 * @return the page executor
+	 */
+	private synchronized ExecutorService getPageExecutor () {
+		String routine = getClass().getSimpleName() + ".getPageExecutor";
+		if ( this.pageExecutor == null ) {
+			this.pageExecutor = createPlatformThreadExecutor ( "BitbucketRequestExecutor-Page", this.isPagePoolThread );
+			Message.printStatus(2, routine, "Using a pool of " + this.maxConcurrency + " platform threads for page requests.");
+		}
+		return this.pageExecutor;
+	}
+
+	/**
+	 * Return the maximum number of concurrent requests.
+	 * @return the maximum number of concurrent requests
+	 */
+	public int getMaxConcurrency () {
+		return this.maxConcurrency;
+	}
+
+	/**
+	 * Run tasks concurrently and return the results in the order of the tasks.
+	 * The number of tasks that run at the same time is limited to the datastore maximum concurrency.
+	 * @param tasks the tasks to run
+	 * @return the results in the order of the tasks
+	 * @throws Exception the first exception thrown by a task, in task order
+	 */
+	public <T> List<T> invokeAll ( List<? extends Callable<T>> tasks ) throws Exception {
+		return invokeAll ( tasks, this.maxConcurrency );
+	}
+
+	/**
+	 * Run tasks concurrently and return the results in the order of the tasks.
+	 * If a task fails, the remaining tasks are cancelled.
+	 * @param tasks the tasks to run
+	 * @param maxConcurrency the maximum number of the tasks to run at the same time
+	 * @return the results in the order of the tasks
+	 * @throws Exception the first exception thrown by a task, in task order
+	 */
+	public <T> List<T> invokeAll ( List<? extends Callable<T>> tasks, int maxConcurrency ) throws Exception {
+		if ( !this.useVirtualThreads && (this.isPoolThread.get() || this.isPagePoolThread.get()) ) {
+			// The current thread is already in a platform thread pool and waiting on the pool could deadlock.
+			return invokeAll ( tasks, 1, this.executor );
+		}
+		return invokeAll ( tasks, maxConcurrency, this.executor );
+	}
+
+	/**
+	 * Run page read tasks concurrently and return the results in the order of the tasks.
+	 * This is the same as invokeAll(), except that when platform threads are used and the calling thread is
+	 * in the request pool (e.g., reading a repository's issues), the tasks are run in a separate page pool
+	 * rather than in the calling thread, so that pages are prefetched concurrently.
+	 * Page tasks must not call invokeAll() or invokeAllPages(), other than to run in the calling thread.
+	 * @param tasks the tasks to run, each of which should read one page
+	 * @return the results in the order of the tasks
+	 * @throws Exception the first exception thrown by a task, in task order
+	 */
+	public <T> List<T> invokeAllPages ( List<? extends Callable<T>> tasks ) throws Exception {
+		if ( !this.useVirtualThreads && this.isPoolThread.get() ) {
+			return invokeAll ( tasks, this.maxConcurrency, getPageExecutor() );
+		}
+		return invokeAll ( tasks );
+	}
+
+	/**
+	 * Run tasks concurrently using an executor and return the results in the order of the tasks.
+	 * @param tasks the tasks to run
+	 * @param maxConcurrency the maximum number of the tasks to run at the same time
+	 * @param executor the executor used to run the tasks
+	 * @return the results in the order of the tasks
+	 * @throws Exception the first exception thrown by a task, in task order
+	 */
+	private <T> List<T> invokeAll ( List<? extends Callable<T>> tasks, int maxConcurrency, ExecutorService executor )
+		throws Exception {
+		List<T> results = new ArrayList<>(tasks.size());
+		if ( (tasks.size() == 1) || (maxConcurrency <= 1) ) {
+			// Run in the current thread since there is no benefit to using another thread.
+			for ( Callable<T> task : tasks ) {
+				results.add(task.call());
+			}
+			return results;
+		}
+		Semaphore taskSemaphore = new Semaphore(maxConcurrency);
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for ( Callable<T> task : tasks ) {
+			futures.add ( executor.submit ( () -> {
+				taskSemaphore.acquire();
+				try {
+					return task.call();
+				}
+				finally {
+					taskSemaphore.release();
+				}
+			}));
+		}
+		for ( Future<T> future : futures ) {
+			try {
+				results.add ( future.get() );
+			}
+			catch ( ExecutionException e ) {
+				// Cancel remaining tasks and throw the original exception.
+				for ( Future<T> future2 : futures ) {
+					future2.cancel(true);
+				}
+				if ( e.getCause() instanceof Exception ) {
+					throw (Exception)e.getCause();
+				}
+				throw e;
+			}
+			catch ( InterruptedException e ) {
+				for ( Future<T> future2 : futures ) {
+					future2.cancel(true);
+				}
+				throw e;
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Indicate whether virtual threads are used.
+	 * @return true if virtual threads are used, false if platform threads are used
+	 */
+	public boolean isUsingVirtualThreads () {
+		return this.useVirtualThreads;
+	}
+
+	/**
+	 * Run a web service request, waiting if the maximum number of concurrent requests are in progress.
+	 * This should wrap only the request and not processing that may itself make requests.
+	 * @param request the request to run
+	 * @return the result of the request
+	 * @throws Exception if the request throws an exception or the wait is interrupted
+	 */
+	public <T> T runRequest ( Callable<T> request ) throws Exception {
+		this.requestSemaphore.acquire();
+		try {
+			return request.call();
+		}
+		finally {
+			this.requestSemaphore.release();
+		}
+	}
+
+	/**
+	 * Shut down the executor.  Tasks that are running are interrupted.
+	 */
+	public synchronized void shutdown () {
+		this.executor.shutdownNow();
+		if ( this.pageExecutor != null ) {
+			this.pageExecutor.shutdownNow();
+		}
+	}
+}
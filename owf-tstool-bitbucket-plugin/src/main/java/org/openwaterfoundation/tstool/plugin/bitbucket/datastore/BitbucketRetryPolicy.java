@@ -0,0 +1,138 @@
+// BitbucketRetryPolicy - policy for retrying web service requests that fail due to transient errors
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.HttpCodeException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Policy for retrying web service requests that fail due to transient errors.
+ * Only GET requests are made by the datastore, which can be safely retried.
+ * The delay before each retry doubles, up to a maximum, and a random jitter is used
+ * so that concurrent requests that failed at the same time do not retry at the same time.
+ */
+public class BitbucketRetryPolicy {
+
+	/**
+	 * Default maximum number of attempts for a request, including the first attempt.
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/**
+	 * Default delay before the first retry, milliseconds.
+	 */
+	public static final int DEFAULT_INITIAL_DELAY_MS = 500;
+
+	/**
+	 * Default maximum delay before a retry, milliseconds.
+	 */
+	public static final int DEFAULT_MAX_DELAY_MS = 30000;
+
+	/**
+	 * Maximum number of attempts for a request, including the first attempt.
+	 */
+	private final int maxAttempts;
+
+	/**
+	 * Delay before the first retry, milliseconds.
+	 */
+	private final long initialDelayMs;
+
+	/**
+	 * Maximum delay before a retry, milliseconds.
+	 */
+	private final long maxDelayMs;
+
+	/**
+	 * Constructor.
+	 * @param maxAttempts maximum number of attempts for a request, including the first attempt (1 to not retry)
+	 * @param initialDelayMs delay before the first retry, milliseconds
+	 * @param maxDelayMs maximum delay before a retry, milliseconds
+	 */
+	public BitbucketRetryPolicy ( int maxAttempts, long initialDelayMs, long maxDelayMs ) {
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.initialDelayMs = Math.max(0, initialDelayMs);
+		this.maxDelayMs = Math.max(this.initialDelayMs, maxDelayMs);
+	}
+
+	/**
+	 * Indicate whether another attempt can be made.
+	 * @param attempt the attempt that failed, 1 for the first attempt
+	 * @return true if another attempt can be made
+	 */
+	public boolean canRetry ( int attempt ) {
+		return attempt < this.maxAttempts;
+	}
+
+	/**
+	 * Return the delay before a retry.
+	 * The delay is between half and all of the exponential delay for the attempt.
+	 * @param attempt the attempt that failed, 1 for the first attempt
+	 * @return the delay before the retry, milliseconds
+	 */
+	public long getDelayMs ( int attempt ) {
+		long delayMs = this.initialDelayMs;
+		for ( int i = 1; (i < attempt) && (delayMs < this.maxDelayMs); i++ ) {
+			delayMs *= 2;
+		}
+		delayMs = Math.min(delayMs, this.maxDelayMs);
+		if ( delayMs <= 1 ) {
+			return delayMs;
+		}
+		return delayMs/2 + ThreadLocalRandom.current().nextLong(delayMs/2 + 1);
+	}
+
+	/**
+	 * Return the maximum number of attempts for a request.
+	 * @return the maximum number of attempts for a request, including the first attempt
+	 */
+	public int getMaxAttempts () {
+		return this.maxAttempts;
+	}
+
+	/**
+	 * Indicate whether an exception is due to a transient error that may not occur if the request is retried:
+	 * <ul>
+	 * <li>server errors (5xx) and 429 (Too Many Requests)</li>
+	 * <li>I/O errors such as timeouts and connection errors, but not JSON parsing errors</li>
+	 * </ul>
+	 * @param e the exception
+	 * @return true if the request can be retried
+	 */
+	public static boolean isTransient ( Exception e ) {
+		if ( e instanceof HttpCodeException ) {
+			int code = ((HttpCodeException)e).getCode();
+			return (code >= 500) || (code == 429);
+		}
+		else if ( e instanceof JsonProcessingException ) {
+			return false;
+		}
+		else {
+			return e instanceof IOException;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+// BitbucketSingleFlight - coalesce identical concurrent requests into one request
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesce identical concurrent requests into one request.
+ * The first caller for a key runs the request and other callers for the same key,
+ * which call while the request is in progress, wait for and share the result.
+ * The result is not saved after the request completes so that later calls run the request again
+ * (caching is handled separately).
+ * If the caller that runs the request is interrupted (e.g., its command is canceled),
+ * waiting callers run the request again rather than failing.
+ * @param <K> the key type, which must identify the request including the credentials
+ * @param <V> the result type, which is shared by callers and therefore should not be modified
+ */
+public class BitbucketSingleFlight<K,V> {
+
+	/**
+	 * Requests in progress.
+	 */
+	private final ConcurrentHashMap<K,CompletableFuture<V>> inFlightMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of calls that shared the result of a request in progress.
+	 */
+	private final AtomicLong sharedCount = new AtomicLong(0);
+
+	/**
+	 * Constructor.
+	 */
+	public BitbucketSingleFlight () {
+	}
+
+	/**
+	 * Run a request, or wait for the same request that is in progress.
+	 * @param key the key for the request
+	 * @param request the request to run if the same request is not in progress
+	 * @return the result of the request
+	 * @throws Exception the exception thrown by the request
+	 */
+	public V execute ( K key, Callable<V> request ) throws Exception {
+		while ( true ) {
+			CompletableFuture<V> future = new CompletableFuture<>();
+			CompletableFuture<V> inFlightFuture = this.inFlightMap.putIfAbsent(key, future);
+			if ( inFlightFuture != null ) {
+				// The request is in progress so wait for the result.
+				try {
+					V result = inFlightFuture.get();
+					this.sharedCount.incrementAndGet();
+					return result;
+				}
+				catch ( ExecutionException e ) {
+					if ( e.getCause() instanceof InterruptedRequestException ) {
+						// The caller that ran the request was interrupted, which is not an error for this caller,
+						// so run the request again.
+						continue;
+					}
+					if ( e.getCause() instanceof Exception ) {
+						throw (Exception)e.getCause();
+					}
+					throw e;
+				}
+			}
+			// Run the request and share the result.
+			try {
+				V result = request.call();
+				future.complete(result);
+				return result;
+			}
+			catch ( Exception | Error e ) {
+				if ( isInterrupted(e) ) {
+					future.completeExceptionally(new InterruptedRequestException(e));
+				}
+				else {
+					future.completeExceptionally(e);
+				}
+				throw e;
+			}
+			finally {
+				this.inFlightMap.remove(key, future);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of calls that shared the result of a request in progress.
+	 * @return the number of calls that shared the result of a request in progress
+	 */
+	public long getSharedCount () {
+		return this.sharedCount.get();
+	}
+
+	/**
+	 * Indicate whether a request failed because the thread was interrupted.
+	 * Timeouts are errors and are shared with waiting callers.
+	 * @param e the exception thrown by the request
+	 * @return true if the request failed because the thread was interrupted
+	 */
+	private boolean isInterrupted ( Throwable e ) {
+		if ( Thread.currentThread().isInterrupted() ) {
+			return true;
+		}
+		for ( Throwable t = e; t != null; t = t.getCause() ) {
+			if ( (t instanceof InterruptedException) || (t instanceof ClosedByInterruptException)
+				|| ((t instanceof InterruptedIOException) && !(t instanceof SocketTimeoutException)) ) {
+				return true;
+			}
+			if ( t.getCause() == t ) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the number of requests in progress.
+	 * @return the number of requests in progress
+	 */
+	public int size () {
+		return this.inFlightMap.size();
+	}
+
+	/**
+	 * Exception given to waiting callers when the caller that ran the request was interrupted.
+	 */
+	@SuppressWarnings("serial")
+	private static class InterruptedRequestException extends Exception {
+
+		/**
+		 * Constructor.
+		 * @param cause the exception thrown by the request
+		 */
+		public InterruptedRequestException ( Throwable cause ) {
+			super(cause);
+		}
+	}
+}
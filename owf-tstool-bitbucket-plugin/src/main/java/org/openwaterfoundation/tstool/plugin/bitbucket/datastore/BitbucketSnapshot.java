@@ -0,0 +1,795 @@
+// BitbucketSnapshot - binary snapshot of workspace data used to start a session without reading the web services
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.IssueLinks;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Project;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.User;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import RTi.Util.Message.Message;
+
+/**
+ * Binary snapshot of workspace data (projects, repositories, and optionally issues that are updated incrementally),
+ * used to start a TSTool session without reading the web services or parsing JSON.
+ * The file is read into memory with one read and the values are passed to Jackson as tokens,
+ * so that the objects are created the same as when reading the web services.
+ * The file is not memory-mapped because a mapping cannot be released until garbage collection,
+ * which prevents replacing the file on Windows.
+ * When the file is written, sections that have not changed since the previous write are not encoded again
+ * and the file is not written if nothing has changed.
+ * The file format is (all numbers are big-endian):
+ * <pre>
+ * int     magic number (MAGIC)
+ * int     schema version (SCHEMA_VERSION)
+ * string  workspace identifier
+ * long    time that the data were read from the web services, milliseconds since 1970
+ * section projects
+ * section repositories
+ * int     number of issue sets, and for each issue set:
+ *   string  issue set key (see BitbucketIssueSync.createKey())
+ *   long    time that all issues were read, milliseconds since 1970
+ *   section issues
+ * long    CRC32 checksum of all of the previous bytes
+ *
+ * section:  int number of fields, string for each field name (JSON path such as "assignee.display_name"),
+ *           int number of records, and for each record, a value for each field
+ * string:   int number of bytes (-1 for null), and UTF-8 bytes
+ * value:    byte type (0=null, 1=string, 2=boolean, 3=integer), and string, byte (0 or 1), or long
+ * </pre>
+ * Only the fields that are used by the datastore and commands are saved.
+ * A snapshot with a different schema version or workspace, or that fails the checksum, is ignored.
+ */
+public class BitbucketSnapshot {
+
+	/**
+	 * Magic number at the start of the file ("BBSN").
+	 */
+	public static final int MAGIC = 0x4242534E;
+
+	/**
+	 * Schema version, which should be incremented if the format or fields change.
+	 */
+	public static final int SCHEMA_VERSION = 1;
+
+	/**
+	 * Project fields that are saved.
+	 */
+	private static final String [] PROJECT_FIELDS = {
+		"key", "name", "type"
+	};
+
+	/**
+	 * Repository fields that are saved.
+	 */
+	private static final String [] REPOSITORY_FIELDS = {
+		"created_on", "description", "fork_policy", "full_name", "has_issues", "has_wiki", "is_private",
+		"language", "name", "scm", "size", "slug", "type", "updated_on", "uuid"
+	};
+
+	/**
+	 * Issue fields that are saved.
+	 */
+	private static final String [] ISSUE_FIELDS = {
+		"assignee.display_name", "assignee.nickname", "content.raw", "created_on", "edited_on", "id", "kind",
+		"links.html.href", "name", "priority", "reporter.display_name", "reporter.nickname", "state", "title",
+		"type", "updated_on"
+	};
+
+	/**
+	 * Value types.
+	 */
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_STRING = 1;
+	private static final byte TYPE_BOOLEAN = 2;
+	private static final byte TYPE_INTEGER = 3;
+
+	/**
+	 * Snapshot file.
+	 */
+	private final File file;
+
+	/**
+	 * Workspace identifier for the previous write, used to determine whether the file needs to be written.
+	 */
+	private String writtenWorkspaceId = null;
+
+	/**
+	 * Global data read time for the previous write, used to determine whether the projects and repositories changed.
+	 */
+	private OffsetDateTime writtenReadTime = null;
+
+	/**
+	 * Encoded projects and repositories sections from the previous write.
+	 */
+	private byte [] writtenGlobalSections = null;
+
+	/**
+	 * Encoded issue sets from the previous write, by issue set key.
+	 */
+	private Map<String,EncodedIssueSet> writtenIssueSets = new LinkedHashMap<>();
+
+	/**
+	 * Constructor.
+	 * @param file the snapshot file
+	 */
+	public BitbucketSnapshot ( File file ) {
+		this.file = file;
+	}
+
+	/**
+	 * Return the snapshot file.
+	 * @return the snapshot file
+	 */
+	public File getFile () {
+		return this.file;
+	}
+
+	/**
+	 * Read the snapshot file.
+	 * @param workspaceId the workspace identifier, which must match the snapshot
+	 * @return the snapshot contents, or null if the file does not exist or cannot be used
+	 * (different schema version or workspace, or corrupt)
+	 * @throws IOException if the file cannot be read
+	 */
+	public Contents read ( String workspaceId ) throws IOException {
+		String routine = getClass().getSimpleName() + ".read";
+		if ( !this.file.isFile() ) {
+			return null;
+		}
+		try ( FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ) ) {
+			long size = channel.size();
+			if ( (size < 8) || (size > Integer.MAX_VALUE) ) {
+				Message.printWarning(3, routine, "Snapshot file \"" + this.file + "\" has invalid size " + size + ".  Ignoring.");
+				return null;
+			}
+			// Read the file with one read rather than mapping, so that the file is not locked after reading.
+			ByteBuffer buffer = ByteBuffer.allocate((int)size);
+			while ( buffer.hasRemaining() ) {
+				if ( channel.read(buffer) < 0 ) {
+					break;
+				}
+			}
+			if ( buffer.hasRemaining() ) {
+				Message.printWarning(3, routine, "Snapshot file \"" + this.file + "\" could not be read completely.  Ignoring.");
+				return null;
+			}
+			buffer.flip();
+			// Verify the checksum before decoding.
+			ByteBuffer body = buffer.duplicate();
+			body.limit((int)size - 8);
+			CRC32 crc = new CRC32();
+			crc.update(body);
+			if ( crc.getValue() != buffer.getLong((int)size - 8) ) {
+				Message.printWarning(3, routine, "Snapshot file \"" + this.file + "\" checksum does not match.  Ignoring.");
+				return null;
+			}
+			if ( buffer.getInt() != MAGIC ) {
+				Message.printWarning(3, routine, "File \"" + this.file + "\" is not a snapshot file.  Ignoring.");
+				return null;
+			}
+			int version = buffer.getInt();
+			if ( version != SCHEMA_VERSION ) {
+				Message.printStatus(2, routine, "Snapshot file \"" + this.file + "\" schema version " + version
+					+ " is not the current version " + SCHEMA_VERSION + ".  Ignoring.");
+				return null;
+			}
+			String snapshotWorkspaceId = readString(buffer);
+			if ( !workspaceId.equals(snapshotWorkspaceId) ) {
+				Message.printStatus(2, routine, "Snapshot file \"" + this.file + "\" is for workspace \""
+					+ snapshotWorkspaceId + "\", not \"" + workspaceId + "\".  Ignoring.");
+				return null;
+			}
+			Contents contents = new Contents ( snapshotWorkspaceId, toDateTime(buffer.getLong()) );
+			contents.projects.addAll(readSection(buffer, Project.class));
+			contents.repositories.addAll(readSection(buffer, Repository.class));
+			int issueSetCount = buffer.getInt();
+			for ( int i = 0; i < issueSetCount; i++ ) {
+				String key = readString(buffer);
+				OffsetDateTime fullReadTime = toDateTime(buffer.getLong());
+				contents.issueSets.add(new IssueSetContents(key, fullReadTime, readSection(buffer, Issue.class)));
+			}
+			return contents;
+		}
+		catch ( BufferUnderflowException | IllegalArgumentException e ) {
+			Message.printWarning(3, routine, "Snapshot file \"" + this.file + "\" is not valid (" + e + ").  Ignoring.");
+			return null;
+		}
+	}
+
+	/**
+	 * Read a section.
+	 * The values for each record are written to a token buffer as JSON tokens,
+	 * which Jackson reads the same as a web service response, without formatting and parsing JSON.
+	 * @param buffer the buffer to read from
+	 * @param objectClass the class of the objects in the section
+	 * @return the objects in the section
+	 * @throws IOException if an object cannot be created
+	 */
+	private <T> List<T> readSection ( ByteBuffer buffer, Class<T> objectClass ) throws IOException {
+		int fieldCount = buffer.getInt();
+		String [] fields = new String[fieldCount];
+		String [][] paths = new String[fieldCount][];
+		for ( int i = 0; i < fieldCount; i++ ) {
+			fields[i] = readString(buffer);
+			paths[i] = fields[i].split("\\.");
+		}
+		// Write the fields in sorted order so that the fields in a nested object (e.g., "assignee.*") are together.
+		Integer [] order = new Integer[fieldCount];
+		for ( int i = 0; i < fieldCount; i++ ) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing(i -> fields[i]));
+		int recordCount = buffer.getInt();
+		Object [] values = new Object[fieldCount];
+		TokenBuffer tokens = new TokenBuffer(null, false);
+		for ( int i = 0; i < recordCount; i++ ) {
+			for ( int iField = 0; iField < fieldCount; iField++ ) {
+				byte type = buffer.get();
+				if ( type == TYPE_NULL ) {
+					values[iField] = null;
+				}
+				else if ( type == TYPE_STRING ) {
+					values[iField] = readString(buffer);
+				}
+				else if ( type == TYPE_BOOLEAN ) {
+					values[iField] = buffer.get() != 0;
+				}
+				else if ( type == TYPE_INTEGER ) {
+					values[iField] = buffer.getLong();
+				}
+				else {
+					throw new IllegalArgumentException("Invalid value type " + type + " for field \"" + fields[iField] + "\".");
+				}
+			}
+			writeRecordTokens(tokens, paths, order, values);
+		}
+		// Create the objects from the records, which are a sequence of root-level objects.
+		ObjectReader reader = JacksonToolkit.getInstance().getObjectReader(objectClass);
+		List<T> objectList = new ArrayList<>(recordCount);
+		try ( MappingIterator<T> it = reader.readValues(tokens.asParser()) ) {
+			while ( it.hasNext() ) {
+				objectList.add(it.next());
+			}
+		}
+		return objectList;
+	}
+
+	/**
+	 * Read a string.
+	 * @param buffer the buffer to read from
+	 * @return the string, or null
+	 */
+	private String readString ( ByteBuffer buffer ) {
+		int length = buffer.getInt();
+		if ( length < 0 ) {
+			return null;
+		}
+		byte [] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Write the tokens for a record.
+	 * Nested objects are only created if they contain a value, the same as the web service response.
+	 * @param tokens the token buffer to write to
+	 * @param paths the field paths (e.g., ["links", "html", "href"])
+	 * @param order the order to write the fields, so that fields in the same nested object are together
+	 * @param values the values for the fields, null if not set
+	 * @throws IOException if the tokens cannot be written
+	 */
+	private void writeRecordTokens ( TokenBuffer tokens, String [][] paths, Integer [] order, Object [] values )
+		throws IOException {
+		tokens.writeStartObject();
+		// The first openDepth parts of openPath are the nested objects that are open.
+		String [] openPath = null;
+		int openDepth = 0;
+		for ( int i : order ) {
+			Object value = values[i];
+			if ( value == null ) {
+				continue;
+			}
+			String [] path = paths[i];
+			// Close the nested objects that are not parents of the field.
+			int commonDepth = 0;
+			while ( (commonDepth < openDepth) && (commonDepth < (path.length - 1)) && openPath[commonDepth].equals(path[commonDepth]) ) {
+				++commonDepth;
+			}
+			for ( ; openDepth > commonDepth; --openDepth ) {
+				tokens.writeEndObject();
+			}
+			// Open the parents of the field.
+			for ( ; openDepth < (path.length - 1); ++openDepth ) {
+				tokens.writeFieldName(path[openDepth]);
+				tokens.writeStartObject();
+			}
+			openPath = path;
+			tokens.writeFieldName(path[path.length - 1]);
+			if ( value instanceof String ) {
+				tokens.writeString((String)value);
+			}
+			else if ( value instanceof Boolean ) {
+				tokens.writeBoolean((Boolean)value);
+			}
+			else {
+				tokens.writeNumber((Long)value);
+			}
+		}
+		for ( ; openDepth > 0; --openDepth ) {
+			tokens.writeEndObject();
+		}
+		tokens.writeEndObject();
+	}
+
+	/**
+	 * Convert milliseconds since 1970 to a date/time.
+	 * @param timeMs milliseconds since 1970, or -1 if not set
+	 * @return the date/time, or null if not set
+	 */
+	private OffsetDateTime toDateTime ( long timeMs ) {
+		if ( timeMs < 0 ) {
+			return null;
+		}
+		return OffsetDateTime.ofInstant(Instant.ofEpochMilli(timeMs), ZoneId.systemDefault());
+	}
+
+	/**
+	 * Write the snapshot file.
+	 * The file is written to a temporary file and then moved so that a partial file is not read.
+	 * Sections that have not changed since the previous write are copied from the previous write
+	 * and the file is not written if no sections have changed.
+	 * @param workspaceId the workspace identifier
+	 * @param readTime the time that the projects and repositories were read from the web services
+	 * @param projects the projects
+	 * @param repositories the repositories
+	 * @param issueSync the issues that are updated incrementally, or null to not save issues
+	 * @return true if the file was written, false if the file was not written because nothing changed
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized boolean write ( String workspaceId, OffsetDateTime readTime, List<Project> projects,
+		List<Repository> repositories, BitbucketIssueSync issueSync ) throws IOException {
+		String routine = getClass().getSimpleName() + ".write";
+		boolean changed = false;
+		// Projects and repositories only change when the global data are read.
+		byte [] globalSections = this.writtenGlobalSections;
+		if ( (globalSections == null) || !Objects.equals(workspaceId, this.writtenWorkspaceId)
+			|| !Objects.equals(readTime, this.writtenReadTime) ) {
+			globalSections = encodeGlobalSections(projects, repositories);
+			changed = true;
+		}
+		// Issue sets, which are only encoded if changed.
+		List<String> keys = (issueSync == null) ? new ArrayList<>() : issueSync.getKeys();
+		Map<String,EncodedIssueSet> issueSets = new LinkedHashMap<>();
+		int issueCount = 0;
+		int encodedCount = 0;
+		for ( String key : keys ) {
+			BitbucketIssueSync.IssueSet issueSet = issueSync.getIssueSet(key);
+			EncodedIssueSet encoded = this.writtenIssueSets.get(key);
+			if ( (encoded == null) || !encoded.isFor(issueSet) ) {
+				encoded = encodeIssueSet(key, issueSet);
+				++encodedCount;
+				changed = true;
+			}
+			issueSets.put(key, encoded);
+			issueCount += encoded.issueCount;
+		}
+		if ( !changed && issueSets.keySet().equals(this.writtenIssueSets.keySet()) && this.file.exists() ) {
+			Message.printStatus(2, routine, "Snapshot file \"" + this.file + "\" has not changed.  Not writing.");
+			return false;
+		}
+		File folder = this.file.getAbsoluteFile().getParentFile();
+		if ( (folder != null) && !folder.exists() ) {
+			folder.mkdirs();
+		}
+		File tempFile = new File(this.file.getPath() + ".tmp");
+		CRC32 crc = new CRC32();
+		try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))) ) {
+			DataOutputStream checkedOut = new DataOutputStream(new CheckedOutputStream(out, crc));
+			checkedOut.writeInt(MAGIC);
+			checkedOut.writeInt(SCHEMA_VERSION);
+			writeString(checkedOut, workspaceId);
+			checkedOut.writeLong((readTime == null) ? -1 : readTime.toInstant().toEpochMilli());
+			checkedOut.write(globalSections);
+			checkedOut.writeInt(issueSets.size());
+			for ( EncodedIssueSet encoded : issueSets.values() ) {
+				checkedOut.write(encoded.bytes);
+			}
+			checkedOut.flush();
+			// The checksum is not included in the checksum.
+			out.writeLong(crc.getValue());
+		}
+		try {
+			Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch ( AtomicMoveNotSupportedException e ) {
+			Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		this.writtenWorkspaceId = workspaceId;
+		this.writtenReadTime = readTime;
+		this.writtenGlobalSections = globalSections;
+		this.writtenIssueSets = issueSets;
+		Message.printStatus(2, routine, "Wrote snapshot file \"" + this.file + "\" with " + projects.size() + " projects, "
+			+ repositories.size() + " repositories, and " + issueCount + " issues (" + this.file.length() + " bytes, "
+			+ encodedCount + " of " + issueSets.size() + " issue sets changed).");
+		return true;
+	}
+
+	/**
+	 * Encode the projects and repositories sections.
+	 * @param projects the projects
+	 * @param repositories the repositories
+	 * @return the encoded sections
+	 * @throws IOException if the sections cannot be encoded
+	 */
+	private byte [] encodeGlobalSections ( List<Project> projects, List<Repository> repositories ) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		List<Object[]> records = new ArrayList<>(projects.size());
+		for ( Project project : projects ) {
+			records.add(new Object[] { project.getKey(), project.getName(), project.getType() });
+		}
+		writeSection(out, PROJECT_FIELDS, records);
+		records = new ArrayList<>(repositories.size());
+		for ( Repository repository : repositories ) {
+			records.add(new Object[] {
+				repository.getCreatedOn(), repository.getDescription(), repository.getForkPolicy(),
+				repository.getFullName(), repository.getHasIssues(), repository.getHasWiki(), repository.getIsPrivate(),
+				repository.getLanguage(), repository.getName(), repository.getScm(), repository.getSize(),
+				repository.getSlug(), repository.getType(), repository.getUpdatedOn(), repository.getUuid()
+			});
+		}
+		writeSection(out, REPOSITORY_FIELDS, records);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Encode an issue set, including the key and the time that all issues were read.
+	 * The issue set is locked while copied so that issues are not being merged.
+	 * @param key the issue set key
+	 * @param issueSet the issue set
+	 * @return the encoded issue set
+	 * @throws IOException if the issue set cannot be encoded
+	 */
+	private EncodedIssueSet encodeIssueSet ( String key, BitbucketIssueSync.IssueSet issueSet ) throws IOException {
+		List<Issue> issues;
+		OffsetDateTime fullReadTime;
+		long version;
+		issueSet.lock();
+		try {
+			issues = issueSet.getIssues();
+			fullReadTime = issueSet.getFullReadTime();
+			version = issueSet.getVersion();
+		}
+		finally {
+			issueSet.unlock();
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeString(out, key);
+		out.writeLong((fullReadTime == null) ? -1 : fullReadTime.toInstant().toEpochMilli());
+		List<Object[]> records = new ArrayList<>(issues.size());
+		for ( Issue issue : issues ) {
+			User assignee = issue.getAssignee();
+			User reporter = issue.getReporter();
+			IssueLinks links = issue.getIssueLinks();
+			records.add(new Object[] {
+				(assignee == null) ? null : assignee.getDisplayName(),
+				(assignee == null) ? null : assignee.getNickname(),
+				(issue.getContent() == null) ? null : issue.getContent().getRaw(),
+				issue.getCreatedOn(), issue.getEditedOn(), issue.getId(), issue.getKind(),
+				((links == null) || (links.getHtml() == null)) ? null : links.getHtml().getHref(),
+				issue.getName(), issue.getPriority(),
+				(reporter == null) ? null : reporter.getDisplayName(),
+				(reporter == null) ? null : reporter.getNickname(),
+				issue.getState(), issue.getTitle(), issue.getType(), issue.getUpdatedOn()
+			});
+		}
+		writeSection(out, ISSUE_FIELDS, records);
+		out.flush();
+		return new EncodedIssueSet(issueSet, version, fullReadTime, issues.size(), bytes.toByteArray());
+	}
+
+	/**
+	 * Write a section.
+	 * @param out the output stream
+	 * @param fields the field names
+	 * @param records the records, each with a value for each field
+	 * @throws IOException if the section cannot be written
+	 */
+	private void writeSection ( DataOutputStream out, String [] fields, List<Object[]> records ) throws IOException {
+		out.writeInt(fields.length);
+		for ( String field : fields ) {
+			writeString(out, field);
+		}
+		out.writeInt(records.size());
+		for ( Object [] record : records ) {
+			for ( Object value : record ) {
+				if ( value == null ) {
+					out.writeByte(TYPE_NULL);
+				}
+				else if ( value instanceof Boolean ) {
+					out.writeByte(TYPE_BOOLEAN);
+					out.writeByte(((Boolean)value) ? 1 : 0);
+				}
+				else if ( value instanceof Number ) {
+					out.writeByte(TYPE_INTEGER);
+					out.writeLong(((Number)value).longValue());
+				}
+				else {
+					out.writeByte(TYPE_STRING);
+					writeString(out, value.toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write a string.
+	 * @param out the output stream
+	 * @param s the string, can be null
+	 * @throws IOException if the string cannot be written
+	 */
+	private void writeString ( DataOutputStream out, String s ) throws IOException {
+		if ( s == null ) {
+			out.writeInt(-1);
+		}
+		else {
+			byte [] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Issue set as encoded for the previous write, used to avoid encoding issue sets that have not changed.
+	 */
+	private static class EncodedIssueSet {
+
+		/**
+		 * Issue set that was encoded.
+		 */
+		private final BitbucketIssueSync.IssueSet issueSet;
+
+		/**
+		 * Issue set version when encoded.
+		 */
+		private final long version;
+
+		/**
+		 * Time that all issues were read when encoded.
+		 */
+		private final OffsetDateTime fullReadTime;
+
+		/**
+		 * Number of issues.
+		 */
+		private final int issueCount;
+
+		/**
+		 * Encoded key, full read time, and issues section.
+		 */
+		private final byte [] bytes;
+
+		/**
+		 * Constructor.
+		 */
+		private EncodedIssueSet ( BitbucketIssueSync.IssueSet issueSet, long version, OffsetDateTime fullReadTime,
+			int issueCount, byte [] bytes ) {
+			this.issueSet = issueSet;
+			this.version = version;
+			this.fullReadTime = fullReadTime;
+			this.issueCount = issueCount;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Indicate whether the encoded data are current for an issue set.
+		 * @param issueSet the issue set to check
+		 * @return true if the issue set has not changed since encoded
+		 */
+		private boolean isFor ( BitbucketIssueSync.IssueSet issueSet ) {
+			issueSet.lock();
+			try {
+				return (issueSet == this.issueSet) && (issueSet.getVersion() == this.version)
+					&& Objects.equals(issueSet.getFullReadTime(), this.fullReadTime);
+			}
+			finally {
+				issueSet.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Contents of a snapshot file.
+	 */
+	public static class Contents {
+
+		/**
+		 * Workspace identifier.
+		 */
+		private final String workspaceId;
+
+		/**
+		 * Time that the data were read from the web services.
+		 */
+		private final OffsetDateTime readTime;
+
+		/**
+		 * Projects.
+		 */
+		private final List<Project> projects = new ArrayList<>();
+
+		/**
+		 * Repositories.
+		 */
+		private final List<Repository> repositories = new ArrayList<>();
+
+		/**
+		 * Issue sets.
+		 */
+		private final List<IssueSetContents> issueSets = new ArrayList<>();
+
+		/**
+		 * Constructor.
+		 * @param workspaceId the workspace identifier
+		 * @param readTime the time that the data were read from the web services
+		 */
+		private Contents ( String workspaceId, OffsetDateTime readTime ) {
+			this.workspaceId = workspaceId;
+			this.readTime = readTime;
+		}
+
+		/**
+		 * Return the issue sets.
+		 * @return the issue sets
+		 */
+		public List<IssueSetContents> getIssueSets () {
+			return this.issueSets;
+		}
+
+		/**
+		 * Return the projects.
+		 * @return the projects
+		 */
+		public List<Project> getProjects () {
+			return this.projects;
+		}
+
+		/**
+		 * Return the time that the data were read from the web services.
+		 * @return the time that the data were read from the web services
+		 */
+		public OffsetDateTime getReadTime () {
+			return this.readTime;
+		}
+
+		/**
+		 * Return the repositories.
+		 * @return the repositories
+		 */
+		public List<Repository> getRepositories () {
+			return this.repositories;
+		}
+
+		/**
+		 * Return the workspace identifier.
+		 * @return the workspace identifier
+		 */
+		public String getWorkspaceId () {
+			return this.workspaceId;
+		}
+	}
+
+	/**
+	 * Issues for one issue set in a snapshot file.
+	 */
+	public static class IssueSetContents {
+
+		/**
+		 * Issue set key.
+		 */
+		private final String key;
+
+		/**
+		 * Time that all issues were read.
+		 */
+		private final OffsetDateTime fullReadTime;
+
+		/**
+		 * Issues.
+		 */
+		private final List<Issue> issues;
+
+		/**
+		 * Constructor.
+		 * @param key the issue set key
+		 * @param fullReadTime the time that all issues were read
+		 * @param issues the issues
+		 */
+		private IssueSetContents ( String key, OffsetDateTime fullReadTime, List<Issue> issues ) {
+			this.key = key;
+			this.fullReadTime = fullReadTime;
+			this.issues = issues;
+		}
+
+		/**
+		 * Return the time that all issues were read.
+		 * @return the time that all issues were read
+		 */
+		public OffsetDateTime getFullReadTime () {
+			return this.fullReadTime;
+		}
+
+		/**
+		 * Return the issues.
+		 * @return the issues
+		 */
+		public List<Issue> getIssues () {
+			return this.issues;
+		}
+
+		/**
+		 * Return the issue set key.
+		 * @return the issue set key
+		 */
+		public String getKey () {
+			return this.key;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+// IssueQuery - query criteria for reading repository issues
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query criteria for reading repository issues, which are translated into a Bitbucket 'q' filter expression
+ * so that issues are filtered by the server.
+ * See:  https://developer.atlassian.com/cloud/bitbucket/rest/intro/#filtering
+ * <p>
+ * The server filter only needs to return a superset of the requested issues.
+ * Criteria that cannot be expressed with the Bitbucket query language are ignored here
+ * and must be handled by the calling code, which should always filter the returned issues.
+ */
+public class IssueQuery {
+
+	/**
+	 * Characters that are regular expression operators when a glob-style pattern is matched by the client,
+	 * which only escapes '.' and converts '*' to '.*'.
+	 */
+	private static final String REGEX_OPERATOR_CHARS = "\\^$|?+()[]{}";
+
+	/**
+	 * Assignee display name to match, or "NotAssigned" to match issues without an assignee.
+	 */
+	private String assignee = null;
+
+	/**
+	 * Whether to include open issues (state 'new' or 'open').
+	 */
+	private boolean includeOpenIssues = true;
+
+	/**
+	 * Whether to include closed issues (state other than 'new' or 'open').
+	 */
+	private boolean includeClosedIssues = true;
+
+	/**
+	 * Glob-style pattern to match the issue title, using * for wildcards.
+	 */
+	private String titlePattern = null;
+
+	/**
+	 * Constructor.
+	 */
+	public IssueQuery () {
+	}
+
+	/**
+	 * Indicate whether a glob-style pattern contains only literal characters and '*' wildcards,
+	 * and therefore can be translated into a server query.
+	 * @param pattern the pattern to check
+	 * @return true if the pattern is not empty, is not a Java regular expression,
+	 * and contains no regular expression operators other than '*'
+	 */
+	static boolean isLiteralGlob ( String pattern ) {
+		if ( (pattern == null) || pattern.isEmpty() || pattern.toUpperCase().startsWith("JAVA:") ) {
+			return false;
+		}
+		for ( int i = 0; i < pattern.length(); i++ ) {
+			if ( REGEX_OPERATOR_CHARS.indexOf(pattern.charAt(i)) >= 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Escape a string value for use in a query expression.
+	 * @param value the value to escape
+	 * @return the escaped value, surrounded by double quotes
+	 */
+	private String quote ( String value ) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/**
+	 * Set the assignee to match.
+	 * @param assignee the assignee display name, or "NotAssigned" to match issues without an assignee
+	 */
+	public void setAssignee ( String assignee ) {
+		this.assignee = assignee;
+	}
+
+	/**
+	 * Set the issue states to include.
+	 * @param includeOpenIssues whether to include open issues (state 'new' or 'open')
+	 * @param includeClosedIssues whether to include closed issues (state other than 'new' or 'open')
+	 */
+	public void setIssueStates ( boolean includeOpenIssues, boolean includeClosedIssues ) {
+		this.includeOpenIssues = includeOpenIssues;
+		this.includeClosedIssues = includeClosedIssues;
+	}
+
+	/**
+	 * Set the pattern to match the issue title.
+	 * @param titlePattern the glob-style pattern using * for wildcards,
+	 * or a Java regular expression if the pattern starts with "JAVA:" (not used in the server query)
+	 */
+	public void setTitlePattern ( String titlePattern ) {
+		this.titlePattern = titlePattern;
+	}
+
+	/**
+	 * Return the Bitbucket query expression for the criteria.
+	 * @return the query expression (not URL-encoded), or an empty string if no criteria can be used by the server
+	 */
+	public String toQueryString () {
+		List<String> terms = new ArrayList<>();
+
+		// State:
+		// - only filter if one of open or closed is requested
+		if ( this.includeOpenIssues && !this.includeClosedIssues ) {
+			terms.add("(state = \"new\" OR state = \"open\")");
+		}
+		else if ( !this.includeOpenIssues && this.includeClosedIssues ) {
+			terms.add("state != \"new\" AND state != \"open\"");
+		}
+
+		// Assignee:
+		// - the command matches the display name
+		if ( (this.assignee != null) && !this.assignee.isEmpty() ) {
+			if ( this.assignee.equals("NotAssigned") ) {
+				terms.add("assignee = null");
+			}
+			else {
+				terms.add("assignee.display_name = " + quote(this.assignee));
+			}
+		}
+
+		// Title:
+		// - the ~ operator is a case-insensitive 'contains' so use the longest literal part of the glob pattern
+		// - Java regular expressions cannot be translated
+		// - patterns that contain other regular expression operators (e.g., 'Bug|Fix*') are filtered only by the client
+		if ( isLiteralGlob(this.titlePattern) ) {
+			String longestPart = "";
+			for ( String part : this.titlePattern.split("\\*") ) {
+				if ( part.length() > longestPart.length() ) {
+					longestPart = part;
+				}
+			}
+			if ( !longestPart.isEmpty() ) {
+				terms.add("title ~ " + quote(longestPart));
+			}
+		}
+
+		return String.join(" AND ", terms);
+	}
+
+	/**
+	 * Return the query expression.
+	 * @return the query expression
+	 */
+	@Override
+	public String toString () {
+		return toQueryString();
+	}
+}
@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -33,7 +34,9 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import RTi.Util.IO.UrlReader;
 import RTi.Util.IO.UrlResponse;
@@ -48,17 +51,27 @@ public class JacksonToolkit {
 	/**
 	 * Global ObjectMapper as part of the Jackson library used
 	 * for serializing and deserializing JSON data to a POJO.
+	 * The mapper is thread-safe once configured and is shared so that Jackson's caches are only initialized once.
 	 */
-	private ObjectMapper mapper;
+	private final ObjectMapper mapper;
 
 	/**
-	 * Jackson Toolkit used for lazy initialization of a singleton class
+	 * ObjectReader for each class that has been read, which are immutable and thread-safe.
 	 */
-	private static JacksonToolkit instance;
+	private final ConcurrentHashMap<Class<?>,ObjectReader> readerMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Holder used for lazy, thread-safe initialization of the singleton instance.
+	 */
+	private static class InstanceHolder {
+		private static final JacksonToolkit INSTANCE = new JacksonToolkit();
+	}
 
 	private JacksonToolkit() {
 		this.mapper = new ObjectMapper()
 			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		// Handle Java date/time objects such as OffsetDateTime.
+		this.mapper.registerModule(new JavaTimeModule());
 	}
 
 	/**
@@ -66,10 +79,25 @@ public class JacksonToolkit {
 	 * @return instance of JacksonToolkit class
 	 */
 	public static JacksonToolkit getInstance() {
-		if ( instance == null ) {
-			instance = new JacksonToolkit();
-		}
-		return instance;
+		return InstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * Return the shared ObjectMapper.
+	 * The mapper should not be reconfigured after it is returned.
+	 * @return the shared ObjectMapper
+	 */
+	public ObjectMapper getObjectMapper () {
+		return this.mapper;
+	}
+
+	/**
+	 * Return the shared ObjectReader for a class, creating if not yet created.
+	 * @param objClass the class to read, such as IssuesResponse
+	 * @return the ObjectReader for the class
+	 */
+	public ObjectReader getObjectReader ( Class<?> objClass ) {
+		return this.readerMap.computeIfAbsent(objClass, c -> this.mapper.readerFor(c));
 	}
 
 	/**
@@ -266,9 +294,8 @@ public class JacksonToolkit {
 	 */
 	private void logJsonTree ( JsonNode node ) {
 		String routine = getClass().getSimpleName() + ".logJsonTree";
-		ObjectMapper objectMapper = new ObjectMapper();
 		try {
-			String jsonString = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString ( node );
+			String jsonString = this.mapper.writerWithDefaultPrettyPrinter().writeValueAsString ( node );
 			Message.printStatus ( 2, routine, jsonString );
 		}
 		catch ( JsonProcessingException e ) {
@@ -0,0 +1,43 @@
+package org.openwaterfoundation.tstool.plugin.bitbucket.dto;
+
+import java.util.List;
+
+/**
+ * Interface for Bitbucket service responses that return a page of results.
+ * Bitbucket returns paged results in an envelope that includes the list of values and the URL for the next page,
+ * and optionally the page number, page length, and total number of values.
+ * This interface allows the datastore to read any paged response using shared code.
+ * @param <T> the data object type for the values
+ */
+public interface PagedResponse<T> {
+
+	/**
+	 * Return the URL for the next request.
+	 * @return the URL for the next request, or null if no more pages are available.
+	 */
+	public String getNext ();
+
+	/**
+	 * Return the page number.
+	 * @return the page number (1+), or null if not returned.
+	 */
+	public Integer getPage ();
+
+	/**
+	 * Return the maximum number of values in a page.
+	 * @return the maximum number of values in a page, or null if not returned.
+	 */
+	public Integer getPagelen ();
+
+	/**
+	 * Return the total number of values for all pages.
+	 * @return the total number of values for all pages, or null if not returned.
+	 */
+	public Integer getSize ();
+
+	/**
+	 * Return the data objects for the page.
+	 * @return the data objects for the page
+	 */
+	public List<T> getValues ();
+}
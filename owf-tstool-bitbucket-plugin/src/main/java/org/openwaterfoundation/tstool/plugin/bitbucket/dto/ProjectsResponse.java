@@ -15,7 +15,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  * </pre>
  */
 @JsonIgnoreProperties(ignoreUnknown=true)
-public class ProjectsResponse {
+public class ProjectsResponse implements PagedResponse<Project> {
 
 	/**
 	 * List of Project data objects.
@@ -28,6 +28,21 @@ public class ProjectsResponse {
 	 */
 	private String next = null;
 
+	/**
+	 * Page number for the response (1+), may be null if not returned.
+	 */
+	private Integer page = null;
+
+	/**
+	 * Maximum number of values in a page, may be null if not returned.
+	 */
+	private Integer pagelen = null;
+
+	/**
+	 * Total number of values for all pages, may be null if not returned.
+	 */
+	private Integer size = null;
+
 	/**
 	 * Constructor needed by Jackson.
 	 */
@@ -42,6 +57,30 @@ public class ProjectsResponse {
 		return this.next;
 	}
 
+	/**
+	 * Return the page number.
+	 * @return the page number (1+), or null if not returned.
+	 */
+	public Integer getPage () {
+		return this.page;
+	}
+
+	/**
+	 * Return the maximum number of values in a page.
+	 * @return the maximum number of values in a page, or null if not returned.
+	 */
+	public Integer getPagelen () {
+		return this.pagelen;
+	}
+
+	/**
+	 * Return the total number of values for all pages.
+	 * @return the total number of values for all pages, or null if not returned.
+	 */
+	public Integer getSize () {
+		return this.size;
+	}
+
 	/**
 	 * Return the Project objects.
 	 * @return the Project objects
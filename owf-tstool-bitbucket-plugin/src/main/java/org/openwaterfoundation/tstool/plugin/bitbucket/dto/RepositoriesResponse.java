@@ -66,7 +66,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  * </pre>
  */
 @JsonIgnoreProperties(ignoreUnknown=true)
-public class RepositoriesResponse {
+public class RepositoriesResponse implements PagedResponse<Repository> {
 
 	/**
 	 * List of Repository data objects.
@@ -79,6 +79,21 @@ public class RepositoriesResponse {
 	 */
 	private String next = null;
 
+	/**
+	 * Page number for the response (1+), may be null if not returned.
+	 */
+	private Integer page = null;
+
+	/**
+	 * Maximum number of values in a page, may be null if not returned.
+	 */
+	private Integer pagelen = null;
+
+	/**
+	 * Total number of values for all pages, may be null if not returned.
+	 */
+	private Integer size = null;
+
 	/**
 	 * Constructor needed by Jackson.
 	 */
@@ -93,6 +108,30 @@ public class RepositoriesResponse {
 		return this.next;
 	}
 
+	/**
+	 * Return the page number.
+	 * @return the page number (1+), or null if not returned.
+	 */
+	public Integer getPage () {
+		return this.page;
+	}
+
+	/**
+	 * Return the maximum number of values in a page.
+	 * @return the maximum number of values in a page, or null if not returned.
+	 */
+	public Integer getPagelen () {
+		return this.pagelen;
+	}
+
+	/**
+	 * Return the total number of values for all pages.
+	 * @return the total number of values for all pages, or null if not returned.
+	 */
+	public Integer getSize () {
+		return this.size;
+	}
+
 	/**
 	 * Return the Repository objects.
 	 * @return the Repository objects
@@ -0,0 +1,67 @@
+// BitbucketCommandPhaseEvent - Java Flight Recorder event for a phase of running a Bitbucket command
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a phase of running a Bitbucket command,
+ * for example reading data, filtering, sorting, filling the output table, and writing the output file.
+ * Use BitbucketJfr to create the event so that the plugin works if the Java runtime does not include JFR.
+ */
+@Name("org.openwaterfoundation.tstool.bitbucket.CommandPhase")
+@Label("Bitbucket Command Phase")
+@Category({"OWF TSTool", "Bitbucket"})
+@Description("Phase of running a Bitbucket command.")
+@StackTrace(false)
+public class BitbucketCommandPhaseEvent extends Event {
+
+	/**
+	 * Bitbucket command (e.g., "ListRepositoryIssues").
+	 */
+	@Label("Bitbucket Command")
+	String bitbucketCommand;
+
+	/**
+	 * Phase (e.g., "Read").
+	 */
+	@Label("Phase")
+	String phase;
+
+	/**
+	 * Number of objects that were processed in the phase, or -1 if not applicable.
+	 */
+	@Label("Count")
+	int count;
+
+	/**
+	 * Constructor, package-private because BitbucketJfr is used to create the event.
+	 */
+	BitbucketCommandPhaseEvent () {
+	}
+}
@@ -0,0 +1,252 @@
+// BitbucketJfr - create Java Flight Recorder events if JFR is available
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.jfr;
+
+/**
+ * Create Java Flight Recorder (JFR) events for Bitbucket requests and commands.
+ * Events are only created if the Java runtime includes the jdk.jfr module
+ * and the event is enabled in a recording, so the overhead is a check of a flag when JFR is not recording.
+ * Other code should only use the event classes through this class,
+ * so that the event classes are not loaded if JFR is not available (e.g., a reduced Java runtime).
+ * The begin methods return null if the event is not recorded, and the end methods ignore null events.
+ */
+public final class BitbucketJfr {
+
+	/**
+	 * Command phase for reading data.
+	 */
+	public static final String PHASE_READ = "Read";
+
+	/**
+	 * Command phase for filtering data.
+	 */
+	public static final String PHASE_FILTER = "Filter";
+
+	/**
+	 * Command phase for sorting data.
+	 */
+	public static final String PHASE_SORT = "Sort";
+
+	/**
+	 * Command phase for filling the output table.
+	 */
+	public static final String PHASE_TABLE_FILL = "TableFill";
+
+	/**
+	 * Command phase for writing the output file.
+	 */
+	public static final String PHASE_FILE_WRITE = "FileWrite";
+
+	/**
+	 * Whether JFR is available in the Java runtime.
+	 */
+	private static final boolean AVAILABLE = checkAvailable();
+
+	/**
+	 * Private constructor since only static methods are used.
+	 */
+	private BitbucketJfr () {
+	}
+
+	/**
+	 * Start a command phase event.
+	 * @param bitbucketCommand the Bitbucket command (e.g., "ListRepositoryIssues")
+	 * @param phase the phase (e.g., PHASE_READ)
+	 * @return the event, or null if the event is not recorded
+	 */
+	public static BitbucketCommandPhaseEvent beginCommandPhase ( String bitbucketCommand, String phase ) {
+		if ( !AVAILABLE ) {
+			return null;
+		}
+		BitbucketCommandPhaseEvent event = new BitbucketCommandPhaseEvent();
+		if ( !event.isEnabled() ) {
+			return null;
+		}
+		event.bitbucketCommand = bitbucketCommand;
+		event.phase = phase;
+		event.count = -1;
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Start a JSON parse event.
+	 * @param endpoint the endpoint name
+	 * @param responseClass the class for the parsed response
+	 * @param source the response source, "Response" or "ResponseCache"
+	 * @return the event, or null if the event is not recorded
+	 */
+	public static BitbucketJsonParseEvent beginJsonParse ( String endpoint, Class<?> responseClass, String source ) {
+		if ( !AVAILABLE ) {
+			return null;
+		}
+		BitbucketJsonParseEvent event = new BitbucketJsonParseEvent();
+		if ( !event.isEnabled() ) {
+			return null;
+		}
+		event.endpoint = endpoint;
+		event.responseClass = responseClass.getSimpleName();
+		event.source = source;
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Start a page fetch event.
+	 * @param endpoint the endpoint name
+	 * @param urlString the URL for the request, which is converted to a template
+	 * @return the event, or null if the event is not recorded
+	 */
+	public static BitbucketPageFetchEvent beginPageFetch ( String endpoint, String urlString ) {
+		if ( !AVAILABLE ) {
+			return null;
+		}
+		BitbucketPageFetchEvent event = new BitbucketPageFetchEvent();
+		if ( !event.isEnabled() ) {
+			return null;
+		}
+		event.endpoint = endpoint;
+		event.urlTemplate = getUrlTemplate ( urlString );
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Determine whether JFR is available in the Java runtime.
+	 * @return true if JFR is available
+	 */
+	private static boolean checkAvailable () {
+		try {
+			Class.forName ( "jdk.jfr.Event" );
+			return true;
+		}
+		catch ( ClassNotFoundException | LinkageError e ) {
+			return false;
+		}
+	}
+
+	/**
+	 * End and commit a command phase event.
+	 * @param event the event from beginCommandPhase, can be null
+	 * @param count the number of objects processed in the phase, or -1 if not applicable
+	 */
+	public static void endCommandPhase ( BitbucketCommandPhaseEvent event, int count ) {
+		if ( event == null ) {
+			return;
+		}
+		event.end();
+		if ( event.shouldCommit() ) {
+			event.count = count;
+			event.commit();
+		}
+	}
+
+	/**
+	 * End and commit a JSON parse event.
+	 * @param event the event from beginJsonParse, can be null
+	 * @param bytes the number of bytes that were parsed
+	 */
+	public static void endJsonParse ( BitbucketJsonParseEvent event, long bytes ) {
+		if ( event == null ) {
+			return;
+		}
+		event.end();
+		if ( event.shouldCommit() ) {
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	/**
+	 * End and commit a page fetch event.
+	 * @param event the event from beginPageFetch, can be null
+	 * @param status the HTTP status code, or 0 if a response was not received
+	 * @param source the page source, "Response" or "NotModified", or null if the request failed
+	 * @param bytesReceived the number of bytes received
+	 * @param bytesDecoded the number of bytes after decompression
+	 */
+	public static void endPageFetch ( BitbucketPageFetchEvent event, int status, String source,
+		long bytesReceived, long bytesDecoded ) {
+		if ( event == null ) {
+			return;
+		}
+		event.end();
+		if ( event.shouldCommit() ) {
+			event.status = status;
+			event.source = source;
+			event.bytesReceived = bytesReceived;
+			event.bytesDecoded = bytesDecoded;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Convert a request URL into a template so that events for different workspaces, repositories,
+	 * and pages can be grouped:
+	 * - the query is removed
+	 * - the workspace and repository slug are replaced with {workspace} and {repo_slug}
+	 * @param urlString the request URL
+	 * @return the URL template
+	 */
+	public static String getUrlTemplate ( String urlString ) {
+		if ( urlString == null ) {
+			return null;
+		}
+		int pos = urlString.indexOf('?');
+		if ( pos >= 0 ) {
+			urlString = urlString.substring(0, pos);
+		}
+		String [] parts = urlString.split("/", -1);
+		StringBuilder b = new StringBuilder();
+		int replace = 0;
+		String [] placeholders = null;
+		for ( int i = 0; i < parts.length; i++ ) {
+			if ( i > 0 ) {
+				b.append('/');
+			}
+			if ( (replace > 0) && !parts[i].isEmpty() ) {
+				b.append(placeholders[placeholders.length - replace]);
+				--replace;
+				continue;
+			}
+			b.append(parts[i]);
+			if ( parts[i].equals("repositories") ) {
+				placeholders = new String[] { "{workspace}", "{repo_slug}" };
+				replace = 2;
+			}
+			else if ( parts[i].equals("workspaces") ) {
+				placeholders = new String[] { "{workspace}" };
+				replace = 1;
+			}
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Indicate whether JFR is available in the Java runtime.
+	 * @return true if JFR is available
+	 */
+	public static boolean isAvailable () {
+		return AVAILABLE;
+	}
+}
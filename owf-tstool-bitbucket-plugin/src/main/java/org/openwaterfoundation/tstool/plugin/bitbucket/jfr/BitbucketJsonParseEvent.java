@@ -0,0 +1,74 @@
+// BitbucketJsonParseEvent - Java Flight Recorder event for parsing a Bitbucket JSON response
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for parsing a Bitbucket JSON response into objects.
+ * Use BitbucketJfr to create the event so that the plugin works if the Java runtime does not include JFR.
+ */
+@Name("org.openwaterfoundation.tstool.bitbucket.JsonParse")
+@Label("Bitbucket JSON Parse")
+@Category({"OWF TSTool", "Bitbucket"})
+@Description("Parse a Bitbucket JSON response into objects.")
+@StackTrace(false)
+public class BitbucketJsonParseEvent extends Event {
+
+	/**
+	 * Endpoint name (e.g., "Issues").
+	 */
+	@Label("Endpoint")
+	String endpoint;
+
+	/**
+	 * Response class name (e.g., "IssuesResponse").
+	 */
+	@Label("Response Class")
+	String responseClass;
+
+	/**
+	 * Response source: "Response" for an HTTP response, "ResponseCache" for the persistent response cache.
+	 */
+	@Label("Source")
+	String source;
+
+	/**
+	 * Number of bytes parsed, after decompression.
+	 */
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	/**
+	 * Constructor, package-private because BitbucketJfr is used to create the event.
+	 */
+	BitbucketJsonParseEvent () {
+	}
+}
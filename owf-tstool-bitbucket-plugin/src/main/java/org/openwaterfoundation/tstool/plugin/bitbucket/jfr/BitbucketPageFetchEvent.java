@@ -0,0 +1,89 @@
+// BitbucketPageFetchEvent - Java Flight Recorder event for a Bitbucket page request
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a Bitbucket page request.
+ * The event duration is the time from sending the request until the response has been processed,
+ * including parsing the response.
+ * Use BitbucketJfr to create the event so that the plugin works if the Java runtime does not include JFR.
+ */
+@Name("org.openwaterfoundation.tstool.bitbucket.PageFetch")
+@Label("Bitbucket Page Fetch")
+@Category({"OWF TSTool", "Bitbucket"})
+@Description("HTTP request for a page of Bitbucket data.")
+@StackTrace(false)
+public class BitbucketPageFetchEvent extends Event {
+
+	/**
+	 * Endpoint name (e.g., "Issues").
+	 */
+	@Label("Endpoint")
+	String endpoint;
+
+	/**
+	 * URL without the query and with workspace and repository replaced by placeholders.
+	 */
+	@Label("URL Template")
+	String urlTemplate;
+
+	/**
+	 * HTTP status code, or 0 if a response was not received.
+	 */
+	@Label("Status")
+	int status;
+
+	/**
+	 * Page source: "Response" if the response was parsed, "NotModified" if a cached page was used.
+	 */
+	@Label("Source")
+	String source;
+
+	/**
+	 * Number of bytes received, which is compressed if the response was compressed.
+	 */
+	@Label("Bytes Received")
+	@DataAmount
+	long bytesReceived;
+
+	/**
+	 * Number of bytes after decompression.
+	 */
+	@Label("Bytes Decoded")
+	@DataAmount
+	long bytesDecoded;
+
+	/**
+	 * Constructor, package-private because BitbucketJfr is used to create the event.
+	 */
+	BitbucketPageFetchEvent () {
+	}
+}
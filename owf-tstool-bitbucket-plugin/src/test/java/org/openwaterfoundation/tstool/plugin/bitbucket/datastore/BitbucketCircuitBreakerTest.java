@@ -0,0 +1,86 @@
+// BitbucketCircuitBreakerTest - tests for BitbucketCircuitBreaker
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BitbucketCircuitBreaker.
+ */
+public class BitbucketCircuitBreakerTest {
+
+	/**
+	 * The circuit opens after the threshold of consecutive failures and stops requests.
+	 */
+	@Test
+	public void testClosedToOpen () {
+		BitbucketCircuitBreaker circuitBreaker = new BitbucketCircuitBreaker("localhost", 3, 3600);
+		circuitBreaker.checkAllowed();
+		circuitBreaker.recordFailure();
+		circuitBreaker.recordFailure();
+		// A success resets the count of consecutive failures.
+		circuitBreaker.recordSuccess();
+		circuitBreaker.recordFailure();
+		circuitBreaker.recordFailure();
+		assertEquals(BitbucketCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		circuitBreaker.recordFailure();
+		assertEquals(BitbucketCircuitBreaker.State.OPEN, circuitBreaker.getState());
+		assertEquals(1, circuitBreaker.getOpenCount());
+		assertThrows(BitbucketCircuitBreaker.OpenException.class, () -> circuitBreaker.checkAllowed());
+	}
+
+	/**
+	 * After the open time, one trial request is allowed and its result closes or opens the circuit.
+	 */
+	@Test
+	public void testHalfOpen () {
+		BitbucketCircuitBreaker circuitBreaker = new BitbucketCircuitBreaker("localhost", 1, 0);
+		circuitBreaker.recordFailure();
+		assertEquals(BitbucketCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+		// The open time has passed so allow one trial request.
+		circuitBreaker.checkAllowed();
+		assertEquals(BitbucketCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+		assertThrows(BitbucketCircuitBreaker.OpenException.class, () -> circuitBreaker.checkAllowed());
+
+		// A failed trial opens the circuit again.
+		circuitBreaker.recordFailure();
+		assertEquals(BitbucketCircuitBreaker.State.OPEN, circuitBreaker.getState());
+		assertEquals(2, circuitBreaker.getOpenCount());
+
+		// A cancelled trial allows another trial.
+		circuitBreaker.checkAllowed();
+		circuitBreaker.recordCancelled();
+		circuitBreaker.checkAllowed();
+		assertEquals(BitbucketCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+		// A successful trial closes the circuit.
+		circuitBreaker.recordSuccess();
+		assertEquals(BitbucketCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		circuitBreaker.checkAllowed();
+		circuitBreaker.checkAllowed();
+	}
+}
@@ -0,0 +1,111 @@
+// BitbucketConditionalCacheTest - tests for BitbucketConditionalCache
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BitbucketConditionalCache.
+ */
+public class BitbucketConditionalCacheTest {
+
+	/**
+	 * Pages are only cached if a conditional request can be made.
+	 */
+	@Test
+	public void testPutRequiresValidator () {
+		BitbucketConditionalCache cache = new BitbucketConditionalCache(100);
+		cache.put("a", null, null, new byte[10]);
+		assertNull(cache.get("a"));
+		cache.put("a", "\"etag\"", null, new byte[10]);
+		assertNotNull(cache.get("a"));
+		// Replacing without a validator removes the page.
+		cache.put("a", null, null, new byte[10]);
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.getTotalSize());
+	}
+
+	/**
+	 * The least recently used pages are removed when the maximum size is exceeded.
+	 */
+	@Test
+	public void testLeastRecentlyUsedEviction () {
+		BitbucketConditionalCache cache = new BitbucketConditionalCache(100);
+		cache.put("a", "a", null, new byte[40]);
+		cache.put("b", "b", null, new byte[40]);
+		// Use 'a' so that 'b' is the least recently used.
+		cache.get("a");
+		cache.put("c", "c", null, new byte[40]);
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(80, cache.getTotalSize());
+		// A page larger than the maximum is not cached.
+		cache.put("d", "d", null, new byte[101]);
+		assertNull(cache.get("d"));
+		assertEquals(2, cache.size());
+	}
+
+	/**
+	 * Incremental issue queries are not cached.
+	 */
+	@Test
+	public void testIsCacheable () {
+		assertTrue(BitbucketConditionalCache.isCacheable("https://api.bitbucket.org/2.0/repositories/ws/repo/issues?pagelen=100"));
+		assertTrue(BitbucketConditionalCache.isCacheable(
+			"https://api.bitbucket.org/2.0/repositories/ws/repo/issues?pagelen=100&fields=values.updated_on&q=state+%3D+%22open%22"));
+		assertFalse(BitbucketConditionalCache.isCacheable(
+			"https://api.bitbucket.org/2.0/repositories/ws/repo/issues?pagelen=100&q=updated_on+%3E+2024-01-01T00%3A00%3A00Z&page=2"));
+	}
+
+	/**
+	 * The captured response is the bytes that were read by the parser.
+	 */
+	@Test
+	public void testCapture () throws Exception {
+		BitbucketConditionalCache cache = new BitbucketConditionalCache(100);
+		byte [] data = "{\"values\":[]}".getBytes(StandardCharsets.UTF_8);
+		BitbucketConditionalCache.CaptureInputStream capture = cache.wrap(new ByteArrayInputStream(data));
+		try ( InputStream in = capture ) {
+			in.readAllBytes();
+		}
+		assertArrayEquals(data, capture.getData());
+		// Responses larger than the maximum are not captured.
+		capture = cache.wrap(new ByteArrayInputStream(new byte[101]));
+		try ( InputStream in = capture ) {
+			in.readAllBytes();
+		}
+		assertNull(capture.getData());
+	}
+}
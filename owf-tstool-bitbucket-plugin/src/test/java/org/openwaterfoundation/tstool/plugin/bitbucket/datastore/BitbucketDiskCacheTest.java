@@ -0,0 +1,188 @@
+// BitbucketDiskCacheTest - tests for BitbucketDiskCache
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for BitbucketDiskCache.
+ */
+public class BitbucketDiskCacheTest {
+
+	/**
+	 * Folder for the cache files.
+	 */
+	@TempDir
+	File cacheDir;
+
+	/**
+	 * Return the cache key for a repository.
+	 * @param cache the cache
+	 * @param repoSlug the repository slug
+	 * @return the cache key
+	 */
+	private String key ( BitbucketDiskCache cache, String repoSlug ) {
+		return cache.createKey("https://api.bitbucket.org/2.0/repositories/ws/" + repoSlug + "/issues", "ws");
+	}
+
+	/**
+	 * Save a response in the cache.
+	 * @param cache the cache
+	 * @param key the cache key
+	 * @param data the response
+	 */
+	private void save ( BitbucketDiskCache cache, String key, byte [] data ) throws IOException {
+		BitbucketDiskCache.PendingEntry entry = cache.begin(key, "https://api.bitbucket.org/2.0/repositories/ws");
+		try ( InputStream in = entry.wrap(new ByteArrayInputStream(data)) ) {
+			// Read the response as the parser does.
+			in.readAllBytes();
+		}
+		entry.commit("\"etag\"", null);
+	}
+
+	/**
+	 * A saved response is read with its headers.
+	 */
+	@Test
+	public void testSaveAndGet () throws IOException {
+		BitbucketDiskCache cache = new BitbucketDiskCache(this.cacheDir, 1000, new LinkedHashMap<>());
+		byte [] data = "{\"values\":[]}".getBytes("UTF-8");
+		save(cache, key(cache, "a"), data);
+		BitbucketDiskCache.CachedResponse response = cache.get(key(cache, "a"));
+		assertNotNull(response);
+		assertArrayEquals(data, response.getData());
+		assertEquals("\"etag\"", response.getETag());
+		assertEquals(data.length, cache.getTotalSize());
+		// A new cache indexes the existing files.
+		cache = new BitbucketDiskCache(this.cacheDir, 1000, new LinkedHashMap<>());
+		assertEquals(1, cache.getCount());
+		assertNotNull(cache.get(key(cache, "a")));
+	}
+
+	/**
+	 * A response that does not match the checksum is deleted.
+	 */
+	@Test
+	public void testChecksumMismatch () throws IOException {
+		BitbucketDiskCache cache = new BitbucketDiskCache(this.cacheDir, 1000, new LinkedHashMap<>());
+		save(cache, key(cache, "a"), "{\"values\":[]}".getBytes("UTF-8"));
+		Files.write(new File(this.cacheDir, key(cache, "a") + ".json").toPath(), "{\"values\":[1]}".getBytes("UTF-8"));
+		assertNull(cache.get(key(cache, "a")));
+		assertFalse(new File(this.cacheDir, key(cache, "a") + ".json").exists());
+		assertFalse(new File(this.cacheDir, key(cache, "a") + ".properties").exists());
+		assertEquals(0, cache.getTotalSize());
+	}
+
+	/**
+	 * Responses are fresh within the time to live for the endpoint.
+	 */
+	@Test
+	public void testTimeToLive () throws IOException {
+		Map<BitbucketEndpointType,Integer> ttlMap = new LinkedHashMap<>();
+		ttlMap.put(BitbucketEndpointType.ISSUES, 0);
+		ttlMap.put(BitbucketEndpointType.PROJECTS, 3600);
+		BitbucketDiskCache cache = new BitbucketDiskCache(this.cacheDir, 1000, ttlMap);
+		save(cache, key(cache, "a"), "{}".getBytes("UTF-8"));
+		BitbucketDiskCache.CachedResponse response = cache.get(key(cache, "a"));
+		assertFalse(cache.isFresh(response, BitbucketEndpointType.ISSUES));
+		assertTrue(cache.isFresh(response, BitbucketEndpointType.PROJECTS));
+		// The default is used if not specified.
+		assertEquals(BitbucketDiskCache.DEFAULT_TTL_SECONDS, cache.getTtlSeconds(BitbucketEndpointType.REPOSITORIES));
+	}
+
+	/**
+	 * The least recently used responses are deleted when the maximum size is exceeded.
+	 */
+	@Test
+	public void testLeastRecentlyUsedEviction () throws Exception {
+		BitbucketDiskCache cache = new BitbucketDiskCache(this.cacheDir, 100, new LinkedHashMap<>());
+		save(cache, key(cache, "a"), new byte[40]);
+		Thread.sleep(10);
+		save(cache, key(cache, "b"), new byte[40]);
+		Thread.sleep(10);
+		// Use 'a' so that 'b' is the least recently used.
+		assertNotNull(cache.get(key(cache, "a")));
+		Thread.sleep(10);
+		save(cache, key(cache, "c"), new byte[40]);
+		assertNotNull(cache.get(key(cache, "a")));
+		assertNull(cache.get(key(cache, "b")));
+		assertNotNull(cache.get(key(cache, "c")));
+		assertEquals(80, cache.getTotalSize());
+	}
+
+	/**
+	 * The total size matches the saved responses when responses are saved concurrently.
+	 */
+	@Test
+	public void testConcurrentSave () throws Exception {
+		BitbucketDiskCache cache = new BitbucketDiskCache(this.cacheDir, 500, new LinkedHashMap<>());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for ( int i = 0; i < 200; i++ ) {
+				String cacheKey = key(cache, "repo" + (i % 20));
+				int size = 10 + (i % 7)*10;
+				futures.add(executor.submit( () -> {
+					save(cache, cacheKey, new byte[size]);
+					return null;
+				}));
+			}
+			for ( Future<?> future : futures ) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		long total = 0;
+		for ( int i = 0; i < 20; i++ ) {
+			File dataFile = new File(this.cacheDir, key(cache, "repo" + i) + ".json");
+			if ( dataFile.exists() ) {
+				total += dataFile.length();
+			}
+		}
+		assertEquals(total, cache.getTotalSize());
+		assertTrue(cache.getTotalSize() <= 500);
+	}
+}
@@ -0,0 +1,182 @@
+// BitbucketHttpResponseTest - tests for BitbucketHttpResponse
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BitbucketHttpResponse.
+ */
+public class BitbucketHttpResponseTest {
+
+	/**
+	 * Received stream that cannot be read after it is closed, like a connection stream.
+	 */
+	private static class ConnectionInputStream extends ByteArrayInputStream {
+
+		/**
+		 * Whether the stream has been closed.
+		 */
+		private boolean closed = false;
+
+		/**
+		 * Constructor.
+		 * @param data the bytes to return
+		 */
+		public ConnectionInputStream ( byte [] data ) {
+			super(data);
+		}
+
+		@Override
+		public void close () {
+			this.closed = true;
+		}
+
+		/**
+		 * Indicate whether the stream has been closed.
+		 * @return true if the stream has been closed
+		 */
+		public boolean isClosed () {
+			return this.closed;
+		}
+
+		@Override
+		public synchronized int read () {
+			if ( this.closed ) {
+				throw new IllegalStateException("Stream is closed.");
+			}
+			return super.read();
+		}
+
+		@Override
+		public synchronized int read ( byte[] b, int off, int len ) {
+			if ( this.closed ) {
+				throw new IllegalStateException("Stream is closed.");
+			}
+			return super.read(b, off, len);
+		}
+	}
+
+	/**
+	 * Compress bytes using gzip.
+	 * @param data the bytes to compress
+	 * @return the compressed bytes
+	 */
+	private byte [] gzip ( byte [] data ) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try ( GZIPOutputStream gzipOut = new GZIPOutputStream(out) ) {
+			gzipOut.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Create random bytes, which do not compress.
+	 * @param size the number of bytes
+	 * @return the bytes
+	 */
+	private byte [] randomBytes ( int size ) {
+		byte [] data = new byte[size];
+		new Random(1).nextBytes(data);
+		return data;
+	}
+
+	/**
+	 * A compressed response that is partially read is read to the end when closed.
+	 */
+	@Test
+	public void testCloseDrainsPartiallyReadResponse () throws IOException {
+		Map<String,List<String>> headers = Collections.singletonMap("content-encoding", Arrays.asList("gzip"));
+		ConnectionInputStream received = new ConnectionInputStream(gzip(randomBytes(20000)));
+		BitbucketHttpResponse response = new BitbucketHttpResponse(200, received, headers);
+		InputStream in = response.getResponseStream();
+		in.read(new byte[100]);
+		assertTrue(received.available() > 0);
+		response.close();
+		assertEquals(0, received.available());
+		assertTrue(received.isClosed());
+	}
+
+	/**
+	 * Closing the response body stream, as the JSON parser does, drains the response before closing the connection.
+	 */
+	@Test
+	public void testCloseBodyDrainsResponse () throws IOException {
+		Map<String,List<String>> headers = Collections.singletonMap("content-encoding", Arrays.asList("gzip"));
+		ConnectionInputStream received = new ConnectionInputStream(gzip(randomBytes(20000)));
+		BitbucketHttpResponse response = new BitbucketHttpResponse(200, received, headers);
+		try ( InputStream in = response.getResponseStream() ) {
+			in.read(new byte[100]);
+		}
+		assertEquals(0, received.available());
+		assertTrue(received.isClosed());
+		// Closing the response again does nothing.
+		response.close();
+	}
+
+	/**
+	 * Closing a stream that saves the response only reads MAX_DRAIN_BYTES of the unread response.
+	 */
+	@Test
+	public void testCloseWrappedBodyDrainLimit () throws IOException {
+		int size = BitbucketHttpResponse.MAX_DRAIN_BYTES + 10000;
+		ConnectionInputStream received = new ConnectionInputStream(randomBytes(size));
+		BitbucketHttpResponse response = new BitbucketHttpResponse(200, received, null);
+		BitbucketConditionalCache.CaptureInputStream capture = new BitbucketConditionalCache(size*2).wrap(response.getResponseStream());
+		try ( InputStream in = capture ) {
+			assertEquals(100, in.read(new byte[100]));
+		}
+		assertEquals(9900, received.available());
+		assertTrue(received.isClosed());
+		assertFalse(capture.getData() == null);
+		assertEquals(100, capture.getData().length);
+	}
+
+	/**
+	 * Only MAX_DRAIN_BYTES are read when closing a response that has a large unread body.
+	 */
+	@Test
+	public void testCloseDrainLimit () throws IOException {
+		int size = BitbucketHttpResponse.MAX_DRAIN_BYTES + 10000;
+		ConnectionInputStream received = new ConnectionInputStream(randomBytes(size));
+		BitbucketHttpResponse response = new BitbucketHttpResponse(500, received, null);
+		response.close();
+		assertEquals(10000, received.available());
+		assertEquals(BitbucketHttpResponse.MAX_DRAIN_BYTES, response.getReceivedLength());
+	}
+}
@@ -0,0 +1,123 @@
+// BitbucketIssueSyncTest - tests for BitbucketIssueSync
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+
+/**
+ * Tests for BitbucketIssueSync.
+ */
+public class BitbucketIssueSyncTest {
+
+	/**
+	 * Create an issue.
+	 * @param id the issue identifier
+	 * @param title the issue title
+	 * @param updatedOn the 'updated_on' value
+	 * @return the issue
+	 */
+	private Issue createIssue ( int id, String title, String updatedOn ) throws Exception {
+		String json = "{\"id\":" + id + ",\"title\":\"" + title + "\",\"updated_on\":\"" + updatedOn + "\"}";
+		return JacksonToolkit.getInstance().getObjectReader(Issue.class).readValue(json);
+	}
+
+	/**
+	 * All issues are read until the first full read.
+	 */
+	@Test
+	public void testNeedsFullRead () throws Exception {
+		BitbucketIssueSync issueSync = new BitbucketIssueSync(3600);
+		BitbucketIssueSync.IssueSet issueSet = issueSync.getIssueSet(BitbucketIssueSync.createKey("ws", "repo", ""));
+		assertTrue(issueSet.needsFullRead());
+		issueSet.setAll(Arrays.asList(createIssue(1, "a", "2024-05-01T12:00:00.000000+00:00")));
+		assertFalse(issueSet.needsFullRead());
+		// The same issue set is returned for the same key.
+		assertEquals(1, issueSync.getIssueSet(BitbucketIssueSync.createKey("ws", "repo", "")).size());
+		assertEquals(1, issueSync.size());
+	}
+
+	/**
+	 * Changed issues replace issues with the same identifier and the watermark is the latest 'updated_on'.
+	 */
+	@Test
+	public void testMerge () throws Exception {
+		BitbucketIssueSync.IssueSet issueSet = new BitbucketIssueSync(3600).getIssueSet("ws/repo");
+		issueSet.setAll(Arrays.asList(
+			createIssue(1, "a", "2024-05-01T12:00:00.000000+00:00"),
+			createIssue(2, "b", "2024-05-03T12:00:00.000000+00:00"),
+			createIssue(3, "c", "2024-05-02T12:00:00.000000+00:00")));
+		assertEquals("2024-05-03T12:00:00Z", issueSet.getWatermarkString());
+		issueSet.merge(Arrays.asList(
+			createIssue(1, "a2", "2024-05-04T08:30:00.000000+00:00"),
+			createIssue(4, "d", "2024-05-04T08:00:00.000000+00:00")));
+		List<Issue> issues = issueSet.getIssues();
+		assertEquals(4, issues.size());
+		assertEquals("a2", issues.get(0).getTitle());
+		assertEquals(4, issues.get(3).getId());
+		assertEquals("2024-05-04T08:30:00Z", issueSet.getWatermarkString());
+		// An older change does not move the watermark back.
+		issueSet.merge(Arrays.asList(createIssue(2, "b2", "2024-05-03T13:00:00.000000+00:00")));
+		assertEquals("2024-05-04T08:30:00Z", issueSet.getWatermarkString());
+	}
+
+	/**
+	 * A full read removes issues that were deleted.
+	 */
+	@Test
+	public void testSetAllRemovesDeletedIssues () throws Exception {
+		BitbucketIssueSync.IssueSet issueSet = new BitbucketIssueSync(3600).getIssueSet("ws/repo");
+		issueSet.setAll(Arrays.asList(
+			createIssue(1, "a", "2024-05-01T12:00:00.000000+00:00"),
+			createIssue(2, "b", "2024-05-02T12:00:00.000000+00:00")));
+		issueSet.setAll(Arrays.asList(createIssue(1, "a", "2024-05-01T12:00:00.000000+00:00")));
+		assertEquals(1, issueSet.size());
+		assertEquals("2024-05-01T12:00:00Z", issueSet.getWatermarkString());
+	}
+
+	/**
+	 * Restored issues are read again after the maximum age since the original full read.
+	 */
+	@Test
+	public void testRestoreMaxAge () throws Exception {
+		BitbucketIssueSync issueSync = new BitbucketIssueSync(3600);
+		BitbucketIssueSync.IssueSet issueSet = issueSync.getIssueSet("ws/repo");
+		List<Issue> issues = Arrays.asList(createIssue(1, "a", "2024-05-01T12:00:00.000000+00:00"));
+		issueSet.restore(issues, OffsetDateTime.now().minusMinutes(30));
+		assertFalse(issueSet.needsFullRead());
+		issueSet.restore(issues, OffsetDateTime.now().minusHours(2));
+		assertTrue(issueSet.needsFullRead());
+		// Issues without 'updated_on' do not have a watermark so all issues must be read.
+		issueSet.restore(Arrays.asList(createIssue(1, "a", "")), OffsetDateTime.now());
+		assertTrue(issueSet.needsFullRead());
+	}
+}
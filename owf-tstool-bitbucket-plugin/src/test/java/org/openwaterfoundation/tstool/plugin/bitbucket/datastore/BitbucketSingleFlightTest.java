@@ -0,0 +1,99 @@
+// BitbucketSingleFlightTest - tests for BitbucketSingleFlight
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BitbucketSingleFlight.
+ */
+public class BitbucketSingleFlightTest {
+
+	/**
+	 * A caller that calls while the request is in progress shares the result.
+	 */
+	@Test
+	public void testShared () throws Exception {
+		BitbucketSingleFlight<String,String> singleFlight = new BitbucketSingleFlight<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> owner = executor.submit(() -> singleFlight.execute("key", () -> {
+				started.countDown();
+				release.await();
+				return "owner";
+			}));
+			started.await();
+			Future<String> waiter = executor.submit(() -> singleFlight.execute("key", () -> "waiter"));
+			// Wait for the second caller to wait for the result.
+			Thread.sleep(200);
+			release.countDown();
+			assertEquals("owner", owner.get(5, TimeUnit.SECONDS));
+			assertEquals("owner", waiter.get(5, TimeUnit.SECONDS));
+			assertEquals(1, singleFlight.getSharedCount());
+			assertEquals(0, singleFlight.size());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * If the caller that runs the request is interrupted, a waiting caller runs the request rather than failing.
+	 */
+	@Test
+	public void testOwnerInterrupted () throws Exception {
+		BitbucketSingleFlight<String,String> singleFlight = new BitbucketSingleFlight<>();
+		CountDownLatch started = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> owner = executor.submit(() -> singleFlight.execute("key", () -> {
+				started.countDown();
+				Thread.sleep(60000);
+				return "owner";
+			}));
+			started.await();
+			Future<String> waiter = executor.submit(() -> singleFlight.execute("key", () -> "waiter"));
+			// Wait for the second caller to wait for the result.
+			Thread.sleep(200);
+			// Interrupt the caller that is running the request, for example when its command is canceled.
+			owner.cancel(true);
+			assertEquals("waiter", waiter.get(5, TimeUnit.SECONDS));
+			assertTrue(owner.isCancelled());
+			assertEquals(0, singleFlight.size());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,167 @@
+// BitbucketSnapshotTest - tests for BitbucketSnapshot
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Issue;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Project;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dao.Repository;
+import org.openwaterfoundation.tstool.plugin.bitbucket.dto.JacksonToolkit;
+
+/**
+ * Tests for BitbucketSnapshot.
+ */
+public class BitbucketSnapshotTest {
+
+	/**
+	 * Folder for snapshot files.
+	 */
+	@TempDir
+	File tempFolder;
+
+	/**
+	 * Time that the global data were read.
+	 */
+	private final OffsetDateTime readTime = OffsetDateTime.of(2024, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+	/**
+	 * Create an object from JSON.
+	 * @param json the JSON
+	 * @param objectClass the class of the object
+	 * @return the object
+	 */
+	private <T> T create ( String json, Class<T> objectClass ) throws Exception {
+		return JacksonToolkit.getInstance().getObjectReader(objectClass).readValue(json);
+	}
+
+	/**
+	 * Create projects for testing.
+	 * @return the projects
+	 */
+	private List<Project> createProjects () throws Exception {
+		return Arrays.asList(create("{\"key\":\"P1\",\"name\":\"Project 1\",\"type\":\"project\"}", Project.class));
+	}
+
+	/**
+	 * Create repositories for testing.
+	 * @return the repositories
+	 */
+	private List<Repository> createRepositories () throws Exception {
+		return Arrays.asList(create("{\"slug\":\"repo\",\"name\":\"Repo\",\"is_private\":true,\"size\":1234,"
+			+ "\"updated_on\":\"2024-05-01T10:00:00.000000+00:00\"}", Repository.class));
+	}
+
+	/**
+	 * Create an issue sync with one issue set for testing.
+	 * @return the issue sync
+	 */
+	private BitbucketIssueSync createIssueSync () throws Exception {
+		BitbucketIssueSync issueSync = new BitbucketIssueSync(3600);
+		issueSync.getIssueSet("ws/repo").setAll(Arrays.asList(
+			create("{\"id\":1,\"title\":\"First\",\"state\":\"new\",\"assignee\":{\"display_name\":\"A User\"},"
+				+ "\"content\":{\"raw\":\"Text\"},\"links\":{\"html\":{\"href\":\"https://example.com/1\"}},"
+				+ "\"updated_on\":\"2024-05-01T11:00:00.000000+00:00\"}", Issue.class),
+			create("{\"id\":2,\"title\":\"Second\",\"state\":\"resolved\"}", Issue.class)));
+		return issueSync;
+	}
+
+	/**
+	 * Values are the same after writing and reading, including nested and missing values.
+	 */
+	@Test
+	public void testWriteRead () throws Exception {
+		BitbucketSnapshot snapshot = new BitbucketSnapshot(new File(this.tempFolder, "snapshot.bin"));
+		assertTrue(snapshot.write("ws", this.readTime, createProjects(), createRepositories(), createIssueSync()));
+		BitbucketSnapshot.Contents contents = new BitbucketSnapshot(snapshot.getFile()).read("ws");
+		assertEquals(this.readTime.toInstant(), contents.getReadTime().toInstant());
+		assertEquals("Project 1", contents.getProjects().get(0).getName());
+		Repository repository = contents.getRepositories().get(0);
+		assertEquals("repo", repository.getSlug());
+		assertEquals(Boolean.TRUE, repository.getIsPrivate());
+		assertEquals(Integer.valueOf(1234), repository.getSize());
+		// Values that were not set have the same default as when read from the web services.
+		assertEquals("", repository.getDescription());
+		assertEquals(1, contents.getIssueSets().size());
+		BitbucketSnapshot.IssueSetContents issueSet = contents.getIssueSets().get(0);
+		assertEquals("ws/repo", issueSet.getKey());
+		List<Issue> issues = issueSet.getIssues();
+		assertEquals(2, issues.size());
+		assertEquals("A User", issues.get(0).getAssignee().getDisplayName());
+		assertEquals("Text", issues.get(0).getContent().getRaw());
+		assertEquals("https://example.com/1", issues.get(0).getIssueLinks().getHtml().getHref());
+		assertEquals("resolved", issues.get(1).getState());
+		// Nested objects without values are not created.
+		assertNull(issues.get(1).getAssignee());
+		assertNull(issues.get(1).getIssueLinks());
+	}
+
+	/**
+	 * The file is not written if nothing changed, and is written when issues change.
+	 */
+	@Test
+	public void testWriteUnchanged () throws Exception {
+		BitbucketSnapshot snapshot = new BitbucketSnapshot(new File(this.tempFolder, "snapshot.bin"));
+		List<Project> projects = createProjects();
+		List<Repository> repositories = createRepositories();
+		BitbucketIssueSync issueSync = createIssueSync();
+		assertTrue(snapshot.write("ws", this.readTime, projects, repositories, issueSync));
+		assertFalse(snapshot.write("ws", this.readTime, projects, repositories, issueSync));
+		issueSync.getIssueSet("ws/repo").merge(Arrays.asList(create("{\"id\":3,\"title\":\"Third\"}", Issue.class)));
+		assertTrue(snapshot.write("ws", this.readTime, projects, repositories, issueSync));
+		assertEquals(3, snapshot.read("ws").getIssueSets().get(0).getIssues().size());
+		// Merging no changes does not change the issues.
+		issueSync.getIssueSet("ws/repo").merge(new ArrayList<>());
+		assertFalse(snapshot.write("ws", this.readTime, projects, repositories, issueSync));
+	}
+
+	/**
+	 * A file for a different workspace or with a checksum that does not match is ignored.
+	 */
+	@Test
+	public void testReadInvalid () throws Exception {
+		BitbucketSnapshot snapshot = new BitbucketSnapshot(new File(this.tempFolder, "snapshot.bin"));
+		snapshot.write("ws", this.readTime, createProjects(), createRepositories(), createIssueSync());
+		assertNull(snapshot.read("other"));
+		try ( RandomAccessFile file = new RandomAccessFile(snapshot.getFile(), "rw") ) {
+			file.seek(20);
+			int b = file.read();
+			file.seek(20);
+			file.write(b ^ 0xff);
+		}
+		assertNull(snapshot.read("ws"));
+	}
+}
@@ -0,0 +1,84 @@
+// IssueQueryTest - tests for IssueQuery
+
+/* NoticeStart
+
+OWF TSTool Bitbucket Plugin
+Copyright (C) 2024-2026 Open Water Foundation
+
+OWF TSTool Bitbucket Plugin is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+OWF TSTool Bitbucket Plugin is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with OWF TSTool Bitbucket Plugin.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package org.openwaterfoundation.tstool.plugin.bitbucket.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for IssueQuery.
+ */
+public class IssueQueryTest {
+
+	/**
+	 * Create a query that only uses a title pattern.
+	 * @param titlePattern the title pattern
+	 * @return the query string
+	 */
+	private String toQueryString ( String titlePattern ) {
+		IssueQuery query = new IssueQuery();
+		query.setTitlePattern(titlePattern);
+		return query.toQueryString();
+	}
+
+	/**
+	 * Literal patterns and '*' wildcards are translated to a 'contains' term using the longest literal part.
+	 */
+	@Test
+	public void testLiteralTitlePattern () {
+		assertEquals("title ~ \"Fix\"", toQueryString("Fix*"));
+		assertEquals("title ~ \"release\"", toQueryString("*release*"));
+		assertEquals("title ~ \"version 1.2\"", toQueryString("version 1.2"));
+		assertEquals("title ~ \"say \\\"hi\\\"\"", toQueryString("*say \"hi\""));
+		assertEquals("", toQueryString("*"));
+	}
+
+	/**
+	 * Patterns with regular expression operators are filtered only by the client.
+	 */
+	@Test
+	public void testRegExTitlePattern () {
+		String [] patterns = { "Bug|Fix*", "Fix?", "a+b", "(x)", "[x]", "^x", "x$", "x{2}", "a\\b", "JAVA:.*Fix.*" };
+		for ( String pattern : patterns ) {
+			assertEquals("", toQueryString(pattern), "Pattern: " + pattern);
+			assertFalse(IssueQuery.isLiteralGlob(pattern), "Pattern: " + pattern);
+		}
+		assertTrue(IssueQuery.isLiteralGlob("Fix*"));
+	}
+
+	/**
+	 * The title term is combined with other terms.
+	 */
+	@Test
+	public void testCombinedTerms () {
+		IssueQuery query = new IssueQuery();
+		query.setIssueStates(true, false);
+		query.setTitlePattern("Bug|Fix*");
+		assertEquals("(state = \"new\" OR state = \"open\")", query.toQueryString());
+		query.setTitlePattern("*Fix*");
+		assertEquals("(state = \"new\" OR state = \"open\") AND title ~ \"Fix\"", query.toQueryString());
+	}
+}